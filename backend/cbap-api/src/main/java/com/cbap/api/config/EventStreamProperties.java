@@ -0,0 +1,78 @@
+package com.cbap.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Change event stream (server-sent events) configuration properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "cbap.events")
+public class EventStreamProperties {
+
+    /**
+     * Seconds without events after which a heartbeat comment is sent.
+     */
+    private long heartbeatSeconds = 25;
+
+    /**
+     * Minutes after which a stream is closed; clients reconnect.
+     */
+    private long streamTimeoutMinutes = 30;
+
+    /**
+     * Events buffered per connection; when a slow client falls this far behind, its
+     * buffered events are dropped and it is told to resync.
+     */
+    private int connectionQueueCapacity = 256;
+
+    /**
+     * Maximum number of open streams per user.
+     */
+    private int maxConnectionsPerUser = 8;
+
+    /**
+     * Maximum number of records one stream can subscribe to.
+     */
+    private int maxRecordSubscriptions = 500;
+
+    public long getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    public void setHeartbeatSeconds(long heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    public long getStreamTimeoutMinutes() {
+        return streamTimeoutMinutes;
+    }
+
+    public void setStreamTimeoutMinutes(long streamTimeoutMinutes) {
+        this.streamTimeoutMinutes = streamTimeoutMinutes;
+    }
+
+    public int getConnectionQueueCapacity() {
+        return connectionQueueCapacity;
+    }
+
+    public void setConnectionQueueCapacity(int connectionQueueCapacity) {
+        this.connectionQueueCapacity = connectionQueueCapacity;
+    }
+
+    public int getMaxConnectionsPerUser() {
+        return maxConnectionsPerUser;
+    }
+
+    public void setMaxConnectionsPerUser(int maxConnectionsPerUser) {
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+    }
+
+    public int getMaxRecordSubscriptions() {
+        return maxRecordSubscriptions;
+    }
+
+    public void setMaxRecordSubscriptions(int maxRecordSubscriptions) {
+        this.maxRecordSubscriptions = maxRecordSubscriptions;
+    }
+}
@@ -0,0 +1,67 @@
+package com.cbap.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits enforced when CEL-v0 expressions are saved (validation rules, measures).
+ */
+@Component
+@ConfigurationProperties(prefix = "cbap.expressions")
+public class ExpressionLimitsProperties {
+
+    private int maxLength = 2000;
+    private int maxDepth = 8;
+    private int maxNodes = 64;
+    private int maxArrayIterations = 4;
+    private int maxLookups = 4;
+    private int maxCost = 200;
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public void setMaxNodes(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    public int getMaxArrayIterations() {
+        return maxArrayIterations;
+    }
+
+    public void setMaxArrayIterations(int maxArrayIterations) {
+        this.maxArrayIterations = maxArrayIterations;
+    }
+
+    public int getMaxLookups() {
+        return maxLookups;
+    }
+
+    public void setMaxLookups(int maxLookups) {
+        this.maxLookups = maxLookups;
+    }
+
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(int maxCost) {
+        this.maxCost = maxCost;
+    }
+}
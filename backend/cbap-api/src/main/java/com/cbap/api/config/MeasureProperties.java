@@ -0,0 +1,90 @@
+package com.cbap.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measure evaluation configuration properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "cbap.measures")
+public class MeasureProperties {
+
+    /**
+     * Whether measure results are cached across requests.
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * Maximum number of cached measure results.
+     */
+    private int cacheMaxEntries = 10000;
+
+    /**
+     * Time a cached result stays valid if none of its dependencies change.
+     */
+    private long cacheTtlSeconds = 300;
+
+    /**
+     * Maximum number of evaluations in one batch request.
+     */
+    private int batchMaxRequests = 200;
+
+    /**
+     * Maximum number of measures of one batch request evaluated at the same time.
+     */
+    private int batchConcurrency = 8;
+
+    /**
+     * Records read and evaluated per page when a measure is aggregated over an entity's records.
+     */
+    private int recordPageSize = 5000;
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public int getBatchMaxRequests() {
+        return batchMaxRequests;
+    }
+
+    public void setBatchMaxRequests(int batchMaxRequests) {
+        this.batchMaxRequests = batchMaxRequests;
+    }
+
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+
+    public void setBatchConcurrency(int batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    public int getRecordPageSize() {
+        return recordPageSize;
+    }
+
+    public void setRecordPageSize(int recordPageSize) {
+        this.recordPageSize = recordPageSize;
+    }
+}
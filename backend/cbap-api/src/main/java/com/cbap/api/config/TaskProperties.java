@@ -0,0 +1,177 @@
+package com.cbap.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Task management configuration properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "cbap.tasks")
+public class TaskProperties {
+
+    /**
+     * Seconds a user's task counts are served from memory before being re-read.
+     */
+    private long countCacheTtlSeconds = 5;
+
+    /**
+     * Maximum number of users whose task counts are cached.
+     */
+    private int countCacheMaxEntries = 10000;
+
+    /**
+     * Whether overdue tasks are escalated.
+     */
+    private boolean escalationEnabled = true;
+
+    /**
+     * Tasks escalated per transaction.
+     */
+    private int escalationBatchSize = 200;
+
+    /**
+     * Maximum batches per escalation step and run; the rest waits for the next run.
+     */
+    private int escalationMaxBatches = 50;
+
+    /**
+     * Maximum number of tasks in one bulk task operation.
+     */
+    private int bulkMaxTasks = 5000;
+
+    /**
+     * Tasks updated per transaction in a bulk task operation.
+     */
+    private int bulkChunkSize = 500;
+
+    /**
+     * Escalation steps, applied in order; step n applies to tasks that went through
+     * step n - 1 once they are overdue by the step's delay.
+     */
+    private List<EscalationStep> escalationSteps = new ArrayList<>(List.of(new EscalationStep()));
+
+    public long getCountCacheTtlSeconds() {
+        return countCacheTtlSeconds;
+    }
+
+    public void setCountCacheTtlSeconds(long countCacheTtlSeconds) {
+        this.countCacheTtlSeconds = countCacheTtlSeconds;
+    }
+
+    public int getCountCacheMaxEntries() {
+        return countCacheMaxEntries;
+    }
+
+    public void setCountCacheMaxEntries(int countCacheMaxEntries) {
+        this.countCacheMaxEntries = countCacheMaxEntries;
+    }
+
+    public boolean isEscalationEnabled() {
+        return escalationEnabled;
+    }
+
+    public void setEscalationEnabled(boolean escalationEnabled) {
+        this.escalationEnabled = escalationEnabled;
+    }
+
+    public int getEscalationBatchSize() {
+        return escalationBatchSize;
+    }
+
+    public void setEscalationBatchSize(int escalationBatchSize) {
+        this.escalationBatchSize = escalationBatchSize;
+    }
+
+    public int getEscalationMaxBatches() {
+        return escalationMaxBatches;
+    }
+
+    public void setEscalationMaxBatches(int escalationMaxBatches) {
+        this.escalationMaxBatches = escalationMaxBatches;
+    }
+
+    public int getBulkMaxTasks() {
+        return bulkMaxTasks;
+    }
+
+    public void setBulkMaxTasks(int bulkMaxTasks) {
+        this.bulkMaxTasks = bulkMaxTasks;
+    }
+
+    public int getBulkChunkSize() {
+        return bulkChunkSize;
+    }
+
+    public void setBulkChunkSize(int bulkChunkSize) {
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    public List<EscalationStep> getEscalationSteps() {
+        return escalationSteps;
+    }
+
+    public void setEscalationSteps(List<EscalationStep> escalationSteps) {
+        this.escalationSteps = escalationSteps;
+    }
+
+    /**
+     * Actions an escalation step can take.
+     */
+    public enum EscalationAction {
+        /** Raise the priority one level (LOW, MEDIUM, HIGH, URGENT; none counts as MEDIUM) */
+        RAISE_PRIORITY,
+        /** Reassign the task to the step's reassignTo user */
+        REASSIGN,
+        /** Send a task.escalated event to the (new) assignee */
+        NOTIFY
+    }
+
+    /**
+     * One escalation step. The default raises the priority of overdue tasks and notifies the assignee.
+     */
+    public static class EscalationStep {
+
+        /**
+         * Time past the due date after which the step applies.
+         */
+        private Duration afterDue = Duration.ZERO;
+
+        private List<EscalationAction> actions = new ArrayList<>(
+                List.of(EscalationAction.RAISE_PRIORITY, EscalationAction.NOTIFY));
+
+        /**
+         * User that REASSIGN hands the task to.
+         */
+        private UUID reassignTo;
+
+        public Duration getAfterDue() {
+            return afterDue;
+        }
+
+        public void setAfterDue(Duration afterDue) {
+            this.afterDue = afterDue;
+        }
+
+        public List<EscalationAction> getActions() {
+            return actions;
+        }
+
+        public void setActions(List<EscalationAction> actions) {
+            this.actions = actions;
+        }
+
+        public UUID getReassignTo() {
+            return reassignTo;
+        }
+
+        public void setReassignTo(UUID reassignTo) {
+            this.reassignTo = reassignTo;
+        }
+    }
+}
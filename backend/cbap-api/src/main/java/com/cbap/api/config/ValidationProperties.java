@@ -0,0 +1,64 @@
+package com.cbap.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validation rule evaluation configuration properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "cbap.validation")
+public class ValidationProperties {
+
+    /**
+     * Maximum time a PATTERN rule may spend matching one value.
+     */
+    private long patternTimeoutMs = 50;
+
+    /**
+     * Maximum number of records accepted by one batch validation call.
+     */
+    private int batchMaxRecords = 10000;
+
+    /**
+     * Worker threads shared by all batch validation calls.
+     */
+    private int batchThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Records per task handed to a worker; smaller batches are validated on the calling thread.
+     */
+    private int batchChunkSize = 250;
+
+    public long getPatternTimeoutMs() {
+        return patternTimeoutMs;
+    }
+
+    public void setPatternTimeoutMs(long patternTimeoutMs) {
+        this.patternTimeoutMs = patternTimeoutMs;
+    }
+
+    public int getBatchMaxRecords() {
+        return batchMaxRecords;
+    }
+
+    public void setBatchMaxRecords(int batchMaxRecords) {
+        this.batchMaxRecords = batchMaxRecords;
+    }
+
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+    public void setBatchThreads(int batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    public void setBatchChunkSize(int batchChunkSize) {
+        this.batchChunkSize = batchChunkSize;
+    }
+}
@@ -0,0 +1,168 @@
+package com.cbap.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Workflow runtime configuration properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "cbap.workflow")
+public class WorkflowProperties {
+
+    /**
+     * Maximum number of records in one bulk transition.
+     */
+    private int bulkMaxRecords = 10000;
+
+    /**
+     * Records updated per transaction in a bulk transition.
+     */
+    private int bulkChunkSize = 500;
+
+    /**
+     * Maximum number of records in one available-transitions lookup.
+     */
+    private int availableMaxRecords = 500;
+
+    /**
+     * Threads applying queued workflow side effects.
+     */
+    private int effectWorkers = 4;
+
+    /**
+     * Side effects claimed from the queue at a time.
+     */
+    private int effectBatchSize = 100;
+
+    /**
+     * Attempts before a side effect is marked FAILED.
+     */
+    private int effectMaxAttempts = 8;
+
+    /**
+     * Delay before the first retry of a failed side effect; doubled on every further attempt.
+     */
+    private long effectRetryBaseSeconds = 5;
+
+    /**
+     * Time after which a side effect claimed by a worker that did not finish is queued again.
+     */
+    private int effectStaleAfterSeconds = 300;
+
+    /**
+     * How long processed side effects are kept before cleanup.
+     */
+    private int effectRetentionHours = 72;
+
+    /**
+     * Most audit entries of one transaction inserted in one batch.
+     */
+    private int auditBatchSize = 200;
+
+    /**
+     * Monthly audit log partitions created ahead of the current month.
+     */
+    private int auditPartitionsAhead = 3;
+
+    /**
+     * Months of audit history kept attached; older partitions are detached. 0 keeps everything.
+     */
+    private int auditRetentionMonths = 24;
+
+    public int getBulkMaxRecords() {
+        return bulkMaxRecords;
+    }
+
+    public void setBulkMaxRecords(int bulkMaxRecords) {
+        this.bulkMaxRecords = bulkMaxRecords;
+    }
+
+    public int getBulkChunkSize() {
+        return bulkChunkSize;
+    }
+
+    public void setBulkChunkSize(int bulkChunkSize) {
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    public int getAvailableMaxRecords() {
+        return availableMaxRecords;
+    }
+
+    public void setAvailableMaxRecords(int availableMaxRecords) {
+        this.availableMaxRecords = availableMaxRecords;
+    }
+
+    public int getEffectWorkers() {
+        return effectWorkers;
+    }
+
+    public void setEffectWorkers(int effectWorkers) {
+        this.effectWorkers = effectWorkers;
+    }
+
+    public int getEffectBatchSize() {
+        return effectBatchSize;
+    }
+
+    public void setEffectBatchSize(int effectBatchSize) {
+        this.effectBatchSize = effectBatchSize;
+    }
+
+    public int getEffectMaxAttempts() {
+        return effectMaxAttempts;
+    }
+
+    public void setEffectMaxAttempts(int effectMaxAttempts) {
+        this.effectMaxAttempts = effectMaxAttempts;
+    }
+
+    public long getEffectRetryBaseSeconds() {
+        return effectRetryBaseSeconds;
+    }
+
+    public void setEffectRetryBaseSeconds(long effectRetryBaseSeconds) {
+        this.effectRetryBaseSeconds = effectRetryBaseSeconds;
+    }
+
+    public int getEffectStaleAfterSeconds() {
+        return effectStaleAfterSeconds;
+    }
+
+    public void setEffectStaleAfterSeconds(int effectStaleAfterSeconds) {
+        this.effectStaleAfterSeconds = effectStaleAfterSeconds;
+    }
+
+    public int getEffectRetentionHours() {
+        return effectRetentionHours;
+    }
+
+    public void setEffectRetentionHours(int effectRetentionHours) {
+        this.effectRetentionHours = effectRetentionHours;
+    }
+
+    public int getAuditBatchSize() {
+        return auditBatchSize;
+    }
+
+    public void setAuditBatchSize(int auditBatchSize) {
+        this.auditBatchSize = auditBatchSize;
+    }
+
+    public int getAuditPartitionsAhead() {
+        return auditPartitionsAhead;
+    }
+
+    public void setAuditPartitionsAhead(int auditPartitionsAhead) {
+        this.auditPartitionsAhead = auditPartitionsAhead;
+    }
+
+    public int getAuditRetentionMonths() {
+        return auditRetentionMonths;
+    }
+
+    public void setAuditRetentionMonths(int auditRetentionMonths) {
+        this.auditRetentionMonths = auditRetentionMonths;
+    }
+}
@@ -1,6 +1,7 @@
 package com.cbap.api.controller;
 
 import com.cbap.api.service.AdminService;
+import com.cbap.api.service.CalculatedFieldRecalculationService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -8,7 +9,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * REST controller for admin operations.
@@ -18,9 +21,11 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final CalculatedFieldRecalculationService recalculationService;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, CalculatedFieldRecalculationService recalculationService) {
         this.adminService = adminService;
+        this.recalculationService = recalculationService;
     }
 
     /**
@@ -44,6 +49,67 @@ public class AdminController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Start recalculating stored calculated field values for all records of an entity.
+     * POST /api/v1/admin/entities/{entityId}/recalculate
+     */
+    @PostMapping("/entities/{entityId}/recalculate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> recalculateEntity(
+            @PathVariable String entityId,
+            @RequestBody(required = false) RecalculateRequest request,
+            Authentication authentication) {
+        try {
+            CalculatedFieldRecalculationService.RecalculationJob job = recalculationService.startRecalculation(
+                    entityId,
+                    request != null ? request.getProperties() : null,
+                    request != null ? request.getChunkSize() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(buildJobResponse(job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Conflict", "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get progress of a calculated field recalculation job.
+     * GET /api/v1/admin/recalculation-jobs/{jobId}
+     */
+    @GetMapping("/recalculation-jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRecalculationJob(
+            @PathVariable UUID jobId,
+            Authentication authentication) {
+        try {
+            return ResponseEntity.ok(buildJobResponse(recalculationService.getJob(jobId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Not Found", "message", e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> buildJobResponse(CalculatedFieldRecalculationService.RecalculationJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getJobId());
+        response.put("entityId", job.getEntityId());
+        response.put("properties", job.getPropertyNames());
+        response.put("status", job.getStatus().name());
+        response.put("chunkSize", job.getChunkSize());
+        response.put("totalRecords", job.getTotalRecords());
+        response.put("processedRecords", job.getProcessedRecords());
+        response.put("updatedRecords", job.getUpdatedRecords());
+        response.put("failedRecords", job.getFailedRecords());
+        response.put("progressPercent", job.getProgressPercent());
+        response.put("recordsPerSecond", job.getRecordsPerSecond());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        response.put("errorMessage", job.getErrorMessage());
+        return response;
+    }
+
     /**
      * Get system settings (admin only).
      * GET /api/v1/admin/system/settings
@@ -78,4 +144,15 @@ public class AdminController {
         Map<String, Object> licensing = adminService.getLicensingStatus();
         return ResponseEntity.ok(licensing);
     }
+
+    // Request DTOs
+    public static class RecalculateRequest {
+        private List<String> properties;
+        private Integer chunkSize;
+
+        public List<String> getProperties() { return properties; }
+        public void setProperties(List<String> properties) { this.properties = properties; }
+        public Integer getChunkSize() { return chunkSize; }
+        public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+    }
 }
@@ -1,8 +1,10 @@
 package com.cbap.api.controller;
 
 import com.cbap.api.service.EntityRecordService;
+import com.cbap.api.service.RecordVersionConflictException;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -133,8 +135,9 @@ public class EntityRecordController {
         response.put("updatedAt", record.getUpdatedAt());
         response.put("createdBy", record.getCreatedBy());
         response.put("updatedBy", record.getUpdatedBy());
+        response.put("version", record.getVersion());
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(RecordETags.of(record.getVersion())).body(response);
     }
 
     /**
@@ -168,19 +171,24 @@ public class EntityRecordController {
         response.put("updatedAt", record.getUpdatedAt());
         response.put("createdBy", record.getCreatedBy());
         response.put("updatedBy", record.getUpdatedBy());
+        response.put("version", record.getVersion());
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(RecordETags.of(record.getVersion())).body(response);
     }
 
     /**
      * Update an existing entity record.
      * PUT /api/v1/entities/{entityId}/records/{recordId}
+     *
+     * With If-Match set to the record's ETag, the update only applies if nobody changed the
+     * record since; otherwise 412 is returned with the current ETag.
      */
     @PutMapping("/{entityId}/records/{recordId}")
     public ResponseEntity<Map<String, Object>> updateRecord(
             @PathVariable String entityId,
             @PathVariable UUID recordId,
             @Valid @RequestBody EntityRecordService.UpdateRecordRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         
         // Verify authentication is present
@@ -192,7 +200,20 @@ public class EntityRecordController {
         // TODO: Add authorization check - verify user has permission to update records for this entity
         // For now, just require authentication
         
-        EntityRecordService.EntityRecordDTO record = entityRecordService.updateRecord(entityId, recordId, request, authentication);
+        EntityRecordService.EntityRecordDTO record;
+        try {
+            record = entityRecordService.updateRecord(entityId, recordId, request,
+                    RecordETags.parseIfMatch(ifMatch), authentication);
+        } catch (RecordVersionConflictException e) {
+            ResponseEntity.BodyBuilder conflict = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            if (e.getCurrentVersion() != null) {
+                conflict.eTag(RecordETags.of(e.getCurrentVersion()));
+            }
+            return conflict.body(Map.of("error", "Precondition Failed", "message", e.getMessage()));
+        } catch (RecordETags.IfMatchException e) {
+            return ResponseEntity.status(e.getStatus())
+                    .body(Map.of("error", e.getError(), "message", e.getMessage()));
+        }
         
         Map<String, Object> response = new HashMap<>();
         response.put("recordId", record.getRecordId());
@@ -204,18 +225,23 @@ public class EntityRecordController {
         response.put("updatedAt", record.getUpdatedAt());
         response.put("createdBy", record.getCreatedBy());
         response.put("updatedBy", record.getUpdatedBy());
+        response.put("version", record.getVersion());
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(RecordETags.of(record.getVersion())).body(response);
     }
 
     /**
      * Soft delete an entity record.
      * DELETE /api/v1/entities/{entityId}/records/{recordId}
+     *
+     * With If-Match set to the record's ETag, the delete only applies if nobody changed the
+     * record since (412 otherwise). A delete racing another write answers 409 without If-Match.
      */
     @DeleteMapping("/{entityId}/records/{recordId}")
     public ResponseEntity<Map<String, String>> deleteRecord(
             @PathVariable String entityId,
             @PathVariable UUID recordId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         
         // Verify authentication is present
@@ -227,7 +253,22 @@ public class EntityRecordController {
         // TODO: Add authorization check - verify user has permission to delete records for this entity
         // For now, just require authentication
         
-        entityRecordService.deleteRecord(entityId, recordId, authentication);
+        try {
+            entityRecordService.deleteRecord(entityId, recordId, RecordETags.parseIfMatch(ifMatch), authentication);
+        } catch (RecordVersionConflictException e) {
+            if (ifMatch == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Conflict", "message", e.getMessage()));
+            }
+            ResponseEntity.BodyBuilder conflict = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            if (e.getCurrentVersion() != null) {
+                conflict.eTag(RecordETags.of(e.getCurrentVersion()));
+            }
+            return conflict.body(Map.of("error", "Precondition Failed", "message", e.getMessage()));
+        } catch (RecordETags.IfMatchException e) {
+            return ResponseEntity.status(e.getStatus())
+                    .body(Map.of("error", e.getError(), "message", e.getMessage()));
+        }
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Record deleted successfully");
@@ -0,0 +1,119 @@
+package com.cbap.api.controller;
+
+import com.cbap.api.service.EventStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * REST Controller for change event streams (server-sent events).
+ *
+ * A stream delivers the task events of the current user and the record events of the
+ * records it follows, so clients can refresh task lists and record views on change
+ * instead of polling. Streams authenticate like every other endpoint, with the
+ * Authorization header, so clients read them with fetch rather than EventSource.
+ */
+@RestController
+@RequestMapping("/api/v1/events")
+public class EventStreamController {
+
+    private final EventStreamService eventStreamService;
+    private final com.cbap.persistence.repository.UserRepository userRepository;
+
+    public EventStreamController(
+            EventStreamService eventStreamService,
+            com.cbap.persistence.repository.UserRepository userRepository) {
+        this.eventStreamService = eventStreamService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Open a change event stream.
+     * GET /api/v1/events/stream?recordIds={id},{id}
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<?> openStream(
+            @RequestParam(required = false) List<UUID> recordIds,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        UUID userId = getUserId(authentication);
+        try {
+            SseEmitter emitter = eventStreamService.open(userId, recordIds);
+            return ResponseEntity.ok()
+                    .header("Cache-Control", "no-cache")
+                    // Keep reverse proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("error", "Too Many Requests", "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Replace the records an open stream follows, e.g. when the client navigates.
+     * PUT /api/v1/events/stream/{connectionId}/records
+     */
+    @PutMapping("/stream/{connectionId}/records")
+    public ResponseEntity<Map<String, Object>> followRecords(
+            @PathVariable UUID connectionId,
+            @RequestBody FollowRecordsRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        UUID userId = getUserId(authentication);
+        Set<UUID> followed;
+        try {
+            followed = eventStreamService.followRecords(userId, connectionId, request.getRecordIds());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("connectionId", connectionId);
+        response.put("recordIds", followed);
+        response.put("count", followed.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private UUID getUserId(Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        return userRepository.findByUsername(username)
+                .map(com.cbap.persistence.entity.User::getUserId)
+                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
+    }
+
+    /**
+     * Follow records Request DTO.
+     */
+    public static class FollowRecordsRequest {
+        private List<UUID> recordIds;
+
+        public List<UUID> getRecordIds() { return recordIds; }
+        public void setRecordIds(List<UUID> recordIds) { this.recordIds = recordIds; }
+    }
+}
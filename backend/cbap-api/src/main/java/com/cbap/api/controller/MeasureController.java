@@ -219,4 +219,94 @@ public class MeasureController {
                     .body(Map.of("error", "Bad Request", "message", e.getMessage()));
         }
     }
+
+    /**
+     * Evaluate many measures in one call (e.g. all KPI pins of a dashboard).
+     * POST /api/v1/measures/evaluate-batch
+     */
+    @PostMapping("/measures/evaluate-batch")
+    public ResponseEntity<Map<String, Object>> evaluateMeasures(
+            @RequestBody BatchEvaluationRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        try {
+            List<MeasureEvaluationService.MeasureEvaluation> results =
+                    measureEvaluationService.evaluateMeasures(request.getRequests());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("count", results.size());
+            response.put("errorCount", results.stream().filter(result -> !result.isSuccess()).count());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Evaluate a measure over all records of an entity and aggregate the results.
+     * POST /api/v1/measures/{measureIdentifier}/aggregate?entityId=Invoice&version=1
+     */
+    @PostMapping("/measures/{measureIdentifier}/aggregate")
+    public ResponseEntity<Map<String, Object>> aggregateMeasure(
+            @PathVariable String measureIdentifier,
+            @RequestParam String entityId,
+            @RequestParam(required = false) Integer version,
+            @RequestBody(required = false) Map<String, Object> parameters,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        try {
+            MeasureEvaluationService.MeasureAggregateResult result = measureEvaluationService.aggregateMeasureOverRecords(
+                    measureIdentifier,
+                    version,
+                    entityId,
+                    parameters != null ? parameters : Map.of());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("measureIdentifier", result.getMeasureIdentifier());
+            response.put("version", result.getVersion());
+            response.put("entityId", result.getEntityId());
+            response.put("recordCount", result.getRecordCount());
+            response.put("valueCount", result.getValueCount());
+            response.put("sum", result.getSum());
+            response.put("avg", result.getAvg());
+            response.put("min", result.getMin());
+            response.put("max", result.getMax());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Not Found", "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Batch Evaluation Request DTO.
+     */
+    public static class BatchEvaluationRequest {
+        private List<MeasureEvaluationService.MeasureRequest> requests;
+
+        public List<MeasureEvaluationService.MeasureRequest> getRequests() {
+            return requests;
+        }
+
+        public void setRequests(List<MeasureEvaluationService.MeasureRequest> requests) {
+            this.requests = requests;
+        }
+    }
 }
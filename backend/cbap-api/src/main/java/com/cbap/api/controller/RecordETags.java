@@ -0,0 +1,71 @@
+package com.cbap.api.controller;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Conversion between entity record versions and HTTP entity tags.
+ *
+ * A record's ETag is its version as a strong entity tag, e.g. "7". If-Match
+ * accepts a single entity tag or "*". A header that is not an entity tag is
+ * rejected with 400; a weak or foreign tag never matches a record version and
+ * fails the precondition with 412.
+ */
+final class RecordETags {
+
+    private RecordETags() {
+    }
+
+    static String of(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    /**
+     * Version required by an If-Match header, or null if the header is absent or "*".
+     *
+     * @throws IfMatchException if the header is malformed (400) or cannot match any version (412)
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        boolean weak = tag.startsWith("W/");
+        String opaque = weak ? tag.substring(2) : tag;
+        if (opaque.length() < 2 || !opaque.startsWith("\"") || !opaque.endsWith("\"")
+                || opaque.substring(1, opaque.length() - 1).indexOf('"') >= 0) {
+            throw new IfMatchException(HttpStatus.BAD_REQUEST,
+                    "If-Match must be a single ETag of the record, e.g. \"3\"");
+        }
+        if (weak) {
+            throw new IfMatchException(HttpStatus.PRECONDITION_FAILED,
+                    "If-Match requires a strong ETag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(opaque.substring(1, opaque.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IfMatchException(HttpStatus.PRECONDITION_FAILED,
+                    "If-Match does not match any record version: " + ifMatch);
+        }
+    }
+
+    /**
+     * An If-Match header that is malformed or can never match, with the status to answer.
+     */
+    static final class IfMatchException extends RuntimeException {
+
+        private final HttpStatus status;
+
+        IfMatchException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        HttpStatus getStatus() {
+            return status;
+        }
+
+        String getError() {
+            return status.getReasonPhrase();
+        }
+    }
+}
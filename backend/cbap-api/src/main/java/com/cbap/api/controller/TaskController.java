@@ -1,6 +1,9 @@
 package com.cbap.api.controller;
 
+import com.cbap.api.service.TaskBulkService;
+import com.cbap.api.service.TaskCounterService;
 import com.cbap.api.service.TaskService;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +12,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -20,12 +24,18 @@ import java.util.UUID;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskCounterService taskCounterService;
+    private final TaskBulkService taskBulkService;
     private final com.cbap.persistence.repository.UserRepository userRepository;
 
     public TaskController(
             TaskService taskService,
+            TaskCounterService taskCounterService,
+            TaskBulkService taskBulkService,
             com.cbap.persistence.repository.UserRepository userRepository) {
         this.taskService = taskService;
+        this.taskCounterService = taskCounterService;
+        this.taskBulkService = taskBulkService;
         this.userRepository = userRepository;
     }
 
@@ -75,6 +85,31 @@ public class TaskController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get current user's task counts by status, for inbox badges.
+     * GET /api/v1/tasks/counts
+     */
+    @GetMapping("/counts")
+    public ResponseEntity<Map<String, Object>> getTaskCounts(Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        UUID userId = userRepository.findByUsername(username)
+                .map(com.cbap.persistence.entity.User::getUserId)
+                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("counts", taskCounterService.getCounts(userId));
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get task by ID.
      * GET /api/v1/tasks/{taskId}
@@ -118,6 +153,9 @@ public class TaskController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Not Found", "message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Conflict", "message", "Task was modified concurrently, reload and retry"));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Forbidden", "message", e.getMessage()));
@@ -187,6 +225,9 @@ public class TaskController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Conflict", "message", "Task was modified concurrently, reload and retry"));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("error", "Conflict", "message", e.getMessage()));
@@ -231,12 +272,98 @@ public class TaskController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Not Found", "message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Conflict", "message", "Task was modified concurrently, reload and retry"));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Forbidden", "message", e.getMessage()));
         }
     }
 
+    /**
+     * Reassign many tasks to one user, e.g. the open tasks of someone going on leave.
+     * POST /api/v1/tasks/bulk/reassign
+     *
+     * Tasks are given as taskIds or selected with filter. Administrators can select
+     * and reassign the tasks of other users. Every task gets an outcome.
+     */
+    @PostMapping("/bulk/reassign")
+    public ResponseEntity<Map<String, Object>> reassignTasks(
+            @RequestBody BulkTaskRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        return executeBulk(() -> taskBulkService.reassignTasks(request.getTaskIds(), request.getFilter(),
+                request.getAssigneeId(), request.getComments(), authentication));
+    }
+
+    /**
+     * Complete many tasks of the current user.
+     * POST /api/v1/tasks/bulk/complete
+     */
+    @PostMapping("/bulk/complete")
+    public ResponseEntity<Map<String, Object>> completeTasks(
+            @RequestBody BulkTaskRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        return executeBulk(() -> taskBulkService.completeTasks(request.getTaskIds(), request.getFilter(),
+                request.getComments(), authentication));
+    }
+
+    /**
+     * Submit the same decision for many tasks of the current user.
+     * POST /api/v1/tasks/bulk/decisions
+     */
+    @PostMapping("/bulk/decisions")
+    public ResponseEntity<Map<String, Object>> submitDecisions(
+            @RequestBody BulkTaskRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        return executeBulk(() -> taskBulkService.decideTasks(request.getTaskIds(), request.getFilter(),
+                request.getDecision(), request.getComments(), authentication));
+    }
+
+    private ResponseEntity<Map<String, Object>> executeBulk(
+            java.util.function.Supplier<TaskBulkService.BulkTaskResult> operation) {
+        try {
+            TaskBulkService.BulkTaskResult result = operation.get();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("bulkOperationId", result.getBulkOperationId());
+            response.put("action", result.getAction());
+            response.put("requestedCount", result.getRequestedCount());
+            response.put("succeededCount", result.getSucceededCount());
+            response.put("failedCount", result.getFailedCount());
+            response.put("results", result.getOutcomes());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Forbidden", "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal Server Error", "message", "Failed to execute bulk task operation: " + e.getMessage()));
+        }
+    }
+
     /**
      * Task Transition Request DTO.
      */
@@ -284,4 +411,55 @@ public class TaskController {
             this.comments = comments;
         }
     }
+
+    /**
+     * Bulk Task Request DTO.
+     */
+    public static class BulkTaskRequest {
+        private List<UUID> taskIds;
+        private TaskBulkService.TaskFilter filter;
+        private UUID assigneeId;
+        private com.cbap.persistence.entity.Task.TaskDecision decision;
+        private String comments;
+
+        public List<UUID> getTaskIds() {
+            return taskIds;
+        }
+
+        public void setTaskIds(List<UUID> taskIds) {
+            this.taskIds = taskIds;
+        }
+
+        public TaskBulkService.TaskFilter getFilter() {
+            return filter;
+        }
+
+        public void setFilter(TaskBulkService.TaskFilter filter) {
+            this.filter = filter;
+        }
+
+        public UUID getAssigneeId() {
+            return assigneeId;
+        }
+
+        public void setAssigneeId(UUID assigneeId) {
+            this.assigneeId = assigneeId;
+        }
+
+        public com.cbap.persistence.entity.Task.TaskDecision getDecision() {
+            return decision;
+        }
+
+        public void setDecision(com.cbap.persistence.entity.Task.TaskDecision decision) {
+            this.decision = decision;
+        }
+
+        public String getComments() {
+            return comments;
+        }
+
+        public void setComments(String comments) {
+            this.comments = comments;
+        }
+    }
 }
@@ -59,6 +59,42 @@ public class ValidationController {
         }
     }
 
+    /**
+     * Validate many records of one entity (bulk edit, import).
+     * POST /api/v1/validation/entities/{entityId}/validate-batch
+     */
+    @PostMapping("/entities/{entityId}/validate-batch")
+    public ResponseEntity<Map<String, Object>> validateRecords(
+            @PathVariable String entityId,
+            @RequestBody BatchValidationRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        try {
+            ValidationService.BatchValidationResult result = validationService.validateRecords(
+                    entityId,
+                    request.getRecords(),
+                    request.getTriggerEvent() != null ? request.getTriggerEvent() : "UPDATE");
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("entityId", entityId);
+            response.put("valid", result.isValid());
+            response.put("recordCount", result.getRecordCount());
+            response.put("validCount", result.getValidCount());
+            response.put("invalidCount", result.getInvalidCount());
+            response.put("results", result.getResults());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        }
+    }
+
     /**
      * Validate a specific field.
      * POST /api/v1/validation/entities/{entityId}/fields/{propertyName}/validate
@@ -129,6 +165,30 @@ public class ValidationController {
         }
     }
 
+    /**
+     * Batch Validation Request DTO.
+     */
+    public static class BatchValidationRequest {
+        private List<ValidationService.BatchRecord> records;
+        private String triggerEvent;
+
+        public List<ValidationService.BatchRecord> getRecords() {
+            return records;
+        }
+
+        public void setRecords(List<ValidationService.BatchRecord> records) {
+            this.records = records;
+        }
+
+        public String getTriggerEvent() {
+            return triggerEvent;
+        }
+
+        public void setTriggerEvent(String triggerEvent) {
+            this.triggerEvent = triggerEvent;
+        }
+    }
+
     /**
      * Field Validation Request DTO.
      */
@@ -1,6 +1,9 @@
 package com.cbap.api.controller;
 
+import com.cbap.api.service.RecordVersionConflictException;
+import com.cbap.api.service.WorkflowBulkTransitionService;
 import com.cbap.api.service.WorkflowRuntimeService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,14 +22,20 @@ import java.util.UUID;
 public class WorkflowRuntimeController {
 
     private final WorkflowRuntimeService workflowRuntimeService;
+    private final WorkflowBulkTransitionService workflowBulkTransitionService;
 
-    public WorkflowRuntimeController(WorkflowRuntimeService workflowRuntimeService) {
+    public WorkflowRuntimeController(WorkflowRuntimeService workflowRuntimeService,
+                                     WorkflowBulkTransitionService workflowBulkTransitionService) {
         this.workflowRuntimeService = workflowRuntimeService;
+        this.workflowBulkTransitionService = workflowBulkTransitionService;
     }
 
     /**
      * Execute a workflow transition.
      * POST /api/v1/entities/{entityId}/records/{recordId}/transitions/{transitionId}
+     *
+     * If-Match (the record's ETag) makes the transition conditional on the record being
+     * unchanged; 412 is returned otherwise. The response carries the record's new ETag.
      */
     @PostMapping("/{entityId}/records/{recordId}/transitions/{transitionId}")
     public ResponseEntity<Map<String, Object>> executeTransition(
@@ -34,6 +43,7 @@ public class WorkflowRuntimeController {
             @PathVariable UUID recordId,
             @PathVariable UUID transitionId,
             @RequestBody(required = false) TransitionRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
 
         if (authentication == null) {
@@ -47,7 +57,8 @@ public class WorkflowRuntimeController {
 
         try {
             WorkflowRuntimeService.TransitionResult result = workflowRuntimeService.executeTransition(
-                    entityId, recordId, transitionId, request.getComments(), authentication);
+                    entityId, recordId, transitionId, request.getComments(), RecordETags.parseIfMatch(ifMatch),
+                    authentication);
 
             Map<String, Object> response = new HashMap<>();
             response.put("entityId", result.getEntityId());
@@ -59,11 +70,21 @@ public class WorkflowRuntimeController {
             response.put("performedBy", result.getPerformedBy());
             response.put("performedAt", result.getPerformedAt());
             response.put("comments", result.getComments());
+            response.put("version", result.getVersion());
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(RecordETags.of(result.getVersion())).body(response);
+        } catch (RecordETags.IfMatchException e) {
+            return ResponseEntity.status(e.getStatus())
+                    .body(Map.of("error", e.getError(), "message", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        } catch (RecordVersionConflictException e) {
+            ResponseEntity.BodyBuilder conflict = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            if (e.getCurrentVersion() != null) {
+                conflict.eTag(RecordETags.of(e.getCurrentVersion()));
+            }
+            return conflict.body(Map.of("error", "Precondition Failed", "message", e.getMessage()));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("error", "Conflict", "message", e.getMessage()));
@@ -73,6 +94,56 @@ public class WorkflowRuntimeController {
         }
     }
 
+    /**
+     * Execute a workflow transition on many records.
+     * POST /api/v1/entities/{entityId}/transitions/{transitionId}/bulk
+     *
+     * Records are given as recordIds, or selected with query.where (a CEL expression)
+     * among the records in the transition's source state. Every record gets an outcome.
+     */
+    @PostMapping("/{entityId}/transitions/{transitionId}/bulk")
+    public ResponseEntity<Map<String, Object>> executeBulkTransition(
+            @PathVariable String entityId,
+            @PathVariable UUID transitionId,
+            @RequestBody BulkTransitionRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        try {
+            WorkflowBulkTransitionService.BulkTransitionResult result = workflowBulkTransitionService.executeBulkTransition(
+                    entityId, transitionId, request.getRecordIds(), request.getQuery(), request.getComments(),
+                    authentication);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("bulkOperationId", result.getBulkOperationId());
+            response.put("entityId", result.getEntityId());
+            response.put("transitionId", result.getTransitionId());
+            response.put("fromState", result.getFromState());
+            response.put("toState", result.getToState());
+            response.put("requestedCount", result.getRequestedCount());
+            response.put("transitionedCount", result.getTransitionedCount());
+            response.put("failedCount", result.getFailedCount());
+            response.put("tasksClosed", result.getTasksClosed());
+            response.put("tasksCreated", result.getTasksCreated());
+            response.put("results", result.getOutcomes());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Conflict", "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal Server Error", "message", "Failed to execute bulk transition: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get available transitions for a record.
      * GET /api/v1/entities/{entityId}/records/{recordId}/transitions
@@ -105,6 +176,46 @@ public class WorkflowRuntimeController {
         }
     }
 
+    /**
+     * Get available transitions for many records, e.g. the rows of a record list.
+     * POST /api/v1/entities/{entityId}/transitions/available
+     *
+     * Returns the transitions by record ID; record IDs that do not exist are listed in notFound.
+     */
+    @PostMapping("/{entityId}/transitions/available")
+    public ResponseEntity<Map<String, Object>> getAvailableTransitionsForRecords(
+            @PathVariable String entityId,
+            @RequestBody AvailableTransitionsRequest request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", "Authentication required"));
+        }
+
+        try {
+            Map<String, List<WorkflowRuntimeService.AvailableTransitionDTO>> transitions =
+                    workflowRuntimeService.getAvailableTransitions(entityId, request.getRecordIds());
+
+            List<String> notFound = request.getRecordIds().stream()
+                    .filter(id -> id != null && !transitions.containsKey(id.toString()))
+                    .map(UUID::toString)
+                    .distinct()
+                    .toList();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("entityId", entityId);
+            response.put("transitions", transitions);
+            response.put("notFound", notFound);
+            response.put("count", transitions.size());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Bad Request", "message", e.getMessage()));
+        }
+    }
+
     /**
      * Get workflow audit log for a record.
      * GET /api/v1/entities/{entityId}/records/{recordId}/workflow-audit
@@ -151,4 +262,30 @@ public class WorkflowRuntimeController {
             this.comments = comments;
         }
     }
+
+    /**
+     * Bulk Transition Request DTO.
+     */
+    public static class BulkTransitionRequest {
+        private List<UUID> recordIds;
+        private WorkflowBulkTransitionService.RecordQuery query;
+        private String comments;
+
+        public List<UUID> getRecordIds() { return recordIds; }
+        public void setRecordIds(List<UUID> recordIds) { this.recordIds = recordIds; }
+        public WorkflowBulkTransitionService.RecordQuery getQuery() { return query; }
+        public void setQuery(WorkflowBulkTransitionService.RecordQuery query) { this.query = query; }
+        public String getComments() { return comments; }
+        public void setComments(String comments) { this.comments = comments; }
+    }
+
+    /**
+     * Available Transitions Request DTO.
+     */
+    public static class AvailableTransitionsRequest {
+        private List<UUID> recordIds;
+
+        public List<UUID> getRecordIds() { return recordIds; }
+        public void setRecordIds(List<UUID> recordIds) { this.recordIds = recordIds; }
+    }
 }
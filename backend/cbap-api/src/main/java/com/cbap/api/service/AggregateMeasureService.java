@@ -0,0 +1,242 @@
+package com.cbap.api.service;
+
+import com.cbap.api.service.expression.AggregateQuery;
+import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.Measure;
+import com.cbap.persistence.entity.PropertyDefinition;
+import com.cbap.persistence.repository.EntityDefinitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for entity-level aggregate measures (definition type "aggregate").
+ *
+ * The measure expression is an {@link AggregateQuery} such as
+ * {@code sum(Invoice.total where state == 'PAID') by region}; it is compiled to one
+ * SQL aggregate over cbap_entity_records, so the database does the scan and only
+ * the result (or one row per group) is returned.
+ *
+ * Parsed queries are cached per measure version and property names per entity; they
+ * are dropped by {@link #measureChanged} and {@link #invalidateEntity} when a measure
+ * or an entity's metadata changes.
+ */
+@Service
+public class AggregateMeasureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregateMeasureService.class);
+
+    public static final String DEFINITION_TYPE = "aggregate";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityDefinitionRepository entityDefinitionRepository;
+
+    // Parsed definitions by measure identifier and version, with the expression they were parsed from
+    private final Map<String, ParsedQuery> queries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> propertyNamesByEntity = new ConcurrentHashMap<>();
+    // Bumped on every entity eviction; property names loaded across an eviction are not cached
+    private final AtomicLong propertyGeneration = new AtomicLong();
+
+    public AggregateMeasureService(JdbcTemplate jdbcTemplate, EntityDefinitionRepository entityDefinitionRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityDefinitionRepository = entityDefinitionRepository;
+    }
+
+    /**
+     * Whether a measure is an entity-level aggregate.
+     */
+    public static boolean isAggregate(Measure measure) {
+        return DEFINITION_TYPE.equalsIgnoreCase(measure.getDefinitionType());
+    }
+
+    /**
+     * Whether an aggregate measure is kept in a summary table ("materialized": true in its metadata).
+     */
+    public static boolean isMaterialized(Measure measure) {
+        return isAggregate(measure) && measure.getMetadataJson() != null
+                && Boolean.TRUE.equals(measure.getMetadataJson().get("materialized"));
+    }
+
+    /**
+     * Check an aggregate measure when it is saved: syntax, entity, fields and parameters.
+     *
+     * @throws IllegalArgumentException If the definition is invalid
+     */
+    public AggregateQuery validate(Measure measure) {
+        AggregateQuery query;
+        try {
+            query = AggregateQuery.parse(measure.getExpression());
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            throw new IllegalArgumentException("Invalid expression: " + e.getMessage());
+        }
+
+        EntityDefinition entity = entityDefinitionRepository.findByEntityIdWithProperties(query.getEntityId())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid expression: entity not found: " + query.getEntityId()));
+        Set<String> propertyNames = new HashSet<>();
+        for (PropertyDefinition property : entity.getProperties()) {
+            propertyNames.add(property.getPropertyName());
+        }
+        for (String field : query.getReferencedFields()) {
+            if (!propertyNames.contains(field) && !"state".equals(field)) {
+                throw new IllegalArgumentException("Invalid expression: unknown field " + query.getEntityId() + "." + field);
+            }
+        }
+
+        Set<String> declared = new HashSet<>();
+        if (measure.getParametersJson() != null) {
+            for (Map<String, Object> paramDef : measure.getParametersJson()) {
+                if (paramDef.get("name") instanceof String name) {
+                    declared.add(name);
+                }
+            }
+        }
+        for (String parameter : query.getReferencedParameters()) {
+            if (!declared.contains(parameter)) {
+                throw new IllegalArgumentException("Invalid expression: undeclared parameter $" + parameter);
+            }
+        }
+
+        if (measure.getReturnType() != null && measure.getReturnType() != Measure.ReturnType.number) {
+            throw new IllegalArgumentException("Invalid expression: aggregate measures return number");
+        }
+        if (isMaterialized(measure) && !query.isIncrementallyMaintainable()) {
+            throw new IllegalArgumentException(
+                    "Invalid expression: materialized measures support sum, count and avg without parameters");
+        }
+        evictEntity(query.getEntityId());
+        return query;
+    }
+
+    /**
+     * Entities an aggregate measure reads, for cache invalidation.
+     */
+    public List<String> getSourceEntities(Measure measure) {
+        return List.of(parse(measure).getEntityId());
+    }
+
+    /**
+     * Evaluate an aggregate measure.
+     *
+     * @return The aggregate as a Double (null for avg/min/max over no values), or for grouped
+     *         measures a list of rows with one entry per group-by field plus "value"
+     */
+    public Object evaluate(Measure measure, Map<String, Object> parameters) {
+        AggregateQuery query = parse(measure);
+        AggregateQuery.CompiledSql sql;
+        try {
+            sql = query.toSql(propertyNames(query.getEntityId()), parameters);
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        if (query.getGroupBy().isEmpty()) {
+            result = jdbcTemplate.queryForObject(sql.getSql(), (rs, rowNum) -> toDouble(rs.getBigDecimal("value")),
+                    sql.getArgs().toArray());
+        } else {
+            result = jdbcTemplate.query(sql.getSql(), (rs, rowNum) -> groupRow(rs, query.getGroupBy()),
+                    sql.getArgs().toArray());
+        }
+        logger.debug("Aggregate measure {} version {} took {} ms", measure.getMeasureIdentifier(), measure.getVersion(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Drop the parsed query of a measure version after it was saved or deleted.
+     */
+    public void measureChanged(String measureIdentifier, Integer version) {
+        queries.remove(queryKey(measureIdentifier, version));
+    }
+
+    /**
+     * Drop the cached property names of an entity after its metadata changed, now and
+     * again when the current transaction completes.
+     */
+    public void invalidateEntity(String entityId) {
+        evictEntity(entityId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictEntity(entityId);
+                }
+            });
+        }
+    }
+
+    AggregateQuery parse(Measure measure) {
+        String key = queryKey(measure.getMeasureIdentifier(), measure.getVersion());
+        ParsedQuery parsed = queries.get(key);
+        // An edited measure keeps its version, so the expression decides whether the entry is current
+        if (parsed != null && parsed.expression().equals(measure.getExpression())) {
+            return parsed.query();
+        }
+        AggregateQuery query;
+        try {
+            query = AggregateQuery.parse(measure.getExpression());
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            throw new IllegalArgumentException("Invalid aggregate measure " + measure.getMeasureIdentifier() + ": " + e.getMessage());
+        }
+        queries.put(key, new ParsedQuery(measure.getExpression(), query));
+        return query;
+    }
+
+    /**
+     * Property names decide whether "state" means a field or the record state; loaded once per entity.
+     */
+    Set<String> propertyNames(String entityId) {
+        Set<String> cached = propertyNamesByEntity.get(entityId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedGeneration = propertyGeneration.get();
+        Set<String> names = Set.copyOf(new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT property_name FROM cbap_metadata_properties WHERE entity_id = ?", String.class, entityId)));
+        if (propertyGeneration.get() == loadedGeneration) {
+            propertyNamesByEntity.put(entityId, names);
+        }
+        return names;
+    }
+
+    private void evictEntity(String entityId) {
+        propertyGeneration.incrementAndGet();
+        propertyNamesByEntity.remove(entityId);
+    }
+
+    private static String queryKey(String measureIdentifier, Integer version) {
+        return measureIdentifier + "@" + version;
+    }
+
+    private record ParsedQuery(String expression, AggregateQuery query) {
+    }
+
+    private static Map<String, Object> groupRow(ResultSet rs, List<String> groupBy) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int g = 0; g < groupBy.size(); g++) {
+            row.put(groupBy.get(g), rs.getString("g" + g));
+        }
+        row.put("value", toDouble(rs.getBigDecimal("value")));
+        return row;
+    }
+
+    private static Double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,390 @@
+package com.cbap.api.service;
+
+import com.cbap.api.service.expression.CompiledExpression;
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.EntityRecord;
+import com.cbap.persistence.repository.EntityDefinitionRepository;
+import com.cbap.persistence.repository.EntityRecordRepository;
+import com.cbap.search.service.SearchIndexingService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for recalculating stored calculated field values across all records of an entity.
+ *
+ * Used after a calculated property's expression changes. Records are streamed in
+ * keyset-paginated chunks, expressions are compiled once per job, and only records
+ * whose calculated values changed are written back (one batched UPDATE and one
+ * transaction per chunk) and queued for search reindexing.
+ */
+@Service
+public class CalculatedFieldRecalculationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalculatedFieldRecalculationService.class);
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    static final int MAX_CHUNK_SIZE = 5000;
+
+    // Finished jobs stay queryable for a while, and only the most recent ones are kept
+    static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(24);
+    static final int MAX_FINISHED_JOBS = 100;
+
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT record_id, data_json::text AS data_json, state, version FROM cbap_entity_records " +
+            "WHERE entity_id = ? AND deleted_at IS NULL AND record_id > ? " +
+            "ORDER BY record_id LIMIT ?";
+
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM cbap_entity_records WHERE entity_id = ? AND deleted_at IS NULL";
+
+    // Compare-and-set on the version read with the chunk: a record changed by a user in the meantime
+    // is skipped, its own write already recomputed the calculated fields
+    private static final String UPDATE_DATA_SQL =
+            "UPDATE cbap_entity_records SET data_json = ?::jsonb, updated_at = CURRENT_TIMESTAMP, " +
+            "version = version + 1 WHERE record_id = ? AND version = ?";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+
+    private final EntityDefinitionRepository entityDefinitionRepository;
+    private final EntityRecordRepository entityRecordRepository;
+    private final CalculatedFieldService calculatedFieldService;
+    private final SearchIndexingService searchIndexingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeasureResultCache measureResultCache;
+    private final MaterializedMeasureService materializedMeasureService;
+
+    private final Map<UUID, RecalculationJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, UUID> runningJobsByEntity = new ConcurrentHashMap<>();
+
+    // Recalculation jobs run one at a time; reindexing of finished chunks overlaps with the next chunk
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cbap-recalc-", 0).daemon(true).factory());
+    private final ExecutorService reindexExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cbap-recalc-index-", 0).daemon(true).factory());
+
+    public CalculatedFieldRecalculationService(
+            EntityDefinitionRepository entityDefinitionRepository,
+            EntityRecordRepository entityRecordRepository,
+            CalculatedFieldService calculatedFieldService,
+            SearchIndexingService searchIndexingService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeasureResultCache measureResultCache,
+            MaterializedMeasureService materializedMeasureService) {
+        this.entityDefinitionRepository = entityDefinitionRepository;
+        this.entityRecordRepository = entityRecordRepository;
+        this.calculatedFieldService = calculatedFieldService;
+        this.searchIndexingService = searchIndexingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.measureResultCache = measureResultCache;
+        this.materializedMeasureService = materializedMeasureService;
+    }
+
+    /**
+     * Start a recalculation job for an entity.
+     *
+     * @param entityId The entity ID
+     * @param propertyNames Calculated properties to recompute, or null/empty for all
+     * @param chunkSize Records per chunk, or null for the default
+     * @return The job (status PENDING)
+     */
+    public RecalculationJob startRecalculation(String entityId, Collection<String> propertyNames, Integer chunkSize) {
+        EntityDefinition entity = transactionTemplate.execute(status ->
+                entityDefinitionRepository.findByEntityIdWithProperties(entityId)
+                        .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId)));
+
+        Map<String, CompiledExpression> compiled = calculatedFieldService.compileCalculatedFields(
+                entity, propertyNames == null || propertyNames.isEmpty() ? null : propertyNames);
+        if (compiled.isEmpty()) {
+            throw new IllegalArgumentException("Entity has no calculated fields to recalculate: " + entityId);
+        }
+
+        int effectiveChunkSize = chunkSize == null ? DEFAULT_CHUNK_SIZE : chunkSize;
+        if (effectiveChunkSize < 1 || effectiveChunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+
+        RecalculationJob job = new RecalculationJob(UUID.randomUUID(), entityId,
+                new ArrayList<>(compiled.keySet()), effectiveChunkSize);
+        if (runningJobsByEntity.putIfAbsent(entityId, job.getJobId()) != null) {
+            throw new IllegalStateException("A recalculation job is already running for entity: " + entityId);
+        }
+        purgeFinishedJobs();
+        jobs.put(job.getJobId(), job);
+
+        jobExecutor.submit(() -> runJob(job, entity, compiled));
+        logger.info("Recalculation job queued: jobId={}, entityId={}, properties={}",
+                job.getJobId(), entityId, job.getPropertyNames());
+        return job;
+    }
+
+    /**
+     * Get a recalculation job by ID.
+     */
+    public RecalculationJob getJob(UUID jobId) {
+        RecalculationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Recalculation job not found: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Drop finished jobs past the retention period, then the oldest ones beyond the cap.
+     * Jobs only finish after they were started here, so purging on start bounds the map.
+     */
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+
+        List<RecalculationJob> finished = new ArrayList<>();
+        for (RecalculationJob job : jobs.values()) {
+            if (job.getFinishedAt() != null) {
+                finished.add(job);
+            }
+        }
+        if (finished.size() > MAX_FINISHED_JOBS) {
+            finished.sort(Comparator.comparing(RecalculationJob::getFinishedAt));
+            for (RecalculationJob job : finished.subList(0, finished.size() - MAX_FINISHED_JOBS)) {
+                jobs.remove(job.getJobId());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        reindexExecutor.shutdown();
+    }
+
+    private void runJob(RecalculationJob job, EntityDefinition entity, Map<String, CompiledExpression> compiled) {
+        job.start();
+        try {
+            Long total = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, job.getEntityId());
+            job.setTotalRecords(total != null ? total : 0L);
+
+            UUID lastRecordId = MIN_UUID;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<ChunkRow> rows = jdbcTemplate.query(SELECT_CHUNK_SQL,
+                        (rs, rowNum) -> new ChunkRow(rs.getObject("record_id", UUID.class), rs.getString("data_json"),
+                                rs.getString("state"), rs.getLong("version")),
+                        job.getEntityId(), lastRecordId, job.getChunkSize());
+                if (rows.isEmpty()) {
+                    break;
+                }
+                lastRecordId = rows.get(rows.size() - 1).recordId;
+                processChunk(job, entity, compiled, rows);
+            }
+            job.finish(Thread.currentThread().isInterrupted() ? JobStatus.CANCELLED : JobStatus.COMPLETED, null);
+            logger.info("Recalculation job finished: jobId={}, entityId={}, processed={}, updated={}, failed={}, recordsPerSecond={}",
+                    job.getJobId(), job.getEntityId(), job.getProcessedRecords(), job.getUpdatedRecords(),
+                    job.getFailedRecords(), job.getRecordsPerSecond());
+        } catch (Exception e) {
+            logger.error("Recalculation job failed: jobId={}, entityId={}", job.getJobId(), job.getEntityId(), e);
+            job.finish(JobStatus.FAILED, e.getMessage());
+        } finally {
+            runningJobsByEntity.remove(job.getEntityId(), job.getJobId());
+        }
+    }
+
+    private void processChunk(RecalculationJob job, EntityDefinition entity,
+                              Map<String, CompiledExpression> compiled, List<ChunkRow> rows) {
+        List<Object[]> updates = new ArrayList<>();
+        List<UUID> changedIds = new ArrayList<>();
+        List<MaterializedMeasureService.RecordChange> changes = new ArrayList<>();
+        int failed = 0;
+
+        for (ChunkRow row : rows) {
+            try {
+                Map<String, Object> data = row.dataJson == null
+                        ? new HashMap<>()
+                        : objectMapper.readValue(row.dataJson, DATA_TYPE);
+                Map<String, Object> previousData = new HashMap<>(data);
+                if (calculatedFieldService.applyCalculatedFields(job.getEntityId(), compiled, data, null)) {
+                    updates.add(new Object[] { objectMapper.writeValueAsString(data), row.recordId, row.version });
+                    changedIds.add(row.recordId);
+                    changes.add(new MaterializedMeasureService.RecordChange(previousData, row.state, data, row.state));
+                }
+            } catch (Exception e) {
+                failed++;
+                logger.warn("Failed to recalculate record: entityId={}, recordId={}, error={}",
+                        job.getEntityId(), row.recordId, e.getMessage());
+            }
+        }
+
+        int updated = 0;
+        if (!updates.isEmpty()) {
+            List<UUID> updatedIds = new ArrayList<>(changedIds.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_DATA_SQL, updates);
+                List<MaterializedMeasureService.RecordChange> applied = new ArrayList<>(changes.size());
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        updatedIds.add(changedIds.get(i));
+                        applied.add(changes.get(i));
+                    }
+                }
+                materializedMeasureService.applyChanges(job.getEntityId(), applied);
+            });
+            if (updatedIds.size() < changedIds.size()) {
+                logger.debug("Recalculation skipped concurrently modified records: jobId={}, skipped={}",
+                        job.getJobId(), changedIds.size() - updatedIds.size());
+            }
+            updated = updatedIds.size();
+            if (!updatedIds.isEmpty()) {
+                measureResultCache.invalidateEntity(entity.getEntityId());
+                enqueueReindex(entity, updatedIds);
+            }
+        }
+
+        job.recordChunk(rows.size(), updated, failed);
+        logger.debug("Recalculation chunk done: jobId={}, processed={}, updated={}",
+                job.getJobId(), job.getProcessedRecords(), job.getUpdatedRecords());
+    }
+
+    /**
+     * Reindex changed records asynchronously so indexing does not hold up the next chunk.
+     */
+    private void enqueueReindex(EntityDefinition entity, List<UUID> recordIds) {
+        reindexExecutor.submit(() -> {
+            try {
+                // Records deleted since the chunk was written are left out and stay out of the index
+                List<EntityRecord> records = entityRecordRepository.findByEntityIdAndRecordIdIn(
+                        entity.getEntityId(), recordIds);
+                for (EntityRecord record : records) {
+                    try {
+                        searchIndexingService.indexRecord(entity, record);
+                    } catch (Exception e) {
+                        logger.warn("Failed to reindex recalculated record: entityId={}, recordId={}",
+                                entity.getEntityId(), record.getRecordId(), e);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to load recalculated records for reindexing: entityId={}, count={}",
+                        entity.getEntityId(), recordIds.size(), e);
+            }
+        });
+    }
+
+    private record ChunkRow(UUID recordId, String dataJson, String state, long version) {}
+
+    public enum JobStatus {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    /**
+     * Progress of a recalculation job. Counters are updated by the job thread and read by API callers.
+     */
+    public static class RecalculationJob {
+        private final UUID jobId;
+        private final String entityId;
+        private final List<String> propertyNames;
+        private final int chunkSize;
+        private final AtomicLong processedRecords = new AtomicLong();
+        private final AtomicLong updatedRecords = new AtomicLong();
+        private final AtomicLong failedRecords = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private volatile long totalRecords;
+        private volatile JobStatus status = JobStatus.PENDING;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String errorMessage;
+
+        RecalculationJob(UUID jobId, String entityId, List<String> propertyNames, int chunkSize) {
+            this.jobId = jobId;
+            this.entityId = entityId;
+            this.propertyNames = List.copyOf(propertyNames);
+            this.chunkSize = chunkSize;
+        }
+
+        void start() {
+            startedAt = Instant.now();
+            status = JobStatus.RUNNING;
+        }
+
+        void setTotalRecords(long totalRecords) {
+            this.totalRecords = totalRecords;
+        }
+
+        void recordChunk(int processed, int updated, int failed) {
+            processedRecords.addAndGet(processed);
+            updatedRecords.addAndGet(updated);
+            failedRecords.addAndGet(failed);
+            chunks.incrementAndGet();
+        }
+
+        void finish(JobStatus finalStatus, String error) {
+            finishedAt = Instant.now();
+            errorMessage = error;
+            status = finalStatus;
+        }
+
+        /**
+         * Progress in percent of the records counted when the job started.
+         */
+        public double getProgressPercent() {
+            if (status == JobStatus.COMPLETED) {
+                return 100.0;
+            }
+            if (totalRecords == 0) {
+                return 0.0;
+            }
+            return Math.min(100.0, processedRecords.get() * 100.0 / totalRecords);
+        }
+
+        /**
+         * Throughput so far (records per second), based on elapsed wall-clock time.
+         */
+        public double getRecordsPerSecond() {
+            if (startedAt == null) {
+                return 0.0;
+            }
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1L, Duration.between(startedAt, end).toMillis());
+            return processedRecords.get() * 1000.0 / millis;
+        }
+
+        // Getters
+        public UUID getJobId() { return jobId; }
+        public String getEntityId() { return entityId; }
+        public List<String> getPropertyNames() { return propertyNames; }
+        public int getChunkSize() { return chunkSize; }
+        public long getTotalRecords() { return totalRecords; }
+        public long getProcessedRecords() { return processedRecords.get(); }
+        public long getUpdatedRecords() { return updatedRecords.get(); }
+        public long getFailedRecords() { return failedRecords.get(); }
+        public long getChunks() { return chunks.get(); }
+        public JobStatus getStatus() { return status; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public String getErrorMessage() { return errorMessage; }
+    }
+}
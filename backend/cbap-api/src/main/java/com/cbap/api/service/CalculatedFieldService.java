@@ -1,5 +1,6 @@
 package com.cbap.api.service;
 
+import com.cbap.api.service.expression.CompiledExpression;
 import com.cbap.api.service.expression.ExpressionEvaluator;
 import com.cbap.persistence.entity.EntityDefinition;
 import com.cbap.persistence.entity.PropertyDefinition;
@@ -10,8 +11,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -40,33 +44,77 @@ public class CalculatedFieldService {
      */
     @Transactional(readOnly = true)
     public void computeCalculatedFields(EntityDefinition entity, Map<String, Object> recordData, Map<String, Object> parentData) {
-        // Build evaluation context
-        Map<String, Object> context = buildEvaluationContext(recordData, parentData);
+        applyCalculatedFields(entity.getEntityId(), compileCalculatedFields(entity, null), recordData, parentData);
+    }
 
-        // Process each calculated property
+    /**
+     * Compile the expressions of an entity's calculated properties, in property order.
+     * Properties with an expression that cannot be compiled are skipped with a warning.
+     * 
+     * @param entity The entity definition (with properties loaded)
+     * @param propertyNames Restrict to these properties, or null for all calculated properties
+     * @return Compiled expressions keyed by property name
+     */
+    public Map<String, CompiledExpression> compileCalculatedFields(EntityDefinition entity, Collection<String> propertyNames) {
+        Map<String, CompiledExpression> compiled = new LinkedHashMap<>();
         for (PropertyDefinition property : entity.getProperties()) {
+            if (propertyNames != null && !propertyNames.contains(property.getPropertyName())) {
+                continue;
+            }
             if (property.getPropertyType().equals("calculated") && property.getMetadataJson() != null) {
                 Object expressionObj = property.getMetadataJson().get("expression");
                 if (expressionObj instanceof String) {
-                    String expression = (String) expressionObj;
-                    
                     try {
-                        // Evaluate the expression
-                        Object result = ExpressionEvaluator.evaluate(expression, context);
-                        
-                        // Set the calculated value
-                        recordData.put(property.getPropertyName(), result);
-                        
-                        logger.debug("Computed calculated field: {}.{} = {}", 
-                                entity.getEntityId(), property.getPropertyName(), result);
+                        compiled.put(property.getPropertyName(), ExpressionEvaluator.compile((String) expressionObj));
                     } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
-                        logger.warn("Failed to compute calculated field: {}.{}, expression: {}, error: {}", 
-                                entity.getEntityId(), property.getPropertyName(), expression, e.getMessage());
-                        // Don't fail the operation, just log the warning
+                        logger.warn("Invalid calculated field expression: {}.{}, error: {}",
+                                entity.getEntityId(), property.getPropertyName(), e.getMessage());
                     }
                 }
             }
         }
+        return compiled;
+    }
+
+    /**
+     * Evaluate precompiled calculated field expressions against a record.
+     * 
+     * @param entityId The entity ID (for logging)
+     * @param compiled Compiled expressions keyed by property name
+     * @param recordData The record data (will be updated with calculated values)
+     * @param parentData Optional parent record data (for master-detail relationships)
+     * @return true if any calculated value differs from the value previously stored
+     */
+    public boolean applyCalculatedFields(String entityId, Map<String, CompiledExpression> compiled,
+                                         Map<String, Object> recordData, Map<String, Object> parentData) {
+        if (compiled.isEmpty()) {
+            return false;
+        }
+
+        // Build evaluation context
+        Map<String, Object> context = buildEvaluationContext(recordData, parentData);
+
+        boolean changed = false;
+        for (Map.Entry<String, CompiledExpression> entry : compiled.entrySet()) {
+            String propertyName = entry.getKey();
+            try {
+                // Evaluate the expression
+                Object result = entry.getValue().evaluate(context);
+
+                // Set the calculated value
+                Object previous = recordData.put(propertyName, result);
+                if (!Objects.equals(previous, result)) {
+                    changed = true;
+                }
+
+                logger.debug("Computed calculated field: {}.{} = {}", entityId, propertyName, result);
+            } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+                logger.warn("Failed to compute calculated field: {}.{}, expression: {}, error: {}", 
+                        entityId, propertyName, entry.getValue().getExpression(), e.getMessage());
+                // Don't fail the operation, just log the warning
+            }
+        }
+        return changed;
     }
 
     /**
@@ -0,0 +1,249 @@
+package com.cbap.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process bus for lightweight change notifications (task assigned, record
+ * transitioned, ...), consumed by the server-sent event streams.
+ *
+ * Events published inside a transaction are delivered after it commits, so clients
+ * never hear about changes that were rolled back. Task events go to the subscriptions
+ * of the task's assignee, record events to the subscriptions that follow the record.
+ * Delivery never blocks the publisher: each subscription has a bounded queue, and a
+ * subscription whose queue is full loses the event and is flagged as overflowed.
+ *
+ * Only changes made on this instance are delivered.
+ */
+@Component
+public class ChangeEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventBus.class);
+
+    public static final String TASK_ASSIGNED = "task.assigned";
+    public static final String TASK_UPDATED = "task.updated";
+    public static final String TASK_ESCALATED = "task.escalated";
+    public static final String RECORD_TRANSITIONED = "record.transitioned";
+    public static final String RECORD_UPDATED = "record.updated";
+    public static final String RECORD_DELETED = "record.deleted";
+
+    private final Map<UUID, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscription>> subscriptionsByRecord = new ConcurrentHashMap<>();
+
+    /**
+     * Publish an event once the current transaction commits (immediately without one).
+     */
+    public void publish(ChangeEvent event) {
+        publishAll(List.of(event));
+    }
+
+    /**
+     * Publish events once the current transaction commits, e.g. the records of a bulk chunk.
+     */
+    public void publishAll(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.forEach(ChangeEventBus.this::dispatch);
+                }
+            });
+        } else {
+            events.forEach(this::dispatch);
+        }
+    }
+
+    /**
+     * Open a subscription receiving the task events of a user.
+     *
+     * @param queueCapacity Events buffered before the subscription overflows
+     * @param maxPerUser Maximum number of open subscriptions of the user
+     * @throws IllegalStateException If the user already has the maximum number of subscriptions
+     */
+    public Subscription subscribe(UUID userId, int queueCapacity, int maxPerUser) {
+        Subscription subscription = new Subscription(userId, Math.max(1, queueCapacity));
+        synchronized (this) {
+            Set<Subscription> userSubscriptions =
+                    subscriptionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+            if (userSubscriptions.size() >= maxPerUser) {
+                throw new IllegalStateException("Too many open event streams: " + userSubscriptions.size()
+                        + " (maximum " + maxPerUser + ")");
+            }
+            userSubscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Replace the records a subscription follows.
+     */
+    public synchronized void followRecords(Subscription subscription, Collection<UUID> recordIds) {
+        if (subscription.closed) {
+            return;
+        }
+        unfollowAll(subscription);
+        Set<UUID> followed = Set.copyOf(recordIds);
+        for (UUID recordId : followed) {
+            subscriptionsByRecord.computeIfAbsent(recordId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        subscription.recordIds = followed;
+    }
+
+    public synchronized void unsubscribe(Subscription subscription) {
+        if (subscription.closed) {
+            return;
+        }
+        subscription.closed = true;
+        unfollowAll(subscription);
+        Set<Subscription> userSubscriptions = subscriptionsByUser.get(subscription.userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.remove(subscription);
+            if (userSubscriptions.isEmpty()) {
+                subscriptionsByUser.remove(subscription.userId);
+            }
+        }
+    }
+
+    /**
+     * Find an open subscription by ID.
+     */
+    public Subscription findSubscription(UUID userId, UUID subscriptionId) {
+        Set<Subscription> userSubscriptions = subscriptionsByUser.get(userId);
+        if (userSubscriptions == null) {
+            return null;
+        }
+        for (Subscription subscription : userSubscriptions) {
+            if (subscription.id.equals(subscriptionId)) {
+                return subscription;
+            }
+        }
+        return null;
+    }
+
+    private void unfollowAll(Subscription subscription) {
+        for (UUID recordId : subscription.recordIds) {
+            Set<Subscription> recordSubscriptions = subscriptionsByRecord.get(recordId);
+            if (recordSubscriptions != null) {
+                recordSubscriptions.remove(subscription);
+                if (recordSubscriptions.isEmpty()) {
+                    subscriptionsByRecord.remove(recordId);
+                }
+            }
+        }
+        subscription.recordIds = Set.of();
+    }
+
+    private void dispatch(ChangeEvent event) {
+        Set<Subscription> targets = event.userId() != null
+                ? subscriptionsByUser.get(event.userId())
+                : subscriptionsByRecord.get(event.recordId());
+        if (targets == null) {
+            return;
+        }
+        for (Subscription subscription : targets) {
+            if (!subscription.offer(event)) {
+                logger.debug("Event stream subscription overflowed: subscriptionId={}, userId={}",
+                        subscription.id, subscription.userId);
+            }
+        }
+    }
+
+    /**
+     * One consumer of change events, owned by a single reader thread.
+     */
+    public static final class Subscription {
+
+        private final UUID id = UUID.randomUUID();
+        private final UUID userId;
+        private final BlockingQueue<ChangeEvent> queue;
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private volatile Set<UUID> recordIds = Set.of();
+        private volatile boolean closed;
+
+        private Subscription(UUID userId, int queueCapacity) {
+            this.userId = userId;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public UUID getUserId() {
+            return userId;
+        }
+
+        public Set<UUID> getRecordIds() {
+            return recordIds;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Next event, waiting at most the given time.
+         *
+         * @return The event, or null if none arrived in time
+         */
+        public ChangeEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+
+        /**
+         * Whether events were lost since the last call; buffered events are dropped as
+         * well, since the client has to reload its state anyway.
+         */
+        public boolean takeOverflow() {
+            if (!overflowed.getAndSet(false)) {
+                return false;
+            }
+            queue.clear();
+            return true;
+        }
+
+        private boolean offer(ChangeEvent event) {
+            if (queue.offer(event)) {
+                return true;
+            }
+            overflowed.set(true);
+            return false;
+        }
+    }
+
+    /**
+     * A change notification. Task events carry the assignee in {@code userId}; record
+     * events leave it null and are routed by {@code recordId}. {@code data} holds a few
+     * small values (states, version), never record data.
+     */
+    public record ChangeEvent(String type, UUID userId, String entityId, UUID recordId, UUID taskId,
+                              Map<String, Object> data, OffsetDateTime occurredAt) {
+
+        public static ChangeEvent task(String type, UUID assigneeId, String entityId, UUID recordId, UUID taskId,
+                                       Map<String, Object> data) {
+            return new ChangeEvent(type, assigneeId, entityId, recordId, taskId, data, OffsetDateTime.now());
+        }
+
+        public static ChangeEvent record(String type, String entityId, UUID recordId, Map<String, Object> data) {
+            return new ChangeEvent(type, null, entityId, recordId, null, data, OffsetDateTime.now());
+        }
+    }
+}
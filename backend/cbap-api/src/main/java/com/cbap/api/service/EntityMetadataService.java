@@ -23,14 +23,23 @@ public class EntityMetadataService {
     private final EntityDefinitionRepository entityDefinitionRepository;
     private final PropertyDefinitionRepository propertyDefinitionRepository;
     private final UserRepository userRepository;
+    private final ValidationService validationService;
+    private final SearchDisplayService searchDisplayService;
+    private final AggregateMeasureService aggregateMeasureService;
 
     public EntityMetadataService(
             EntityDefinitionRepository entityDefinitionRepository,
             PropertyDefinitionRepository propertyDefinitionRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ValidationService validationService,
+            SearchDisplayService searchDisplayService,
+            AggregateMeasureService aggregateMeasureService) {
         this.entityDefinitionRepository = entityDefinitionRepository;
         this.propertyDefinitionRepository = propertyDefinitionRepository;
         this.userRepository = userRepository;
+        this.validationService = validationService;
+        this.searchDisplayService = searchDisplayService;
+        this.aggregateMeasureService = aggregateMeasureService;
     }
 
     /**
@@ -105,6 +114,7 @@ public class EntityMetadataService {
                 propertyDefinitionRepository.save(property);
             }
         }
+        aggregateMeasureService.invalidateEntity(entity.getEntityId());
 
         // Reload with properties
         entity = entityDefinitionRepository.findByEntityIdWithProperties(entity.getEntityId())
@@ -148,6 +158,9 @@ public class EntityMetadataService {
         }
 
         entity = entityDefinitionRepository.save(entity);
+        validationService.invalidateRuleSet(entityId);
+        searchDisplayService.invalidate(entityId);
+        aggregateMeasureService.invalidateEntity(entityId);
 
         // Reload with properties
         entity = entityDefinitionRepository.findByEntityIdWithProperties(entity.getEntityId())
@@ -170,6 +183,9 @@ public class EntityMetadataService {
         // For now, we allow deletion (cascade will handle related data)
         
         entityDefinitionRepository.delete(entity);
+        validationService.invalidateRuleSet(entityId);
+        searchDisplayService.invalidate(entityId);
+        aggregateMeasureService.invalidateEntity(entityId);
     }
 
     /**
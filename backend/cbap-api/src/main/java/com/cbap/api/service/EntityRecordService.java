@@ -9,6 +9,7 @@ import com.cbap.persistence.repository.EntityRecordRepository;
 import com.cbap.persistence.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -35,6 +36,9 @@ public class EntityRecordService {
     private final com.cbap.search.service.SearchIndexingService searchIndexingService;
     private final ValidationService validationService;
     private final CalculatedFieldService calculatedFieldService;
+    private final MeasureResultCache measureResultCache;
+    private final MaterializedMeasureService materializedMeasureService;
+    private final ChangeEventBus changeEventBus;
 
     public EntityRecordService(
             EntityRecordRepository entityRecordRepository,
@@ -42,13 +46,19 @@ public class EntityRecordService {
             UserRepository userRepository,
             com.cbap.search.service.SearchIndexingService searchIndexingService,
             ValidationService validationService,
-            CalculatedFieldService calculatedFieldService) {
+            CalculatedFieldService calculatedFieldService,
+            MeasureResultCache measureResultCache,
+            MaterializedMeasureService materializedMeasureService,
+            ChangeEventBus changeEventBus) {
         this.entityRecordRepository = entityRecordRepository;
         this.entityDefinitionRepository = entityDefinitionRepository;
         this.userRepository = userRepository;
         this.searchIndexingService = searchIndexingService;
         this.validationService = validationService;
         this.calculatedFieldService = calculatedFieldService;
+        this.measureResultCache = measureResultCache;
+        this.materializedMeasureService = materializedMeasureService;
+        this.changeEventBus = changeEventBus;
     }
 
     /**
@@ -297,6 +307,8 @@ public class EntityRecordService {
         record.setUpdatedBy(user);
 
         record = entityRecordRepository.save(record);
+        measureResultCache.invalidateEntity(entityId);
+        materializedMeasureService.applyChange(entityId, null, null, recordData, record.getState());
 
         // Index in OpenSearch (async, non-blocking)
         try {
@@ -316,9 +328,14 @@ public class EntityRecordService {
 
     /**
      * Update an existing entity record.
+     *
+     * @param expectedVersion Version the caller's update is based on (If-Match), or null to skip the check.
+     *                        The UPDATE itself always compares and sets the version that was read, so an
+     *                        update racing with another write fails instead of overwriting it.
      */
     @Transactional
-    public EntityRecordDTO updateRecord(String entityId, UUID recordId, UpdateRecordRequest request, Authentication authentication) {
+    public EntityRecordDTO updateRecord(String entityId, UUID recordId, UpdateRecordRequest request,
+                                        Long expectedVersion, Authentication authentication) {
         // Get entity definition with properties
         EntityDefinition entity = entityDefinitionRepository.findByEntityIdWithProperties(entityId)
                 .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId));
@@ -326,6 +343,9 @@ public class EntityRecordService {
         // Get record
         EntityRecord existingRecord = entityRecordRepository.findByEntityIdAndRecordId(entityId, recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Record not found: " + recordId));
+        if (expectedVersion != null && !expectedVersion.equals(existingRecord.getVersion())) {
+            throw new RecordVersionConflictException(recordId, expectedVersion, existingRecord.getVersion());
+        }
 
         // Get current user
         User user = getCurrentUser(authentication);
@@ -336,13 +356,14 @@ public class EntityRecordService {
         // Get previous record data for validation context
         Map<String, Object> previousData = existingRecord.getDataJson() != null ? 
                 new HashMap<>(existingRecord.getDataJson()) : new HashMap<>();
+        String previousState = existingRecord.getState();
 
         // Validate data against entity definition
         validateRecordData(entity, request.getData(), false);
         
         // Validate using validation rules
         List<ValidationService.ValidationError> validationErrors = validationService.validateRecord(
-                entityId, request.getData(), "UPDATE", previousData);
+                entityId, recordId, request.getData(), "UPDATE", previousData);
         if (!validationErrors.isEmpty()) {
             StringBuilder errorMessage = new StringBuilder("Validation failed: ");
             for (ValidationService.ValidationError error : validationErrors) {
@@ -374,7 +395,17 @@ public class EntityRecordService {
         }
         existingRecord.setUpdatedBy(user);
 
-        EntityRecord record = entityRecordRepository.save(existingRecord);
+        // Flush now so a concurrent write surfaces here and the DTO carries the new version
+        EntityRecord record;
+        try {
+            record = entityRecordRepository.saveAndFlush(existingRecord);
+        } catch (OptimisticLockingFailureException e) {
+            throw new RecordVersionConflictException(recordId, expectedVersion, null);
+        }
+        measureResultCache.invalidateEntity(entityId);
+        materializedMeasureService.applyChange(entityId, previousData, previousState, recordData, record.getState());
+        changeEventBus.publish(ChangeEventBus.ChangeEvent.record(ChangeEventBus.RECORD_UPDATED, entityId, recordId,
+                Map.of("version", record.getVersion())));
 
         // Re-index in OpenSearch (async, non-blocking)
         try {
@@ -394,12 +425,18 @@ public class EntityRecordService {
 
     /**
      * Soft delete an entity record.
+     *
+     * @param expectedVersion Version the caller's delete is based on (If-Match), or null to skip the check.
+     *                        Like updates, the delete compares and sets the version that was read.
      */
     @Transactional
-    public void deleteRecord(String entityId, UUID recordId, Authentication authentication) {
+    public void deleteRecord(String entityId, UUID recordId, Long expectedVersion, Authentication authentication) {
         // Get record
         EntityRecord record = entityRecordRepository.findByEntityIdAndRecordId(entityId, recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Record not found: " + recordId));
+        if (expectedVersion != null && !expectedVersion.equals(record.getVersion())) {
+            throw new RecordVersionConflictException(recordId, expectedVersion, record.getVersion());
+        }
 
         // Get current user
         User user = getCurrentUser(authentication);
@@ -411,7 +448,15 @@ public class EntityRecordService {
         record.setDeletedAt(OffsetDateTime.now());
         record.setUpdatedBy(user);
 
-        entityRecordRepository.save(record);
+        // Flush now so a concurrent write surfaces here rather than at commit
+        try {
+            entityRecordRepository.saveAndFlush(record);
+        } catch (OptimisticLockingFailureException e) {
+            throw new RecordVersionConflictException(recordId, expectedVersion, null);
+        }
+        measureResultCache.invalidateEntity(entityId);
+        materializedMeasureService.applyChange(entityId, record.getDataJson(), record.getState(), null, null);
+        changeEventBus.publish(ChangeEventBus.ChangeEvent.record(ChangeEventBus.RECORD_DELETED, entityId, recordId, Map.of()));
 
         // Remove from search index
         try {
@@ -585,7 +630,8 @@ public class EntityRecordService {
                 record.getCreatedAt(),
                 record.getUpdatedAt(),
                 record.getCreatedBy() != null ? record.getCreatedBy().getUserId().toString() : null,
-                record.getUpdatedBy() != null ? record.getUpdatedBy().getUserId().toString() : null
+                record.getUpdatedBy() != null ? record.getUpdatedBy().getUserId().toString() : null,
+                record.getVersion()
         );
     }
 
@@ -600,10 +646,12 @@ public class EntityRecordService {
         private final java.time.OffsetDateTime updatedAt;
         private final String createdBy;
         private final String updatedBy;
+        private final Long version;
 
         public EntityRecordDTO(String recordId, String entityId, java.util.Map<String, Object> data,
                               Integer schemaVersion, String state, java.time.OffsetDateTime createdAt,
-                              java.time.OffsetDateTime updatedAt, String createdBy, String updatedBy) {
+                              java.time.OffsetDateTime updatedAt, String createdBy, String updatedBy,
+                              Long version) {
             this.recordId = recordId;
             this.entityId = entityId;
             this.data = data;
@@ -613,6 +661,7 @@ public class EntityRecordService {
             this.updatedAt = updatedAt;
             this.createdBy = createdBy;
             this.updatedBy = updatedBy;
+            this.version = version;
         }
 
         // Getters
@@ -625,6 +674,7 @@ public class EntityRecordService {
         public java.time.OffsetDateTime getUpdatedAt() { return updatedAt; }
         public String getCreatedBy() { return createdBy; }
         public String getUpdatedBy() { return updatedBy; }
+        public Long getVersion() { return version; }
     }
 
     // Request DTOs
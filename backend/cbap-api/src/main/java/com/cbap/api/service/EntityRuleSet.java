@@ -0,0 +1,327 @@
+package com.cbap.api.service;
+
+import com.cbap.api.service.expression.CompiledExpression;
+import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.PropertyDefinition;
+import com.cbap.persistence.entity.ValidationRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable, precompiled validation rules of one entity.
+ *
+ * Built once from the entity definition and its rules, then shared between threads
+ * by {@link ValidationService}. Rules are grouped by scope and, per trigger event,
+ * pre-filtered so validation only iterates rules that apply. Expressions and regex
+ * patterns are compiled up front.
+ */
+public final class EntityRuleSet {
+
+    private final String entityId;
+    private final String entityName;
+    private final Map<String, PropertyInfo> properties;
+    private final Map<String, List<CompiledRule>> fieldRulesByProperty;
+    private final Map<String, RulesForEvent> rulesByEvent;
+    private final RulesForEvent unconditionalRules;
+
+    private EntityRuleSet(String entityId, String entityName, Map<String, PropertyInfo> properties,
+                          Map<String, List<CompiledRule>> fieldRulesByProperty,
+                          Map<String, RulesForEvent> rulesByEvent, RulesForEvent unconditionalRules) {
+        this.entityId = entityId;
+        this.entityName = entityName;
+        this.properties = properties;
+        this.fieldRulesByProperty = fieldRulesByProperty;
+        this.rulesByEvent = rulesByEvent;
+        this.unconditionalRules = unconditionalRules;
+    }
+
+    /**
+     * Build a rule set from an entity (with properties loaded) and all of its validation rules.
+     */
+    public static EntityRuleSet build(EntityDefinition entity, List<ValidationRule> rules) {
+        Map<String, PropertyInfo> properties = new LinkedHashMap<>();
+        for (PropertyDefinition property : entity.getProperties()) {
+            properties.put(property.getPropertyName(), new PropertyInfo(
+                    property.getPropertyName(), property.getLabel(), property.getPropertyType()));
+        }
+
+        List<CompiledRule> compiledRules = new ArrayList<>();
+        Set<String> events = new HashSet<>();
+        for (ValidationRule rule : rules) {
+            PropertyInfo property = rule.getPropertyName() != null ? properties.get(rule.getPropertyName()) : null;
+            CompiledRule compiled = new CompiledRule(entity.getEntityId(), rule, property);
+            compiledRules.add(compiled);
+            events.addAll(compiled.triggerEvents);
+        }
+
+        // Field rules for properties that no longer exist are never evaluated
+        Map<String, List<CompiledRule>> fieldRulesByProperty = new LinkedHashMap<>();
+        for (String propertyName : properties.keySet()) {
+            List<CompiledRule> propertyRules = new ArrayList<>();
+            for (CompiledRule rule : compiledRules) {
+                if (rule.scope == ValidationRule.ValidationScope.FIELD && propertyName.equals(rule.propertyName)) {
+                    propertyRules.add(rule);
+                }
+            }
+            if (!propertyRules.isEmpty()) {
+                fieldRulesByProperty.put(propertyName, List.copyOf(propertyRules));
+            }
+        }
+
+        Map<String, RulesForEvent> rulesByEvent = new HashMap<>();
+        for (String event : events) {
+            rulesByEvent.put(event, RulesForEvent.select(fieldRulesByProperty, compiledRules, event));
+        }
+        RulesForEvent unconditional = RulesForEvent.select(fieldRulesByProperty, compiledRules, null);
+
+        return new EntityRuleSet(entity.getEntityId(), entity.getName(), Collections.unmodifiableMap(properties),
+                Collections.unmodifiableMap(fieldRulesByProperty), Map.copyOf(rulesByEvent), unconditional);
+    }
+
+    /**
+     * Get the rules to evaluate for a trigger event.
+     */
+    public RulesForEvent forEvent(String triggerEvent) {
+        RulesForEvent rules = triggerEvent != null ? rulesByEvent.get(triggerEvent) : null;
+        return rules != null ? rules : unconditionalRules;
+    }
+
+    /**
+     * Get all field rules of a property, regardless of trigger event.
+     */
+    public List<CompiledRule> getFieldRules(String propertyName) {
+        return fieldRulesByProperty.getOrDefault(propertyName, List.of());
+    }
+
+    public PropertyInfo getProperty(String propertyName) {
+        return properties.get(propertyName);
+    }
+
+    public String getEntityId() { return entityId; }
+    public String getEntityName() { return entityName; }
+
+    /**
+     * Rules that apply to one trigger event, in evaluation order.
+     */
+    public static final class RulesForEvent {
+        private final List<FieldRules> fieldRules;
+        private final List<CompiledRule> entityRules;
+        private final List<CompiledRule> crossEntityRules;
+
+        private RulesForEvent(List<FieldRules> fieldRules, List<CompiledRule> entityRules,
+                              List<CompiledRule> crossEntityRules) {
+            this.fieldRules = fieldRules;
+            this.entityRules = entityRules;
+            this.crossEntityRules = crossEntityRules;
+        }
+
+        /**
+         * Select the rules that apply to an event (null selects only rules without trigger events).
+         */
+        private static RulesForEvent select(Map<String, List<CompiledRule>> fieldRulesByProperty,
+                                            List<CompiledRule> rules, String event) {
+            List<FieldRules> fieldRules = new ArrayList<>();
+            for (Map.Entry<String, List<CompiledRule>> entry : fieldRulesByProperty.entrySet()) {
+                List<CompiledRule> applicable = new ArrayList<>();
+                for (CompiledRule rule : entry.getValue()) {
+                    if (rule.appliesTo(event)) {
+                        applicable.add(rule);
+                    }
+                }
+                if (!applicable.isEmpty()) {
+                    fieldRules.add(new FieldRules(entry.getKey(), List.copyOf(applicable)));
+                }
+            }
+
+            List<CompiledRule> entityRules = new ArrayList<>();
+            List<CompiledRule> crossEntityRules = new ArrayList<>();
+            for (CompiledRule rule : rules) {
+                if (!rule.appliesTo(event)) {
+                    continue;
+                }
+                if (rule.scope == ValidationRule.ValidationScope.ENTITY) {
+                    entityRules.add(rule);
+                } else if (rule.scope == ValidationRule.ValidationScope.CROSS_ENTITY) {
+                    crossEntityRules.add(rule);
+                }
+            }
+            return new RulesForEvent(List.copyOf(fieldRules), List.copyOf(entityRules), List.copyOf(crossEntityRules));
+        }
+
+        public List<FieldRules> getFieldRules() { return fieldRules; }
+        public List<CompiledRule> getEntityRules() { return entityRules; }
+        public List<CompiledRule> getCrossEntityRules() { return crossEntityRules; }
+    }
+
+    /**
+     * Field rules of one property.
+     */
+    public static final class FieldRules {
+        private final String propertyName;
+        private final List<CompiledRule> rules;
+
+        FieldRules(String propertyName, List<CompiledRule> rules) {
+            this.propertyName = propertyName;
+            this.rules = rules;
+        }
+
+        public String getPropertyName() { return propertyName; }
+        public List<CompiledRule> getRules() { return rules; }
+    }
+
+    /**
+     * Property metadata needed for validation messages and type checks.
+     */
+    public static final class PropertyInfo {
+        private final String propertyName;
+        private final String label;
+        private final String propertyType;
+
+        PropertyInfo(String propertyName, String label, String propertyType) {
+            this.propertyName = propertyName;
+            this.label = label;
+            this.propertyType = propertyType;
+        }
+
+        /**
+         * Label if set, property name otherwise.
+         */
+        public String getDisplayName() {
+            return label != null ? label : propertyName;
+        }
+
+        public String getPropertyName() { return propertyName; }
+        public String getLabel() { return label; }
+        public String getPropertyType() { return propertyType; }
+    }
+
+    /**
+     * A validation rule with its expression, pattern, bounds and constraint index resolved.
+     */
+    public static final class CompiledRule {
+        private final String validationId;
+        private final ValidationRule.ValidationScope scope;
+        private final ValidationRule.RuleType ruleType;
+        private final String propertyName;
+        private final PropertyInfo property;
+        private final Set<String> triggerEvents;
+        private final String expressionText;
+        private final CompiledExpression expression;
+        private final Pattern pattern;
+        private final String patternError;
+        private final Double min;
+        private final Double max;
+        private final Integer minLength;
+        private final Integer maxLength;
+        private final String errorMessage;
+        private final String errorMessageKey;
+        private final RecordConstraintService.ConstraintIndex constraintIndex;
+
+        CompiledRule(String entityId, ValidationRule rule, PropertyInfo property) {
+            this.validationId = rule.getValidationId().toString();
+            this.scope = rule.getScope();
+            this.ruleType = rule.getRuleType();
+            this.propertyName = rule.getPropertyName();
+            this.property = property;
+            this.triggerEvents = rule.getTriggerEvents() != null ? Set.copyOf(rule.getTriggerEvents()) : Set.of();
+            this.expressionText = rule.getExpression();
+            this.errorMessage = rule.getErrorMessage();
+            this.errorMessageKey = rule.getErrorMessageKey();
+
+            CompiledExpression compiled = null;
+            if (rule.getExpression() != null) {
+                try {
+                    compiled = ExpressionEvaluator.compile(rule.getExpression());
+                } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+                    // Left null: the rule fails like an expression that cannot be evaluated
+                }
+            }
+            this.expression = compiled;
+
+            Map<String, Object> metadata = rule.getMetadataJson();
+            Pattern compiledPattern = null;
+            String compileError = null;
+            if (rule.getRuleType() == ValidationRule.RuleType.PATTERN && metadata != null
+                    && metadata.get("pattern") instanceof String) {
+                try {
+                    compiledPattern = Pattern.compile((String) metadata.get("pattern"));
+                } catch (PatternSyntaxException e) {
+                    compileError = e.getMessage();
+                }
+            }
+            this.pattern = compiledPattern;
+            this.patternError = compileError;
+
+            this.min = metadata != null ? toDouble(metadata.get("min")) : null;
+            this.max = metadata != null ? toDouble(metadata.get("max")) : null;
+            Double minLen = metadata != null ? toDouble(metadata.get("minLength")) : null;
+            Double maxLen = metadata != null ? toDouble(metadata.get("maxLength")) : null;
+            this.minLength = minLen != null ? minLen.intValue() : null;
+            this.maxLength = maxLen != null ? maxLen.intValue() : null;
+            this.constraintIndex = RecordConstraintService.ConstraintIndex.of(
+                    entityId, rule.getRuleType(), rule.getPropertyName(), metadata);
+        }
+
+        /**
+         * Rules without trigger events apply to every event.
+         */
+        boolean appliesTo(String event) {
+            return triggerEvents.isEmpty() || (event != null && triggerEvents.contains(event));
+        }
+
+        private static Double toDouble(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            if (value instanceof String) {
+                try {
+                    return Double.parseDouble((String) value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Whether the rule has an expression to evaluate (which may have failed to compile).
+         */
+        public boolean hasExpression() {
+            return expressionText != null;
+        }
+
+        /**
+         * Evaluate the rule expression as a boolean; a missing or uncompilable expression fails.
+         */
+        public boolean evaluateExpression(Map<String, Object> context) {
+            return expression != null && Boolean.TRUE.equals(expression.evaluateBoolean(context));
+        }
+
+        public String getValidationId() { return validationId; }
+        public ValidationRule.ValidationScope getScope() { return scope; }
+        public ValidationRule.RuleType getRuleType() { return ruleType; }
+        public String getPropertyName() { return propertyName; }
+        public PropertyInfo getProperty() { return property; }
+        public Set<String> getTriggerEvents() { return triggerEvents; }
+        public String getExpressionText() { return expressionText; }
+        public Pattern getPattern() { return pattern; }
+        public String getPatternError() { return patternError; }
+        public Double getMin() { return min; }
+        public Double getMax() { return max; }
+        public Integer getMinLength() { return minLength; }
+        public Integer getMaxLength() { return maxLength; }
+        public String getErrorMessage() { return errorMessage; }
+        public String getErrorMessageKey() { return errorMessageKey; }
+        public RecordConstraintService.ConstraintIndex getConstraintIndex() { return constraintIndex; }
+    }
+}
@@ -0,0 +1,157 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.EventStreamProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent event streams of change notifications, one per open client connection.
+ *
+ * Each stream owns a {@link ChangeEventBus.Subscription} and a virtual thread that
+ * writes its events to the client, so a slow client only ever blocks its own thread.
+ * When it falls behind by more than the per-connection queue, the queued events are
+ * dropped and the client gets a "resync" event telling it to reload what it shows.
+ * A heartbeat comment is sent whenever the stream has been idle for the heartbeat
+ * interval, which keeps proxies from closing it and detects clients that went away.
+ *
+ * Event names: connected (with the connectionId used to change followed records),
+ * task.assigned, task.updated, task.escalated, record.transitioned, record.updated,
+ * record.deleted, resync.
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    private final ChangeEventBus changeEventBus;
+    private final EventStreamProperties properties;
+
+    private final ExecutorService streamThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cbap-event-stream-", 0).factory());
+
+    public EventStreamService(ChangeEventBus changeEventBus, EventStreamProperties properties) {
+        this.changeEventBus = changeEventBus;
+        this.properties = properties;
+    }
+
+    /**
+     * Open a stream for a user, following the given records.
+     *
+     * @throws IllegalArgumentException If too many records are requested
+     * @throws IllegalStateException If the user has too many open streams
+     */
+    public SseEmitter open(UUID userId, Collection<UUID> recordIds) {
+        Collection<UUID> followed = checkRecordIds(recordIds);
+        ChangeEventBus.Subscription subscription = changeEventBus.subscribe(userId,
+                properties.getConnectionQueueCapacity(), properties.getMaxConnectionsPerUser());
+        changeEventBus.followRecords(subscription, followed);
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(properties.getStreamTimeoutMinutes()));
+        emitter.onCompletion(() -> changeEventBus.unsubscribe(subscription));
+        emitter.onTimeout(() -> changeEventBus.unsubscribe(subscription));
+        emitter.onError(error -> changeEventBus.unsubscribe(subscription));
+
+        streamThreads.submit(() -> stream(subscription, emitter));
+        logger.debug("Event stream opened: connectionId={}, userId={}, records={}",
+                subscription.getId(), userId, followed.size());
+        return emitter;
+    }
+
+    /**
+     * Replace the records an open stream of the user follows.
+     *
+     * @return The followed record IDs
+     * @throws IllegalArgumentException If the stream is not open or too many records are requested
+     */
+    public Set<UUID> followRecords(UUID userId, UUID connectionId, Collection<UUID> recordIds) {
+        Collection<UUID> followed = checkRecordIds(recordIds);
+        ChangeEventBus.Subscription subscription = changeEventBus.findSubscription(userId, connectionId);
+        if (subscription == null) {
+            throw new IllegalArgumentException("Event stream not found: " + connectionId);
+        }
+        changeEventBus.followRecords(subscription, followed);
+        return subscription.getRecordIds();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupts the stream threads, which complete their responses
+        streamThreads.shutdownNow();
+    }
+
+    private Collection<UUID> checkRecordIds(Collection<UUID> recordIds) {
+        if (recordIds == null) {
+            return List.of();
+        }
+        Set<UUID> distinct = new HashSet<>(recordIds);
+        distinct.remove(null);
+        if (distinct.size() > properties.getMaxRecordSubscriptions()) {
+            throw new IllegalArgumentException("Too many records to follow: " + distinct.size()
+                    + " (maximum " + properties.getMaxRecordSubscriptions() + ")");
+        }
+        return distinct;
+    }
+
+    private void stream(ChangeEventBus.Subscription subscription, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name("connected").data(Map.of(
+                    "connectionId", subscription.getId(),
+                    "heartbeatSeconds", properties.getHeartbeatSeconds()), MediaType.APPLICATION_JSON));
+
+            while (!subscription.isClosed()) {
+                ChangeEventBus.ChangeEvent event = subscription.poll(properties.getHeartbeatSeconds(), TimeUnit.SECONDS);
+                if (subscription.takeOverflow()) {
+                    emitter.send(SseEmitter.event().name("resync").data(Map.of("reason", "overflow"),
+                            MediaType.APPLICATION_JSON));
+                } else if (event != null) {
+                    emitter.send(SseEmitter.event().name(event.type()).data(toPayload(event), MediaType.APPLICATION_JSON));
+                } else {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected or the stream timed out
+            logger.debug("Event stream closed: connectionId={}, reason={}", subscription.getId(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            changeEventBus.unsubscribe(subscription);
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // Already completed
+            }
+        }
+    }
+
+    private Map<String, Object> toPayload(ChangeEventBus.ChangeEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.type());
+        payload.put("entityId", event.entityId());
+        payload.put("recordId", event.recordId());
+        if (event.taskId() != null) {
+            payload.put("taskId", event.taskId());
+        }
+        if (event.data() != null) {
+            payload.putAll(event.data());
+        }
+        payload.put("occurredAt", event.occurredAt());
+        return payload;
+    }
+}
@@ -0,0 +1,161 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.ExpressionLimitsProperties;
+import com.cbap.api.service.expression.CompiledExpression;
+import com.cbap.api.service.expression.ExpressionAnalyzer;
+import com.cbap.api.service.expression.ExpressionAnalyzer.ValueType;
+import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.Measure;
+import com.cbap.persistence.entity.PropertyDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for checking CEL-v0 expressions when they are saved.
+ *
+ * Expressions are compiled, type-checked against the identifiers that will be in
+ * scope at evaluation time, and rejected if they exceed the configured cost limits,
+ * so broken or pathological expressions never reach the record write path.
+ */
+@Service
+public class ExpressionValidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpressionValidationService.class);
+
+    private final ExpressionLimitsProperties limits;
+
+    public ExpressionValidationService(ExpressionLimitsProperties limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Check a validation rule expression.
+     *
+     * @param entity The entity (with properties loaded)
+     * @param propertyName The property for field-level rules, or null for entity-level rules
+     * @param expression The expression
+     * @return The analysis (warnings only; errors are thrown)
+     * @throws IllegalArgumentException If the expression is invalid or too expensive
+     */
+    public ExpressionAnalyzer.ExpressionAnalysis validateRuleExpression(EntityDefinition entity, String propertyName,
+                                                                       String expression) {
+        Map<String, ValueType> symbols = buildRecordSymbols(entity);
+
+        // Same names ValidationService puts into the evaluation context
+        symbols.put("this", ValueType.OBJECT);
+        symbols.put("previous", ValueType.OBJECT);
+        symbols.put("triggerEvent", ValueType.STRING);
+        symbols.put("entityId", ValueType.STRING);
+        symbols.put("entityName", ValueType.STRING);
+        if (propertyName != null) {
+            symbols.put("value", symbols.getOrDefault(propertyName, ValueType.ANY));
+        }
+
+        ExpressionAnalyzer.ExpressionAnalysis analysis = check(expression, symbols);
+        if (analysis.getResultType() != ValueType.BOOLEAN && analysis.getResultType() != ValueType.ANY) {
+            logger.info("Validation rule expression on {} yields {} and will be converted to boolean: {}",
+                    entity.getEntityId(), analysis.getResultType(), expression);
+        }
+        return analysis;
+    }
+
+    /**
+     * Check a measure expression against its parameters and declared return type.
+     *
+     * @param measure The measure being saved
+     * @return The analysis (warnings only; errors are thrown)
+     * @throws IllegalArgumentException If the expression is invalid or too expensive
+     */
+    public ExpressionAnalyzer.ExpressionAnalysis validateMeasureExpression(Measure measure) {
+        Map<String, ValueType> symbols = new HashMap<>();
+        if (measure.getParametersJson() != null) {
+            for (Map<String, Object> paramDef : measure.getParametersJson()) {
+                Object name = paramDef.get("name");
+                if (name instanceof String) {
+                    Object type = paramDef.get("type");
+                    symbols.put((String) name, ExpressionAnalyzer.typeOf(type instanceof String ? (String) type : null));
+                }
+            }
+        }
+        // Results of other measures, as measures.<identifier>
+        symbols.putIfAbsent(MeasureDependencyGraph.SUB_MEASURES, ValueType.OBJECT);
+
+        ExpressionAnalyzer.ExpressionAnalysis analysis = check(measure.getExpression(), symbols);
+
+        if (measure.getReturnType() != null) {
+            ValueType declared = ExpressionAnalyzer.typeOf(measure.getReturnType().name());
+            ValueType inferred = analysis.getResultType();
+            if (declared != ValueType.ANY && inferred != ValueType.ANY && inferred != ValueType.NULL && declared != inferred) {
+                throw new IllegalArgumentException("Invalid expression: measure returns " + measure.getReturnType().name()
+                        + " but expression yields " + inferred.name().toLowerCase());
+            }
+        }
+        return analysis;
+    }
+
+    /**
+     * Compile, analyze and enforce limits.
+     */
+    private ExpressionAnalyzer.ExpressionAnalysis check(String expression, Map<String, ValueType> symbols) {
+        if (expression != null && expression.length() > limits.getMaxLength()) {
+            throw new IllegalArgumentException("Invalid expression: longer than " + limits.getMaxLength() + " characters");
+        }
+
+        CompiledExpression compiled;
+        try {
+            compiled = ExpressionEvaluator.compile(expression);
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            throw new IllegalArgumentException("Invalid expression: " + e.getMessage());
+        }
+
+        ExpressionAnalyzer.ExpressionAnalysis analysis = ExpressionAnalyzer.analyze(compiled, symbols);
+
+        List<String> problems = new ArrayList<>(analysis.getErrors());
+        if (analysis.getDepth() > limits.getMaxDepth()) {
+            problems.add("nesting depth " + analysis.getDepth() + " exceeds limit " + limits.getMaxDepth());
+        }
+        if (analysis.getNodeCount() > limits.getMaxNodes()) {
+            problems.add(analysis.getNodeCount() + " operations exceed limit " + limits.getMaxNodes());
+        }
+        if (analysis.getArrayIterations() > limits.getMaxArrayIterations()) {
+            problems.add(analysis.getArrayIterations() + " array iterations exceed limit " + limits.getMaxArrayIterations());
+        }
+        if (analysis.getLookups() > limits.getMaxLookups()) {
+            problems.add(analysis.getLookups() + " lookups exceed limit " + limits.getMaxLookups());
+        }
+        if (analysis.getCost() > limits.getMaxCost()) {
+            problems.add("estimated cost " + analysis.getCost() + " exceeds limit " + limits.getMaxCost());
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException("Invalid expression: " + String.join("; ", problems));
+        }
+
+        for (String warning : analysis.getWarnings()) {
+            logger.info("Expression warning: {} ({})", warning, expression);
+        }
+        return analysis;
+    }
+
+    /**
+     * Types of the record fields that are in scope for an entity's expressions.
+     */
+    private Map<String, ValueType> buildRecordSymbols(EntityDefinition entity) {
+        Map<String, ValueType> symbols = new HashMap<>();
+        for (PropertyDefinition property : entity.getProperties()) {
+            Map<String, Object> metadata = property.getMetadataJson();
+            if (metadata != null && Boolean.TRUE.equals(metadata.get("isDetailEntityArray"))) {
+                symbols.put(property.getPropertyName(), ValueType.ARRAY);
+            } else {
+                symbols.put(property.getPropertyName(), ExpressionAnalyzer.typeOf(property.getPropertyType()));
+            }
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,519 @@
+package com.cbap.api.service;
+
+import com.cbap.api.service.expression.AggregateQuery;
+import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.persistence.entity.Measure;
+import com.cbap.persistence.repository.MeasureRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for materialized aggregate measures.
+ *
+ * An aggregate measure with "materialized": true in its metadata is kept as running
+ * sums and counts per group in cbap_measure_materializations. Record writes apply
+ * their delta in the writer's transaction, so reads are a primary-key lookup instead
+ * of a scan. Deltas on a popular group serialize on that group's row; that contention
+ * is accepted for measures that are read far more often than their records change.
+ *
+ * A full rebuild (reconciliation) runs when a measure is saved and periodically to
+ * repair any drift. Until the first
+ * rebuild has finished, reads fall back to the live SQL aggregate.
+ *
+ * The materialized measures of an entity are looked up in cbap_materialized_measures
+ * on the first write and cached; saving or deleting a measure evicts the cache, now
+ * and again when the transaction completes.
+ */
+@Service
+public class MaterializedMeasureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaterializedMeasureService.class);
+
+    private static final String LOCK_SHARED_SQL = "SELECT pg_advisory_xact_lock_shared(hashtext(?))";
+    private static final String LOCK_EXCLUSIVE_SQL = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO cbap_measure_materializations " +
+            "(measure_identifier, version, group_key, group_values, value_sum, value_count, row_count) " +
+            "VALUES (?, ?, ?, ?::jsonb, ?, ?, ?) " +
+            "ON CONFLICT (measure_identifier, version, group_key) DO UPDATE SET " +
+            "value_sum = cbap_measure_materializations.value_sum + EXCLUDED.value_sum, " +
+            "value_count = cbap_measure_materializations.value_count + EXCLUDED.value_count, " +
+            "row_count = cbap_measure_materializations.row_count + EXCLUDED.row_count, " +
+            "updated_at = CURRENT_TIMESTAMP";
+
+    private static final String DELETE_EMPTY_GROUP_SQL =
+            "DELETE FROM cbap_measure_materializations " +
+            "WHERE measure_identifier = ? AND version = ? AND group_key = ? AND row_count <= 0";
+
+    private static final String SELECT_ROWS_SQL =
+            "SELECT group_key, group_values::text AS group_values, value_sum, value_count, row_count " +
+            "FROM cbap_measure_materializations WHERE measure_identifier = ? AND version = ?";
+
+    private static final String DELETE_ROWS_SQL =
+            "DELETE FROM cbap_measure_materializations WHERE measure_identifier = ? AND version = ?";
+
+    private static final String SELECT_STATUS_SQL =
+            "SELECT status FROM cbap_materialized_measures WHERE measure_identifier = ? AND version = ?";
+
+    private static final String REGISTER_SQL =
+            "INSERT INTO cbap_materialized_measures (measure_identifier, version, entity_id, status) " +
+            "VALUES (?, ?, ?, 'BUILDING') " +
+            "ON CONFLICT (measure_identifier, version) DO UPDATE SET entity_id = EXCLUDED.entity_id, status = 'BUILDING'";
+
+    private static final String SELECT_REGISTERED_SQL =
+            "SELECT measure_identifier, version FROM cbap_materialized_measures WHERE entity_id = ?";
+
+    private static final String UNREGISTER_SQL =
+            "DELETE FROM cbap_materialized_measures WHERE measure_identifier = ? AND version = ?";
+
+    private static final String MARK_READY_SQL =
+            "UPDATE cbap_materialized_measures SET status = 'READY', reconciled_at = CURRENT_TIMESTAMP " +
+            "WHERE measure_identifier = ? AND version = ?";
+
+    private static final TypeReference<List<String>> GROUP_VALUES_TYPE = new TypeReference<>() {};
+
+    private final MeasureRepository measureRepository;
+    private final AggregateMeasureService aggregateMeasureService;
+    private final MeasureResultCache measureResultCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Materialized measures by source entity, loaded on first use
+    private final Map<String, List<MaterializedMeasure>> measuresByEntity = new ConcurrentHashMap<>();
+    // Bumped on every eviction; a load that raced a measure change is not cached
+    private final AtomicLong measuresGeneration = new AtomicLong();
+    private final Set<String> pendingReconciles = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cbap-measure-reconcile-", 0).daemon(true).factory());
+
+    public MaterializedMeasureService(MeasureRepository measureRepository,
+                                      AggregateMeasureService aggregateMeasureService,
+                                      MeasureResultCache measureResultCache,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper) {
+        this.measureRepository = measureRepository;
+        this.aggregateMeasureService = aggregateMeasureService;
+        this.measureResultCache = measureResultCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Apply one record write to the materialized measures of its entity.
+     * Must run in the writer's transaction so the summary commits (or rolls back) with the record.
+     *
+     * @param oldData Data before the write (null for a new record)
+     * @param newData Data after the write (null for a deleted record)
+     */
+    public void applyChange(String entityId, Map<String, Object> oldData, String oldState,
+                            Map<String, Object> newData, String newState) {
+        applyChanges(entityId, List.of(new RecordChange(oldData, oldState, newData, newState)));
+    }
+
+    /**
+     * Apply a batch of record writes, netting the deltas per group first.
+     */
+    public void applyChanges(String entityId, List<RecordChange> changes) {
+        List<MaterializedMeasure> measures = measuresFor(entityId);
+        if (measures.isEmpty() || changes.isEmpty()) {
+            return;
+        }
+        Set<String> propertyNames = aggregateMeasureService.propertyNames(entityId);
+        for (MaterializedMeasure measure : measures) {
+            // Sorted by group key so concurrent writers lock group rows in the same order
+            Map<String, GroupDelta> deltas = new TreeMap<>();
+            for (RecordChange change : changes) {
+                addContribution(deltas, measure.query.contributionOf(change.oldData, change.oldState, propertyNames), -1);
+                addContribution(deltas, measure.query.contributionOf(change.newData, change.newState, propertyNames), 1);
+            }
+            deltas.values().removeIf(GroupDelta::isZero);
+            if (deltas.isEmpty()) {
+                continue;
+            }
+
+            jdbcTemplate.queryForObject(LOCK_SHARED_SQL, Object.class, measure.lockKey());
+            List<Object[]> upserts = new ArrayList<>();
+            List<Object[]> emptied = new ArrayList<>();
+            for (Map.Entry<String, GroupDelta> entry : deltas.entrySet()) {
+                GroupDelta delta = entry.getValue();
+                upserts.add(new Object[] { measure.identifier, measure.version, entry.getKey(),
+                        toJson(delta.groupValues), delta.sum, delta.count, delta.rows });
+                if (delta.rows < 0) {
+                    emptied.add(new Object[] { measure.identifier, measure.version, entry.getKey() });
+                }
+            }
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, upserts);
+            if (!emptied.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_EMPTY_GROUP_SQL, emptied);
+            }
+        }
+    }
+
+    /**
+     * Whether a measure's summary has been built and can be read.
+     */
+    public boolean isReady(Measure measure) {
+        List<String> status = jdbcTemplate.queryForList(SELECT_STATUS_SQL, String.class,
+                measure.getMeasureIdentifier(), measure.getVersion());
+        return !status.isEmpty() && "READY".equals(status.get(0));
+    }
+
+    /**
+     * Read a materialized measure; same result shape as {@link AggregateMeasureService#evaluate}.
+     */
+    public Object read(Measure measure) {
+        AggregateQuery query = aggregateMeasureService.parse(measure);
+        List<SummaryRow> rows = loadRows(measure.getMeasureIdentifier(), measure.getVersion());
+
+        if (query.getGroupBy().isEmpty()) {
+            SummaryRow row = rows.isEmpty() ? SummaryRow.EMPTY : rows.get(0);
+            return valueOf(query, row);
+        }
+        rows.sort(Comparator.comparing(SummaryRow::groupValues, MaterializedMeasureService::compareGroups));
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (SummaryRow row : rows) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (int g = 0; g < query.getGroupBy().size(); g++) {
+                out.put(query.getGroupBy().get(g), row.groupValues.get(g));
+            }
+            out.put("value", valueOf(query, row));
+            result.add(out);
+        }
+        return result;
+    }
+
+    /**
+     * React to a measure being saved: register it for materialization and rebuild it after
+     * commit, or drop its summary if it is no longer materialized.
+     */
+    public void measureSaved(Measure measure) {
+        if (AggregateMeasureService.isMaterialized(measure)) {
+            AggregateQuery query = aggregateMeasureService.parse(measure);
+            jdbcTemplate.update(REGISTER_SQL, measure.getMeasureIdentifier(), measure.getVersion(), query.getEntityId());
+            afterCommit(() -> requestReconcile(measure.getMeasureIdentifier(), measure.getVersion()));
+        } else {
+            jdbcTemplate.update(UNREGISTER_SQL, measure.getMeasureIdentifier(), measure.getVersion());
+        }
+        invalidateMeasures();
+    }
+
+    /**
+     * Drop the summary of a deleted measure version.
+     */
+    public void measureDeleted(String measureIdentifier, Integer version) {
+        jdbcTemplate.update(UNREGISTER_SQL, measureIdentifier, version);
+        invalidateMeasures();
+    }
+
+    /**
+     * Periodically rebuild all materialized measures to repair drift.
+     */
+    @Scheduled(initialDelayString = "${cbap.measures.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${cbap.measures.reconcile-interval-ms:3600000}")
+    public void reconcileAll() {
+        for (Measure measure : measureRepository.findAllOrdered()) {
+            if (AggregateMeasureService.isMaterialized(measure)) {
+                requestReconcile(measure.getMeasureIdentifier(), measure.getVersion());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    private void requestReconcile(String measureIdentifier, Integer version) {
+        String key = measureIdentifier + ":" + version;
+        if (!pendingReconciles.add(key)) {
+            return;
+        }
+        reconcileExecutor.submit(() -> {
+            pendingReconciles.remove(key);
+            try {
+                measureRepository.findByMeasureIdentifierAndVersion(measureIdentifier, version)
+                        .filter(AggregateMeasureService::isMaterialized)
+                        .ifPresent(this::reconcile);
+            } catch (Exception e) {
+                logger.error("Failed to reconcile materialized measure: {} version {}", measureIdentifier, version, e);
+            }
+        });
+    }
+
+    /**
+     * Rebuild a measure's summary from the records, holding the measure lock exclusively
+     * so no delta is applied halfway through.
+     */
+    void reconcile(Measure measure) {
+        AggregateQuery query = aggregateMeasureService.parse(measure);
+        AggregateQuery.CompiledSql sql;
+        try {
+            sql = query.toReconcileSql(aggregateMeasureService.propertyNames(query.getEntityId()));
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        String identifier = measure.getMeasureIdentifier();
+        Integer version = measure.getVersion();
+        long start = System.nanoTime();
+
+        int drifted = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject(LOCK_EXCLUSIVE_SQL, Object.class, MaterializedMeasure.lockKey(identifier, version));
+            Map<String, SummaryRow> previous = new HashMap<>();
+            for (SummaryRow row : loadRows(identifier, version)) {
+                previous.put(row.groupKey, row);
+            }
+
+            int groups = query.getGroupBy().size();
+            List<SummaryRow> rebuilt = jdbcTemplate.query(sql.getSql(), (rs, rowNum) -> {
+                List<String> groupValues = new ArrayList<>(groups);
+                for (int g = 0; g < groups; g++) {
+                    groupValues.add(rs.getString("g" + g));
+                }
+                return new SummaryRow(MeasureResultCache.canonical(groupValues), groupValues,
+                        rs.getBigDecimal("value_sum"), rs.getLong("value_count"), rs.getLong("row_count"));
+            }, sql.getArgs().toArray());
+
+            List<Object[]> inserts = new ArrayList<>();
+            int changed = 0;
+            for (SummaryRow row : rebuilt) {
+                if (row.rows == 0) {
+                    continue; // ungrouped aggregate over no records
+                }
+                if (!row.sameTotals(previous.remove(row.groupKey))) {
+                    changed++;
+                }
+                inserts.add(new Object[] { identifier, version, row.groupKey, toJson(row.groupValues),
+                        row.sum, row.count, row.rows });
+            }
+            changed += previous.size();
+
+            jdbcTemplate.update(DELETE_ROWS_SQL, identifier, version);
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, inserts);
+            jdbcTemplate.update(MARK_READY_SQL, identifier, version);
+            return changed;
+        });
+
+        measureResultCache.invalidateMeasure(identifier);
+        if (drifted > 0) {
+            logger.info("Reconciled materialized measure: {} version {}, {} group(s) changed in {} ms",
+                    identifier, version, drifted, (System.nanoTime() - start) / 1_000_000);
+        } else {
+            logger.debug("Reconciled materialized measure: {} version {} in {} ms",
+                    identifier, version, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private List<MaterializedMeasure> measuresFor(String entityId) {
+        List<MaterializedMeasure> cached = measuresByEntity.get(entityId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedGeneration = measuresGeneration.get();
+        List<MaterializedMeasure> measures = loadMeasures(entityId);
+        if (measuresGeneration.get() == loadedGeneration) {
+            measuresByEntity.put(entityId, measures);
+        }
+        return measures;
+    }
+
+    /**
+     * Load the measures registered for one entity; only those are fetched and parsed.
+     */
+    private List<MaterializedMeasure> loadMeasures(String entityId) {
+        Set<String> registered = new HashSet<>();
+        Set<String> identifiers = new HashSet<>();
+        jdbcTemplate.query(SELECT_REGISTERED_SQL, rs -> {
+            registered.add(rs.getString("measure_identifier") + ":" + rs.getInt("version"));
+            identifiers.add(rs.getString("measure_identifier"));
+        }, entityId);
+        if (identifiers.isEmpty()) {
+            return List.of();
+        }
+
+        List<MaterializedMeasure> measures = new ArrayList<>();
+        for (Measure measure : measureRepository.findByMeasureIdentifierIn(identifiers)) {
+            if (!registered.contains(measure.getMeasureIdentifier() + ":" + measure.getVersion())
+                    || !AggregateMeasureService.isMaterialized(measure)) {
+                continue;
+            }
+            try {
+                AggregateQuery query = aggregateMeasureService.parse(measure);
+                if (entityId.equals(query.getEntityId())) {
+                    measures.add(new MaterializedMeasure(measure.getMeasureIdentifier(), measure.getVersion(), query));
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping materialized measure {} version {}: {}",
+                        measure.getMeasureIdentifier(), measure.getVersion(), e.getMessage());
+            }
+        }
+        return List.copyOf(measures);
+    }
+
+    /**
+     * Evict the measures by entity, now and again when the current transaction completes,
+     * so writers pick up a registration change once it is visible to them.
+     */
+    private void invalidateMeasures() {
+        evictMeasures();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictMeasures();
+                }
+            });
+        }
+    }
+
+    private void evictMeasures() {
+        measuresGeneration.incrementAndGet();
+        measuresByEntity.clear();
+    }
+
+    private List<SummaryRow> loadRows(String measureIdentifier, Integer version) {
+        return jdbcTemplate.query(SELECT_ROWS_SQL, (rs, rowNum) -> new SummaryRow(
+                rs.getString("group_key"), fromJson(rs.getString("group_values")),
+                rs.getBigDecimal("value_sum"), rs.getLong("value_count"), rs.getLong("row_count")),
+                measureIdentifier, version);
+    }
+
+    private static void addContribution(Map<String, GroupDelta> deltas, AggregateQuery.Contribution contribution, int sign) {
+        if (contribution == null) {
+            return;
+        }
+        String groupKey = MeasureResultCache.canonical(contribution.getGroupValues());
+        GroupDelta delta = deltas.computeIfAbsent(groupKey, key -> new GroupDelta(contribution.getGroupValues()));
+        if (contribution.getValue() != null) {
+            delta.sum = sign > 0 ? delta.sum.add(contribution.getValue()) : delta.sum.subtract(contribution.getValue());
+        }
+        if (contribution.isCounted()) {
+            delta.count += sign;
+        }
+        delta.rows += sign;
+    }
+
+    private static Double valueOf(AggregateQuery query, SummaryRow row) {
+        switch (query.getFunction()) {
+            case COUNT:
+                return (double) row.count;
+            case AVG:
+                return row.count == 0 ? null : row.sum.divide(BigDecimal.valueOf(row.count), MathContext.DECIMAL64).doubleValue();
+            default:
+                return row.sum.doubleValue();
+        }
+    }
+
+    /**
+     * Group order of the live query (ORDER BY group columns COLLATE "C", nulls last).
+     */
+    private static int compareGroups(List<String> a, List<String> b) {
+        for (int g = 0; g < a.size(); g++) {
+            int c = Comparator.<String>nullsLast(AggregateQuery::compareText).compare(a.get(g), b.get(g));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private String toJson(List<String> groupValues) {
+        try {
+            return objectMapper.writeValueAsString(groupValues);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize group values", e);
+        }
+    }
+
+    private List<String> fromJson(String groupValues) {
+        try {
+            return objectMapper.readValue(groupValues, GROUP_VALUES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read group values", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * One record write: data and state before and after (null data for no record).
+     */
+    public record RecordChange(Map<String, Object> oldData, String oldState,
+                               Map<String, Object> newData, String newState) {
+    }
+
+    private record MaterializedMeasure(String identifier, Integer version, AggregateQuery query) {
+        String lockKey() {
+            return lockKey(identifier, version);
+        }
+
+        static String lockKey(String identifier, Integer version) {
+            return "cbap-measure:" + identifier + ":" + version;
+        }
+    }
+
+    private record SummaryRow(String groupKey, List<String> groupValues, BigDecimal sum, long count, long rows) {
+        static final SummaryRow EMPTY = new SummaryRow("", List.of(), BigDecimal.ZERO, 0, 0);
+
+        boolean sameTotals(SummaryRow other) {
+            return other != null && sum.compareTo(other.sum) == 0 && count == other.count && rows == other.rows;
+        }
+    }
+
+    private static final class GroupDelta {
+        private final List<String> groupValues;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private long count;
+        private long rows;
+
+        GroupDelta(List<String> groupValues) {
+            this.groupValues = groupValues;
+        }
+
+        boolean isZero() {
+            return sum.signum() == 0 && count == 0 && rows == 0;
+        }
+    }
+}
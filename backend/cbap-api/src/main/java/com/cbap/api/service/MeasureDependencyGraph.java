@@ -0,0 +1,198 @@
+package com.cbap.api.service;
+
+import com.cbap.persistence.entity.Measure;
+import com.cbap.persistence.repository.MeasureRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measure-to-measure dependency graph.
+ *
+ * A measure expression refers to other measures as {@code measures.<identifier>};
+ * each reference is recorded in the measure's dependsOnJson as
+ * {@code {"measure": "<identifier>"}} (optionally with a pinned "version"). The graph
+ * is built from those entries over all stored measure versions, is checked for cycles
+ * when a measure is saved, and answers which measures depend on a changed one.
+ */
+@Component
+public class MeasureDependencyGraph {
+
+    /**
+     * Identifier under which sub-measure results are visible to an expression.
+     */
+    public static final String SUB_MEASURES = "measures";
+
+    private final MeasureRepository measureRepository;
+
+    // Snapshot built from the stored measures; null until loaded and after a measure changes
+    private volatile Graph graph;
+
+    public MeasureDependencyGraph(MeasureRepository measureRepository) {
+        this.measureRepository = measureRepository;
+    }
+
+    /**
+     * Measures a measure depends on, from its dependsOnJson, in declaration order.
+     */
+    public static List<MeasureDependency> measureDependencies(List<Map<String, Object>> dependsOnJson) {
+        List<MeasureDependency> dependencies = new ArrayList<>();
+        if (dependsOnJson != null) {
+            for (Map<String, Object> dependency : dependsOnJson) {
+                if (dependency != null && dependency.get("measure") instanceof String identifier) {
+                    Integer version = dependency.get("version") instanceof Number number ? number.intValue() : null;
+                    MeasureDependency measureDependency = new MeasureDependency(identifier, version);
+                    if (!dependencies.contains(measureDependency)) {
+                        dependencies.add(measureDependency);
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Record the sub-measures a measure's expression references in its dependsOnJson and
+     * reject references to unknown measures and dependency cycles.
+     *
+     * @param referenced Identifiers used as {@code measures.<identifier>} in the expression
+     * @throws IllegalArgumentException If a referenced measure does not exist or the measure
+     *         would (transitively) depend on itself
+     */
+    public void resolveDependencies(Measure measure, Collection<String> referenced) {
+        List<Map<String, Object>> dependsOn = measure.getDependsOnJson() != null
+                ? new ArrayList<>(measure.getDependsOnJson()) : new ArrayList<>();
+        Set<String> declared = new LinkedHashSet<>();
+        measureDependencies(dependsOn).forEach(dependency -> declared.add(dependency.identifier()));
+        for (String identifier : referenced) {
+            if (!declared.contains(identifier)) {
+                dependsOn.add(Map.of("measure", identifier));
+                declared.add(identifier);
+            }
+        }
+
+        for (MeasureDependency dependency : measureDependencies(dependsOn)) {
+            boolean exists = dependency.version() != null
+                    ? measureRepository.findByMeasureIdentifierAndVersion(dependency.identifier(), dependency.version()).isPresent()
+                    : !measureRepository.findByMeasureIdentifier(dependency.identifier()).isEmpty();
+            if (!exists) {
+                throw new IllegalArgumentException("Invalid dependency: measure not found: " + dependency.identifier()
+                        + (dependency.version() != null ? " version " + dependency.version() : ""));
+            }
+        }
+        if (!dependsOn.isEmpty() || measure.getDependsOnJson() != null) {
+            measure.setDependsOnJson(dependsOn);
+        }
+
+        List<String> cycle = findCycle(measure.getMeasureIdentifier(), declared);
+        if (cycle != null) {
+            throw new IllegalArgumentException("Invalid dependency: measure dependency cycle " + String.join(" -> ", cycle));
+        }
+    }
+
+    /**
+     * Measures that depend on the given one, directly or transitively.
+     */
+    public Set<String> getDependents(String measureIdentifier) {
+        Graph current = graph();
+        Set<String> dependents = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(measureIdentifier));
+        while (!pending.isEmpty()) {
+            for (String dependent : current.dependents.getOrDefault(pending.poll(), Set.of())) {
+                if (!dependent.equals(measureIdentifier) && dependents.add(dependent)) {
+                    pending.add(dependent);
+                }
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Drop the graph after a measure is saved or deleted; it is rebuilt on next use.
+     * Dropped again after commit so a rebuild that raced the write does not survive.
+     */
+    public void invalidate() {
+        graph = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    graph = null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Path from the measure back to itself through its new dependencies, or null.
+     */
+    private List<String> findCycle(String measureIdentifier, Set<String> dependencies) {
+        Graph current = graph();
+        Map<String, String> reachedFrom = new HashMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        for (String dependency : dependencies) {
+            if (reachedFrom.putIfAbsent(dependency, measureIdentifier) == null) {
+                pending.add(dependency);
+            }
+        }
+        while (!pending.isEmpty()) {
+            String node = pending.poll();
+            // Reaching the measure ends the search, so its previously stored edges are never followed
+            if (node.equals(measureIdentifier)) {
+                List<String> path = new ArrayList<>();
+                String step = measureIdentifier;
+                do {
+                    path.add(0, step);
+                    step = reachedFrom.get(step);
+                } while (!step.equals(measureIdentifier));
+                path.add(0, measureIdentifier);
+                return path;
+            }
+            for (String next : current.dependencies.getOrDefault(node, Set.of())) {
+                if (reachedFrom.putIfAbsent(next, node) == null) {
+                    pending.add(next);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Graph graph() {
+        Graph current = graph;
+        if (current == null) {
+            current = new Graph();
+            for (Measure measure : measureRepository.findAllOrdered()) {
+                for (MeasureDependency dependency : measureDependencies(measure.getDependsOnJson())) {
+                    current.dependencies.computeIfAbsent(measure.getMeasureIdentifier(), id -> new LinkedHashSet<>())
+                            .add(dependency.identifier());
+                    current.dependents.computeIfAbsent(dependency.identifier(), id -> new LinkedHashSet<>())
+                            .add(measure.getMeasureIdentifier());
+                }
+            }
+            graph = current;
+        }
+        return current;
+    }
+
+    /**
+     * A dependency on another measure (version null = latest).
+     */
+    public record MeasureDependency(String identifier, Integer version) {
+    }
+
+    private static final class Graph {
+        // Edges over identifiers, merged across versions
+        private final Map<String, Set<String>> dependencies = new HashMap<>();
+        private final Map<String, Set<String>> dependents = new HashMap<>();
+    }
+}
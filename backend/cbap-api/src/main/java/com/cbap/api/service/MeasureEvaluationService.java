@@ -1,35 +1,75 @@
 package com.cbap.api.service;
 
+import com.cbap.api.config.MeasureProperties;
+import com.cbap.api.service.expression.ColumnarEvaluator;
+import com.cbap.api.service.expression.CompiledExpression;
 import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.api.service.expression.NumericColumn;
 import com.cbap.persistence.entity.Measure;
 import com.cbap.persistence.repository.MeasureRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Service for measure evaluation.
  * 
  * Evaluates measures with parameter resolution, expression evaluation,
- * and aggregate functions (sum, count, exists).
+ * and aggregate functions (sum, count, exists). Entity-level aggregate measures
+ * (definition type "aggregate") are delegated to {@link AggregateMeasureService}, or
+ * read from their summary table by {@link MaterializedMeasureService} when materialized.
+ * Expressions can use other measures as measures.<identifier> (see {@link MeasureDependencyGraph}).
+ * 
+ * Results are shared across requests through {@link MeasureResultCache}.
  */
 @Service
 public class MeasureEvaluationService {
 
     private static final Logger logger = LoggerFactory.getLogger(MeasureEvaluationService.class);
 
-    private final MeasureRepository measureRepository;
+    private static final String SELECT_RECORD_PAGE_SQL =
+            "SELECT record_id, data_json::text AS data_json FROM cbap_entity_records " +
+            "WHERE entity_id = ? AND deleted_at IS NULL AND record_id > ? " +
+            "ORDER BY record_id LIMIT ?";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
 
-    // Request-scoped cache for measure results
-    // Key: measureId:version:paramsHash, Value: evaluation result
-    private final ThreadLocal<Map<String, Object>> measureCache = ThreadLocal.withInitial(ConcurrentHashMap::new);
+    private final MeasureRepository measureRepository;
+    private final MeasureResultCache measureResultCache;
+    private final AggregateMeasureService aggregateMeasureService;
+    private final MaterializedMeasureService materializedMeasureService;
+    private final MeasureProperties measureProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
 
-    public MeasureEvaluationService(MeasureRepository measureRepository) {
+    public MeasureEvaluationService(MeasureRepository measureRepository,
+                                    MeasureResultCache measureResultCache,
+                                    AggregateMeasureService aggregateMeasureService,
+                                    MaterializedMeasureService materializedMeasureService,
+                                    MeasureProperties measureProperties,
+                                    JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper) {
         this.measureRepository = measureRepository;
+        this.measureResultCache = measureResultCache;
+        this.aggregateMeasureService = aggregateMeasureService;
+        this.materializedMeasureService = materializedMeasureService;
+        this.measureProperties = measureProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -42,6 +82,15 @@ public class MeasureEvaluationService {
      */
     @Transactional(readOnly = true)
     public Object evaluateMeasure(String measureIdentifier, Integer version, Map<String, Object> parameters) {
+        // Check cache (keyed by the requested version, so "latest" hits skip the measure lookup)
+        MeasureResultCache.CacheKey cacheKey = measureResultCache.key(measureIdentifier, version, parameters);
+        MeasureResultCache.CachedResult cached = measureResultCache.get(cacheKey);
+        if (cached != null) {
+            logger.debug("Cache hit for measure: {} version {}", measureIdentifier, version);
+            return cached.getValue();
+        }
+        long cacheGeneration = measureResultCache.generation();
+
         // Get the measure
         Optional<Measure> measureOpt;
         if (version != null) {
@@ -55,37 +104,340 @@ public class MeasureEvaluationService {
                     (version != null ? " version " + version : ""));
         }
 
-        Measure measure = measureOpt.get();
+        return evaluateDefinition(measureOpt.get(), parameters, cacheKey, cacheGeneration,
+                new EvaluationScope(measureIdentifier)).value();
+    }
+
+    /**
+     * Evaluate many measures in one call, e.g. all KPI pins of a dashboard.
+     *
+     * Identical requests (same measure, version and parameters) are evaluated once.
+     * Cached results are served directly; the definitions of the rest are loaded in one
+     * query and evaluated concurrently on virtual threads, at most
+     * cbap.measures.batch-concurrency at a time. A request that fails gets an error of
+     * its own and does not fail the batch.
+     *
+     * Not transactional on purpose: a transaction here would hold a connection while
+     * the evaluations wait for theirs.
+     *
+     * @param requests The evaluations, in order
+     * @return Per-request results, in input order
+     */
+    public List<MeasureEvaluation> evaluateMeasures(List<MeasureRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one measure request is required");
+        }
+        if (requests.size() > measureProperties.getBatchMaxRequests()) {
+            throw new IllegalArgumentException("Too many measure requests: " + requests.size()
+                    + " (maximum " + measureProperties.getBatchMaxRequests() + ")");
+        }
+        long start = System.nanoTime();
 
-        // Check cache
-        String cacheKey = buildCacheKey(measureIdentifier, measure.getVersion(), parameters);
-        Map<String, Object> cache = measureCache.get();
-        if (cache.containsKey(cacheKey)) {
-            logger.debug("Cache hit for measure: {} version {}", measureIdentifier, measure.getVersion());
-            return cache.get(cacheKey);
+        // Deduplicate by cache key; each distinct evaluation remembers the positions it answers
+        Map<MeasureResultCache.CacheKey, List<Integer>> positionsByKey = new LinkedHashMap<>();
+        MeasureEvaluation[] results = new MeasureEvaluation[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            MeasureRequest request = requests.get(i);
+            if (request == null || request.getMeasureIdentifier() == null || request.getMeasureIdentifier().isBlank()) {
+                results[i] = MeasureEvaluation.failed(i, null, null, "measureIdentifier is required");
+                continue;
+            }
+            MeasureResultCache.CacheKey key = measureResultCache.key(request.getMeasureIdentifier(), request.getVersion(),
+                    request.getParameters() != null ? request.getParameters() : Map.of());
+            positionsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
         }
 
+        Map<MeasureResultCache.CacheKey, Map<String, Object>> pending = new LinkedHashMap<>();
+        for (Map.Entry<MeasureResultCache.CacheKey, List<Integer>> entry : positionsByKey.entrySet()) {
+            MeasureResultCache.CachedResult cached = measureResultCache.get(entry.getKey());
+            if (cached != null) {
+                fill(results, requests, entry.getValue(), cached.getValue(), null);
+            } else {
+                MeasureRequest first = requests.get(entry.getValue().get(0));
+                pending.put(entry.getKey(), first.getParameters() != null ? first.getParameters() : Map.of());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            long cacheGeneration = measureResultCache.generation();
+            Map<String, List<Measure>> versionsByIdentifier = new HashMap<>();
+            Set<String> identifiers = new HashSet<>();
+            pending.keySet().forEach(key -> identifiers.add(key.measureIdentifier()));
+            for (Measure measure : measureRepository.findByMeasureIdentifierIn(identifiers)) {
+                versionsByIdentifier.computeIfAbsent(measure.getMeasureIdentifier(), id -> new ArrayList<>()).add(measure);
+            }
+
+            Semaphore permits = new Semaphore(Math.max(1, measureProperties.getBatchConcurrency()));
+            Map<MeasureResultCache.CacheKey, Future<Object>> futures = new LinkedHashMap<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Map.Entry<MeasureResultCache.CacheKey, Map<String, Object>> entry : pending.entrySet()) {
+                    MeasureResultCache.CacheKey key = entry.getKey();
+                    Measure measure = selectVersion(versionsByIdentifier.get(key.measureIdentifier()),
+                            key.measureIdentifier(), key.version());
+                    if (measure == null) {
+                        fill(results, requests, positionsByKey.get(key), null, "Measure not found: " + key.measureIdentifier()
+                                + (key.version() != null ? " version " + key.version() : ""));
+                        continue;
+                    }
+                    futures.put(key, executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            return evaluateDefinition(measure, entry.getValue(), key, cacheGeneration,
+                                    new EvaluationScope(key.measureIdentifier())).value();
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+
+                for (Map.Entry<MeasureResultCache.CacheKey, Future<Object>> entry : futures.entrySet()) {
+                    List<Integer> positions = positionsByKey.get(entry.getKey());
+                    try {
+                        fill(results, requests, positions, entry.getValue().get(), null);
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        fill(results, requests, positions, null,
+                                cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+                    }
+                }
+            } catch (InterruptedException e) {
+                futures.values().forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Batch measure evaluation interrupted");
+            }
+        }
+
+        logger.debug("Batch evaluated {} measure requests ({} distinct, {} evaluated) in {} ms", requests.size(),
+                positionsByKey.size(), pending.size(), (System.nanoTime() - start) / 1_000_000);
+        return Arrays.asList(results);
+    }
+
+    private static Measure selectVersion(List<Measure> versions, String measureIdentifier, Integer version) {
+        if (versions == null) {
+            return null;
+        }
+        Measure selected = null;
+        for (Measure measure : versions) {
+            if (version != null ? version.equals(measure.getVersion())
+                    : selected == null || measure.getVersion() > selected.getVersion()) {
+                selected = measure;
+            }
+        }
+        return selected;
+    }
+
+    private static void fill(MeasureEvaluation[] results, List<MeasureRequest> requests, List<Integer> positions,
+                             Object value, String error) {
+        for (int position : positions) {
+            MeasureRequest request = requests.get(position);
+            results[position] = error == null
+                    ? new MeasureEvaluation(position, request.getMeasureIdentifier(), request.getVersion(), value, null)
+                    : MeasureEvaluation.failed(position, request.getMeasureIdentifier(), request.getVersion(), error);
+        }
+    }
+
+    /**
+     * Evaluate a loaded measure definition and cache the result under {@code cacheKey}.
+     * Sub-measures are evaluated first, each at most once per scope.
+     */
+    private Evaluated evaluateDefinition(Measure measure, Map<String, Object> parameters,
+                                         MeasureResultCache.CacheKey cacheKey, long cacheGeneration,
+                                         EvaluationScope scope) {
+        String measureIdentifier = measure.getMeasureIdentifier();
+
         // Resolve parameters with defaults
         Map<String, Object> resolvedParameters = resolveParameters(measure, parameters);
 
+        if (AggregateMeasureService.isAggregate(measure)) {
+            // Materialized measures are read from their summary once it has been built
+            Object result = AggregateMeasureService.isMaterialized(measure) && materializedMeasureService.isReady(measure)
+                    ? materializedMeasureService.read(measure)
+                    : aggregateMeasureService.evaluate(measure, resolvedParameters);
+            List<String> dependsOn = new ArrayList<>(MeasureResultCache.dependsOnEntities(measure.getDependsOnJson()));
+            for (String entityId : aggregateMeasureService.getSourceEntities(measure)) {
+                if (!dependsOn.contains(entityId)) {
+                    dependsOn.add(entityId);
+                }
+            }
+            measureResultCache.put(cacheKey, result, dependsOn, cacheGeneration);
+            return new Evaluated(result, dependsOn);
+        }
+
+        // A composite is invalidated by writes to anything its sub-measures read
+        List<String> dependsOn = new ArrayList<>(MeasureResultCache.dependsOnEntities(measure.getDependsOnJson()));
+        Map<String, Object> subMeasures = new HashMap<>();
+        for (MeasureDependencyGraph.MeasureDependency dependency
+                : MeasureDependencyGraph.measureDependencies(measure.getDependsOnJson())) {
+            Evaluated subMeasure = evaluateSubMeasure(dependency, resolvedParameters, cacheGeneration, scope);
+            subMeasures.put(dependency.identifier(), subMeasure.value());
+            for (String entityId : subMeasure.dependsOnEntities()) {
+                if (!dependsOn.contains(entityId)) {
+                    dependsOn.add(entityId);
+                }
+            }
+        }
+
         // Build evaluation context
         Map<String, Object> context = buildEvaluationContext(measure, resolvedParameters);
+        if (!subMeasures.isEmpty()) {
+            context.put(MeasureDependencyGraph.SUB_MEASURES, subMeasures);
+        }
 
         // Evaluate the expression
         try {
             Object result = ExpressionEvaluator.evaluate(measure.getExpression(), context);
             
             // Cache the result
-            cache.put(cacheKey, result);
+            measureResultCache.put(cacheKey, result, dependsOn, cacheGeneration);
             
             logger.debug("Evaluated measure: {} version {} = {}", measureIdentifier, measure.getVersion(), result);
-            return result;
+            return new Evaluated(result, dependsOn);
         } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
             logger.error("Error evaluating measure: {} version {}", measureIdentifier, measure.getVersion(), e);
             throw new RuntimeException("Measure evaluation failed: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Evaluate a sub-measure with the parameters of the measure that uses it (each
+     * sub-measure takes the ones it declares). Results are memoised in the scope, so
+     * a sub-measure shared by several branches of one evaluation is computed once.
+     */
+    private Evaluated evaluateSubMeasure(MeasureDependencyGraph.MeasureDependency dependency,
+                                         Map<String, Object> parentParameters, long cacheGeneration,
+                                         EvaluationScope scope) {
+        Measure measure = scope.definitions.get(dependency);
+        if (measure == null) {
+            measure = (dependency.version() != null
+                    ? measureRepository.findByMeasureIdentifierAndVersion(dependency.identifier(), dependency.version())
+                    : measureRepository.findByMeasureIdentifier(dependency.identifier()).stream().findFirst())
+                    .orElseThrow(() -> new IllegalArgumentException("Measure not found: " + dependency.identifier()
+                            + (dependency.version() != null ? " version " + dependency.version() : "")));
+            scope.definitions.put(dependency, measure);
+        }
+
+        Map<String, Object> parameters = resolveParameters(measure, parentParameters);
+        MeasureResultCache.CacheKey cacheKey = measureResultCache.key(dependency.identifier(), dependency.version(), parameters);
+        Evaluated evaluated = scope.results.get(cacheKey);
+        if (evaluated != null) {
+            return evaluated;
+        }
+        MeasureResultCache.CachedResult cached = measureResultCache.get(cacheKey);
+        if (cached != null) {
+            evaluated = new Evaluated(cached.getValue(), cached.getDependsOnEntities());
+        } else {
+            // Cycles are rejected when measures are saved; this guards against concurrent saves
+            if (!scope.inProgress.add(dependency.identifier())) {
+                throw new IllegalStateException("Measure dependency cycle at " + dependency.identifier());
+            }
+            try {
+                evaluated = evaluateDefinition(measure, parameters, cacheKey, cacheGeneration, scope);
+            } finally {
+                scope.inProgress.remove(dependency.identifier());
+            }
+        }
+        scope.results.put(cacheKey, evaluated);
+        return evaluated;
+    }
+
+    /**
+     * Evaluate a measure once per record of an entity and aggregate the results.
+     * 
+     * The measure expression sees each record's fields (and "this") plus the measure
+     * parameters. Evaluation is columnar: referenced fields are extracted into primitive
+     * columns once and the expression runs over whole columns instead of per record.
+     * Records for which the expression yields no number are counted as nulls.
+     *
+     * Records are read in keyset-paginated pages (cbap.measures.record-page-size) and
+     * each page is evaluated and folded into running totals, so memory is bounded by the
+     * page size rather than the entity's record count.
+     * 
+     * @param measureIdentifier The measure identifier
+     * @param version The measure version (null for latest)
+     * @param entityId The entity whose (non-deleted) records are evaluated
+     * @param parameters Parameter values for the measure
+     * @return Aggregates over the per-record results
+     */
+    @Transactional(readOnly = true)
+    public MeasureAggregateResult aggregateMeasureOverRecords(String measureIdentifier, Integer version,
+                                                              String entityId, Map<String, Object> parameters) {
+        Measure measure = (version != null
+                ? measureRepository.findByMeasureIdentifierAndVersion(measureIdentifier, version)
+                : measureRepository.findLatestByMeasureIdentifier(measureIdentifier))
+                .orElseThrow(() -> new IllegalArgumentException("Measure not found: " + measureIdentifier +
+                        (version != null ? " version " + version : "")));
+        if (AggregateMeasureService.isAggregate(measure)) {
+            throw new IllegalArgumentException("Measure " + measureIdentifier + " is an entity-level aggregate and is evaluated directly");
+        }
+
+        Map<String, Object> context = buildEvaluationContext(measure, resolveParameters(measure, parameters));
+        CompiledExpression expression;
+        try {
+            expression = ExpressionEvaluator.compile(measure.getExpression());
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            throw new RuntimeException("Measure evaluation failed: " + e.getMessage(), e);
+        }
+
+        int pageSize = Math.max(1, measureProperties.getRecordPageSize());
+        long recordCount = 0;
+        long count = 0;
+        double sum = 0.0;
+        Double min = null;
+        Double max = null;
+        UUID lastRecordId = MIN_UUID;
+        while (true) {
+            List<UUID> recordIds = new ArrayList<>(pageSize);
+            List<Map<String, Object>> rows = new ArrayList<>(pageSize);
+            jdbcTemplate.query(SELECT_RECORD_PAGE_SQL,
+                    rs -> {
+                        recordIds.add(rs.getObject("record_id", UUID.class));
+                        rows.add(readData(rs.getString("data_json")));
+                    },
+                    entityId, lastRecordId, pageSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastRecordId = recordIds.get(recordIds.size() - 1);
+
+            NumericColumn column;
+            try {
+                column = ColumnarEvaluator.evaluate(expression, rows, context);
+            } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+                throw new RuntimeException("Measure evaluation failed: " + e.getMessage(), e);
+            }
+            recordCount += rows.size();
+            count += column.count();
+            sum += column.sum();
+            Double pageMin = column.min();
+            Double pageMax = column.max();
+            if (pageMin != null) {
+                min = min == null ? pageMin : Math.min(min, pageMin);
+            }
+            if (pageMax != null) {
+                max = max == null ? pageMax : Math.max(max, pageMax);
+            }
+            if (rows.size() < pageSize) {
+                break;
+            }
+        }
+
+        logger.debug("Aggregated measure: {} version {} over {} records of {}",
+                measureIdentifier, measure.getVersion(), recordCount, entityId);
+        return new MeasureAggregateResult(measureIdentifier, measure.getVersion(), entityId,
+                recordCount, count, sum, count == 0 ? null : sum / count, min, max);
+    }
+
+    private Map<String, Object> readData(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable record data: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Resolve parameters with defaults from measure definition.
      */
@@ -130,32 +482,126 @@ public class MeasureEvaluationService {
         return context;
     }
 
-    // Note: Entity-level aggregate functions (sum/count/exists with entity names and filters)
-    // are not yet implemented. For now, measures can use array-level aggregates
-    // like sum(lineItems.total) which are supported by ExpressionEvaluator.
+    /**
+     * Clear all cached measure results.
+     */
+    public void clearCache() {
+        measureResultCache.clear();
+    }
 
     /**
-     * Build cache key for measure evaluation.
+     * Memo of one top-level evaluation: sub-measure definitions and results, and the
+     * chain of measures being evaluated. Used by a single thread.
      */
-    private String buildCacheKey(String measureIdentifier, Integer version, Map<String, Object> parameters) {
-        StringBuilder key = new StringBuilder();
-        key.append(measureIdentifier).append(":").append(version);
-        if (parameters != null && !parameters.isEmpty()) {
-            // Sort parameters for consistent key generation
-            List<String> sortedKeys = new ArrayList<>(parameters.keySet());
-            Collections.sort(sortedKeys);
-            for (String paramKey : sortedKeys) {
-                key.append(":").append(paramKey).append("=").append(parameters.get(paramKey));
-            }
+    private static final class EvaluationScope {
+        private final Map<MeasureDependencyGraph.MeasureDependency, Measure> definitions = new HashMap<>();
+        private final Map<MeasureResultCache.CacheKey, Evaluated> results = new HashMap<>();
+        private final Set<String> inProgress = new HashSet<>();
+
+        EvaluationScope(String measureIdentifier) {
+            inProgress.add(measureIdentifier);
         }
-        return key.toString();
     }
 
     /**
-     * Clear the request-scoped cache.
-     * Should be called at the end of each request.
+     * A measure result with the entities whose writes invalidate it.
      */
-    public void clearCache() {
-        measureCache.remove();
+    private record Evaluated(Object value, List<String> dependsOnEntities) {
+    }
+
+    /**
+     * One evaluation in a batch request.
+     */
+    public static class MeasureRequest {
+        private String measureIdentifier;
+        private Integer version;
+        private Map<String, Object> parameters;
+
+        public MeasureRequest() {
+        }
+
+        public MeasureRequest(String measureIdentifier, Integer version, Map<String, Object> parameters) {
+            this.measureIdentifier = measureIdentifier;
+            this.version = version;
+            this.parameters = parameters;
+        }
+
+        public String getMeasureIdentifier() { return measureIdentifier; }
+        public void setMeasureIdentifier(String measureIdentifier) { this.measureIdentifier = measureIdentifier; }
+        public Integer getVersion() { return version; }
+        public void setVersion(Integer version) { this.version = version; }
+        public Map<String, Object> getParameters() { return parameters; }
+        public void setParameters(Map<String, Object> parameters) { this.parameters = parameters; }
+    }
+
+    /**
+     * Result of one evaluation in a batch: the value, or the error that prevented it.
+     */
+    public static class MeasureEvaluation {
+        private final int index;
+        private final String measureIdentifier;
+        private final Integer version;
+        private final Object result;
+        private final String error;
+
+        public MeasureEvaluation(int index, String measureIdentifier, Integer version, Object result, String error) {
+            this.index = index;
+            this.measureIdentifier = measureIdentifier;
+            this.version = version;
+            this.result = result;
+            this.error = error;
+        }
+
+        static MeasureEvaluation failed(int index, String measureIdentifier, Integer version, String error) {
+            return new MeasureEvaluation(index, measureIdentifier, version, null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public int getIndex() { return index; }
+        public String getMeasureIdentifier() { return measureIdentifier; }
+        public Integer getVersion() { return version; }
+        public Object getResult() { return result; }
+        public String getError() { return error; }
+    }
+
+    /**
+     * Result of evaluating a measure over the records of an entity.
+     */
+    public static class MeasureAggregateResult {
+        private final String measureIdentifier;
+        private final Integer version;
+        private final String entityId;
+        private final long recordCount;
+        private final long valueCount;
+        private final double sum;
+        private final Double avg;
+        private final Double min;
+        private final Double max;
+
+        public MeasureAggregateResult(String measureIdentifier, Integer version, String entityId, long recordCount,
+                                      long valueCount, double sum, Double avg, Double min, Double max) {
+            this.measureIdentifier = measureIdentifier;
+            this.version = version;
+            this.entityId = entityId;
+            this.recordCount = recordCount;
+            this.valueCount = valueCount;
+            this.sum = sum;
+            this.avg = avg;
+            this.min = min;
+            this.max = max;
+        }
+
+        public String getMeasureIdentifier() { return measureIdentifier; }
+        public Integer getVersion() { return version; }
+        public String getEntityId() { return entityId; }
+        public long getRecordCount() { return recordCount; }
+        public long getValueCount() { return valueCount; }
+        public double getSum() { return sum; }
+        public Double getAvg() { return avg; }
+        public Double getMin() { return min; }
+        public Double getMax() { return max; }
     }
 }
@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -20,9 +21,24 @@ public class MeasureMetadataService {
     private static final Logger logger = LoggerFactory.getLogger(MeasureMetadataService.class);
 
     private final MeasureRepository measureRepository;
+    private final ExpressionValidationService expressionValidationService;
+    private final MeasureResultCache measureResultCache;
+    private final AggregateMeasureService aggregateMeasureService;
+    private final MaterializedMeasureService materializedMeasureService;
+    private final MeasureDependencyGraph measureDependencyGraph;
 
-    public MeasureMetadataService(MeasureRepository measureRepository) {
+    public MeasureMetadataService(MeasureRepository measureRepository,
+                                  ExpressionValidationService expressionValidationService,
+                                  MeasureResultCache measureResultCache,
+                                  AggregateMeasureService aggregateMeasureService,
+                                  MaterializedMeasureService materializedMeasureService,
+                                  MeasureDependencyGraph measureDependencyGraph) {
         this.measureRepository = measureRepository;
+        this.expressionValidationService = expressionValidationService;
+        this.measureResultCache = measureResultCache;
+        this.aggregateMeasureService = aggregateMeasureService;
+        this.materializedMeasureService = materializedMeasureService;
+        this.measureDependencyGraph = measureDependencyGraph;
     }
 
     /**
@@ -66,9 +82,22 @@ public class MeasureMetadataService {
      * Create or update a measure.
      * If a measure with the same identifier and version exists, it will be updated.
      * Otherwise, a new measure will be created.
+     * The expression is compiled and checked against the parameters and limits first
+     * (aggregate measures against the entity's properties). Sub-measures referenced as
+     * measures.<identifier> are added to dependsOnJson, and dependency cycles are rejected.
      */
     @Transactional
     public Measure saveMeasure(Measure measure) {
+        Set<String> referencedMeasures = Set.of();
+        if (AggregateMeasureService.isAggregate(measure)) {
+            aggregateMeasureService.validate(measure);
+        } else {
+            referencedMeasures = expressionValidationService.validateMeasureExpression(measure)
+                    .getPropertyReferences(MeasureDependencyGraph.SUB_MEASURES);
+        }
+        measureDependencyGraph.resolveDependencies(measure, referencedMeasures);
+        invalidateWithDependents(measure.getMeasureIdentifier());
+
         // Check if measure with same identifier and version already exists
         Optional<Measure> existing = measureRepository.findByMeasureIdentifierAndVersion(
                 measure.getMeasureIdentifier(),
@@ -85,10 +114,16 @@ public class MeasureMetadataService {
             existingMeasure.setDefinitionType(measure.getDefinitionType());
             existingMeasure.setExpression(measure.getExpression());
             existingMeasure.setMetadataJson(measure.getMetadataJson());
-            return measureRepository.save(existingMeasure);
+            Measure saved = measureRepository.save(existingMeasure);
+            aggregateMeasureService.measureChanged(saved.getMeasureIdentifier(), saved.getVersion());
+            materializedMeasureService.measureSaved(saved);
+            return saved;
         } else {
             // Create new measure
-            return measureRepository.save(measure);
+            Measure saved = measureRepository.save(measure);
+            aggregateMeasureService.measureChanged(saved.getMeasureIdentifier(), saved.getVersion());
+            materializedMeasureService.measureSaved(saved);
+            return saved;
         }
     }
 
@@ -99,10 +134,28 @@ public class MeasureMetadataService {
     public void deleteMeasure(String measureIdentifier, Integer version) {
         Optional<Measure> measure = measureRepository.findByMeasureIdentifierAndVersion(measureIdentifier, version);
         if (measure.isPresent()) {
+            Set<String> dependents = measureDependencyGraph.getDependents(measureIdentifier);
+            if (!dependents.isEmpty() && measureRepository.findByMeasureIdentifier(measureIdentifier).size() == 1) {
+                throw new IllegalArgumentException("Measure " + measureIdentifier + " is used by " + String.join(", ", dependents));
+            }
             measureRepository.delete(measure.get());
+            invalidateWithDependents(measureIdentifier);
+            aggregateMeasureService.measureChanged(measureIdentifier, version);
+            materializedMeasureService.measureDeleted(measureIdentifier, version);
             logger.info("Deleted measure: {} version {}", measureIdentifier, version);
         } else {
             throw new IllegalArgumentException("Measure not found: " + measureIdentifier + " version " + version);
         }
     }
+
+    /**
+     * Drop cached results of a measure and of every measure computed from it.
+     */
+    private void invalidateWithDependents(String measureIdentifier) {
+        measureResultCache.invalidateMeasure(measureIdentifier);
+        for (String dependent : measureDependencyGraph.getDependents(measureIdentifier)) {
+            measureResultCache.invalidateMeasure(dependent);
+        }
+        measureDependencyGraph.invalidate();
+    }
 }
@@ -0,0 +1,390 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.MeasureProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cache of measure results.
+ *
+ * Entries are keyed by measure identifier, requested version (null = latest) and a
+ * canonical form of the parameters, expire after a TTL, and are evicted least recently
+ * used first once the size bound is reached. Each entry records the entities named in the
+ * measure's dependsOnJson; a write to one of those entities drops the entry.
+ *
+ * Hits, misses, evictions and the hit ratio are published as cbap.measure.cache.* meters.
+ */
+@Component
+public class MeasureResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasureResultCache.class);
+
+    private final MeasureProperties properties;
+
+    // Access-ordered, so the eldest entry is the least recently used; guarded by lock together
+    // with the entity index, which only ever holds keys of cached entries
+    private final Object lock = new Object();
+    private final LinkedHashMap<CacheKey, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<CacheKey>> keysByEntity = new HashMap<>();
+    // Invalidations are stamped from one counter; a result is not cached if one of its
+    // dependencies (or its measure) was invalidated after the result started loading
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Long> entityInvalidatedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> measureInvalidatedAt = new ConcurrentHashMap<>();
+    private volatile long clearedAt;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public MeasureResultCache(MeasureProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    /**
+     * Build the cache key of an evaluation.
+     */
+    public CacheKey key(String measureIdentifier, Integer version, Map<String, Object> parameters) {
+        return new CacheKey(measureIdentifier, version, canonical(parameters));
+    }
+
+    /**
+     * Look up a cached result.
+     *
+     * @return The cached entry (whose value may be null), or null on a miss
+     */
+    public CachedResult get(CacheKey key) {
+        if (!properties.isCacheEnabled()) {
+            return null;
+        }
+        synchronized (lock) {
+            CachedResult cached = entries.get(key);
+            if (cached != null && cached.expiresAtNanos - System.nanoTime() > 0) {
+                hits.increment();
+                return cached;
+            }
+            if (cached != null) {
+                removeEntry(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Current invalidation generation; take it before loading a result and pass it to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a result unless one of its dependencies was invalidated since {@code loadGeneration} was read.
+     *
+     * @param dependsOnEntities Entities whose record writes invalidate the result
+     */
+    public void put(CacheKey key, Object value, Collection<String> dependsOnEntities, long loadGeneration) {
+        if (!properties.isCacheEnabled() || properties.getCacheMaxEntries() <= 0) {
+            return;
+        }
+        CachedResult cached = new CachedResult(value, List.copyOf(dependsOnEntities),
+                System.nanoTime() + properties.getCacheTtlSeconds() * 1_000_000_000L);
+        synchronized (lock) {
+            // Invalidations stamp their generation before taking the lock to evict, so a
+            // result that passes this check is either current or evicted right after
+            if (isStale(key, cached, loadGeneration)) {
+                return;
+            }
+            CachedResult previous = entries.put(key, cached);
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            for (String entityId : cached.dependsOnEntities) {
+                keysByEntity.computeIfAbsent(entityId, id -> new HashSet<>()).add(key);
+            }
+            evictOverflow();
+        }
+    }
+
+    private boolean isStale(CacheKey key, CachedResult cached, long loadGeneration) {
+        if (clearedAt > loadGeneration
+                || measureInvalidatedAt.getOrDefault(key.measureIdentifier(), 0L) > loadGeneration) {
+            return true;
+        }
+        for (String entityId : cached.dependsOnEntities) {
+            if (entityInvalidatedAt.getOrDefault(entityId, 0L) > loadGeneration) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop all results that depend on an entity.
+     * When a transaction is active the results are dropped again after commit, so that
+     * readers racing with the write do not re-cache values computed from old data.
+     */
+    public void invalidateEntity(String entityId) {
+        evictEntity(entityId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictEntity(entityId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop all cached results of a measure (any version), e.g. after its definition changes.
+     */
+    public void invalidateMeasure(String measureIdentifier) {
+        measureInvalidatedAt.put(measureIdentifier, generation.incrementAndGet());
+        synchronized (lock) {
+            Iterator<Map.Entry<CacheKey, CachedResult>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<CacheKey, CachedResult> entry = iterator.next();
+                if (entry.getKey().measureIdentifier().equals(measureIdentifier)) {
+                    iterator.remove();
+                    unindex(entry.getKey(), entry.getValue());
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all cached results.
+     */
+    public void clear() {
+        clearedAt = generation.incrementAndGet();
+        synchronized (lock) {
+            entries.clear();
+            keysByEntity.clear();
+        }
+    }
+
+    /**
+     * Snapshot of the cache statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(size(), hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    private void evictEntity(String entityId) {
+        entityInvalidatedAt.put(entityId, generation.incrementAndGet());
+        synchronized (lock) {
+            Set<CacheKey> keys = keysByEntity.remove(entityId);
+            if (keys == null) {
+                return;
+            }
+            for (CacheKey key : keys) {
+                if (removeEntry(key)) {
+                    invalidations.increment();
+                }
+            }
+        }
+        logger.debug("Invalidated cached measure results depending on {}", entityId);
+    }
+
+    /**
+     * Evict least recently used entries beyond the size bound. Caller holds the lock.
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<CacheKey, CachedResult>> eldest = entries.entrySet().iterator();
+        while (entries.size() > properties.getCacheMaxEntries() && eldest.hasNext()) {
+            Map.Entry<CacheKey, CachedResult> entry = eldest.next();
+            eldest.remove();
+            unindex(entry.getKey(), entry.getValue());
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Remove an entry and its index references. Caller holds the lock.
+     */
+    private boolean removeEntry(CacheKey key) {
+        CachedResult cached = entries.remove(key);
+        if (cached == null) {
+            return false;
+        }
+        unindex(key, cached);
+        return true;
+    }
+
+    private void unindex(CacheKey key, CachedResult cached) {
+        for (String entityId : cached.dependsOnEntities) {
+            Set<CacheKey> keys = keysByEntity.get(entityId);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByEntity.remove(entityId);
+                }
+            }
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cbap.measure.cache.hits", hits, LongAdder::sum)
+                .description("Measure results served from the cache").register(registry);
+        FunctionCounter.builder("cbap.measure.cache.misses", misses, LongAdder::sum)
+                .description("Measure results that had to be evaluated").register(registry);
+        FunctionCounter.builder("cbap.measure.cache.evictions", evictions, LongAdder::sum)
+                .description("Measure results evicted by the size bound").register(registry);
+        FunctionCounter.builder("cbap.measure.cache.invalidations", invalidations, LongAdder::sum)
+                .description("Measure results dropped because a dependency changed").register(registry);
+        Gauge.builder("cbap.measure.cache.size", this, MeasureResultCache::size)
+                .description("Cached measure results").register(registry);
+        Gauge.builder("cbap.measure.cache.hit.ratio", this, cache -> cache.getStats().getHitRatio())
+                .description("Share of lookups served from the cache").register(registry);
+    }
+
+    /**
+     * Parameters as a string that is equal for equal values regardless of map order or
+     * numeric representation (1, 1L and 1.0 are the same parameter value).
+     */
+    static String canonical(Object value) {
+        StringBuilder out = new StringBuilder();
+        appendCanonical(out, value);
+        return out.toString();
+    }
+
+    private static void appendCanonical(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Number number) {
+            BigDecimal decimal;
+            try {
+                decimal = new BigDecimal(number.toString()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                out.append("n:").append(number); // NaN, Infinity
+                return;
+            }
+            out.append("n:").append(decimal.toPlainString());
+        } else if (value instanceof Boolean) {
+            out.append("b:").append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), v));
+            out.append('{');
+            sorted.forEach((k, v) -> {
+                out.append(k.length()).append(':').append(k).append('=');
+                appendCanonical(out, v);
+                out.append(';');
+            });
+            out.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            out.append('[');
+            for (Object item : collection) {
+                appendCanonical(out, item);
+                out.append(';');
+            }
+            out.append(']');
+        } else {
+            String text = value.toString();
+            out.append("s").append(text.length()).append(':').append(text);
+        }
+    }
+
+    /**
+     * Entities a measure depends on, from its dependsOnJson ([{"entity": "Budget", ...}]).
+     */
+    static List<String> dependsOnEntities(List<Map<String, Object>> dependsOnJson) {
+        List<String> entities = new ArrayList<>();
+        if (dependsOnJson != null) {
+            for (Map<String, Object> dependency : dependsOnJson) {
+                if (dependency != null && dependency.get("entity") instanceof String entity
+                        && !entities.contains(entity)) {
+                    entities.add(entity);
+                }
+            }
+        }
+        return entities;
+    }
+    /**
+     * Cache key: measure identifier, requested version (null = latest) and canonical parameters.
+     */
+    public record CacheKey(String measureIdentifier, Integer version, String parameters) {
+    }
+
+    /**
+     * A cached measure result.
+     */
+    public static final class CachedResult {
+        private final Object value;
+        private final List<String> dependsOnEntities;
+        private final long expiresAtNanos;
+
+        CachedResult(Object value, List<String> dependsOnEntities, long expiresAtNanos) {
+            this.value = value;
+            this.dependsOnEntities = dependsOnEntities;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public Object getValue() { return value; }
+        /** Entities whose record writes invalidate the result. */
+        public List<String> getDependsOnEntities() { return dependsOnEntities; }
+    }
+
+    /**
+     * Cache statistics DTO.
+     */
+    public static class CacheStats {
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+
+        public CacheStats(int size, long hits, long misses, long evictions, long invalidations) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+        }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getInvalidations() { return invalidations; }
+    }
+
+}
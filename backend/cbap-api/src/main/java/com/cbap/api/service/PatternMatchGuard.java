@@ -0,0 +1,82 @@
+package com.cbap.api.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Regex matching with a bound on matching time.
+ *
+ * java.util.regex has no timeout, so the input is wrapped in a CharSequence that
+ * checks a deadline while the engine reads characters. A backtracking pattern reads
+ * characters continuously, so it hits the check quickly and the match is aborted
+ * instead of pinning the request thread.
+ */
+public final class PatternMatchGuard {
+
+    private PatternMatchGuard() {
+    }
+
+    /**
+     * Match the whole input against a pattern within a time budget.
+     *
+     * @param pattern The compiled pattern
+     * @param input The input
+     * @param timeoutMillis Maximum matching time in milliseconds (0 or less disables the guard)
+     * @return true if the input matches
+     * @throws PatternMatchTimeoutException If matching takes longer than the budget
+     */
+    public static boolean matches(Pattern pattern, String input, long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return pattern.matcher(input).matches();
+        }
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        return pattern.matcher(new DeadlineCharSequence(input, deadline, pattern.pattern())).matches();
+    }
+
+    /**
+     * Thrown when a pattern does not finish matching within its time budget.
+     */
+    public static class PatternMatchTimeoutException extends RuntimeException {
+        public PatternMatchTimeoutException(String pattern) {
+            super("Pattern matching timed out: " + pattern);
+        }
+    }
+
+    private static final class DeadlineCharSequence implements CharSequence {
+        // Check the clock every 4096 reads; nanoTime is cheap but not free
+        private static final int CHECK_INTERVAL_MASK = 0xFFF;
+
+        private final CharSequence delegate;
+        private final long deadline;
+        private final String pattern;
+        private int reads;
+
+        DeadlineCharSequence(CharSequence delegate, long deadline, String pattern) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadline > 0) {
+                throw new PatternMatchTimeoutException(pattern);
+            }
+            return delegate.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return delegate.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(delegate.subSequence(start, end), deadline, pattern);
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package com.cbap.api.service;
+
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.ValidationRule;
+import com.cbap.persistence.repository.EntityDefinitionRepository;
+import com.cbap.persistence.repository.ValidationRuleRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service for UNIQUE and EXISTS validation rules.
+ *
+ * Every rule is backed by a partial expression index on cbap_entity_records,
+ * {@code (entity_id, (data_json->>'field'), ...) WHERE entity_id = '<entity>' AND deleted_at IS NULL},
+ * so a check is a single index lookup instead of a scan. Indexes are named after a
+ * hash of entity and fields, which lets rules with the same key share one index.
+ *
+ * Indexes are built with CREATE INDEX CONCURRENTLY after the rule is committed, on a
+ * background thread; checks are correct (only slower) until the build finishes.
+ *
+ * The index is not unique, so a UNIQUE check alone would let two concurrent writers of
+ * the same key both pass. In a writing transaction the check first takes a transaction
+ * advisory lock on the key; a second writer of the key waits for the first to commit
+ * and then sees its row.
+ */
+@Service
+public class RecordConstraintService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordConstraintService.class);
+
+    private static final String INDEX_PREFIX = "idx_entity_records_rule_";
+    // Bounds the size of the ANY(?) arrays sent with batched lookups
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    // Locks are taken in hash order so writers of overlapping key sets cannot deadlock
+    private static final String LOCK_KEYS_SQL =
+            "SELECT pg_advisory_xact_lock(h) FROM (SELECT DISTINCT hashtext(k) AS h FROM unnest(?) AS k) locks ORDER BY h";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityDefinitionRepository entityDefinitionRepository;
+    private final ValidationRuleRepository validationRuleRepository;
+
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cbap-rule-index-", 0).daemon(true).factory());
+
+    public RecordConstraintService(
+            JdbcTemplate jdbcTemplate,
+            EntityDefinitionRepository entityDefinitionRepository,
+            ValidationRuleRepository validationRuleRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityDefinitionRepository = entityDefinitionRepository;
+        this.validationRuleRepository = validationRuleRepository;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        indexExecutor.shutdownNow();
+    }
+
+    /**
+     * Check a UNIQUE or EXISTS rule when it is saved.
+     *
+     * UNIQUE: {@code metadataJson.scopeFields} optionally lists fields the value must be unique within
+     * (e.g. invoice number per customer). EXISTS: {@code metadataJson.targetEntityId} names the entity
+     * that must hold a record whose {@code targetField} (or record ID, if omitted) equals the value.
+     *
+     * @throws IllegalArgumentException If the rule is incomplete or references unknown fields
+     */
+    public void validateConstraintRule(EntityDefinition entity, ValidationRule rule) {
+        if (!isConstraintRule(rule.getRuleType())) {
+            return;
+        }
+        if (rule.getScope() != ValidationRule.ValidationScope.FIELD || rule.getPropertyName() == null) {
+            throw new IllegalArgumentException(rule.getRuleType() + " rules must be FIELD rules with a property");
+        }
+        requireProperty(entity, rule.getPropertyName());
+
+        Map<String, Object> metadata = rule.getMetadataJson() != null ? rule.getMetadataJson() : Map.of();
+        if (rule.getRuleType() == ValidationRule.RuleType.UNIQUE) {
+            for (String field : scopeFields(metadata)) {
+                requireProperty(entity, field);
+            }
+        } else {
+            if (!(metadata.get("targetEntityId") instanceof String targetEntityId)) {
+                throw new IllegalArgumentException("EXISTS rules require metadataJson.targetEntityId");
+            }
+            EntityDefinition target = entityDefinitionRepository.findByEntityIdWithProperties(targetEntityId)
+                    .orElseThrow(() -> new IllegalArgumentException("Target entity not found: " + targetEntityId));
+            if (metadata.get("targetField") instanceof String targetField) {
+                requireProperty(target, targetField);
+            }
+        }
+    }
+
+    /**
+     * Create the index backing a rule once the current transaction commits.
+     */
+    public void provisionIndex(ValidationRule rule) {
+        ConstraintIndex index = ConstraintIndex.of(rule.getEntity().getEntityId(), rule.getRuleType(),
+                rule.getPropertyName(), rule.getMetadataJson());
+        if (index == null || index.fields().isEmpty()) {
+            return; // Record ID lookups use the primary key
+        }
+        afterCommit(() -> createIndex(index));
+    }
+
+    /**
+     * Drop an index once the current transaction commits, unless another rule still uses it.
+     */
+    public void releaseIndex(ConstraintIndex index) {
+        if (index == null || index.fields().isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            boolean inUse = validationRuleRepository.findByRuleTypes(
+                            List.of(ValidationRule.RuleType.UNIQUE, ValidationRule.RuleType.EXISTS)).stream()
+                    .map(rule -> ConstraintIndex.of(rule.getEntity().getEntityId(), rule.getRuleType(),
+                            rule.getPropertyName(), rule.getMetadataJson()))
+                    .anyMatch(index::equals);
+            if (!inUse) {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.indexName());
+                logger.info("Dropped validation rule index {} on {}", index.indexName(), index.entityId());
+            }
+        });
+    }
+
+    /**
+     * Lookup that queries the database for each check (single-record validation).
+     */
+    public ConstraintLookup directLookup() {
+        return (rule, position, recordId, recordData) -> {
+            ConstraintIndex index = rule.getConstraintIndex();
+            if (index == null) {
+                return false;
+            }
+            if (rule.getRuleType() == ValidationRule.RuleType.UNIQUE) {
+                List<String> key = keyOf(index, recordData);
+                if (key == null) {
+                    return false;
+                }
+                lockKeys(index, List.of(key));
+                return isTaken(index, key, recordId);
+            }
+            String value = textOf(recordData.get(rule.getPropertyName()));
+            return !isEmpty(value) && findExisting(index, List.of(value)).isEmpty();
+        };
+    }
+
+    /**
+     * Resolve every UNIQUE and EXISTS check of a batch with one query per rule (per chunk of values).
+     *
+     * Records in the batch are also checked against each other, and database rows that
+     * are themselves part of the batch are judged by their new values only.
+     *
+     * @param rules Rules selected for the trigger event
+     * @param records Record data in batch order
+     * @param recordIds Record IDs in batch order (null for new records)
+     */
+    public ConstraintLookup prefetch(EntityRuleSet.RulesForEvent rules, List<Map<String, Object>> records,
+                                     List<UUID> recordIds) {
+        Map<String, BitSet> violations = new HashMap<>();
+        for (EntityRuleSet.FieldRules fieldRules : rules.getFieldRules()) {
+            for (EntityRuleSet.CompiledRule rule : fieldRules.getRules()) {
+                if (rule.getConstraintIndex() == null) {
+                    continue;
+                }
+                violations.put(rule.getValidationId(), rule.getRuleType() == ValidationRule.RuleType.UNIQUE
+                        ? findDuplicates(rule.getConstraintIndex(), records, recordIds)
+                        : findMissing(rule, records));
+            }
+        }
+        return (rule, position, recordId, recordData) -> {
+            BitSet invalid = violations.get(rule.getValidationId());
+            return invalid != null && invalid.get(position);
+        };
+    }
+
+    private BitSet findDuplicates(ConstraintIndex index, List<Map<String, Object>> records, List<UUID> recordIds) {
+        BitSet invalid = new BitSet(records.size());
+        List<List<String>> keys = new ArrayList<>(records.size());
+        Map<List<String>, Integer> firstInBatch = new HashMap<>();
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < records.size(); i++) {
+            List<String> key = records.get(i) != null ? keyOf(index, records.get(i)) : null;
+            keys.add(key);
+            if (key == null) {
+                continue;
+            }
+            if (firstInBatch.putIfAbsent(key, i) != null) {
+                invalid.set(i); // Repeats a key earlier in the batch
+            }
+            values.add(key.get(0));
+        }
+        lockKeys(index, firstInBatch.keySet());
+
+        Set<UUID> batchIds = new HashSet<>();
+        for (UUID recordId : recordIds) {
+            if (recordId != null) {
+                batchIds.add(recordId);
+            }
+        }
+        Set<List<String>> takenKeys = new HashSet<>();
+        String sql = "SELECT record_id, " + selectKeyColumns(index) + " FROM cbap_entity_records WHERE "
+                + partialPredicate(index) + " AND " + fieldExpression(index.fields().get(0)) + " = ANY(?)";
+        for (List<String> chunk : chunks(values)) {
+            jdbcTemplate.query(con -> arrayStatement(con.prepareStatement(sql), con, chunk), rs -> {
+                if (batchIds.contains(rs.getObject("record_id", UUID.class))) {
+                    return;
+                }
+                String[] key = new String[index.fields().size()];
+                for (int f = 0; f < key.length; f++) {
+                    key[f] = rs.getString("k" + f);
+                }
+                takenKeys.add(Arrays.asList(key));
+            });
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i) != null && takenKeys.contains(keys.get(i))) {
+                invalid.set(i);
+            }
+        }
+        return invalid;
+    }
+
+    private BitSet findMissing(EntityRuleSet.CompiledRule rule, List<Map<String, Object>> records) {
+        BitSet invalid = new BitSet(records.size());
+        String[] values = new String[records.size()];
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < records.size(); i++) {
+            values[i] = records.get(i) != null ? textOf(records.get(i).get(rule.getPropertyName())) : null;
+            if (!isEmpty(values[i])) {
+                distinct.add(values[i]);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (List<String> chunk : chunks(distinct)) {
+            existing.addAll(findExisting(rule.getConstraintIndex(), chunk));
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!isEmpty(values[i]) && !existing.contains(values[i])) {
+                invalid.set(i);
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Serialize the writers of the given keys until the current transaction ends.
+     * Read-only transactions (validation endpoints) write nothing and take no locks.
+     */
+    private void lockKeys(ConstraintIndex index, Collection<List<String>> keys) {
+        if (keys.isEmpty() || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        List<String> names = new ArrayList<>(keys.size());
+        for (List<String> key : keys) {
+            StringBuilder name = new StringBuilder(index.indexName());
+            for (String value : key) {
+                // Unit separator between values, record separator for a missing value
+                name.append('\u001f').append(value != null ? value : "\u001e");
+            }
+            names.add(name.toString());
+        }
+        for (List<String> chunk : chunks(names)) {
+            jdbcTemplate.query(con -> arrayStatement(con.prepareStatement(LOCK_KEYS_SQL), con, chunk), rs -> { });
+        }
+    }
+
+    /**
+     * Whether a record other than {@code recordId} already holds the key.
+     */
+    private boolean isTaken(ConstraintIndex index, List<String> key, UUID recordId) {
+        StringBuilder sql = new StringBuilder("SELECT 1 FROM cbap_entity_records WHERE ")
+                .append(partialPredicate(index));
+        List<Object> args = new ArrayList<>();
+        for (int f = 0; f < key.size(); f++) {
+            sql.append(" AND ").append(fieldExpression(index.fields().get(f)));
+            if (key.get(f) == null) {
+                sql.append(" IS NULL");
+            } else {
+                sql.append(" = ?");
+                args.add(key.get(f));
+            }
+        }
+        if (recordId != null) {
+            sql.append(" AND record_id <> ?");
+            args.add(recordId);
+        }
+        sql.append(" LIMIT 1");
+        return !jdbcTemplate.query(sql.toString(), (rs, rowNum) -> 1, args.toArray()).isEmpty();
+    }
+
+    /**
+     * Return the values that exist in the target entity's field (or as record IDs).
+     */
+    private Set<String> findExisting(ConstraintIndex index, List<String> values) {
+        Set<String> existing = new HashSet<>();
+        if (index.fields().isEmpty()) {
+            List<String> ids = new ArrayList<>();
+            for (String value : values) {
+                try {
+                    ids.add(UUID.fromString(value).toString());
+                } catch (IllegalArgumentException e) {
+                    // Not a record ID, so it cannot exist
+                }
+            }
+            if (ids.isEmpty()) {
+                return existing;
+            }
+            String sql = "SELECT record_id::text AS v FROM cbap_entity_records WHERE " + partialPredicate(index)
+                    + " AND record_id = ANY(?::uuid[])";
+            jdbcTemplate.query(con -> arrayStatement(con.prepareStatement(sql), con, ids),
+                    rs -> { existing.add(rs.getString("v")); });
+            // Compare in the caller's spelling (case of hex digits may differ)
+            Set<String> matched = new HashSet<>();
+            for (String value : values) {
+                try {
+                    if (existing.contains(UUID.fromString(value).toString())) {
+                        matched.add(value);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Skipped above
+                }
+            }
+            return matched;
+        }
+        String field = fieldExpression(index.fields().get(0));
+        String sql = "SELECT DISTINCT " + field + " AS v FROM cbap_entity_records WHERE " + partialPredicate(index)
+                + " AND " + field + " = ANY(?)";
+        jdbcTemplate.query(con -> arrayStatement(con.prepareStatement(sql), con, values),
+                rs -> { existing.add(rs.getString("v")); });
+        return existing;
+    }
+
+    private void createIndex(ConstraintIndex index) {
+        // A failed concurrent build leaves an invalid index that IF NOT EXISTS would keep
+        List<Boolean> valid = jdbcTemplate.query(
+                "SELECT i.indisvalid FROM pg_class c JOIN pg_index i ON i.indexrelid = c.oid WHERE c.relname = ?",
+                (rs, rowNum) -> rs.getBoolean(1), index.indexName());
+        if (!valid.isEmpty() && valid.get(0)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.indexName());
+        }
+
+        StringBuilder columns = new StringBuilder("entity_id");
+        for (String field : index.fields()) {
+            columns.append(", (").append(fieldExpression(field)).append(')');
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index.indexName()
+                + " ON cbap_entity_records (" + columns + ") WHERE " + partialPredicate(index));
+        logger.info("Created validation rule index {} on {} {} in {} ms", index.indexName(), index.entityId(),
+                index.fields(), System.currentTimeMillis() - start);
+    }
+
+    private void afterCommit(Runnable task) {
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Validation rule index maintenance failed: {}", e.getMessage(), e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexExecutor.submit(guarded);
+                }
+            });
+        } else {
+            indexExecutor.submit(guarded);
+        }
+    }
+
+    /**
+     * The entity ID is inlined rather than bound so that generic query plans can still match the partial index.
+     */
+    private static String partialPredicate(ConstraintIndex index) {
+        return "entity_id = " + literal(index.entityId()) + " AND deleted_at IS NULL";
+    }
+
+    private static String fieldExpression(String field) {
+        return "data_json->>" + literal(field);
+    }
+
+    private static String selectKeyColumns(ConstraintIndex index) {
+        StringBuilder columns = new StringBuilder();
+        for (int f = 0; f < index.fields().size(); f++) {
+            if (f > 0) {
+                columns.append(", ");
+            }
+            columns.append(fieldExpression(index.fields().get(f))).append(" AS k").append(f);
+        }
+        return columns.toString();
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static PreparedStatement arrayStatement(PreparedStatement statement, java.sql.Connection connection,
+                                                    Collection<String> values) throws java.sql.SQLException {
+        statement.setArray(1, connection.createArrayOf("text", values.toArray()));
+        return statement;
+    }
+
+    private static List<List<String>> chunks(Collection<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> all = new ArrayList<>(values);
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Key of a record for a UNIQUE index, or null when the constrained value is missing or
+     * the empty string (empty values are not subject to uniqueness). Scope field values are
+     * kept as {@code ->>} returns them, so an empty scope value only matches an empty one.
+     */
+    private static List<String> keyOf(ConstraintIndex index, Map<String, Object> recordData) {
+        String[] key = new String[index.fields().size()];
+        for (int f = 0; f < key.length; f++) {
+            key[f] = textOf(recordData.get(index.fields().get(f)));
+        }
+        return isEmpty(key[0]) ? null : Arrays.asList(key);
+    }
+
+    /**
+     * Text form of a scalar as produced by {@code data_json->>'field'}; null for missing and
+     * structured values, the empty string for an empty string.
+     */
+    static String textOf(Object value) {
+        if (value == null || value instanceof Map || value instanceof Collection) {
+            return null;
+        }
+        return value.toString();
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static List<String> scopeFields(Map<String, Object> metadata) {
+        Object scope = metadata.get("scopeFields");
+        List<String> fields = new ArrayList<>();
+        if (scope instanceof String field) {
+            fields.add(field);
+        } else if (scope instanceof List<?> list) {
+            for (Object field : list) {
+                if (field instanceof String) {
+                    fields.add((String) field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static void requireProperty(EntityDefinition entity, String propertyName) {
+        boolean found = entity.getProperties().stream()
+                .anyMatch(property -> property.getPropertyName().equals(propertyName));
+        if (!found) {
+            throw new IllegalArgumentException("Property not found: " + entity.getEntityId() + "." + propertyName);
+        }
+    }
+
+    private static boolean isConstraintRule(ValidationRule.RuleType ruleType) {
+        return ruleType == ValidationRule.RuleType.UNIQUE || ruleType == ValidationRule.RuleType.EXISTS;
+    }
+
+    /**
+     * Answers UNIQUE and EXISTS checks during validation.
+     */
+    @FunctionalInterface
+    public interface ConstraintLookup {
+        /**
+         * Whether a record violates a UNIQUE or EXISTS rule.
+         *
+         * @param position Position of the record in its batch (0 for single records)
+         */
+        boolean violates(EntityRuleSet.CompiledRule rule, int position, UUID recordId, Map<String, Object> recordData);
+    }
+
+    /**
+     * Entity and key fields of the index behind a UNIQUE or EXISTS rule.
+     * For UNIQUE, the rule property followed by its scope fields; for EXISTS, the
+     * target field on the target entity (no fields means a record ID lookup).
+     */
+    public record ConstraintIndex(String entityId, List<String> fields) {
+
+        /**
+         * Derive the index of a rule, or null if the rule is not a UNIQUE or EXISTS rule.
+         */
+        public static ConstraintIndex of(String entityId, ValidationRule.RuleType ruleType, String propertyName,
+                                         Map<String, Object> metadata) {
+            if (!isConstraintRule(ruleType) || propertyName == null) {
+                return null;
+            }
+            Map<String, Object> meta = metadata != null ? metadata : Map.of();
+            if (ruleType == ValidationRule.RuleType.UNIQUE) {
+                List<String> fields = new ArrayList<>();
+                fields.add(propertyName);
+                fields.addAll(scopeFields(meta));
+                return new ConstraintIndex(entityId, List.copyOf(fields));
+            }
+            if (!(meta.get("targetEntityId") instanceof String targetEntityId)) {
+                return null;
+            }
+            return new ConstraintIndex(targetEntityId, meta.get("targetField") instanceof String targetField
+                    ? List.of(targetField) : List.of());
+        }
+
+        /**
+         * Index name: a hash keeps it within the 63-character identifier limit.
+         */
+        public String indexName() {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                        .digest((entityId + ":" + String.join(",", fields)).getBytes(StandardCharsets.UTF_8));
+                return INDEX_PREFIX + HexFormat.of().formatHex(digest, 0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cbap.api.service;
+
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.EntityRecord;
+import com.cbap.persistence.repository.EntityDefinitionRepository;
+import com.cbap.persistence.repository.EntityRecordRepository;
+import com.cbap.search.service.SearchIndexingService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reindexes records in search after a transition changed their state.
+ *
+ * The payload lists the record IDs (a bulk transition queues one effect per chunk);
+ * otherwise the effect's own record is reindexed. Indexing failures are rethrown so
+ * the effect is retried.
+ */
+@Component
+public class RecordReindexEffectHandler implements WorkflowEffectHandler {
+
+    private final EntityDefinitionRepository entityDefinitionRepository;
+    private final EntityRecordRepository entityRecordRepository;
+    private final SearchIndexingService searchIndexingService;
+
+    public RecordReindexEffectHandler(
+            EntityDefinitionRepository entityDefinitionRepository,
+            EntityRecordRepository entityRecordRepository,
+            SearchIndexingService searchIndexingService) {
+        this.entityDefinitionRepository = entityDefinitionRepository;
+        this.entityRecordRepository = entityRecordRepository;
+        this.searchIndexingService = searchIndexingService;
+    }
+
+    @Override
+    public String getEffectType() {
+        return WorkflowEffectQueue.REINDEX_RECORDS;
+    }
+
+    @Override
+    public void handle(WorkflowEffectQueue.Effect effect) {
+        EntityDefinition entity = entityDefinitionRepository.findById(effect.entityId()).orElse(null);
+        if (entity == null) {
+            return;
+        }
+
+        List<UUID> recordIds = new ArrayList<>();
+        if (effect.payload().get("recordIds") instanceof List<?> ids) {
+            for (Object id : ids) {
+                recordIds.add(UUID.fromString(id.toString()));
+            }
+        } else if (effect.recordId() != null) {
+            recordIds.add(effect.recordId());
+        }
+
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        // Records deleted since the transition are gone from the result and need no reindexing
+        for (EntityRecord record : entityRecordRepository.findByEntityIdAndRecordIdIn(effect.entityId(), recordIds)) {
+            try {
+                searchIndexingService.indexRecordOrThrow(entity, record);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to reindex record " + record.getRecordId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.cbap.api.service;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a record write was based on a version that is no longer current,
+ * either because the caller's If-Match version is stale or because another write
+ * committed between reading and updating the record.
+ *
+ * Extends IllegalStateException so callers that map state errors to 409 still do
+ * something sensible; the record and transition endpoints answer 412 instead.
+ */
+public class RecordVersionConflictException extends IllegalStateException {
+
+    private final UUID recordId;
+    private final Long currentVersion;
+
+    public RecordVersionConflictException(UUID recordId, Long expectedVersion, Long currentVersion) {
+        super(currentVersion != null
+                ? String.format("Record %s was modified: expected version %d, current version is %d",
+                        recordId, expectedVersion, currentVersion)
+                : String.format("Record %s was modified concurrently", recordId));
+        this.recordId = recordId;
+        this.currentVersion = currentVersion;
+    }
+
+    public UUID getRecordId() {
+        return recordId;
+    }
+
+    /**
+     * The record's current version, or null if it is unknown (concurrent update detected on write).
+     */
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
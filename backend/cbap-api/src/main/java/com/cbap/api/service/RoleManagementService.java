@@ -5,6 +5,7 @@ import com.cbap.persistence.entity.Role;
 import com.cbap.persistence.entity.User;
 import com.cbap.persistence.repository.PermissionRepository;
 import com.cbap.persistence.repository.RoleRepository;
+import com.cbap.security.service.PrincipalCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -26,12 +27,15 @@ public class RoleManagementService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final PrincipalCache principalCache;
 
     public RoleManagementService(
             RoleRepository roleRepository,
-            PermissionRepository permissionRepository) {
+            PermissionRepository permissionRepository,
+            PrincipalCache principalCache) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -125,6 +129,8 @@ public class RoleManagementService {
             throw new IllegalArgumentException("Cannot delete system role: " + roleName);
         }
         roleRepository.delete(role);
+        // Authorities of the role's users change; cached principals are not tracked by role
+        principalCache.invalidateAll();
     }
 
     /**
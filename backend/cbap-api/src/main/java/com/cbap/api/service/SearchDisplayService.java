@@ -5,12 +5,21 @@ import com.cbap.persistence.repository.EntityDefinitionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for computing display values for search results based on entity metadata.
+ *
+ * The "searchDisplay" fields of each entity are read once and cached, so computing the
+ * display values of a result page or task inbox does not query the entity per row.
+ * {@link #invalidate(String)} drops the cached fields when entity metadata changes.
  */
 @Service
 public class SearchDisplayService {
@@ -19,68 +28,107 @@ public class SearchDisplayService {
 
     private final EntityDefinitionRepository entityDefinitionRepository;
 
+    // Display fields per entity; an empty list means no searchDisplay is configured
+    private final Map<String, List<String>> displayFields = new ConcurrentHashMap<>();
+    // Bumped on every eviction; fields loaded across an eviction are not cached
+    private final AtomicLong generation = new AtomicLong();
+
     public SearchDisplayService(EntityDefinitionRepository entityDefinitionRepository) {
         this.entityDefinitionRepository = entityDefinitionRepository;
     }
 
     /**
      * Compute display value for a search hit based on entity metadata.
-     * 
+     *
      * @param entityId The entity ID
      * @param searchData The indexed search data (from OpenSearch)
      * @return Display value string, or null if not configured
      */
-    @Transactional(readOnly = true)
     public String computeDisplayValue(String entityId, Map<String, Object> searchData) {
         if (entityId == null || searchData == null) {
             return null;
         }
 
         try {
-            EntityDefinition entity = entityDefinitionRepository.findById(entityId).orElse(null);
-            if (entity == null || entity.getMetadataJson() == null) {
-                return null;
-            }
-
-            // Get searchDisplay configuration from entity metadata
-            Object searchDisplayObj = entity.getMetadataJson().get("searchDisplay");
-            if (searchDisplayObj == null) {
-                return null;
-            }
-
-            String searchDisplay = searchDisplayObj.toString();
-            if (searchDisplay.trim().isEmpty()) {
+            List<String> fields = getDisplayFields(entityId);
+            if (fields.isEmpty()) {
                 return null;
             }
 
-            // Handle multiple fields separated by "|"
-            if (searchDisplay.contains("|")) {
-                String[] fields = searchDisplay.split("\\|");
-                StringBuilder displayValue = new StringBuilder();
-                
-                for (int i = 0; i < fields.length; i++) {
-                    String field = fields[i].trim();
-                    Object value = searchData.get(field);
-                    
-                    if (value != null) {
-                        if (displayValue.length() > 0) {
-                            displayValue.append(" | ");
-                        }
-                        displayValue.append(String.valueOf(value));
+            // Multiple fields are joined with " | ", skipping missing values
+            StringBuilder displayValue = new StringBuilder();
+            for (String field : fields) {
+                Object value = searchData.get(field);
+                if (value != null) {
+                    if (displayValue.length() > 0) {
+                        displayValue.append(" | ");
                     }
+                    displayValue.append(String.valueOf(value));
                 }
-                
-                return displayValue.length() > 0 ? displayValue.toString() : null;
-            } else {
-                // Single field
-                Object value = searchData.get(searchDisplay.trim());
-                return value != null ? String.valueOf(value) : null;
             }
+            return displayValue.length() > 0 ? displayValue.toString() : null;
 
         } catch (Exception e) {
-            logger.debug("Error computing display value for entity: entityId={}, error={}", 
+            logger.debug("Error computing display value for entity: entityId={}, error={}",
                     entityId, e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Drop the cached display fields of an entity.
+     * Call after the entity's metadata changes; when a transaction is active the fields
+     * are dropped again after commit so no concurrent reader re-caches the old ones.
+     */
+    public void invalidate(String entityId) {
+        evict(entityId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(entityId);
+                }
+            });
+        }
+    }
+
+    private List<String> getDisplayFields(String entityId) {
+        List<String> fields = displayFields.get(entityId);
+        if (fields != null) {
+            return fields;
+        }
+
+        long loadedGeneration = generation.get();
+        EntityDefinition entity = entityDefinitionRepository.findById(entityId).orElse(null);
+        if (entity == null) {
+            // Not cached, the entity may still be created
+            return List.of();
+        }
+        fields = parseDisplayFields(entity.getMetadataJson());
+
+        if (generation.get() == loadedGeneration) {
+            displayFields.put(entityId, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * Parse the "searchDisplay" setting: a single field name, or several separated by "|".
+     */
+    private List<String> parseDisplayFields(Map<String, Object> metadataJson) {
+        Object searchDisplay = metadataJson != null ? metadataJson.get("searchDisplay") : null;
+        if (searchDisplay == null || searchDisplay.toString().trim().isEmpty()) {
+            return List.of();
+        }
+        List<String> fields = new ArrayList<>();
+        for (String field : searchDisplay.toString().split("\\|")) {
+            fields.add(field.trim());
+        }
+        return List.copyOf(fields);
+    }
+
+    private void evict(String entityId) {
+        generation.incrementAndGet();
+        displayFields.remove(entityId);
+    }
 }
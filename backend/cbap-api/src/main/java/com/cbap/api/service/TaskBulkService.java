@@ -0,0 +1,558 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.TaskProperties;
+import com.cbap.persistence.entity.Task;
+import com.cbap.persistence.entity.User;
+import com.cbap.persistence.repository.UserRepository;
+import com.cbap.security.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service for reassigning, completing and deciding many tasks at once.
+ *
+ * Tasks are given by ID or selected by a filter over one assignee's tasks. They are
+ * processed in chunks, one transaction per chunk: the chunk is read and locked with one
+ * query, each task is checked in memory, and then the tasks are changed with a single
+ * UPDATE and their audit rows are batch-inserted. Counter caches are evicted once per
+ * assignee and change events are published after commit. Every task gets an outcome;
+ * a task that fails does not fail the others.
+ *
+ * Complete and decide are limited to the caller's own tasks, like the single-task
+ * endpoints. Reassign also lets administrators move the tasks of another user, e.g.
+ * when someone goes on leave.
+ */
+@Service
+public class TaskBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskBulkService.class);
+
+    private static final String TASK_WORKFLOW_ID = "TaskWorkflow";
+
+    private static final List<String> OPEN_STATUSES = List.of(
+            Task.TaskStatus.OPEN.name(), Task.TaskStatus.IN_PROGRESS.name());
+
+    // Record data is only read when the completion transitions have guards
+    private static final String LOCK_CHUNK_SQL =
+            "SELECT t.task_id, t.entity_id, t.record_id, t.assignee_id, t.status, " +
+            "CASE WHEN CAST(? AS boolean) THEN r.data_json::text END AS data_json " +
+            "FROM cbap_tasks t JOIN cbap_entity_records r ON r.record_id = t.record_id " +
+            "WHERE t.task_id = ANY(?) FOR UPDATE OF t";
+
+    private static final String SELECT_TASKS_SQL =
+            "SELECT task_id FROM cbap_tasks WHERE assignee_id = ? AND status = ANY(?) " +
+            "AND (CAST(? AS varchar) IS NULL OR entity_id = ?) " +
+            "AND (CAST(? AS timestamptz) IS NULL OR due_date <= ?) " +
+            "ORDER BY created_at, task_id LIMIT ?";
+
+    private static final String REASSIGN_SQL =
+            "UPDATE cbap_tasks SET assignee_id = ?, version = version + 1 " +
+            "WHERE task_id = ANY(?) AND status IN ('OPEN', 'IN_PROGRESS') RETURNING task_id";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE cbap_tasks SET status = 'DONE', workflow_state = 'DONE', completed_at = CURRENT_TIMESTAMP, " +
+            "completed_by = ?, version = version + 1 " +
+            "WHERE task_id = ANY(?) AND status IN ('OPEN', 'IN_PROGRESS') RETURNING task_id";
+
+    private static final String DECIDE_SQL =
+            "UPDATE cbap_tasks SET decision = ?, decision_comments = ?, status = 'DONE', " +
+            "completed_at = CURRENT_TIMESTAMP, completed_by = ?, version = version + 1 " +
+            "WHERE task_id = ANY(?) AND status IN ('OPEN', 'IN_PROGRESS') RETURNING task_id";
+
+    private static final String INSERT_AUDIT_SQL =
+            "INSERT INTO cbap_task_audit_log (task_id, action, from_status, to_status, from_assignee_id, " +
+            "to_assignee_id, decision, comments, performed_by, bulk_operation_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final WorkflowStateMachineRegistry stateMachineRegistry;
+    private final TaskCounterService taskCounterService;
+    private final ChangeEventBus changeEventBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaskProperties taskProperties;
+
+    public TaskBulkService(
+            UserRepository userRepository,
+            UserService userService,
+            WorkflowStateMachineRegistry stateMachineRegistry,
+            TaskCounterService taskCounterService,
+            ChangeEventBus changeEventBus,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            TaskProperties taskProperties) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.stateMachineRegistry = stateMachineRegistry;
+        this.taskCounterService = taskCounterService;
+        this.changeEventBus = changeEventBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.taskProperties = taskProperties;
+    }
+
+    /**
+     * Reassign many tasks to one user.
+     *
+     * @param taskIds The tasks to reassign, or null to select them with the filter
+     * @param filter Selects the tasks when no IDs are given
+     * @param assigneeId The new assignee
+     * @param comments Optional comments, recorded in every audit entry
+     * @param authentication The authentication context
+     * @return Per-task outcomes, in input (or creation) order
+     */
+    public BulkTaskResult reassignTasks(List<UUID> taskIds, TaskFilter filter, UUID assigneeId,
+                                        String comments, Authentication authentication) {
+        if (assigneeId == null) {
+            throw new IllegalArgumentException("assigneeId is required");
+        }
+        if (!userRepository.existsById(assigneeId)) {
+            throw new IllegalArgumentException("Assignee not found: " + assigneeId);
+        }
+        BulkOperation operation = new BulkOperation(BulkAction.REASSIGN, getCurrentUser(authentication),
+                userService.isAdmin(authentication), comments);
+        operation.assigneeId = assigneeId;
+        return execute(operation, taskIds, filter);
+    }
+
+    /**
+     * Complete many tasks of the current user through the task workflow's transitions to DONE.
+     */
+    public BulkTaskResult completeTasks(List<UUID> taskIds, TaskFilter filter, String comments,
+                                        Authentication authentication) {
+        BulkOperation operation = new BulkOperation(BulkAction.COMPLETE, getCurrentUser(authentication),
+                false, comments);
+        WorkflowStateMachine stateMachine = stateMachineRegistry.get(TASK_WORKFLOW_ID);
+        for (String status : OPEN_STATUSES) {
+            WorkflowStateMachine.CompiledTransition transition = stateMachine.findTransition(status, "DONE");
+            if (transition != null) {
+                operation.completions.put(status, transition);
+            }
+        }
+        return execute(operation, taskIds, filter);
+    }
+
+    /**
+     * Submit the same decision for many tasks of the current user.
+     */
+    public BulkTaskResult decideTasks(List<UUID> taskIds, TaskFilter filter, Task.TaskDecision decision,
+                                      String comments, Authentication authentication) {
+        if (decision == null) {
+            throw new IllegalArgumentException("Decision is required");
+        }
+        BulkOperation operation = new BulkOperation(BulkAction.DECIDE, getCurrentUser(authentication),
+                false, comments);
+        operation.decision = decision;
+        return execute(operation, taskIds, filter);
+    }
+
+    private BulkTaskResult execute(BulkOperation operation, List<UUID> taskIds, TaskFilter filter) {
+        List<UUID> targets;
+        if (taskIds != null) {
+            targets = new ArrayList<>(new LinkedHashSet<>(taskIds));
+            targets.remove(null);
+            if (targets.isEmpty()) {
+                throw new IllegalArgumentException("At least one task ID is required");
+            }
+            if (targets.size() > taskProperties.getBulkMaxTasks()) {
+                throw new IllegalArgumentException("Too many tasks: " + targets.size()
+                        + " (maximum " + taskProperties.getBulkMaxTasks() + ")");
+            }
+        } else if (filter != null) {
+            targets = selectTasks(operation, filter);
+        } else {
+            throw new IllegalArgumentException("Either taskIds or filter is required");
+        }
+
+        long start = System.nanoTime();
+        Map<UUID, TaskOutcome> outcomes = new LinkedHashMap<>();
+        for (UUID taskId : targets) {
+            outcomes.put(taskId, null);
+        }
+
+        int chunkSize = Math.max(1, taskProperties.getBulkChunkSize());
+        for (int from = 0; from < targets.size(); from += chunkSize) {
+            List<UUID> chunk = targets.subList(from, Math.min(from + chunkSize, targets.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> processChunk(operation, chunk, outcomes));
+            } catch (RuntimeException e) {
+                logger.error("Bulk task chunk failed: bulkOperationId={}, action={}, tasks={}",
+                        operation.bulkOperationId, operation.action, chunk.size(), e);
+                for (UUID taskId : chunk) {
+                    outcomes.put(taskId, TaskOutcome.of(taskId, OutcomeStatus.ERROR,
+                            "Bulk task chunk failed: " + e.getMessage()));
+                }
+            }
+        }
+
+        BulkTaskResult result = new BulkTaskResult(operation.bulkOperationId, operation.action,
+                new ArrayList<>(outcomes.values()));
+        logger.info("Bulk task operation executed: bulkOperationId={}, action={}, tasks={}, succeeded={}, failed={}, userId={}, durationMs={}",
+                operation.bulkOperationId, operation.action, result.getRequestedCount(), result.getSucceededCount(),
+                result.getFailedCount(), operation.user.getUserId(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Process one chunk inside its transaction.
+     */
+    private void processChunk(BulkOperation operation, List<UUID> chunk, Map<UUID, TaskOutcome> outcomes) {
+        boolean readData = operation.completions.values().stream()
+                .anyMatch(WorkflowStateMachine.CompiledTransition::hasConditions);
+
+        Map<UUID, ChunkRow> rows = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(LOCK_CHUNK_SQL);
+            statement.setBoolean(1, readData);
+            statement.setArray(2, con.createArrayOf("uuid", chunk.toArray()));
+            return statement;
+        }, rs -> {
+            UUID taskId = rs.getObject("task_id", UUID.class);
+            rows.put(taskId, new ChunkRow(taskId, rs.getString("entity_id"), rs.getObject("record_id", UUID.class),
+                    rs.getObject("assignee_id", UUID.class), rs.getString("status"), rs.getString("data_json")));
+        });
+
+        List<UUID> candidates = new ArrayList<>();
+        for (UUID taskId : chunk) {
+            ChunkRow row = rows.get(taskId);
+            if (row == null) {
+                outcomes.put(taskId, TaskOutcome.of(taskId, OutcomeStatus.NOT_FOUND, "Task not found: " + taskId));
+                continue;
+            }
+            TaskOutcome failure = check(operation, row);
+            if (failure != null) {
+                outcomes.put(taskId, failure);
+                continue;
+            }
+            candidates.add(taskId);
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One UPDATE for the chunk; the rows are locked, the status guard only keeps the statement honest
+        Set<UUID> changed = new HashSet<>(jdbcTemplate.query(con -> switch (operation.action) {
+            case REASSIGN -> {
+                PreparedStatement update = con.prepareStatement(REASSIGN_SQL);
+                update.setObject(1, operation.assigneeId);
+                update.setArray(2, con.createArrayOf("uuid", candidates.toArray()));
+                yield update;
+            }
+            case COMPLETE -> {
+                PreparedStatement update = con.prepareStatement(COMPLETE_SQL);
+                update.setObject(1, operation.user.getUserId());
+                update.setArray(2, con.createArrayOf("uuid", candidates.toArray()));
+                yield update;
+            }
+            case DECIDE -> {
+                PreparedStatement update = con.prepareStatement(DECIDE_SQL);
+                update.setString(1, operation.decision.name());
+                update.setString(2, operation.comments);
+                update.setObject(3, operation.user.getUserId());
+                update.setArray(4, con.createArrayOf("uuid", candidates.toArray()));
+                yield update;
+            }
+        }, (rs, rowNum) -> rs.getObject("task_id", UUID.class)));
+
+        String toStatus = operation.action == BulkAction.REASSIGN ? null : Task.TaskStatus.DONE.name();
+        String decision = operation.decision != null ? operation.decision.name() : null;
+        List<Object[]> auditRows = new ArrayList<>(changed.size());
+        List<ChangeEventBus.ChangeEvent> events = new ArrayList<>();
+        Set<UUID> affectedAssignees = new HashSet<>();
+        for (UUID taskId : candidates) {
+            ChunkRow row = rows.get(taskId);
+            if (!changed.contains(taskId)) {
+                outcomes.put(taskId, TaskOutcome.of(taskId, OutcomeStatus.CONFLICT, "Task changed concurrently"));
+                continue;
+            }
+            String newStatus = toStatus != null ? toStatus : row.status;
+            UUID newAssignee = operation.assigneeId != null ? operation.assigneeId : row.assigneeId;
+            auditRows.add(new Object[] { taskId, operation.action.name(), row.status, newStatus, row.assigneeId,
+                    newAssignee, decision, operation.comments, operation.user.getUserId(),
+                    operation.bulkOperationId });
+
+            affectedAssignees.add(row.assigneeId);
+            affectedAssignees.add(newAssignee);
+            Map<String, Object> data = new HashMap<>();
+            data.put("status", newStatus);
+            data.put("bulkOperationId", operation.bulkOperationId);
+            if (operation.action == BulkAction.REASSIGN) {
+                data.put("reassignedFrom", row.assigneeId);
+                events.add(ChangeEventBus.ChangeEvent.task(ChangeEventBus.TASK_ASSIGNED, newAssignee,
+                        row.entityId, row.recordId, taskId, data));
+                events.add(ChangeEventBus.ChangeEvent.task(ChangeEventBus.TASK_UPDATED, row.assigneeId,
+                        row.entityId, row.recordId, taskId, Map.of("status", newStatus, "reassignedTo", newAssignee,
+                                "bulkOperationId", operation.bulkOperationId)));
+            } else {
+                if (decision != null) {
+                    data.put("decision", decision);
+                }
+                events.add(ChangeEventBus.ChangeEvent.task(ChangeEventBus.TASK_UPDATED, row.assigneeId,
+                        row.entityId, row.recordId, taskId, data));
+            }
+
+            TaskOutcome outcome = TaskOutcome.of(taskId, OutcomeStatus.SUCCEEDED, null);
+            outcome.fromStatus = row.status;
+            outcome.toStatus = newStatus;
+            outcome.assigneeId = newAssignee.toString();
+            outcomes.put(taskId, outcome);
+        }
+        if (auditRows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_SQL, auditRows);
+
+        // Counters are maintained by trigger; only the cached counts need to go
+        for (UUID assigneeId : affectedAssignees) {
+            taskCounterService.evict(assigneeId);
+        }
+        changeEventBus.publishAll(events);
+    }
+
+    /**
+     * Check a locked task against the operation.
+     *
+     * @return The failure outcome, or null if the task can be changed
+     */
+    private TaskOutcome check(BulkOperation operation, ChunkRow row) {
+        boolean own = row.assigneeId.equals(operation.user.getUserId());
+        if (!own && !(operation.action == BulkAction.REASSIGN && operation.admin)) {
+            return TaskOutcome.of(row.taskId, OutcomeStatus.FORBIDDEN, switch (operation.action) {
+                case REASSIGN -> "Only the task assignee or an administrator can reassign the task";
+                case COMPLETE -> "Only the task assignee can complete the task";
+                case DECIDE -> "Only the task assignee can submit a decision";
+            });
+        }
+        if (!OPEN_STATUSES.contains(row.status)) {
+            return TaskOutcome.of(row.taskId, OutcomeStatus.INVALID_STATE, "Task is already in final state: " + row.status);
+        }
+        if (operation.action == BulkAction.REASSIGN && row.assigneeId.equals(operation.assigneeId)) {
+            return TaskOutcome.of(row.taskId, OutcomeStatus.INVALID_STATE,
+                    "Task is already assigned to " + operation.assigneeId);
+        }
+        if (operation.action == BulkAction.COMPLETE) {
+            WorkflowStateMachine.CompiledTransition transition = operation.completions.get(row.status);
+            if (transition == null) {
+                return TaskOutcome.of(row.taskId, OutcomeStatus.INVALID_STATE,
+                        "Transition " + row.status + " -> DONE not found");
+            }
+            String failure = transition.hasConditions() ? transition.checkConditions(
+                    WorkflowStateMachine.guardContext(readData(row.dataJson), row.status)) : null;
+            if (failure != null) {
+                return TaskOutcome.of(row.taskId, OutcomeStatus.CONDITION_FAILED, failure);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tasks of one assignee that match the filter, oldest first.
+     */
+    private List<UUID> selectTasks(BulkOperation operation, TaskFilter filter) {
+        UUID assigneeId = filter.getAssigneeId() != null ? filter.getAssigneeId() : operation.user.getUserId();
+        if (!assigneeId.equals(operation.user.getUserId())
+                && !(operation.action == BulkAction.REASSIGN && operation.admin)) {
+            throw new IllegalStateException("Only administrators can select the tasks of another user");
+        }
+
+        List<String> statuses = OPEN_STATUSES;
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            statuses = filter.getStatuses().stream().map(Task.TaskStatus::name).distinct().toList();
+        }
+        String[] statusArray = statuses.toArray(new String[0]);
+        int maxTasks = taskProperties.getBulkMaxTasks();
+
+        List<UUID> selected = jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(SELECT_TASKS_SQL);
+            statement.setObject(1, assigneeId);
+            statement.setArray(2, con.createArrayOf("varchar", statusArray));
+            statement.setString(3, filter.getEntityId());
+            statement.setString(4, filter.getEntityId());
+            statement.setObject(5, filter.getDueBefore());
+            statement.setObject(6, filter.getDueBefore());
+            statement.setInt(7, maxTasks + 1);
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("task_id", UUID.class));
+        if (selected.size() > maxTasks) {
+            throw new IllegalArgumentException("Filter matches more than " + maxTasks + " tasks");
+        }
+        return selected;
+    }
+
+    private Map<String, Object> readData(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable record data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get current user from authentication.
+     */
+    private User getCurrentUser(Authentication authentication) {
+        if (authentication == null) {
+            throw new IllegalStateException("Authentication required");
+        }
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
+    }
+
+    private record ChunkRow(UUID taskId, String entityId, UUID recordId, UUID assigneeId, String status,
+                            String dataJson) {
+    }
+
+    /**
+     * State shared by the chunks of one bulk operation.
+     */
+    private static final class BulkOperation {
+        private final UUID bulkOperationId = UUID.randomUUID();
+        private final BulkAction action;
+        private final User user;
+        private final boolean admin;
+        private final String comments;
+        private final Map<String, WorkflowStateMachine.CompiledTransition> completions = new HashMap<>();
+        private UUID assigneeId;
+        private Task.TaskDecision decision;
+
+        BulkOperation(BulkAction action, User user, boolean admin, String comments) {
+            this.action = action;
+            this.user = user;
+            this.admin = admin;
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * Bulk task actions.
+     */
+    public enum BulkAction {
+        REASSIGN,
+        COMPLETE,
+        DECIDE
+    }
+
+    /**
+     * Selects the tasks of a bulk operation.
+     */
+    public static class TaskFilter {
+        private UUID assigneeId;
+        private List<Task.TaskStatus> statuses;
+        private String entityId;
+        private OffsetDateTime dueBefore;
+
+        /**
+         * Assignee whose tasks are selected; defaults to the current user. Other users' tasks can
+         * only be selected by administrators, for reassignment.
+         */
+        public UUID getAssigneeId() { return assigneeId; }
+        public void setAssigneeId(UUID assigneeId) { this.assigneeId = assigneeId; }
+        /**
+         * Statuses to select; defaults to OPEN and IN_PROGRESS.
+         */
+        public List<Task.TaskStatus> getStatuses() { return statuses; }
+        public void setStatuses(List<Task.TaskStatus> statuses) { this.statuses = statuses; }
+        public String getEntityId() { return entityId; }
+        public void setEntityId(String entityId) { this.entityId = entityId; }
+        public OffsetDateTime getDueBefore() { return dueBefore; }
+        public void setDueBefore(OffsetDateTime dueBefore) { this.dueBefore = dueBefore; }
+    }
+
+    /**
+     * Outcome of one task in a bulk operation.
+     */
+    public enum OutcomeStatus {
+        SUCCEEDED,
+        NOT_FOUND,
+        FORBIDDEN,
+        INVALID_STATE,
+        CONDITION_FAILED,
+        CONFLICT,
+        ERROR
+    }
+
+    /**
+     * Task outcome DTO.
+     */
+    public static class TaskOutcome {
+        private String taskId;
+        private OutcomeStatus status;
+        private String fromStatus;
+        private String toStatus;
+        private String assigneeId;
+        private String message;
+
+        static TaskOutcome of(UUID taskId, OutcomeStatus status, String message) {
+            TaskOutcome outcome = new TaskOutcome();
+            outcome.taskId = taskId.toString();
+            outcome.status = status;
+            outcome.message = message;
+            return outcome;
+        }
+
+        public boolean isSuccess() { return status == OutcomeStatus.SUCCEEDED; }
+        public String getTaskId() { return taskId; }
+        public OutcomeStatus getStatus() { return status; }
+        public String getFromStatus() { return fromStatus; }
+        public String getToStatus() { return toStatus; }
+        public String getAssigneeId() { return assigneeId; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Bulk task result DTO.
+     */
+    public static class BulkTaskResult {
+        private final UUID bulkOperationId;
+        private final BulkAction action;
+        private final List<TaskOutcome> outcomes;
+        private final int succeededCount;
+
+        BulkTaskResult(UUID bulkOperationId, BulkAction action, List<TaskOutcome> outcomes) {
+            this.bulkOperationId = bulkOperationId;
+            this.action = action;
+            this.outcomes = outcomes;
+            this.succeededCount = (int) outcomes.stream().filter(TaskOutcome::isSuccess).count();
+        }
+
+        public UUID getBulkOperationId() { return bulkOperationId; }
+        public BulkAction getAction() { return action; }
+        public List<TaskOutcome> getOutcomes() { return outcomes; }
+        public int getRequestedCount() { return outcomes.size(); }
+        public int getSucceededCount() { return succeededCount; }
+        public int getFailedCount() { return outcomes.size() - succeededCount; }
+    }
+}
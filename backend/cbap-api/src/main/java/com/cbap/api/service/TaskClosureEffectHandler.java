@@ -0,0 +1,35 @@
+package com.cbap.api.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Closes the open tasks a transition is associated with, for the record it was executed on.
+ *
+ * Only tasks created before the transition are closed, so tasks the same transition
+ * creates (a separate effect, possibly processed first) stay open.
+ */
+@Component
+public class TaskClosureEffectHandler implements WorkflowEffectHandler {
+
+    private static final String CLOSE_TASKS_SQL =
+            "UPDATE cbap_tasks SET status = 'DONE', completed_at = ?, completed_by = ?, version = version + 1 " +
+            "WHERE record_id = ? AND transition_id = ? AND status IN ('OPEN', 'IN_PROGRESS') AND created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskClosureEffectHandler(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String getEffectType() {
+        return WorkflowEffectQueue.CLOSE_TASKS;
+    }
+
+    @Override
+    public void handle(WorkflowEffectQueue.Effect effect) {
+        jdbcTemplate.update(CLOSE_TASKS_SQL, effect.createdAt(), effect.payloadUuid("completedBy"),
+                effect.recordId(), effect.transitionId(), effect.createdAt());
+    }
+}
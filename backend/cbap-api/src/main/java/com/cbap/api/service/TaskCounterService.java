@@ -0,0 +1,150 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.TaskProperties;
+import com.cbap.persistence.entity.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Task counts per assignee and status, for inbox badges.
+ *
+ * Counts are read from cbap_task_counters, which triggers on cbap_tasks keep up to date
+ * in every writer's transaction, so a read is a primary-key lookup of a few rows rather
+ * than a count over the user's tasks. Each user's counts are additionally cached for a
+ * few seconds to absorb polling from many open tabs; writes through {@link TaskService}
+ * drop the assignee's entry so the acting user sees the change immediately.
+ *
+ * A periodic reconciliation recomputes the counters from the tasks table.
+ */
+@Service
+public class TaskCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskCounterService.class);
+
+    private static final String SELECT_COUNTS_SQL =
+            "SELECT status, task_count FROM cbap_task_counters WHERE assignee_id = ?";
+
+    // Waits for in-flight task writes and blocks new ones until the reconciliation commits
+    private static final String LOCK_COUNTERS_SQL = "LOCK TABLE cbap_task_counters IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String RECONCILE_COUNTS_SQL =
+            "INSERT INTO cbap_task_counters (assignee_id, status, task_count) " +
+            "SELECT assignee_id, status, COUNT(*) FROM cbap_tasks GROUP BY assignee_id, status " +
+            "ON CONFLICT (assignee_id, status) DO UPDATE SET task_count = EXCLUDED.task_count " +
+            "WHERE cbap_task_counters.task_count <> EXCLUDED.task_count";
+
+    private static final String DELETE_STALE_COUNTS_SQL =
+            "DELETE FROM cbap_task_counters c WHERE NOT EXISTS (" +
+            "SELECT 1 FROM cbap_tasks t WHERE t.assignee_id = c.assignee_id AND t.status = c.status)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskProperties taskProperties;
+
+    private final Map<UUID, CachedCounts> cache = new ConcurrentHashMap<>();
+
+    public TaskCounterService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TaskProperties taskProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskProperties = taskProperties;
+    }
+
+    /**
+     * Task counts of a user by status, with every status present, plus "OPEN_TOTAL"
+     * (OPEN and IN_PROGRESS) for the inbox badge.
+     */
+    public Map<String, Long> getCounts(UUID userId) {
+        CachedCounts cached = cache.get(userId);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return cached.counts();
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Task.TaskStatus status : Task.TaskStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        jdbcTemplate.query(SELECT_COUNTS_SQL,
+                rs -> {
+                    counts.put(rs.getString("status"), Math.max(0L, rs.getLong("task_count")));
+                },
+                userId);
+        counts.put("OPEN_TOTAL", counts.get(Task.TaskStatus.OPEN.name()) + counts.get(Task.TaskStatus.IN_PROGRESS.name()));
+
+        Map<String, Long> result = Collections.unmodifiableMap(counts);
+        cacheCounts(userId, result);
+        return result;
+    }
+
+    /**
+     * Drop the cached counts of an assignee after the current transaction completes.
+     */
+    public void evict(UUID assigneeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(assigneeId);
+                }
+            });
+        } else {
+            cache.remove(assigneeId);
+        }
+    }
+
+    /**
+     * Recompute all counters from cbap_tasks, correcting drift (e.g. from writes made
+     * while the triggers were disabled). Task writes wait while this runs.
+     */
+    @Scheduled(initialDelayString = "${cbap.tasks.count-reconcile-interval-ms:3600000}",
+            fixedDelayString = "${cbap.tasks.count-reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        try {
+            int[] corrected = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute(LOCK_COUNTERS_SQL);
+                return new int[] {
+                        jdbcTemplate.update(RECONCILE_COUNTS_SQL),
+                        jdbcTemplate.update(DELETE_STALE_COUNTS_SQL) };
+            });
+            if (corrected != null && corrected[0] > 0) {
+                logger.warn("Corrected drifted task counters: rows={}", corrected[0]);
+            }
+            logger.debug("Reconciled task counters: removedRows={}", corrected != null ? corrected[1] : 0);
+        } catch (RuntimeException e) {
+            logger.error("Failed to reconcile task counters: error={}", e.getMessage());
+        }
+    }
+
+    private void cacheCounts(UUID userId, Map<String, Long> counts) {
+        long ttlSeconds = taskProperties.getCountCacheTtlSeconds();
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        if (cache.size() >= taskProperties.getCountCacheMaxEntries()) {
+            long now = System.nanoTime();
+            cache.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+            if (cache.size() >= taskProperties.getCountCacheMaxEntries()) {
+                return;
+            }
+        }
+        cache.put(userId, new CachedCounts(counts, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+    }
+
+    private record CachedCounts(Map<String, Long> counts, long expiresAtNanos) {
+    }
+}
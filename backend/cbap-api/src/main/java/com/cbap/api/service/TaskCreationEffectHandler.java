@@ -0,0 +1,75 @@
+package com.cbap.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Creates the tasks configured on a transition (metadata createTasks) for the record it
+ * was executed on. The payload carries the task configs as resolved when the transition ran.
+ */
+@Component
+public class TaskCreationEffectHandler implements WorkflowEffectHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskCreationEffectHandler.class);
+
+    // Tasks whose assignee or record no longer exists are skipped; a deleted transition leaves transition_id NULL
+    private static final String INSERT_TASK_SQL =
+            "INSERT INTO cbap_tasks (entity_id, record_id, title, description, assignee_id, status, priority, " +
+            "due_date, workflow_state, transition_id, created_by) " +
+            "SELECT ?, ?, ?, ?, ?, 'OPEN', ?, ?, ?, " +
+            "(SELECT transition_id FROM cbap_metadata_workflow_transitions WHERE transition_id = ?), ? " +
+            "WHERE EXISTS (SELECT 1 FROM cbap_users WHERE user_id = ?) " +
+            "AND EXISTS (SELECT 1 FROM cbap_entity_records WHERE record_id = ?) " +
+            "RETURNING task_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeEventBus changeEventBus;
+
+    public TaskCreationEffectHandler(JdbcTemplate jdbcTemplate, ChangeEventBus changeEventBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeEventBus = changeEventBus;
+    }
+
+    @Override
+    public String getEffectType() {
+        return WorkflowEffectQueue.CREATE_TASKS;
+    }
+
+    @Override
+    public void handle(WorkflowEffectQueue.Effect effect) {
+        if (!(effect.payload().get("tasks") instanceof List<?> tasks)) {
+            return;
+        }
+        Object workflowState = effect.payload().get("workflowState");
+        for (Object entry : tasks) {
+            if (!(entry instanceof Map<?, ?> taskConfig)) {
+                continue;
+            }
+            WorkflowStateMachine.TaskTemplate template = WorkflowStateMachine.TaskTemplate.fromConfig(taskConfig);
+            if (template == null) {
+                continue;
+            }
+            List<UUID> created = jdbcTemplate.queryForList(INSERT_TASK_SQL, UUID.class, effect.entityId(), effect.recordId(), template.title(),
+                    template.description(), template.assigneeId(),
+                    template.priority() != null ? template.priority().name() : null, template.dueDate(),
+                    workflowState, effect.transitionId(), effect.payloadUuid("createdBy"),
+                    template.assigneeId(), effect.recordId());
+            if (created.isEmpty()) {
+                logger.warn("Failed to create task from transition: transitionId={}, recordId={}, error=Assignee or record not found",
+                        effect.transitionId(), effect.recordId());
+            } else {
+                logger.info("Task created from transition: entityId={}, recordId={}, assigneeId={}, title={}",
+                        effect.entityId(), effect.recordId(), template.assigneeId(), template.title());
+                changeEventBus.publish(ChangeEventBus.ChangeEvent.task(ChangeEventBus.TASK_ASSIGNED,
+                        template.assigneeId(), effect.entityId(), effect.recordId(), created.get(0),
+                        Map.of("status", "OPEN")));
+            }
+        }
+    }
+}
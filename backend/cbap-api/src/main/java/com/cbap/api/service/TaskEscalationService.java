@@ -0,0 +1,204 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.TaskProperties;
+import com.cbap.persistence.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escalates open tasks that are past their due date.
+ *
+ * Escalation runs periodically through the configured steps (cbap.tasks.escalation-steps).
+ * Step n picks the tasks that went through step n - 1 and are overdue by the step's delay,
+ * oldest due date first, and applies its actions with one UPDATE per batch; each batch
+ * commits on its own. The lookup is served by a partial index on open tasks with a due
+ * date, so a run costs in proportion to the tasks it escalates.
+ *
+ * Escalation bumps the task version, so a concurrent JPA save of the task based on an
+ * older read fails instead of reverting the new priority or assignee.
+ *
+ * Only one instance escalates at a time: a run starts by taking a transaction-level
+ * advisory lock in a transaction of its own on a dedicated connection, and is skipped by
+ * the instances that do not get it. The lock is released when that transaction ends,
+ * even if the connection breaks or is returned to the pool mid-transaction.
+ */
+@Service
+public class TaskEscalationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEscalationService.class);
+
+    private static final String LOCK_KEY = "cbap-task-escalation";
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?))";
+
+    // Tasks being edited are skipped and picked up by the next run
+    private static final String ESCALATE_SQL =
+            "UPDATE cbap_tasks t SET escalation_level = ?, escalated_at = CURRENT_TIMESTAMP, version = t.version + 1, " +
+            "priority = CASE WHEN CAST(? AS boolean) THEN (CASE COALESCE(t.priority, 'MEDIUM') " +
+            "    WHEN 'LOW' THEN 'MEDIUM' WHEN 'MEDIUM' THEN 'HIGH' ELSE 'URGENT' END) ELSE t.priority END, " +
+            "assignee_id = COALESCE(CAST(? AS uuid), t.assignee_id) " +
+            "FROM (SELECT task_id, assignee_id FROM cbap_tasks " +
+            "      WHERE status IN ('OPEN', 'IN_PROGRESS') AND due_date IS NOT NULL " +
+            "      AND escalation_level = ? AND due_date <= ? " +
+            "      ORDER BY due_date LIMIT ? FOR UPDATE SKIP LOCKED) due " +
+            "WHERE t.task_id = due.task_id " +
+            "RETURNING t.task_id, t.entity_id, t.record_id, t.assignee_id, t.priority, " +
+            "due.assignee_id AS previous_assignee_id";
+
+    private static final String RESET_SQL =
+            "UPDATE cbap_tasks SET escalation_level = 0, escalated_at = NULL WHERE task_id = ? AND escalation_level > 0";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final TaskCounterService taskCounterService;
+    private final ChangeEventBus changeEventBus;
+    private final TaskProperties taskProperties;
+
+    public TaskEscalationService(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            UserRepository userRepository,
+            TaskCounterService taskCounterService,
+            ChangeEventBus changeEventBus,
+            TaskProperties taskProperties) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.taskCounterService = taskCounterService;
+        this.changeEventBus = changeEventBus;
+        this.taskProperties = taskProperties;
+    }
+
+    @Scheduled(initialDelayString = "${cbap.tasks.escalation-interval-ms:60000}",
+            fixedDelayString = "${cbap.tasks.escalation-interval-ms:60000}")
+    public void escalateOverdueTasks() {
+        List<TaskProperties.EscalationStep> steps = taskProperties.getEscalationSteps();
+        if (!taskProperties.isEscalationEnabled() || steps == null || steps.isEmpty()) {
+            return;
+        }
+        // The lock connection's transaction stays open for the whole run, across the batch transactions
+        try (Connection lockConnection = dataSource.getConnection()) {
+            lockConnection.setAutoCommit(false);
+            try {
+                if (!tryLock(lockConnection)) {
+                    logger.debug("Task escalation is running on another instance");
+                    return;
+                }
+                for (int i = 0; i < steps.size(); i++) {
+                    escalateStep(i + 1, steps.get(i));
+                }
+            } finally {
+                // Ends the transaction and releases the lock; if this fails the pool rolls back on close
+                lockConnection.rollback();
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Task escalation failed: error={}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Restart the escalation of a task, e.g. after its due date was moved.
+     */
+    public void resetEscalation(UUID taskId) {
+        jdbcTemplate.update(RESET_SQL, taskId);
+    }
+
+    private void escalateStep(int level, TaskProperties.EscalationStep step) {
+        List<TaskProperties.EscalationAction> actions = step.getActions() != null ? step.getActions() : List.of();
+        boolean raisePriority = actions.contains(TaskProperties.EscalationAction.RAISE_PRIORITY);
+        boolean notify = actions.contains(TaskProperties.EscalationAction.NOTIFY);
+        UUID reassignTo = null;
+        if (actions.contains(TaskProperties.EscalationAction.REASSIGN)) {
+            if (step.getReassignTo() != null && userRepository.existsById(step.getReassignTo())) {
+                reassignTo = step.getReassignTo();
+            } else {
+                logger.warn("Escalation step {} has no valid reassignTo user, not reassigning: reassignTo={}",
+                        level, step.getReassignTo());
+            }
+        }
+        OffsetDateTime dueBefore = OffsetDateTime.now()
+                .minus(step.getAfterDue() != null ? step.getAfterDue() : Duration.ZERO);
+        int batchSize = Math.max(1, taskProperties.getEscalationBatchSize());
+
+        int escalated = 0;
+        for (int batch = 0; batch < Math.max(1, taskProperties.getEscalationMaxBatches()); batch++) {
+            UUID target = reassignTo;
+            Integer count = transactionTemplate.execute(status ->
+                    escalateBatch(level, raisePriority, target, notify, dueBefore, batchSize));
+            escalated += count != null ? count : 0;
+            if (count == null || count < batchSize) {
+                break;
+            }
+        }
+        if (escalated > 0) {
+            logger.info("Escalated overdue tasks: level={}, tasks={}, reassignTo={}", level, escalated, reassignTo);
+        }
+    }
+
+    private int escalateBatch(int level, boolean raisePriority, UUID reassignTo, boolean notify,
+                              OffsetDateTime dueBefore, int batchSize) {
+        List<ChangeEventBus.ChangeEvent> events = new ArrayList<>();
+        int[] count = new int[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(ESCALATE_SQL);
+            statement.setInt(1, level);
+            statement.setBoolean(2, raisePriority);
+            statement.setObject(3, reassignTo);
+            statement.setInt(4, level - 1);
+            statement.setObject(5, dueBefore);
+            statement.setInt(6, batchSize);
+            return statement;
+        }, rs -> {
+            count[0]++;
+            UUID assigneeId = rs.getObject("assignee_id", UUID.class);
+            UUID previousAssigneeId = rs.getObject("previous_assignee_id", UUID.class);
+            if (!assigneeId.equals(previousAssigneeId)) {
+                taskCounterService.evict(assigneeId);
+                taskCounterService.evict(previousAssigneeId);
+            }
+            if (notify) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("escalationLevel", level);
+                data.put("priority", rs.getString("priority"));
+                if (!assigneeId.equals(previousAssigneeId)) {
+                    data.put("reassignedFrom", previousAssigneeId);
+                }
+                events.add(ChangeEventBus.ChangeEvent.task(ChangeEventBus.TASK_ESCALATED, assigneeId,
+                        rs.getString("entity_id"), rs.getObject("record_id", UUID.class),
+                        rs.getObject("task_id", UUID.class), data));
+            }
+        });
+        changeEventBus.publishAll(events);
+        return count[0];
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK_SQL)) {
+            statement.setString(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
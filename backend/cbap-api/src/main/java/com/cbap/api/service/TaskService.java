@@ -15,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -25,6 +26,8 @@ public class TaskService {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
 
+    private static final String TASK_WORKFLOW_ID = "TaskWorkflow";
+
     private final com.cbap.persistence.repository.TaskRepository taskRepository;
     private final EntityDefinitionRepository entityDefinitionRepository;
     private final EntityRecordRepository entityRecordRepository;
@@ -32,6 +35,10 @@ public class TaskService {
     private final WorkflowTransitionRepository workflowTransitionRepository;
     private final WorkflowDefinitionRepository workflowDefinitionRepository;
     private final SearchDisplayService searchDisplayService;
+    private final WorkflowStateMachineRegistry stateMachineRegistry;
+    private final TaskCounterService taskCounterService;
+    private final ChangeEventBus changeEventBus;
+    private final TaskEscalationService taskEscalationService;
 
     public TaskService(
             TaskRepository taskRepository,
@@ -40,7 +47,11 @@ public class TaskService {
             UserRepository userRepository,
             WorkflowTransitionRepository workflowTransitionRepository,
             WorkflowDefinitionRepository workflowDefinitionRepository,
-            SearchDisplayService searchDisplayService) {
+            SearchDisplayService searchDisplayService,
+            WorkflowStateMachineRegistry stateMachineRegistry,
+            TaskCounterService taskCounterService,
+            ChangeEventBus changeEventBus,
+            TaskEscalationService taskEscalationService) {
         this.taskRepository = taskRepository;
         this.entityDefinitionRepository = entityDefinitionRepository;
         this.entityRecordRepository = entityRecordRepository;
@@ -48,6 +59,10 @@ public class TaskService {
         this.workflowTransitionRepository = workflowTransitionRepository;
         this.workflowDefinitionRepository = workflowDefinitionRepository;
         this.searchDisplayService = searchDisplayService;
+        this.stateMachineRegistry = stateMachineRegistry;
+        this.taskCounterService = taskCounterService;
+        this.changeEventBus = changeEventBus;
+        this.taskEscalationService = taskEscalationService;
     }
 
     /**
@@ -56,15 +71,10 @@ public class TaskService {
     @Transactional(readOnly = true)
     public Page<TaskDTO> getUserTasks(UUID userId, Task.TaskStatus status, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Task> tasks;
-        
-        if (status != null) {
-            tasks = taskRepository.findByAssigneeIdAndStatus(userId, status, pageable);
-        } else {
-            tasks = taskRepository.findByAssigneeId(userId, pageable);
-        }
-        
-        return tasks.map(this::toDTO);
+        List<Task.TaskStatus> statuses = status != null ? List.of(status) : List.of(Task.TaskStatus.values());
+
+        // One page query and one count query; display fields come from the cached entity metadata
+        return taskRepository.findInboxRows(userId, statuses, pageable).map(this::toDTO);
     }
 
     /**
@@ -86,10 +96,12 @@ public class TaskService {
                 .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
 
         String currentState = task.getStatus().name();
-        List<com.cbap.persistence.entity.WorkflowTransition> transitions = 
-                workflowTransitionRepository.findByWorkflowIdAndFromState("TaskWorkflow", currentState);
+        WorkflowStateMachine stateMachine = stateMachineRegistry.get(TASK_WORKFLOW_ID);
+        Map<String, Object> context = stateMachine.hasConditionsFrom(currentState)
+                ? WorkflowStateMachine.guardContext(task.getRecord().getDataJson(), currentState) : Map.of();
 
-        return transitions.stream()
+        return stateMachine.getTransitionsFrom(currentState).stream()
+                .filter(t -> t.isAllowed(context))
                 .map(t -> {
                     TaskTransitionDTO dto = new TaskTransitionDTO();
                     dto.setTransitionId(t.getTransitionId().toString());
@@ -143,6 +155,7 @@ public class TaskService {
         task.setCreatedBy(currentUser);
 
         task = taskRepository.save(task);
+        taskChanged(task, ChangeEventBus.TASK_ASSIGNED);
 
         logger.info("Task created: taskId={}, entityId={}, recordId={}, assigneeId={}, title={}",
                 task.getTaskId(), request.getEntityId(), request.getRecordId(), request.getAssigneeId(), request.getTitle());
@@ -177,10 +190,15 @@ public class TaskService {
             task.setPriority(request.getPriority());
         }
         if (request.getDueDate() != null) {
+            if (task.getDueDate() == null || !task.getDueDate().isEqual(request.getDueDate())) {
+                // A new deadline starts escalation over
+                taskEscalationService.resetEscalation(taskId);
+            }
             task.setDueDate(request.getDueDate());
         }
 
         task = taskRepository.save(task);
+        taskChanged(task, ChangeEventBus.TASK_UPDATED);
 
         logger.info("Task updated: taskId={}, userId={}", taskId, currentUser.getUserId());
 
@@ -202,18 +220,11 @@ public class TaskService {
             throw new IllegalStateException("Only the task assignee can execute transitions on the task");
         }
 
-        // Get workflow and transition
-        com.cbap.persistence.entity.WorkflowDefinition workflow = workflowDefinitionRepository
-                .findById("TaskWorkflow")
-                .orElseThrow(() -> new IllegalArgumentException("TaskWorkflow not found"));
-
-        com.cbap.persistence.entity.WorkflowTransition transition = workflowTransitionRepository
-                .findByTransitionId(transitionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transition not found: " + transitionId));
-
-        // Verify transition belongs to TaskWorkflow
-        if (!transition.getWorkflow().getWorkflowId().equals("TaskWorkflow")) {
-            throw new IllegalArgumentException("Transition does not belong to TaskWorkflow");
+        // Get the compiled transition
+        WorkflowStateMachine.CompiledTransition transition = stateMachineRegistry.get(TASK_WORKFLOW_ID)
+                .getTransition(transitionId);
+        if (transition == null) {
+            throw new IllegalArgumentException("Transition not found in TaskWorkflow: " + transitionId);
         }
 
         // Get current state
@@ -226,6 +237,15 @@ public class TaskService {
                             transition.getFromState(), currentState));
         }
 
+        // Validate guard and pre-transition rules (if any)
+        if (transition.hasConditions()) {
+            String failure = transition.checkConditions(
+                    WorkflowStateMachine.guardContext(task.getRecord().getDataJson(), currentState));
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+        }
+
         // Execute transition: update task status
         Task.TaskStatus newStatus = Task.TaskStatus.valueOf(transition.getToState());
         task.setStatus(newStatus);
@@ -238,6 +258,7 @@ public class TaskService {
         }
 
         task = taskRepository.save(task);
+        taskChanged(task, ChangeEventBus.TASK_UPDATED);
 
         logger.info("Task transition executed: taskId={}, fromState={}, toState={}, transitionId={}, userId={}",
                 taskId, currentState, transition.getToState(), transitionId, currentUser.getUserId());
@@ -262,18 +283,14 @@ public class TaskService {
 
         // Find appropriate transition based on current status
         String currentState = task.getStatus().name();
-        com.cbap.persistence.entity.WorkflowTransition transition;
+        WorkflowStateMachine.CompiledTransition transition;
         
-        if (currentState.equals("OPEN")) {
-            // Use OPEN -> DONE transition
-            transition = workflowTransitionRepository
-                    .findByWorkflowIdAndFromStateAndToState("TaskWorkflow", "OPEN", "DONE")
-                    .orElseThrow(() -> new IllegalStateException("Transition OPEN -> DONE not found"));
-        } else if (currentState.equals("IN_PROGRESS")) {
-            // Use IN_PROGRESS -> DONE transition
-            transition = workflowTransitionRepository
-                    .findByWorkflowIdAndFromStateAndToState("TaskWorkflow", "IN_PROGRESS", "DONE")
-                    .orElseThrow(() -> new IllegalStateException("Transition IN_PROGRESS -> DONE not found"));
+        if (currentState.equals("OPEN") || currentState.equals("IN_PROGRESS")) {
+            // Use OPEN -> DONE or IN_PROGRESS -> DONE transition
+            transition = stateMachineRegistry.get(TASK_WORKFLOW_ID).findTransition(currentState, "DONE");
+            if (transition == null) {
+                throw new IllegalStateException("Transition " + currentState + " -> DONE not found");
+            }
         } else {
             throw new IllegalStateException("Task is already in final state: " + currentState);
         }
@@ -305,6 +322,7 @@ public class TaskService {
         task.setCompletedBy(currentUser);
 
         task = taskRepository.save(task);
+        taskChanged(task, ChangeEventBus.TASK_UPDATED);
 
         logger.info("Task decision submitted: taskId={}, decision={}, userId={}",
                 taskId, request.getDecision(), currentUser.getUserId());
@@ -315,6 +333,17 @@ public class TaskService {
         return toDTO(task);
     }
 
+    /**
+     * Refresh the assignee's badge counts and notify their event streams after commit.
+     */
+    private void taskChanged(Task task, String eventType) {
+        UUID assigneeId = task.getAssignee().getUserId();
+        taskCounterService.evict(assigneeId);
+        changeEventBus.publish(ChangeEventBus.ChangeEvent.task(eventType, assigneeId,
+                task.getEntity().getEntityId(), task.getRecord().getRecordId(), task.getTaskId(),
+                Map.of("status", task.getStatus().name())));
+    }
+
     /**
      * Convert Task entity to DTO.
      */
@@ -339,6 +368,8 @@ public class TaskService {
         dto.setCreatedAt(task.getCreatedAt());
         dto.setUpdatedAt(task.getUpdatedAt());
         dto.setCreatedById(task.getCreatedBy() != null ? task.getCreatedBy().getUserId().toString() : null);
+        dto.setEscalationLevel(task.getEscalationLevel() != null ? task.getEscalationLevel() : 0);
+        dto.setEscalatedAt(task.getEscalatedAt());
         
         // Compute entity display value (like invoice number, order number, etc.)
         try {
@@ -357,6 +388,38 @@ public class TaskService {
         return dto;
     }
 
+    /**
+     * Convert an inbox row to DTO.
+     */
+    private TaskDTO toDTO(TaskInboxRow row) {
+        TaskDTO dto = new TaskDTO();
+        dto.setTaskId(row.taskId().toString());
+        dto.setEntityId(row.entityId());
+        dto.setRecordId(row.recordId().toString());
+        dto.setTitle(row.title());
+        dto.setDescription(row.description());
+        dto.setAssigneeId(row.assigneeId().toString());
+        dto.setAssigneeUsername(row.assigneeUsername());
+        dto.setStatus(row.status().name());
+        dto.setPriority(row.priority() != null ? row.priority().name() : null);
+        dto.setDueDate(row.dueDate());
+        dto.setWorkflowState(row.workflowState());
+        dto.setTransitionId(row.transitionId() != null ? row.transitionId().toString() : null);
+        dto.setCompletedAt(row.completedAt());
+        dto.setCompletedById(row.completedById() != null ? row.completedById().toString() : null);
+        dto.setDecision(row.decision() != null ? row.decision().name() : null);
+        dto.setDecisionComments(row.decisionComments());
+        dto.setCreatedAt(row.createdAt());
+        dto.setUpdatedAt(row.updatedAt());
+        dto.setCreatedById(row.createdById() != null ? row.createdById().toString() : null);
+        dto.setEscalationLevel(row.escalationLevel() != null ? row.escalationLevel() : 0);
+        dto.setEscalatedAt(row.escalatedAt());
+        if (row.recordData() != null) {
+            dto.setEntityDisplayValue(searchDisplayService.computeDisplayValue(row.entityId(), row.recordData()));
+        }
+        return dto;
+    }
+
     /**
      * Get current user from authentication.
      */
@@ -394,6 +457,8 @@ public class TaskService {
         private OffsetDateTime updatedAt;
         private String createdById;
         private String entityDisplayValue;
+        private int escalationLevel;
+        private OffsetDateTime escalatedAt;
 
         // Getters and Setters
         public String getTaskId() { return taskId; }
@@ -436,6 +501,10 @@ public class TaskService {
         public void setCreatedById(String createdById) { this.createdById = createdById; }
         public String getEntityDisplayValue() { return entityDisplayValue; }
         public void setEntityDisplayValue(String entityDisplayValue) { this.entityDisplayValue = entityDisplayValue; }
+        public int getEscalationLevel() { return escalationLevel; }
+        public void setEscalationLevel(int escalationLevel) { this.escalationLevel = escalationLevel; }
+        public OffsetDateTime getEscalatedAt() { return escalatedAt; }
+        public void setEscalatedAt(OffsetDateTime escalatedAt) { this.escalatedAt = escalatedAt; }
     }
 
     /**
@@ -14,7 +14,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Service for validation rule management (admin only).
@@ -27,14 +30,23 @@ public class ValidationRuleManagementService {
     private final ValidationRuleRepository validationRuleRepository;
     private final EntityDefinitionRepository entityDefinitionRepository;
     private final UserRepository userRepository;
+    private final ExpressionValidationService expressionValidationService;
+    private final ValidationService validationService;
+    private final RecordConstraintService recordConstraintService;
 
     public ValidationRuleManagementService(
             ValidationRuleRepository validationRuleRepository,
             EntityDefinitionRepository entityDefinitionRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ExpressionValidationService expressionValidationService,
+            ValidationService validationService,
+            RecordConstraintService recordConstraintService) {
         this.validationRuleRepository = validationRuleRepository;
         this.entityDefinitionRepository = entityDefinitionRepository;
         this.userRepository = userRepository;
+        this.expressionValidationService = expressionValidationService;
+        this.validationService = validationService;
+        this.recordConstraintService = recordConstraintService;
     }
 
     /**
@@ -59,7 +71,7 @@ public class ValidationRuleManagementService {
      */
     @Transactional
     public ValidationRule createValidationRule(CreateValidationRuleRequest request, Authentication authentication) {
-        EntityDefinition entity = entityDefinitionRepository.findById(request.getEntityId())
+        EntityDefinition entity = entityDefinitionRepository.findByEntityIdWithProperties(request.getEntityId())
                 .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + request.getEntityId()));
 
         User user = getCurrentUser(authentication);
@@ -79,7 +91,13 @@ public class ValidationRuleManagementService {
         rule.setMetadataJson(request.getMetadataJson());
         rule.setCreatedBy(user);
 
-        return validationRuleRepository.save(rule);
+        validateExpression(entity, rule);
+        recordConstraintService.validateConstraintRule(entity, rule);
+
+        ValidationRule saved = validationRuleRepository.save(rule);
+        validationService.invalidateRuleSet(entity.getEntityId());
+        recordConstraintService.provisionIndex(saved);
+        return saved;
     }
 
     /**
@@ -88,6 +106,7 @@ public class ValidationRuleManagementService {
     @Transactional
     public ValidationRule updateValidationRule(UUID validationId, UpdateValidationRuleRequest request) {
         ValidationRule rule = getValidationRuleById(validationId);
+        RecordConstraintService.ConstraintIndex previousIndex = constraintIndexOf(rule);
 
         if (request.getRuleName() != null) {
             rule.setRuleName(request.getRuleName());
@@ -120,7 +139,21 @@ public class ValidationRuleManagementService {
             rule.setMetadataJson(request.getMetadataJson());
         }
 
-        return validationRuleRepository.save(rule);
+        if (request.getExpression() != null || request.getRuleType() != null || request.getScope() != null
+                || request.getMetadataJson() != null) {
+            EntityDefinition entity = entityDefinitionRepository.findByEntityIdWithProperties(rule.getEntity().getEntityId())
+                    .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + rule.getEntity().getEntityId()));
+            validateExpression(entity, rule);
+            recordConstraintService.validateConstraintRule(entity, rule);
+        }
+
+        ValidationRule saved = validationRuleRepository.save(rule);
+        validationService.invalidateRuleSet(rule.getEntity().getEntityId());
+        if (!Objects.equals(previousIndex, constraintIndexOf(saved))) {
+            recordConstraintService.releaseIndex(previousIndex);
+            recordConstraintService.provisionIndex(saved);
+        }
+        return saved;
     }
 
     /**
@@ -129,7 +162,41 @@ public class ValidationRuleManagementService {
     @Transactional
     public void deleteValidationRule(UUID validationId) {
         ValidationRule rule = getValidationRuleById(validationId);
+        String entityId = rule.getEntity().getEntityId();
+        RecordConstraintService.ConstraintIndex index = constraintIndexOf(rule);
         validationRuleRepository.delete(rule);
+        validationService.invalidateRuleSet(entityId);
+        recordConstraintService.releaseIndex(index);
+    }
+
+    /**
+     * Check the rule's expression at save time, if the rule evaluates one.
+     * Field rules only evaluate expressions for the EXPRESSION type; all other scopes always do.
+     * PATTERN rules must carry a regex that compiles.
+     */
+    private void validateExpression(EntityDefinition entity, ValidationRule rule) {
+        if (rule.getRuleType() == ValidationRule.RuleType.PATTERN && rule.getMetadataJson() != null
+                && rule.getMetadataJson().get("pattern") instanceof String) {
+            try {
+                Pattern.compile((String) rule.getMetadataJson().get("pattern"));
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern: " + e.getDescription());
+            }
+        }
+        if (rule.getExpression() == null) {
+            return;
+        }
+        boolean fieldScope = rule.getScope() == ValidationRule.ValidationScope.FIELD;
+        if (fieldScope && rule.getRuleType() != ValidationRule.RuleType.EXPRESSION) {
+            return;
+        }
+        expressionValidationService.validateRuleExpression(
+                entity, fieldScope ? rule.getPropertyName() : null, rule.getExpression());
+    }
+
+    private RecordConstraintService.ConstraintIndex constraintIndexOf(ValidationRule rule) {
+        return RecordConstraintService.ConstraintIndex.of(rule.getEntity().getEntityId(), rule.getRuleType(),
+                rule.getPropertyName(), rule.getMetadataJson());
     }
 
     /**
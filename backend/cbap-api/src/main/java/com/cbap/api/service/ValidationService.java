@@ -1,22 +1,36 @@
 package com.cbap.api.service;
 
-import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.api.config.ValidationProperties;
 import com.cbap.persistence.entity.EntityDefinition;
-import com.cbap.persistence.entity.EntityRecord;
-import com.cbap.persistence.entity.PropertyDefinition;
-import com.cbap.persistence.entity.ValidationRule;
 import com.cbap.persistence.repository.EntityDefinitionRepository;
 import com.cbap.persistence.repository.EntityRecordRepository;
 import com.cbap.persistence.repository.ValidationRuleRepository;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Service for validation rule evaluation.
+ * 
+ * Rules are compiled into an immutable {@link EntityRuleSet} per entity on first use
+ * and cached; {@link #invalidateRuleSet(String)} drops the cached set when rules or
+ * entity metadata change.
+ *
+ * Batch validation evaluates one rule set against many records on a bounded,
+ * shared worker pool; rule sets are immutable, so workers need no locking.
  */
 @Service
 public class ValidationService {
@@ -26,14 +40,33 @@ public class ValidationService {
     private final ValidationRuleRepository validationRuleRepository;
     private final EntityDefinitionRepository entityDefinitionRepository;
     private final EntityRecordRepository entityRecordRepository;
+    private final ValidationProperties validationProperties;
+    private final RecordConstraintService recordConstraintService;
+
+    private final Map<String, EntityRuleSet> ruleSets = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a rule set loaded across an invalidation is not cached
+    private final AtomicLong ruleSetGeneration = new AtomicLong();
+
+    private final ExecutorService batchExecutor;
 
     public ValidationService(
             ValidationRuleRepository validationRuleRepository,
             EntityDefinitionRepository entityDefinitionRepository,
-            EntityRecordRepository entityRecordRepository) {
+            EntityRecordRepository entityRecordRepository,
+            ValidationProperties validationProperties,
+            RecordConstraintService recordConstraintService) {
         this.validationRuleRepository = validationRuleRepository;
         this.entityDefinitionRepository = entityDefinitionRepository;
         this.entityRecordRepository = entityRecordRepository;
+        this.validationProperties = validationProperties;
+        this.recordConstraintService = recordConstraintService;
+        this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, validationProperties.getBatchThreads()),
+                Thread.ofPlatform().name("cbap-validation-", 0).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
     }
 
     /**
@@ -47,52 +80,153 @@ public class ValidationService {
      */
     @Transactional(readOnly = true)
     public List<ValidationError> validateRecord(String entityId, Map<String, Object> recordData, String triggerEvent, Map<String, Object> previousRecordData) {
-        List<ValidationError> errors = new ArrayList<>();
+        return validateRecord(entityId, null, recordData, triggerEvent, previousRecordData);
+    }
 
-        EntityDefinition entity = entityDefinitionRepository.findById(entityId)
-                .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId));
+    /**
+     * Validate an existing record; the record itself is excluded from UNIQUE checks.
+     *
+     * @param recordId The record ID, or null for a record that does not exist yet
+     */
+    @Transactional(readOnly = true)
+    public List<ValidationError> validateRecord(String entityId, UUID recordId, Map<String, Object> recordData, String triggerEvent, Map<String, Object> previousRecordData) {
+        EntityRuleSet ruleSet = getRuleSet(entityId);
+        RecordConstraintService.ConstraintLookup lookup = recordConstraintService.directLookup();
+        return validateAgainst(ruleSet, ruleSet.forEvent(triggerEvent), recordData, triggerEvent, previousRecordData,
+                rule -> lookup.violates(rule, 0, recordId, recordData));
+    }
 
-        // Get all validation rules for this entity
-        List<ValidationRule> rules = validationRuleRepository.findByEntityId(entityId);
+    /**
+     * Validate many records of one entity in one call.
+     *
+     * The rule set is loaded once; records are split into chunks that run in parallel
+     * on the batch pool. A record that cannot be evaluated gets an error of its own
+     * and does not fail the batch.
+     *
+     * @param entityId The entity ID
+     * @param records The records to validate, in order
+     * @param triggerEvent The event that triggered validation (CREATE, UPDATE, DELETE, TRANSITION)
+     * @return Per-record results, in input order
+     */
+    @Transactional(readOnly = true)
+    public BatchValidationResult validateRecords(String entityId, List<BatchRecord> records, String triggerEvent) {
+        if (records == null || records.isEmpty()) {
+            throw new IllegalArgumentException("At least one record is required");
+        }
+        if (records.size() > validationProperties.getBatchMaxRecords()) {
+            throw new IllegalArgumentException("Too many records: " + records.size()
+                    + " (maximum " + validationProperties.getBatchMaxRecords() + ")");
+        }
 
-        // Build evaluation context
-        Map<String, Object> context = buildEvaluationContext(entity, recordData, previousRecordData, triggerEvent);
+        long start = System.nanoTime();
+        EntityRuleSet ruleSet = getRuleSet(entityId);
+        EntityRuleSet.RulesForEvent rules = ruleSet.forEvent(triggerEvent);
 
-        // Validate field-level rules
-        for (PropertyDefinition property : entity.getProperties()) {
-            List<ValidationRule> fieldRules = validationRuleRepository.findByEntityIdAndPropertyName(entityId, property.getPropertyName());
-            for (ValidationRule rule : fieldRules) {
-                if (shouldEvaluateRule(rule, triggerEvent)) {
-                    ValidationError error = evaluateFieldRule(rule, property, recordData, context);
-                    if (error != null) {
-                        errors.add(error);
-                    }
+        // UNIQUE and EXISTS checks for the whole batch are resolved up front, on this thread and transaction
+        List<Map<String, Object>> recordData = new ArrayList<>(records.size());
+        List<UUID> recordIds = new ArrayList<>(records.size());
+        for (BatchRecord record : records) {
+            recordData.add(record != null ? record.getData() : null);
+            recordIds.add(record != null ? parseRecordId(record.getRecordId()) : null);
+        }
+        RecordConstraintService.ConstraintLookup lookup = recordConstraintService.prefetch(rules, recordData, recordIds);
+
+        RecordValidationResult[] results = new RecordValidationResult[records.size()];
+        int chunkSize = Math.max(1, validationProperties.getBatchChunkSize());
+        if (records.size() <= chunkSize) {
+            validateChunk(ruleSet, rules, records, lookup, triggerEvent, 0, records.size(), results);
+        } else {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < records.size(); from += chunkSize) {
+                int chunkStart = from;
+                int chunkEnd = Math.min(from + chunkSize, records.size());
+                futures.add(batchExecutor.submit(
+                        () -> validateChunk(ruleSet, rules, records, lookup, triggerEvent, chunkStart, chunkEnd, results)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
                 }
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Batch validation interrupted");
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Batch validation failed: " + e.getCause().getMessage(), e.getCause());
             }
         }
 
-        // Validate entity-level rules
-        List<ValidationRule> entityRules = validationRuleRepository.findEntityLevelRules(entityId);
-        for (ValidationRule rule : entityRules) {
-            if (shouldEvaluateRule(rule, triggerEvent)) {
-                ValidationError error = evaluateEntityRule(rule, recordData, context);
-                if (error != null) {
-                    errors.add(error);
+        BatchValidationResult result = new BatchValidationResult(entityId, Arrays.asList(results));
+        logger.debug("Batch validated {} records of {} in {} ms, invalid={}", records.size(), entityId,
+                (System.nanoTime() - start) / 1_000_000, result.getInvalidCount());
+        return result;
+    }
+
+    private void validateChunk(EntityRuleSet ruleSet, EntityRuleSet.RulesForEvent rules, List<BatchRecord> records,
+                               RecordConstraintService.ConstraintLookup lookup, String triggerEvent,
+                               int from, int to, RecordValidationResult[] results) {
+        for (int i = from; i < to; i++) {
+            BatchRecord record = records.get(i);
+            List<ValidationError> errors;
+            if (record == null || record.getData() == null) {
+                errors = List.of(new ValidationError(null, null, "Record data is required", null,
+                        ValidationError.ErrorLevel.ENTITY));
+            } else {
+                int position = i;
+                try {
+                    errors = validateAgainst(ruleSet, rules, record.getData(), triggerEvent, record.getPreviousData(),
+                            rule -> lookup.violates(rule, position, null, record.getData()));
+                } catch (Exception e) {
+                    logger.warn("Batch validation failed for record {} of {}: {}", i, ruleSet.getEntityId(), e.getMessage());
+                    errors = List.of(new ValidationError(null, null, "Validation error: " + e.getMessage(), null,
+                            ValidationError.ErrorLevel.ENTITY));
                 }
             }
+            results[i] = new RecordValidationResult(i, record != null ? record.getRecordId() : null, errors);
         }
+    }
 
-        // Validate cross-entity rules
-        List<ValidationRule> crossEntityRules = validationRuleRepository.findCrossEntityRules(entityId);
-        for (ValidationRule rule : crossEntityRules) {
-            if (shouldEvaluateRule(rule, triggerEvent)) {
-                ValidationError error = evaluateCrossEntityRule(rule, entityId, recordData, context);
+    /**
+     * Evaluate the rules selected for one trigger event against one record.
+     */
+    private List<ValidationError> validateAgainst(EntityRuleSet ruleSet, EntityRuleSet.RulesForEvent rules,
+                                                  Map<String, Object> recordData, String triggerEvent,
+                                                  Map<String, Object> previousRecordData,
+                                                  Predicate<EntityRuleSet.CompiledRule> violatesConstraint) {
+        List<ValidationError> errors = new ArrayList<>();
+        String entityId = ruleSet.getEntityId();
+
+        // Build evaluation context
+        Map<String, Object> context = buildEvaluationContext(ruleSet, recordData, previousRecordData, triggerEvent);
+
+        // Validate field-level rules
+        for (EntityRuleSet.FieldRules fieldRules : rules.getFieldRules()) {
+            EntityRuleSet.PropertyInfo property = ruleSet.getProperty(fieldRules.getPropertyName());
+            for (EntityRuleSet.CompiledRule rule : fieldRules.getRules()) {
+                ValidationError error = evaluateFieldRule(rule, property, recordData, context, violatesConstraint);
                 if (error != null) {
                     errors.add(error);
                 }
             }
         }
 
+        // Validate entity-level rules
+        for (EntityRuleSet.CompiledRule rule : rules.getEntityRules()) {
+            ValidationError error = evaluateEntityRule(rule, recordData, context);
+            if (error != null) {
+                errors.add(error);
+            }
+        }
+
+        // Validate cross-entity rules
+        for (EntityRuleSet.CompiledRule rule : rules.getCrossEntityRules()) {
+            ValidationError error = evaluateCrossEntityRule(rule, entityId, recordData, context);
+            if (error != null) {
+                errors.add(error);
+            }
+        }
+
         return errors;
     }
 
@@ -103,20 +237,19 @@ public class ValidationService {
     public List<ValidationError> validateField(String entityId, String propertyName, Object value, Map<String, Object> fullRecordData) {
         List<ValidationError> errors = new ArrayList<>();
 
-        EntityDefinition entity = entityDefinitionRepository.findById(entityId)
-                .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId));
-
-        PropertyDefinition property = entity.getProperties().stream()
-                .filter(p -> p.getPropertyName().equals(propertyName))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Property not found: " + propertyName));
+        EntityRuleSet ruleSet = getRuleSet(entityId);
 
-        List<ValidationRule> rules = validationRuleRepository.findByEntityIdAndPropertyName(entityId, propertyName);
+        EntityRuleSet.PropertyInfo property = ruleSet.getProperty(propertyName);
+        if (property == null) {
+            throw new IllegalArgumentException("Property not found: " + propertyName);
+        }
 
-        Map<String, Object> context = buildEvaluationContext(entity, fullRecordData, null, "UPDATE");
+        Map<String, Object> context = buildEvaluationContext(ruleSet, fullRecordData, null, "UPDATE");
+        RecordConstraintService.ConstraintLookup lookup = recordConstraintService.directLookup();
 
-        for (ValidationRule rule : rules) {
-            ValidationError error = evaluateFieldRule(rule, property, fullRecordData, context);
+        for (EntityRuleSet.CompiledRule rule : ruleSet.getFieldRules(propertyName)) {
+            ValidationError error = evaluateFieldRule(rule, property, fullRecordData, context,
+                    compiled -> lookup.violates(compiled, 0, null, fullRecordData));
             if (error != null) {
                 errors.add(error);
             }
@@ -126,77 +259,78 @@ public class ValidationService {
     }
 
     /**
-     * Check if a rule should be evaluated for the given trigger event.
+     * Get the compiled rule set for an entity, loading it on first use.
      */
-    private boolean shouldEvaluateRule(ValidationRule rule, String triggerEvent) {
-        if (rule.getTriggerEvents() == null || rule.getTriggerEvents().isEmpty()) {
-            return true; // No trigger events specified, evaluate always
+    public EntityRuleSet getRuleSet(String entityId) {
+        EntityRuleSet ruleSet = ruleSets.get(entityId);
+        if (ruleSet != null) {
+            return ruleSet;
+        }
+
+        long generation = ruleSetGeneration.get();
+        EntityDefinition entity = entityDefinitionRepository.findByEntityIdWithProperties(entityId)
+                .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId));
+        ruleSet = EntityRuleSet.build(entity, validationRuleRepository.findByEntityId(entityId));
+
+        if (ruleSetGeneration.get() == generation) {
+            ruleSets.put(entityId, ruleSet);
+            logger.debug("Cached validation rule set for entity: {}", entityId);
         }
-        return rule.getTriggerEvents().contains(triggerEvent);
+        return ruleSet;
+    }
+
+    /**
+     * Drop the cached rule set of an entity.
+     * Call after rules or entity metadata change; when a transaction is active the
+     * set is dropped again after commit so no concurrent reader re-caches old rules.
+     */
+    public void invalidateRuleSet(String entityId) {
+        evictRuleSet(entityId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictRuleSet(entityId);
+                }
+            });
+        }
+    }
+
+    private void evictRuleSet(String entityId) {
+        ruleSetGeneration.incrementAndGet();
+        ruleSets.remove(entityId);
     }
 
     /**
      * Evaluate a field-level validation rule.
      */
-    private ValidationError evaluateFieldRule(ValidationRule rule, PropertyDefinition property, Map<String, Object> recordData, Map<String, Object> context) {
+    private ValidationError evaluateFieldRule(EntityRuleSet.CompiledRule rule, EntityRuleSet.PropertyInfo property, Map<String, Object> recordData, Map<String, Object> context,
+                                              Predicate<EntityRuleSet.CompiledRule> violatesConstraint) {
         Object value = recordData.get(property.getPropertyName());
 
         try {
             switch (rule.getRuleType()) {
                 case REQUIRED:
                     if (value == null || (value instanceof String && ((String) value).trim().isEmpty())) {
-                        return new ValidationError(
-                                rule.getValidationId().toString(),
-                                property.getPropertyName(),
-                                rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                    (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " is required",
-                                rule.getErrorMessageKey(),
-                                ValidationError.ErrorLevel.FIELD
-                        );
+                        return fieldError(rule, property, " is required");
                     }
                     break;
 
                 case TYPE:
                     if (value != null && !isValidType(value, property.getPropertyType())) {
-                        return new ValidationError(
-                                rule.getValidationId().toString(),
-                                property.getPropertyName(),
-                                rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                    (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " has invalid type",
-                                rule.getErrorMessageKey(),
-                                ValidationError.ErrorLevel.FIELD
-                        );
+                        return fieldError(rule, property, " has invalid type");
                     }
                     break;
 
                 case RANGE:
                     if (value != null) {
-                        Map<String, Object> metadata = rule.getMetadataJson();
-                        if (metadata != null) {
-                            Double numValue = toNumber(value);
-                            if (numValue != null) {
-                                Object minObj = metadata.get("min");
-                                Object maxObj = metadata.get("max");
-                                if (minObj != null && numValue < toNumber(minObj)) {
-                                    return new ValidationError(
-                                            rule.getValidationId().toString(),
-                                            property.getPropertyName(),
-                                            rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                                (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " is below minimum",
-                                            rule.getErrorMessageKey(),
-                                            ValidationError.ErrorLevel.FIELD
-                                    );
-                                }
-                                if (maxObj != null && numValue > toNumber(maxObj)) {
-                                    return new ValidationError(
-                                            rule.getValidationId().toString(),
-                                            property.getPropertyName(),
-                                            rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                                (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " is above maximum",
-                                            rule.getErrorMessageKey(),
-                                            ValidationError.ErrorLevel.FIELD
-                                    );
-                                }
+                        Double numValue = toNumber(value);
+                        if (numValue != null) {
+                            if (rule.getMin() != null && numValue < rule.getMin()) {
+                                return fieldError(rule, property, " is below minimum");
+                            }
+                            if (rule.getMax() != null && numValue > rule.getMax()) {
+                                return fieldError(rule, property, " is above maximum");
                             }
                         }
                     }
@@ -204,82 +338,71 @@ public class ValidationService {
 
                 case LENGTH:
                     if (value != null && value instanceof String) {
-                        Map<String, Object> metadata = rule.getMetadataJson();
-                        if (metadata != null) {
-                            String strValue = (String) value;
-                            Object minLengthObj = metadata.get("minLength");
-                            Object maxLengthObj = metadata.get("maxLength");
-                            if (minLengthObj != null && strValue.length() < toNumber(minLengthObj).intValue()) {
-                                return new ValidationError(
-                                        rule.getValidationId().toString(),
-                                        property.getPropertyName(),
-                                        rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                            (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " is too short",
-                                        rule.getErrorMessageKey(),
-                                        ValidationError.ErrorLevel.FIELD
-                                );
-                            }
-                            if (maxLengthObj != null && strValue.length() > toNumber(maxLengthObj).intValue()) {
-                                return new ValidationError(
-                                        rule.getValidationId().toString(),
-                                        property.getPropertyName(),
-                                        rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                            (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " is too long",
-                                        rule.getErrorMessageKey(),
-                                        ValidationError.ErrorLevel.FIELD
-                                );
-                            }
+                        String strValue = (String) value;
+                        if (rule.getMinLength() != null && strValue.length() < rule.getMinLength()) {
+                            return fieldError(rule, property, " is too short");
+                        }
+                        if (rule.getMaxLength() != null && strValue.length() > rule.getMaxLength()) {
+                            return fieldError(rule, property, " is too long");
                         }
                     }
                     break;
 
                 case PATTERN:
                     if (value != null && value instanceof String) {
-                        Map<String, Object> metadata = rule.getMetadataJson();
-                        if (metadata != null) {
-                            String pattern = (String) metadata.get("pattern");
-                            if (pattern != null && !((String) value).matches(pattern)) {
-                                return new ValidationError(
-                                        rule.getValidationId().toString(),
-                                        property.getPropertyName(),
-                                        rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                            (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " does not match required pattern",
-                                        rule.getErrorMessageKey(),
-                                        ValidationError.ErrorLevel.FIELD
-                                );
-                            }
+                        if (rule.getPatternError() != null) {
+                            throw new IllegalStateException(rule.getPatternError());
+                        }
+                        if (rule.getPattern() != null && !PatternMatchGuard.matches(
+                                rule.getPattern(), (String) value, validationProperties.getPatternTimeoutMs())) {
+                            return fieldError(rule, property, " does not match required pattern");
                         }
                     }
                     break;
 
                 case EXPRESSION:
-                    if (rule.getExpression() != null) {
+                    if (rule.hasExpression()) {
                         // Add the current field value to context
                         Map<String, Object> fieldContext = new HashMap<>(context);
                         fieldContext.put(property.getPropertyName(), value);
                         fieldContext.put("value", value);
                         
-                        Boolean result = ExpressionEvaluator.evaluateBoolean(rule.getExpression(), fieldContext);
-                        if (result == null || !result) {
-                            return new ValidationError(
-                                    rule.getValidationId().toString(),
-                                    property.getPropertyName(),
-                                    rule.getErrorMessage() != null ? rule.getErrorMessage() : 
-                                        (property.getLabel() != null ? property.getLabel() : property.getPropertyName()) + " validation failed",
-                                    rule.getErrorMessageKey(),
-                                    ValidationError.ErrorLevel.FIELD
-                            );
+                        if (!rule.evaluateExpression(fieldContext)) {
+                            return fieldError(rule, property, " validation failed");
                         }
                     }
                     break;
 
+                case UNIQUE:
+                    if (violatesConstraint.test(rule)) {
+                        return fieldError(rule, property, " must be unique");
+                    }
+                    break;
+
+                case EXISTS:
+                    if (violatesConstraint.test(rule)) {
+                        return fieldError(rule, property, " does not reference an existing record");
+                    }
+                    break;
+
                 default:
                     logger.warn("Unsupported rule type: {}", rule.getRuleType());
             }
+        } catch (PatternMatchGuard.PatternMatchTimeoutException e) {
+            // A runaway pattern is a rule problem, not a server error; no stack trace per value
+            logger.warn("Validation pattern timed out: ruleId={}, timeoutMs={}",
+                    rule.getValidationId(), validationProperties.getPatternTimeoutMs());
+            return new ValidationError(
+                    rule.getValidationId(),
+                    property.getPropertyName(),
+                    property.getDisplayName() + " could not be checked against required pattern",
+                    null,
+                    ValidationError.ErrorLevel.FIELD
+            );
         } catch (Exception e) {
             logger.error("Error evaluating validation rule: ruleId={}, error={}", rule.getValidationId(), e.getMessage(), e);
             return new ValidationError(
-                    rule.getValidationId().toString(),
+                    rule.getValidationId(),
                     property.getPropertyName(),
                     "Validation error: " + e.getMessage(),
                     null,
@@ -290,16 +413,28 @@ public class ValidationService {
         return null; // No error
     }
 
+    /**
+     * Build a field-level error, using the rule's message or a default built from the property label.
+     */
+    private ValidationError fieldError(EntityRuleSet.CompiledRule rule, EntityRuleSet.PropertyInfo property, String defaultSuffix) {
+        return new ValidationError(
+                rule.getValidationId(),
+                property.getPropertyName(),
+                rule.getErrorMessage() != null ? rule.getErrorMessage() : property.getDisplayName() + defaultSuffix,
+                rule.getErrorMessageKey(),
+                ValidationError.ErrorLevel.FIELD
+        );
+    }
+
     /**
      * Evaluate an entity-level validation rule.
      */
-    private ValidationError evaluateEntityRule(ValidationRule rule, Map<String, Object> recordData, Map<String, Object> context) {
-        if (rule.getExpression() != null) {
+    private ValidationError evaluateEntityRule(EntityRuleSet.CompiledRule rule, Map<String, Object> recordData, Map<String, Object> context) {
+        if (rule.hasExpression()) {
             try {
-                Boolean result = ExpressionEvaluator.evaluateBoolean(rule.getExpression(), context);
-                if (result == null || !result) {
+                if (!rule.evaluateExpression(context)) {
                     return new ValidationError(
-                            rule.getValidationId().toString(),
+                            rule.getValidationId(),
                             null,
                             rule.getErrorMessage() != null ? rule.getErrorMessage() : "Entity validation failed",
                             rule.getErrorMessageKey(),
@@ -309,7 +444,7 @@ public class ValidationService {
             } catch (Exception e) {
                 logger.error("Error evaluating entity rule: ruleId={}, error={}", rule.getValidationId(), e.getMessage(), e);
                 return new ValidationError(
-                        rule.getValidationId().toString(),
+                        rule.getValidationId(),
                         null,
                         "Validation error: " + e.getMessage(),
                         null,
@@ -323,15 +458,14 @@ public class ValidationService {
     /**
      * Evaluate a cross-entity validation rule.
      */
-    private ValidationError evaluateCrossEntityRule(ValidationRule rule, String entityId, Map<String, Object> recordData, Map<String, Object> context) {
+    private ValidationError evaluateCrossEntityRule(EntityRuleSet.CompiledRule rule, String entityId, Map<String, Object> recordData, Map<String, Object> context) {
         // For cross-entity validation, we may need to fetch related entities
         // This is a placeholder - full implementation would resolve references
-        if (rule.getExpression() != null) {
+        if (rule.hasExpression()) {
             try {
-                Boolean result = ExpressionEvaluator.evaluateBoolean(rule.getExpression(), context);
-                if (result == null || !result) {
+                if (!rule.evaluateExpression(context)) {
                     return new ValidationError(
-                            rule.getValidationId().toString(),
+                            rule.getValidationId(),
                             null,
                             rule.getErrorMessage() != null ? rule.getErrorMessage() : "Cross-entity validation failed",
                             rule.getErrorMessageKey(),
@@ -341,7 +475,7 @@ public class ValidationService {
             } catch (Exception e) {
                 logger.error("Error evaluating cross-entity rule: ruleId={}, error={}", rule.getValidationId(), e.getMessage(), e);
                 return new ValidationError(
-                        rule.getValidationId().toString(),
+                        rule.getValidationId(),
                         null,
                         "Validation error: " + e.getMessage(),
                         null,
@@ -352,10 +486,21 @@ public class ValidationService {
         return null;
     }
 
+    private static UUID parseRecordId(String recordId) {
+        if (recordId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(recordId);
+        } catch (IllegalArgumentException e) {
+            return null; // Client-side row key of a new record
+        }
+    }
+
     /**
      * Build evaluation context for expression evaluation.
      */
-    private Map<String, Object> buildEvaluationContext(EntityDefinition entity, Map<String, Object> recordData, Map<String, Object> previousRecordData, String triggerEvent) {
+    private Map<String, Object> buildEvaluationContext(EntityRuleSet ruleSet, Map<String, Object> recordData, Map<String, Object> previousRecordData, String triggerEvent) {
         Map<String, Object> context = new HashMap<>();
 
         // Add all record data as context variables
@@ -373,8 +518,8 @@ public class ValidationService {
         context.put("triggerEvent", triggerEvent);
 
         // Add entity metadata
-        context.put("entityId", entity.getEntityId());
-        context.put("entityName", entity.getName());
+        context.put("entityId", ruleSet.getEntityId());
+        context.put("entityName", ruleSet.getEntityName());
 
         // TODO: Add user context, workflow context, etc.
         // context.put("currentUser", ...);
@@ -423,6 +568,73 @@ public class ValidationService {
         return null;
     }
 
+    /**
+     * One record of a batch validation request.
+     */
+    public static class BatchRecord {
+        private String recordId;
+        private Map<String, Object> data;
+        private Map<String, Object> previousData;
+
+        public BatchRecord() {
+        }
+
+        public BatchRecord(String recordId, Map<String, Object> data, Map<String, Object> previousData) {
+            this.recordId = recordId;
+            this.data = data;
+            this.previousData = previousData;
+        }
+
+        public String getRecordId() { return recordId; }
+        public void setRecordId(String recordId) { this.recordId = recordId; }
+        public Map<String, Object> getData() { return data; }
+        public void setData(Map<String, Object> data) { this.data = data; }
+        public Map<String, Object> getPreviousData() { return previousData; }
+        public void setPreviousData(Map<String, Object> previousData) { this.previousData = previousData; }
+    }
+
+    /**
+     * Validation result of one record in a batch.
+     */
+    public static class RecordValidationResult {
+        private final int index;
+        private final String recordId;
+        private final List<ValidationError> errors;
+
+        public RecordValidationResult(int index, String recordId, List<ValidationError> errors) {
+            this.index = index;
+            this.recordId = recordId;
+            this.errors = errors;
+        }
+
+        public boolean isValid() { return errors.isEmpty(); }
+        public int getIndex() { return index; }
+        public String getRecordId() { return recordId; }
+        public List<ValidationError> getErrors() { return errors; }
+    }
+
+    /**
+     * Batch validation result DTO.
+     */
+    public static class BatchValidationResult {
+        private final String entityId;
+        private final List<RecordValidationResult> results;
+        private final int invalidCount;
+
+        public BatchValidationResult(String entityId, List<RecordValidationResult> results) {
+            this.entityId = entityId;
+            this.results = results;
+            this.invalidCount = (int) results.stream().filter(result -> !result.isValid()).count();
+        }
+
+        public boolean isValid() { return invalidCount == 0; }
+        public int getRecordCount() { return results.size(); }
+        public int getValidCount() { return results.size() - invalidCount; }
+        public String getEntityId() { return entityId; }
+        public List<RecordValidationResult> getResults() { return results; }
+        public int getInvalidCount() { return invalidCount; }
+    }
+
     /**
      * Validation error DTO.
      */
@@ -0,0 +1,96 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.WorkflowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of the workflow audit log in shape: creates the
+ * partitions of the coming months and detaches those past the retention period.
+ *
+ * Runs at startup and then periodically. Both steps are idempotent, so instances
+ * running them at the same time only log the loser's errors.
+ */
+@Component
+public class WorkflowAuditPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowAuditPartitionMaintenance.class);
+
+    private static final String CREATE_PARTITION_SQL = "SELECT cbap_create_workflow_audit_partition(?)";
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'cbap_workflow_audit_log'";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("cbap_workflow_audit_log_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkflowProperties workflowProperties;
+
+    public WorkflowAuditPartitionMaintenance(JdbcTemplate jdbcTemplate, WorkflowProperties workflowProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.workflowProperties = workflowProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${cbap.workflow.audit-maintenance-interval-ms:21600000}")
+    public void maintainPartitions() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        createUpcomingPartitions(currentMonth);
+        if (workflowProperties.getAuditRetentionMonths() > 0) {
+            detachExpiredPartitions(currentMonth.minusMonths(workflowProperties.getAuditRetentionMonths()));
+        }
+    }
+
+    private void createUpcomingPartitions(YearMonth currentMonth) {
+        for (int i = 0; i <= Math.max(0, workflowProperties.getAuditPartitionsAhead()); i++) {
+            LocalDate monthStart = currentMonth.plusMonths(i).atDay(1);
+            try {
+                jdbcTemplate.queryForObject(CREATE_PARTITION_SQL, String.class, monthStart);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to create workflow audit partition: month={}, error={}", monthStart, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Detach partitions whose month ends before the first retained month.
+     */
+    private void detachExpiredPartitions(YearMonth firstRetainedMonth) {
+        List<String> partitions;
+        try {
+            partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to list workflow audit partitions: error={}", e.getMessage());
+            return;
+        }
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(firstRetainedMonth)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("ALTER TABLE cbap_workflow_audit_log DETACH PARTITION \"" + partition + "\"");
+                logger.info("Detached expired workflow audit partition: partition={}", partition);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to detach workflow audit partition: partition={}, error={}",
+                        partition, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.WorkflowProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Batched writer for the workflow audit log.
+ *
+ * Entries are collected per transaction and inserted in multi-row batches just before
+ * that transaction commits, so an entry commits (or rolls back) atomically with the
+ * transition it records and nothing is held in memory past the transaction. A
+ * transaction writing many entries pays for one batch insert instead of one insert
+ * per entry.
+ */
+@Service
+public class WorkflowAuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowAuditWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cbap_workflow_audit_log (audit_id, entity_id, record_id, workflow_id, from_state, to_state, " +
+            "transition_id, transition_label, performed_by, performed_at, comments, metadata_json) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb)";
+
+    // Transaction resource key of the entries collected in the current transaction
+    private final Object resourceKey = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public WorkflowAuditWriter(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            WorkflowProperties workflowProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, workflowProperties.getAuditBatchSize());
+    }
+
+    /**
+     * Write an entry in the caller's transaction; it is inserted with the other entries of
+     * the transaction just before commit. Without a transaction it is inserted immediately.
+     */
+    public void write(AuditEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(entry));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<AuditEntry> entries = (List<AuditEntry>) TransactionSynchronizationManager.getResource(resourceKey);
+        if (entries == null) {
+            List<AuditEntry> collected = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(resourceKey, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(collected);
+                    collected.clear();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+                }
+            });
+            entries = collected;
+        }
+        entries.add(entry);
+    }
+
+    private void insert(List<AuditEntry> entries) {
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<AuditEntry> batch = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (AuditEntry entry : batch) {
+                rows.add(toRow(entry));
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    private Object[] toRow(AuditEntry entry) {
+        return new Object[] { entry.auditId(), entry.entityId(), entry.recordId(), entry.workflowId(),
+                entry.fromState(), entry.toState(), entry.transitionId(), entry.transitionLabel(),
+                entry.performedBy(), entry.performedAt(), entry.comments(), writeMetadata(entry.metadata()) };
+    }
+
+    private String writeMetadata(Map<String, Object> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata != null ? metadata : Map.of());
+        } catch (JsonProcessingException e) {
+            logger.warn("Audit metadata is not serializable, writing empty metadata: error={}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    /**
+     * One audit log entry. The ID and timestamp are fixed when the transition executes.
+     */
+    public record AuditEntry(UUID auditId, String entityId, UUID recordId, String workflowId, String fromState,
+                             String toState, UUID transitionId, String transitionLabel, UUID performedBy,
+                             String performedByUsername, OffsetDateTime performedAt, String comments,
+                             Map<String, Object> metadata) {
+    }
+}
@@ -0,0 +1,592 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.ValidationProperties;
+import com.cbap.api.config.WorkflowProperties;
+import com.cbap.api.service.expression.CompiledExpression;
+import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.persistence.entity.EntityDefinition;
+import com.cbap.persistence.entity.User;
+import com.cbap.persistence.repository.EntityDefinitionRepository;
+import com.cbap.persistence.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service for executing one workflow transition on many records of an entity.
+ *
+ * Records are given by ID or selected by a query over the records in the transition's
+ * source state. They are processed in chunks, one transaction per chunk: the chunk is
+ * read and locked with one query, guards are evaluated in memory against the cached
+ * state machine, validation runs as one batch, and then states are changed with a
+ * single UPDATE guarded on the current state, audit rows and created tasks are
+ * batch-inserted, and open tasks of the transition are closed with one statement.
+ * Every record gets an outcome; a record that fails does not fail the others.
+ */
+@Service
+public class WorkflowBulkTransitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowBulkTransitionService.class);
+
+    private static final String LOCK_CHUNK_SQL =
+            "SELECT record_id, data_json::text AS data_json, state FROM cbap_entity_records " +
+            "WHERE entity_id = ? AND record_id = ANY(?) AND deleted_at IS NULL FOR UPDATE";
+
+    private static final String SELECT_IN_STATE_SQL =
+            "SELECT record_id, data_json::text AS data_json FROM cbap_entity_records " +
+            "WHERE entity_id = ? AND deleted_at IS NULL AND COALESCE(NULLIF(state, ''), ?) = ? AND record_id > ? " +
+            "ORDER BY record_id LIMIT ?";
+
+    // Only rows still in the source state change; records without a state are in the initial state
+    private static final String UPDATE_STATE_SQL =
+            "UPDATE cbap_entity_records r SET state = ?, updated_by = ?, updated_at = CURRENT_TIMESTAMP, " +
+            "version = r.version + 1 " +
+            "FROM (SELECT record_id, state FROM cbap_entity_records " +
+            "      WHERE entity_id = ? AND record_id = ANY(?) AND deleted_at IS NULL " +
+            "      AND COALESCE(NULLIF(state, ''), ?) = ?) previous " +
+            "WHERE r.record_id = previous.record_id " +
+            "RETURNING r.record_id, r.version, previous.state AS previous_state";
+
+    private static final String INSERT_AUDIT_SQL =
+            "INSERT INTO cbap_workflow_audit_log (entity_id, record_id, workflow_id, from_state, to_state, " +
+            "transition_id, transition_label, performed_by, comments, metadata_json) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb)";
+
+    private static final String CLOSE_TASKS_SQL =
+            "UPDATE cbap_tasks SET status = 'DONE', completed_at = CURRENT_TIMESTAMP, completed_by = ?, " +
+            "version = version + 1 " +
+            "WHERE record_id = ANY(?) AND transition_id = ? AND status IN ('OPEN', 'IN_PROGRESS')";
+
+    private static final String INSERT_TASK_SQL =
+            "INSERT INTO cbap_tasks (entity_id, record_id, title, description, assignee_id, status, priority, " +
+            "due_date, workflow_state, transition_id, created_by) VALUES (?, ?, ?, ?, ?, 'OPEN', ?, ?, ?, ?, ?)";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+
+    private final EntityDefinitionRepository entityDefinitionRepository;
+    private final UserRepository userRepository;
+    private final WorkflowStateMachineRegistry stateMachineRegistry;
+    private final ValidationService validationService;
+    private final MeasureResultCache measureResultCache;
+    private final MaterializedMeasureService materializedMeasureService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final WorkflowProperties workflowProperties;
+    private final ValidationProperties validationProperties;
+    private final WorkflowEffectQueue workflowEffectQueue;
+    private final ChangeEventBus changeEventBus;
+
+    public WorkflowBulkTransitionService(
+            EntityDefinitionRepository entityDefinitionRepository,
+            UserRepository userRepository,
+            WorkflowStateMachineRegistry stateMachineRegistry,
+            ValidationService validationService,
+            MeasureResultCache measureResultCache,
+            MaterializedMeasureService materializedMeasureService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            WorkflowProperties workflowProperties,
+            ValidationProperties validationProperties,
+            WorkflowEffectQueue workflowEffectQueue,
+            ChangeEventBus changeEventBus) {
+        this.entityDefinitionRepository = entityDefinitionRepository;
+        this.userRepository = userRepository;
+        this.stateMachineRegistry = stateMachineRegistry;
+        this.validationService = validationService;
+        this.measureResultCache = measureResultCache;
+        this.materializedMeasureService = materializedMeasureService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.workflowProperties = workflowProperties;
+        this.validationProperties = validationProperties;
+        this.workflowEffectQueue = workflowEffectQueue;
+        this.changeEventBus = changeEventBus;
+    }
+
+    /**
+     * Execute a transition on many records.
+     *
+     * @param entityId The entity ID
+     * @param transitionId The transition to execute
+     * @param recordIds The records to transition, or null to select them with the query
+     * @param query Selects the records in the transition's source state when no IDs are given
+     * @param comments Optional comments, recorded in every audit entry
+     * @param authentication The authentication context
+     * @return Per-record outcomes, in input (or record ID) order
+     */
+    public BulkTransitionResult executeBulkTransition(
+            String entityId,
+            UUID transitionId,
+            List<UUID> recordIds,
+            RecordQuery query,
+            String comments,
+            Authentication authentication) {
+
+        User user = getCurrentUser(authentication);
+
+        EntityDefinition entity = entityDefinitionRepository.findById(entityId)
+                .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId));
+        if (entity.getWorkflowId() == null || entity.getWorkflowId().isEmpty()) {
+            throw new IllegalStateException("Entity does not have a workflow assigned");
+        }
+
+        WorkflowStateMachine stateMachine = stateMachineRegistry.get(entity.getWorkflowId());
+        WorkflowStateMachine.CompiledTransition transition = stateMachine.getTransition(transitionId);
+        if (transition == null) {
+            throw new IllegalArgumentException("Transition not found in the entity's workflow: " + transitionId);
+        }
+
+        List<UUID> targets;
+        if (recordIds != null) {
+            targets = new ArrayList<>(new LinkedHashSet<>(recordIds));
+            targets.remove(null);
+            if (targets.isEmpty()) {
+                throw new IllegalArgumentException("At least one record ID is required");
+            }
+            if (targets.size() > workflowProperties.getBulkMaxRecords()) {
+                throw new IllegalArgumentException("Too many records: " + targets.size()
+                        + " (maximum " + workflowProperties.getBulkMaxRecords() + ")");
+            }
+        } else if (query != null) {
+            targets = selectRecords(entityId, stateMachine, transition, query);
+        } else {
+            throw new IllegalArgumentException("Either recordIds or query is required");
+        }
+
+        long start = System.nanoTime();
+        BulkOperation operation = new BulkOperation(UUID.randomUUID(), entity, stateMachine, transition,
+                comments, user, activeTaskTemplates(transition));
+        Map<UUID, RecordOutcome> outcomes = new LinkedHashMap<>();
+        for (UUID recordId : targets) {
+            outcomes.put(recordId, null);
+        }
+
+        int chunkSize = Math.max(1, Math.min(workflowProperties.getBulkChunkSize(),
+                validationProperties.getBatchMaxRecords()));
+        for (int from = 0; from < targets.size(); from += chunkSize) {
+            List<UUID> chunk = targets.subList(from, Math.min(from + chunkSize, targets.size()));
+            try {
+                ChunkCounts counts = transactionTemplate.execute(status -> processChunk(operation, chunk, outcomes));
+                if (counts != null) {
+                    operation.tasksClosed += counts.tasksClosed();
+                    operation.tasksCreated += counts.tasksCreated();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Bulk transition chunk failed: bulkOperationId={}, entityId={}, records={}",
+                        operation.bulkOperationId, entityId, chunk.size(), e);
+                for (UUID recordId : chunk) {
+                    outcomes.put(recordId, RecordOutcome.of(recordId, OutcomeStatus.ERROR,
+                            "Bulk transition chunk failed: " + e.getMessage()));
+                }
+            }
+        }
+
+        BulkTransitionResult result = new BulkTransitionResult(operation.bulkOperationId, entityId, transition,
+                new ArrayList<>(outcomes.values()), operation.tasksClosed, operation.tasksCreated);
+        logger.info("Bulk transition executed: bulkOperationId={}, entityId={}, transitionId={}, records={}, transitioned={}, failed={}, userId={}, durationMs={}",
+                operation.bulkOperationId, entityId, transitionId, result.getRequestedCount(),
+                result.getTransitionedCount(), result.getFailedCount(), user.getUserId(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Process one chunk inside its transaction.
+     */
+    private ChunkCounts processChunk(BulkOperation operation, List<UUID> chunk, Map<UUID, RecordOutcome> outcomes) {
+        String entityId = operation.entity.getEntityId();
+        WorkflowStateMachine.CompiledTransition transition = operation.transition;
+
+        Map<UUID, ChunkRow> rows = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(LOCK_CHUNK_SQL);
+            statement.setString(1, entityId);
+            statement.setArray(2, con.createArrayOf("uuid", chunk.toArray()));
+            return statement;
+        }, rs -> {
+            UUID recordId = rs.getObject("record_id", UUID.class);
+            rows.put(recordId, new ChunkRow(recordId, readData(rs.getString("data_json")), rs.getString("state")));
+        });
+
+        // State and guard checks, in memory against the cached state machine
+        List<ChunkRow> candidates = new ArrayList<>();
+        for (UUID recordId : chunk) {
+            ChunkRow row = rows.get(recordId);
+            if (row == null) {
+                outcomes.put(recordId, RecordOutcome.of(recordId, OutcomeStatus.NOT_FOUND, "Record not found: " + recordId));
+                continue;
+            }
+            String currentState = operation.stateMachine.effectiveState(row.state);
+            if (!transition.getFromState().equals(currentState)) {
+                outcomes.put(recordId, RecordOutcome.of(recordId, OutcomeStatus.INVALID_STATE,
+                        String.format("Cannot execute transition from state '%s'. Current state is '%s'",
+                                transition.getFromState(), currentState)));
+                continue;
+            }
+            String failure = transition.hasConditions()
+                    ? transition.checkConditions(WorkflowStateMachine.guardContext(row.data, currentState)) : null;
+            if (failure != null) {
+                outcomes.put(recordId, RecordOutcome.of(recordId, OutcomeStatus.CONDITION_FAILED, failure));
+                continue;
+            }
+            candidates.add(row);
+        }
+
+        // Workflow transition rules, validated as one batch
+        List<UUID> valid = new ArrayList<>();
+        if (!candidates.isEmpty()) {
+            List<ValidationService.BatchRecord> batch = new ArrayList<>(candidates.size());
+            for (ChunkRow row : candidates) {
+                batch.add(new ValidationService.BatchRecord(row.recordId.toString(), row.data, null));
+            }
+            List<ValidationService.RecordValidationResult> results =
+                    validationService.validateRecords(entityId, batch, "TRANSITION").getResults();
+            for (int i = 0; i < candidates.size(); i++) {
+                ChunkRow row = candidates.get(i);
+                ValidationService.RecordValidationResult validation = results.get(i);
+                if (validation.isValid()) {
+                    valid.add(row.recordId);
+                } else {
+                    RecordOutcome outcome = RecordOutcome.of(row.recordId, OutcomeStatus.VALIDATION_FAILED,
+                            validationMessage(validation.getErrors()));
+                    outcome.errors = validation.getErrors();
+                    outcomes.put(row.recordId, outcome);
+                }
+            }
+        }
+        if (valid.isEmpty()) {
+            return new ChunkCounts(0, 0);
+        }
+
+        // One UPDATE for the chunk; rows moved out of the source state meanwhile are left alone
+        Map<UUID, String> previousStates = new HashMap<>();
+        Map<UUID, Long> versions = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(UPDATE_STATE_SQL);
+            statement.setString(1, transition.getToState());
+            statement.setObject(2, operation.user.getUserId());
+            statement.setString(3, entityId);
+            statement.setArray(4, con.createArrayOf("uuid", valid.toArray()));
+            statement.setString(5, operation.stateMachine.getInitialState());
+            statement.setString(6, transition.getFromState());
+            return statement;
+        }, rs -> {
+            UUID recordId = rs.getObject("record_id", UUID.class);
+            previousStates.put(recordId, rs.getString("previous_state"));
+            versions.put(recordId, rs.getLong("version"));
+        });
+
+        List<UUID> transitioned = new ArrayList<>(previousStates.size());
+        List<MaterializedMeasureService.RecordChange> changes = new ArrayList<>(previousStates.size());
+        for (UUID recordId : valid) {
+            if (!previousStates.containsKey(recordId)) {
+                outcomes.put(recordId, RecordOutcome.of(recordId, OutcomeStatus.CONFLICT,
+                        "Record state changed concurrently"));
+                continue;
+            }
+            transitioned.add(recordId);
+            Map<String, Object> data = rows.get(recordId).data;
+            changes.add(new MaterializedMeasureService.RecordChange(data, previousStates.get(recordId),
+                    data, transition.getToState()));
+            RecordOutcome outcome = RecordOutcome.of(recordId, OutcomeStatus.TRANSITIONED, null);
+            outcome.fromState = transition.getFromState();
+            outcome.toState = transition.getToState();
+            outcomes.put(recordId, outcome);
+        }
+        if (transitioned.isEmpty()) {
+            return new ChunkCounts(0, 0);
+        }
+
+        String auditMetadata = "{\"bulkOperationId\": \"" + operation.bulkOperationId + "\"}";
+        List<Object[]> auditRows = new ArrayList<>(transitioned.size());
+        for (UUID recordId : transitioned) {
+            auditRows.add(new Object[] { entityId, recordId, operation.stateMachine.getWorkflowId(),
+                    transition.getFromState(), transition.getToState(), transition.getTransitionId(),
+                    transition.getActionLabel(), operation.user.getUserId(), operation.comments, auditMetadata });
+        }
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_SQL, auditRows);
+
+        int closed = jdbcTemplate.update(con -> {
+            PreparedStatement statement = con.prepareStatement(CLOSE_TASKS_SQL);
+            statement.setObject(1, operation.user.getUserId());
+            statement.setArray(2, con.createArrayOf("uuid", transitioned.toArray()));
+            statement.setObject(3, transition.getTransitionId());
+            return statement;
+        });
+
+        List<Object[]> taskRows = new ArrayList<>();
+        Map<UUID, Integer> assignedCounts = new HashMap<>();
+        for (UUID recordId : transitioned) {
+            for (WorkflowStateMachine.TaskTemplate template : operation.taskTemplates) {
+                taskRows.add(new Object[] { entityId, recordId, template.title(), template.description(),
+                        template.assigneeId(), template.priority() != null ? template.priority().name() : null,
+                        template.dueDate(), transition.getToState(), transition.getTransitionId(),
+                        operation.user.getUserId() });
+                assignedCounts.merge(template.assigneeId(), 1, Integer::sum);
+            }
+        }
+        if (!taskRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TASK_SQL, taskRows);
+        }
+
+        measureResultCache.invalidateEntity(entityId);
+        materializedMeasureService.applyChanges(entityId, changes);
+
+        // Notify followers of the records and the assignees of the new tasks after commit
+        List<ChangeEventBus.ChangeEvent> events = new ArrayList<>(transitioned.size() + assignedCounts.size());
+        for (UUID recordId : transitioned) {
+            events.add(ChangeEventBus.ChangeEvent.record(ChangeEventBus.RECORD_TRANSITIONED, entityId, recordId,
+                    Map.of("fromState", transition.getFromState(), "toState", transition.getToState(),
+                            "transitionId", transition.getTransitionId(), "version", versions.get(recordId))));
+        }
+        assignedCounts.forEach((assigneeId, count) -> events.add(ChangeEventBus.ChangeEvent.task(
+                ChangeEventBus.TASK_ASSIGNED, assigneeId, entityId, null, null, Map.of("count", count))));
+        changeEventBus.publishAll(events);
+
+        // Search documents are refreshed off the request path, one effect per chunk
+        workflowEffectQueue.enqueue(List.of(WorkflowEffectQueue.Effect.of(WorkflowEffectQueue.REINDEX_RECORDS,
+                entityId, null, transition.getTransitionId(),
+                Map.of("recordIds", transitioned.stream().map(UUID::toString).toList()))));
+        return new ChunkCounts(closed, taskRows.size());
+    }
+
+    /**
+     * Records of the entity in the transition's source state that match the query.
+     */
+    private List<UUID> selectRecords(String entityId, WorkflowStateMachine stateMachine,
+                                     WorkflowStateMachine.CompiledTransition transition, RecordQuery query) {
+        CompiledExpression where = null;
+        if (query.getWhere() != null && !query.getWhere().isBlank()) {
+            try {
+                where = ExpressionEvaluator.compile(query.getWhere());
+            } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+                throw new IllegalArgumentException("Invalid query expression: " + e.getMessage());
+            }
+        }
+
+        int maxRecords = workflowProperties.getBulkMaxRecords();
+        int pageSize = Math.max(1, workflowProperties.getBulkChunkSize());
+        List<UUID> selected = new ArrayList<>();
+        UUID lastRecordId = MIN_UUID;
+        while (true) {
+            List<ChunkRow> page = jdbcTemplate.query(SELECT_IN_STATE_SQL,
+                    (rs, rowNum) -> new ChunkRow(rs.getObject("record_id", UUID.class),
+                            readData(rs.getString("data_json")), null),
+                    entityId, stateMachine.getInitialState(), transition.getFromState(), lastRecordId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastRecordId = page.get(page.size() - 1).recordId;
+            for (ChunkRow row : page) {
+                if (where == null || Boolean.TRUE.equals(where.evaluateBoolean(
+                        WorkflowStateMachine.guardContext(row.data, transition.getFromState())))) {
+                    selected.add(row.recordId);
+                }
+            }
+            if (selected.size() > maxRecords) {
+                throw new IllegalArgumentException("Query matches more than " + maxRecords + " records");
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Task templates of the transition whose assignee exists; checked once per bulk operation.
+     */
+    private List<WorkflowStateMachine.TaskTemplate> activeTaskTemplates(WorkflowStateMachine.CompiledTransition transition) {
+        List<WorkflowStateMachine.TaskTemplate> templates = new ArrayList<>();
+        for (WorkflowStateMachine.TaskTemplate template : transition.getTaskTemplates()) {
+            if (template.title() != null && userRepository.existsById(template.assigneeId())) {
+                templates.add(template);
+            } else {
+                logger.warn("Failed to create task from transition: transitionId={}, error=Assignee not found: {}",
+                        transition.getTransitionId(), template.assigneeId());
+            }
+        }
+        return templates;
+    }
+
+    private Map<String, Object> readData(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable record data: " + e.getMessage(), e);
+        }
+    }
+
+    private static String validationMessage(List<ValidationService.ValidationError> errors) {
+        StringBuilder errorMessage = new StringBuilder("Validation failed: ");
+        for (ValidationService.ValidationError error : errors) {
+            if (error.getPropertyName() != null) {
+                errorMessage.append(error.getPropertyName()).append(": ");
+            }
+            errorMessage.append(error.getMessage()).append("; ");
+        }
+        return errorMessage.toString();
+    }
+
+    /**
+     * Get current user from authentication.
+     */
+    private User getCurrentUser(Authentication authentication) {
+        if (authentication == null) {
+            throw new IllegalStateException("Authentication required");
+        }
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String username = userDetails.getUsername();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
+    }
+
+    private record ChunkRow(UUID recordId, Map<String, Object> data, String state) {
+    }
+
+    private record ChunkCounts(int tasksClosed, int tasksCreated) {
+    }
+
+    /**
+     * State shared by the chunks of one bulk operation.
+     */
+    private static final class BulkOperation {
+        private final UUID bulkOperationId;
+        private final EntityDefinition entity;
+        private final WorkflowStateMachine stateMachine;
+        private final WorkflowStateMachine.CompiledTransition transition;
+        private final String comments;
+        private final User user;
+        private final List<WorkflowStateMachine.TaskTemplate> taskTemplates;
+        private int tasksClosed;
+        private int tasksCreated;
+
+        BulkOperation(UUID bulkOperationId, EntityDefinition entity, WorkflowStateMachine stateMachine,
+                      WorkflowStateMachine.CompiledTransition transition, String comments, User user,
+                      List<WorkflowStateMachine.TaskTemplate> taskTemplates) {
+            this.bulkOperationId = bulkOperationId;
+            this.entity = entity;
+            this.stateMachine = stateMachine;
+            this.transition = transition;
+            this.comments = comments;
+            this.user = user;
+            this.taskTemplates = taskTemplates;
+        }
+    }
+
+    /**
+     * Selects records for a bulk transition.
+     */
+    public static class RecordQuery {
+        private String where;
+
+        /**
+         * Optional CEL expression over the record data; records in the source state match when it is true.
+         */
+        public String getWhere() { return where; }
+        public void setWhere(String where) { this.where = where; }
+    }
+
+    /**
+     * Outcome of one record in a bulk transition.
+     */
+    public enum OutcomeStatus {
+        TRANSITIONED,
+        NOT_FOUND,
+        INVALID_STATE,
+        CONDITION_FAILED,
+        VALIDATION_FAILED,
+        CONFLICT,
+        ERROR
+    }
+
+    /**
+     * Record outcome DTO.
+     */
+    public static class RecordOutcome {
+        private String recordId;
+        private OutcomeStatus status;
+        private String fromState;
+        private String toState;
+        private String message;
+        private List<ValidationService.ValidationError> errors;
+
+        static RecordOutcome of(UUID recordId, OutcomeStatus status, String message) {
+            RecordOutcome outcome = new RecordOutcome();
+            outcome.recordId = recordId.toString();
+            outcome.status = status;
+            outcome.message = message;
+            return outcome;
+        }
+
+        public boolean isSuccess() { return status == OutcomeStatus.TRANSITIONED; }
+        public String getRecordId() { return recordId; }
+        public OutcomeStatus getStatus() { return status; }
+        public String getFromState() { return fromState; }
+        public String getToState() { return toState; }
+        public String getMessage() { return message; }
+        public List<ValidationService.ValidationError> getErrors() { return errors; }
+    }
+
+    /**
+     * Bulk transition result DTO.
+     */
+    public static class BulkTransitionResult {
+        private final UUID bulkOperationId;
+        private final String entityId;
+        private final String transitionId;
+        private final String fromState;
+        private final String toState;
+        private final List<RecordOutcome> outcomes;
+        private final int transitionedCount;
+        private final int tasksClosed;
+        private final int tasksCreated;
+
+        BulkTransitionResult(UUID bulkOperationId, String entityId, WorkflowStateMachine.CompiledTransition transition,
+                             List<RecordOutcome> outcomes, int tasksClosed, int tasksCreated) {
+            this.bulkOperationId = bulkOperationId;
+            this.entityId = entityId;
+            this.transitionId = transition.getTransitionId().toString();
+            this.fromState = transition.getFromState();
+            this.toState = transition.getToState();
+            this.outcomes = outcomes;
+            this.transitionedCount = (int) outcomes.stream().filter(RecordOutcome::isSuccess).count();
+            this.tasksClosed = tasksClosed;
+            this.tasksCreated = tasksCreated;
+        }
+
+        public UUID getBulkOperationId() { return bulkOperationId; }
+        public String getEntityId() { return entityId; }
+        public String getTransitionId() { return transitionId; }
+        public String getFromState() { return fromState; }
+        public String getToState() { return toState; }
+        public List<RecordOutcome> getOutcomes() { return outcomes; }
+        public int getRequestedCount() { return outcomes.size(); }
+        public int getTransitionedCount() { return transitionedCount; }
+        public int getFailedCount() { return outcomes.size() - transitionedCount; }
+        public int getTasksClosed() { return tasksClosed; }
+        public int getTasksCreated() { return tasksCreated; }
+    }
+}
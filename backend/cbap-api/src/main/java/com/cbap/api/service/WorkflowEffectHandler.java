@@ -0,0 +1,21 @@
+package com.cbap.api.service;
+
+/**
+ * Applies one type of queued workflow side effect.
+ *
+ * Handlers are Spring beans picked up by {@link WorkflowEffectQueue}. An effect is
+ * handled inside a transaction that also marks it done, so database work in a handler
+ * commits exactly once; throwing schedules a retry.
+ */
+public interface WorkflowEffectHandler {
+
+    /**
+     * The effect type this handler applies (see the constants on {@link WorkflowEffectQueue}).
+     */
+    String getEffectType();
+
+    /**
+     * Apply the effect.
+     */
+    void handle(WorkflowEffectQueue.Effect effect);
+}
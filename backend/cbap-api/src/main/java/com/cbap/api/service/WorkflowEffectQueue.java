@@ -0,0 +1,326 @@
+package com.cbap.api.service;
+
+import com.cbap.api.config.WorkflowProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durable queue of workflow side effects (task closure and creation, search reindexing).
+ *
+ * Effects are inserted in the transaction that executes a transition and processed
+ * after commit by a worker pool, so the transition itself only writes the record, the
+ * audit entry and the queue rows. Workers claim due effects with SKIP LOCKED, so any
+ * number of application instances can share the queue. Failed effects are retried
+ * with exponential backoff; the scheduled poll also picks up effects enqueued by other
+ * instances and effects whose worker died.
+ *
+ * Every status change after a claim is fenced on the claim (status PROCESSING and the
+ * claimed attempt count). A worker whose claim was recovered as stale and taken over
+ * updates no row; its handler transaction is then rolled back, so the handler's writes
+ * commit at most once per effect.
+ */
+@Service
+public class WorkflowEffectQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowEffectQueue.class);
+
+    public static final String CLOSE_TASKS = "CLOSE_TASKS";
+    public static final String CREATE_TASKS = "CREATE_TASKS";
+    public static final String REINDEX_RECORDS = "REINDEX_RECORDS";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cbap_workflow_effects (effect_type, entity_id, record_id, transition_id, payload_json) " +
+            "VALUES (?, ?, ?, ?, ?::jsonb)";
+
+    private static final String CLAIM_SQL =
+            "UPDATE cbap_workflow_effects SET status = 'PROCESSING', attempts = attempts + 1, " +
+            "locked_at = CURRENT_TIMESTAMP " +
+            "WHERE effect_id IN (SELECT effect_id FROM cbap_workflow_effects " +
+            "    WHERE status = 'PENDING' AND next_attempt_at <= CURRENT_TIMESTAMP " +
+            "    ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING effect_id, effect_type, entity_id, record_id, transition_id, payload_json::text AS payload_json, " +
+            "attempts, created_at";
+
+    private static final String MARK_DONE_SQL =
+            "UPDATE cbap_workflow_effects SET status = 'DONE', processed_at = CURRENT_TIMESTAMP, locked_at = NULL, " +
+            "last_error = NULL WHERE effect_id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String RESCHEDULE_SQL =
+            "UPDATE cbap_workflow_effects SET status = 'PENDING', locked_at = NULL, last_error = ?, " +
+            "next_attempt_at = CURRENT_TIMESTAMP + make_interval(secs => ?) " +
+            "WHERE effect_id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE cbap_workflow_effects SET status = 'FAILED', processed_at = CURRENT_TIMESTAMP, locked_at = NULL, " +
+            "last_error = ? WHERE effect_id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String RECOVER_STALE_SQL =
+            "UPDATE cbap_workflow_effects SET status = 'PENDING', locked_at = NULL " +
+            "WHERE status = 'PROCESSING' AND locked_at < CURRENT_TIMESTAMP - make_interval(secs => ?)";
+
+    private static final String DELETE_DONE_SQL =
+            "DELETE FROM cbap_workflow_effects WHERE status = 'DONE' " +
+            "AND processed_at < CURRENT_TIMESTAMP - make_interval(hours => ?)";
+
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final WorkflowProperties workflowProperties;
+    private final Map<String, WorkflowEffectHandler> handlers = new HashMap<>();
+
+    // One drain loop at a time claims batches and hands them to the workers
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cbap-workflow-effects-", 0).daemon(true).factory());
+    private final ExecutorService workers;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    public WorkflowEffectQueue(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            WorkflowProperties workflowProperties,
+            List<WorkflowEffectHandler> effectHandlers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.workflowProperties = workflowProperties;
+        for (WorkflowEffectHandler handler : effectHandlers) {
+            if (handlers.put(handler.getEffectType(), handler) != null) {
+                throw new IllegalStateException("Duplicate workflow effect handler: " + handler.getEffectType());
+            }
+        }
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workflowProperties.getEffectWorkers()),
+                Thread.ofPlatform().name("cbap-workflow-effect-worker-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Add effects to the queue in the caller's transaction.
+     * Processing starts once the transaction commits; rolled back effects never run.
+     */
+    public void enqueue(List<Effect> effects) {
+        if (effects.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(effects.size());
+        for (Effect effect : effects) {
+            rows.add(new Object[] { effect.effectType(), effect.entityId(), effect.recordId(), effect.transitionId(),
+                    writePayload(effect.payload()) });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDrain();
+                }
+            });
+        } else {
+            requestDrain();
+        }
+    }
+
+    /**
+     * Periodic pickup of due retries, effects enqueued by other instances and stale claims.
+     */
+    @Scheduled(fixedDelayString = "${cbap.workflow.effect-poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            int recovered = jdbcTemplate.update(RECOVER_STALE_SQL, workflowProperties.getEffectStaleAfterSeconds());
+            if (recovered > 0) {
+                logger.warn("Recovered stale workflow effects: count={}", recovered);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to recover stale workflow effects: {}", e.getMessage());
+        }
+        requestDrain();
+    }
+
+    /**
+     * Delete processed effects older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${cbap.workflow.effect-cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        try {
+            int deleted = jdbcTemplate.update(DELETE_DONE_SQL, workflowProperties.getEffectRetentionHours());
+            if (deleted > 0) {
+                logger.info("Deleted processed workflow effects: count={}", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to delete processed workflow effects: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdown();
+    }
+
+    private void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            try {
+                dispatcher.submit(this::drain);
+            } catch (RuntimeException e) {
+                // Shutting down; the next instance's poll picks the effects up
+                drainRequested.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        // Cleared first so a request arriving during this drain schedules another pass
+        drainRequested.set(false);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Effect> batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Effect(
+                        rs.getObject("effect_id", UUID.class),
+                        rs.getString("effect_type"),
+                        rs.getString("entity_id"),
+                        rs.getObject("record_id", UUID.class),
+                        rs.getObject("transition_id", UUID.class),
+                        readPayload(rs.getString("payload_json")),
+                        rs.getInt("attempts"),
+                        rs.getObject("created_at", OffsetDateTime.class)),
+                        Math.max(1, workflowProperties.getEffectBatchSize()));
+                if (batch.isEmpty()) {
+                    return;
+                }
+                List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+                for (Effect effect : batch) {
+                    tasks.add(() -> {
+                        process(effect);
+                        return null;
+                    });
+                }
+                workers.invokeAll(tasks);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Workflow effect processing failed", e);
+        }
+    }
+
+    private void process(Effect effect) {
+        WorkflowEffectHandler handler = handlers.get(effect.effectType());
+        if (effect.payload() == null) {
+            fail(effect, "Unreadable effect payload", true);
+            return;
+        }
+        if (handler == null) {
+            fail(effect, "No handler for effect type: " + effect.effectType(), true);
+            return;
+        }
+        try {
+            boolean claimed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                handler.handle(effect);
+                if (jdbcTemplate.update(MARK_DONE_SQL, effect.effectId(), effect.attempts()) == 0) {
+                    // Claim lost to stale recovery; the current claimant's run is the one that counts
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            }));
+            if (!claimed) {
+                logger.warn("Workflow effect claim lost, rolled back: effectId={}, type={}, attempt={}",
+                        effect.effectId(), effect.effectType(), effect.attempts());
+            }
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            fail(effect, message, effect.attempts() >= workflowProperties.getEffectMaxAttempts());
+        }
+    }
+
+    private void fail(Effect effect, String message, boolean permanent) {
+        try {
+            if (permanent) {
+                if (jdbcTemplate.update(MARK_FAILED_SQL, message, effect.effectId(), effect.attempts()) == 0) {
+                    logger.warn("Workflow effect claim lost, failure not recorded: effectId={}", effect.effectId());
+                    return;
+                }
+                logger.error("Workflow effect failed: effectId={}, type={}, entityId={}, recordId={}, attempts={}, error={}",
+                        effect.effectId(), effect.effectType(), effect.entityId(), effect.recordId(),
+                        effect.attempts(), message);
+            } else {
+                long delay = Math.min(MAX_RETRY_DELAY_SECONDS,
+                        workflowProperties.getEffectRetryBaseSeconds() << Math.min(20, effect.attempts() - 1));
+                if (jdbcTemplate.update(RESCHEDULE_SQL, message, delay, effect.effectId(), effect.attempts()) == 0) {
+                    logger.warn("Workflow effect claim lost, retry not scheduled: effectId={}", effect.effectId());
+                    return;
+                }
+                logger.warn("Workflow effect will be retried: effectId={}, type={}, attempt={}, retryInSeconds={}, error={}",
+                        effect.effectId(), effect.effectType(), effect.attempts(), delay, message);
+            }
+        } catch (Exception e) {
+            // Left PROCESSING; stale recovery returns it to the queue
+            logger.error("Failed to record workflow effect failure: effectId={}", effect.effectId(), e);
+        }
+    }
+
+    private String writePayload(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload != null ? payload : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Workflow effect payload is not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parsed payload, or null if unreadable (the effect is then failed instead of blocking the batch).
+     */
+    private Map<String, Object> readPayload(String json) {
+        try {
+            return json != null ? objectMapper.readValue(json, PAYLOAD_TYPE) : Map.of();
+        } catch (JsonProcessingException e) {
+            logger.warn("Unreadable workflow effect payload: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * A queued side effect. New effects have no ID, attempts or creation time yet.
+     */
+    public record Effect(UUID effectId, String effectType, String entityId, UUID recordId, UUID transitionId,
+                         Map<String, Object> payload, int attempts, OffsetDateTime createdAt) {
+
+        public static Effect of(String effectType, String entityId, UUID recordId, UUID transitionId,
+                                Map<String, Object> payload) {
+            return new Effect(null, effectType, entityId, recordId, transitionId, payload, 0, null);
+        }
+
+        /**
+         * Payload value as a UUID, or null.
+         */
+        public UUID payloadUuid(String key) {
+            Object value = payload.get(key);
+            return value != null ? UUID.fromString(value.toString()) : null;
+        }
+    }
+}
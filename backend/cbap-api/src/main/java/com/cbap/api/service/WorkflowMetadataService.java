@@ -32,16 +32,19 @@ public class WorkflowMetadataService {
     private final WorkflowStateRepository workflowStateRepository;
     private final WorkflowTransitionRepository workflowTransitionRepository;
     private final UserRepository userRepository;
+    private final WorkflowStateMachineRegistry stateMachineRegistry;
 
     public WorkflowMetadataService(
             WorkflowDefinitionRepository workflowDefinitionRepository,
             WorkflowStateRepository workflowStateRepository,
             WorkflowTransitionRepository workflowTransitionRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            WorkflowStateMachineRegistry stateMachineRegistry) {
         this.workflowDefinitionRepository = workflowDefinitionRepository;
         this.workflowStateRepository = workflowStateRepository;
         this.workflowTransitionRepository = workflowTransitionRepository;
         this.userRepository = userRepository;
+        this.stateMachineRegistry = stateMachineRegistry;
     }
 
     /**
@@ -199,6 +202,7 @@ public class WorkflowMetadataService {
             }
             workflowTransitionRepository.saveAll(transitions);
         }
+        stateMachineRegistry.invalidate(workflow.getWorkflowId());
 
         // Reload with states and transitions
         workflow = workflowDefinitionRepository.findById(workflow.getWorkflowId())
@@ -278,6 +282,7 @@ public class WorkflowMetadataService {
             }
             workflowTransitionRepository.saveAll(transitions);
         }
+        stateMachineRegistry.invalidate(workflow.getWorkflowId());
 
         // Reload with states and transitions
         workflow = workflowDefinitionRepository.findById(workflow.getWorkflowId())
@@ -298,6 +303,7 @@ public class WorkflowMetadataService {
         
         // Cascade delete will handle states and transitions
         workflowDefinitionRepository.delete(workflow);
+        stateMachineRegistry.invalidate(workflowId);
     }
 
     /**
@@ -1,19 +1,24 @@
 package com.cbap.api.service;
 
+import com.cbap.api.config.WorkflowProperties;
 import com.cbap.persistence.entity.*;
 import com.cbap.persistence.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.hibernate.Hibernate;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -26,33 +31,45 @@ public class WorkflowRuntimeService {
 
     private final EntityDefinitionRepository entityDefinitionRepository;
     private final EntityRecordRepository entityRecordRepository;
-    private final WorkflowDefinitionRepository workflowDefinitionRepository;
     private final WorkflowStateRepository workflowStateRepository;
-    private final WorkflowTransitionRepository workflowTransitionRepository;
     private final WorkflowAuditLogRepository workflowAuditLogRepository;
     private final UserRepository userRepository;
-    private final com.cbap.persistence.repository.TaskRepository taskRepository;
     private final ValidationService validationService;
+    private final MeasureResultCache measureResultCache;
+    private final MaterializedMeasureService materializedMeasureService;
+    private final WorkflowStateMachineRegistry stateMachineRegistry;
+    private final WorkflowEffectQueue workflowEffectQueue;
+    private final WorkflowAuditWriter workflowAuditWriter;
+    private final WorkflowProperties workflowProperties;
+    private final ChangeEventBus changeEventBus;
 
     public WorkflowRuntimeService(
             EntityDefinitionRepository entityDefinitionRepository,
             EntityRecordRepository entityRecordRepository,
-            WorkflowDefinitionRepository workflowDefinitionRepository,
             WorkflowStateRepository workflowStateRepository,
-            WorkflowTransitionRepository workflowTransitionRepository,
             WorkflowAuditLogRepository workflowAuditLogRepository,
             UserRepository userRepository,
-            com.cbap.persistence.repository.TaskRepository taskRepository,
-            ValidationService validationService) {
+            ValidationService validationService,
+            MeasureResultCache measureResultCache,
+            MaterializedMeasureService materializedMeasureService,
+            WorkflowStateMachineRegistry stateMachineRegistry,
+            WorkflowEffectQueue workflowEffectQueue,
+            WorkflowAuditWriter workflowAuditWriter,
+            WorkflowProperties workflowProperties,
+            ChangeEventBus changeEventBus) {
         this.entityDefinitionRepository = entityDefinitionRepository;
         this.entityRecordRepository = entityRecordRepository;
-        this.workflowDefinitionRepository = workflowDefinitionRepository;
         this.workflowStateRepository = workflowStateRepository;
-        this.workflowTransitionRepository = workflowTransitionRepository;
         this.workflowAuditLogRepository = workflowAuditLogRepository;
         this.userRepository = userRepository;
-        this.taskRepository = taskRepository;
         this.validationService = validationService;
+        this.measureResultCache = measureResultCache;
+        this.materializedMeasureService = materializedMeasureService;
+        this.stateMachineRegistry = stateMachineRegistry;
+        this.workflowEffectQueue = workflowEffectQueue;
+        this.workflowAuditWriter = workflowAuditWriter;
+        this.workflowProperties = workflowProperties;
+        this.changeEventBus = changeEventBus;
     }
 
     /**
@@ -62,6 +79,7 @@ public class WorkflowRuntimeService {
      * @param recordId The record ID
      * @param transitionId The transition ID to execute
      * @param comments Optional comments for the transition
+     * @param expectedVersion Record version the caller acted on (If-Match), or null to skip the check
      * @param authentication The authentication context
      * @return Transition result
      */
@@ -71,6 +89,7 @@ public class WorkflowRuntimeService {
             UUID recordId,
             UUID transitionId,
             String comments,
+            Long expectedVersion,
             Authentication authentication) {
 
         // Get current user
@@ -88,37 +107,21 @@ public class WorkflowRuntimeService {
         // Get record
         EntityRecord record = entityRecordRepository.findByEntityIdAndRecordId(entityId, recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Record not found: " + recordId));
-
-        // Get workflow (fetch separately to avoid MultipleBagFetchException)
-        WorkflowDefinition workflow = workflowDefinitionRepository
-                .findById(entity.getWorkflowId())
-                .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + entity.getWorkflowId()));
-        
-        // Initialize lazy collections using Hibernate.initialize() to avoid MultipleBagFetchException
-        // This is safe even with orphanRemoval=true because we're not replacing the collection
-        Hibernate.initialize(workflow.getStates());
-        Hibernate.initialize(workflow.getTransitions());
-
-        // Get transition
-        WorkflowTransition transition = workflowTransitionRepository
-                .findByTransitionId(transitionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transition not found: " + transitionId));
-
-        // Verify transition belongs to the workflow
-        if (!transition.getWorkflow().getWorkflowId().equals(workflow.getWorkflowId())) {
-            throw new IllegalArgumentException("Transition does not belong to the entity's workflow");
+        if (expectedVersion != null && !expectedVersion.equals(record.getVersion())) {
+            throw new RecordVersionConflictException(recordId, expectedVersion, record.getVersion());
         }
 
-        // Get current state
-        String currentState = record.getState();
-        if (currentState == null || currentState.isEmpty()) {
-            // If no state, set to initial state
-            currentState = workflow.getInitialState();
-            record.setState(currentState);
-            record.setUpdatedBy(user);
-            record = entityRecordRepository.save(record);
+        // Get the compiled workflow and transition
+        WorkflowStateMachine stateMachine = stateMachineRegistry.get(entity.getWorkflowId());
+        WorkflowStateMachine.CompiledTransition transition = stateMachine.getTransition(transitionId);
+        if (transition == null) {
+            throw new IllegalArgumentException("Transition not found in the entity's workflow: " + transitionId);
         }
 
+        // Get current state (records without a state are in the initial state)
+        String storedState = record.getState();
+        String currentState = stateMachine.effectiveState(storedState);
+
         // Validate transition is valid from current state
         if (!transition.getFromState().equals(currentState)) {
             throw new IllegalStateException(
@@ -133,17 +136,19 @@ public class WorkflowRuntimeService {
             logger.debug("Transition requires roles: {}", transition.getAllowedRoles());
         }
 
-        // Validate conditions (if any)
-        if (transition.getConditionsJson() != null && !transition.getConditionsJson().isEmpty()) {
-            // TODO: Evaluate conditions against record data
-            // For now, we'll skip condition evaluation - it should be implemented with a rule engine
-            logger.debug("Transition has conditions: {}", transition.getConditionsJson());
+        // Validate guard and pre-transition rules (if any)
+        if (transition.hasConditions()) {
+            String failure = transition.checkConditions(
+                    WorkflowStateMachine.guardContext(record.getDataJson(), currentState));
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
         }
 
         // Validate workflow transition rules (before state change)
         Map<String, Object> recordData = record.getDataJson() != null ? record.getDataJson() : new HashMap<>();
         List<ValidationService.ValidationError> validationErrors = validationService.validateRecord(
-                entityId, recordData, "TRANSITION", null);
+                entityId, record.getRecordId(), recordData, "TRANSITION", null);
         if (!validationErrors.isEmpty()) {
             StringBuilder errorMessage = new StringBuilder("Validation failed: ");
             for (ValidationService.ValidationError error : validationErrors) {
@@ -155,72 +160,34 @@ public class WorkflowRuntimeService {
             throw new IllegalStateException(errorMessage.toString());
         }
 
-        // Evaluate pre-transition rules (if any)
-        if (transition.getPreTransitionRules() != null && !transition.getPreTransitionRules().isEmpty()) {
-            // TODO: Evaluate pre-transition rules
-            // For now, we'll skip rule evaluation - it should be implemented with a rule engine
-            logger.debug("Transition has pre-transition rules: {}", transition.getPreTransitionRules());
-        }
-
         // Execute transition: update record state
-        String previousState = record.getState();
+        String previousState = currentState;
         record.setState(transition.getToState());
         record.setUpdatedBy(user);
-        record = entityRecordRepository.save(record);
-
-        // Create audit log entry
-        WorkflowAuditLog auditLog = new WorkflowAuditLog();
-        auditLog.setEntity(entity);
-        auditLog.setRecord(record);
-        auditLog.setWorkflow(workflow);
-        auditLog.setFromState(previousState);
-        auditLog.setToState(transition.getToState());
-        auditLog.setTransitionId(transition.getTransitionId()); // UUID is correct
-        auditLog.setTransitionLabel(transition.getActionLabel());
-        auditLog.setPerformedBy(user);
-        auditLog.setComments(comments);
-        auditLog.setMetadataJson(new HashMap<>());
-        workflowAuditLogRepository.save(auditLog);
+        try {
+            // Compare-and-set on the version read above; a concurrent update or transition fails here
+            record = entityRecordRepository.saveAndFlush(record);
+        } catch (OptimisticLockingFailureException e) {
+            throw new RecordVersionConflictException(recordId, expectedVersion, null);
+        }
+        measureResultCache.invalidateEntity(entityId);
+        materializedMeasureService.applyChange(entityId, record.getDataJson(), storedState,
+                record.getDataJson(), record.getState());
+
+        // Create audit log entry (inserted with the transaction's other entries before commit)
+        OffsetDateTime performedAt = OffsetDateTime.now();
+        workflowAuditWriter.write(new WorkflowAuditWriter.AuditEntry(UUID.randomUUID(), entityId, recordId,
+                stateMachine.getWorkflowId(), previousState, transition.getToState(), transition.getTransitionId(),
+                transition.getActionLabel(), user.getUserId(), user.getUsername(), performedAt, comments, Map.of()));
 
         logger.info("Workflow transition executed: entityId={}, recordId={}, fromState={}, toState={}, transitionId={}, userId={}",
                 entityId, recordId, previousState, transition.getToState(), transitionId, user.getUserId());
 
-        // Close tasks associated with this transition
-        List<com.cbap.persistence.entity.Task> relatedTasks = taskRepository.findByRecordId(recordId);
-        for (com.cbap.persistence.entity.Task task : relatedTasks) {
-            // Close tasks that are associated with this transition and are still open
-            if (task.getTransition() != null && 
-                task.getTransition().getTransitionId().equals(transitionId) &&
-                (task.getStatus() == com.cbap.persistence.entity.Task.TaskStatus.OPEN || 
-                 task.getStatus() == com.cbap.persistence.entity.Task.TaskStatus.IN_PROGRESS)) {
-                task.setStatus(com.cbap.persistence.entity.Task.TaskStatus.DONE);
-                task.setCompletedAt(OffsetDateTime.now());
-                task.setCompletedBy(user);
-                taskRepository.save(task);
-                logger.info("Closed task: taskId={}, transitionId={}", task.getTaskId(), transitionId);
-            }
-        }
-
-        // Create tasks if transition metadata specifies task creation
-        if (transition.getMetadataJson() != null) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> tasksConfig = (Map<String, Object>) transition.getMetadataJson().get("createTasks");
-            if (tasksConfig != null) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> tasks = (List<Map<String, Object>>) tasksConfig.get("tasks");
-                if (tasks != null) {
-                    for (Map<String, Object> taskConfig : tasks) {
-                        try {
-                            createTaskFromTransition(entityId, recordId, transition, taskConfig, user);
-                        } catch (Exception e) {
-                            logger.warn("Failed to create task from transition: transitionId={}, error={}",
-                                    transitionId, e.getMessage());
-                            // Don't fail the transition if task creation fails
-                        }
-                    }
-                }
-            }
-        }
+        // Task closure, task creation and reindexing run after commit from the effect queue
+        workflowEffectQueue.enqueue(postTransitionEffects(entityId, recordId, transition, user));
+        changeEventBus.publish(ChangeEventBus.ChangeEvent.record(ChangeEventBus.RECORD_TRANSITIONED, entityId, recordId,
+                Map.of("fromState", previousState, "toState", transition.getToState(),
+                        "transitionId", transitionId, "version", record.getVersion())));
 
         // Return result
         TransitionResult result = new TransitionResult();
@@ -231,8 +198,9 @@ public class WorkflowRuntimeService {
         result.setTransitionId(transitionId.toString());
         result.setTransitionLabel(transition.getActionLabel());
         result.setPerformedBy(user.getUserId().toString());
-        result.setPerformedAt(OffsetDateTime.now());
+        result.setPerformedAt(performedAt);
         result.setComments(comments);
+        result.setVersion(record.getVersion());
 
         return result;
     }
@@ -255,37 +223,87 @@ public class WorkflowRuntimeService {
         EntityRecord record = entityRecordRepository.findByEntityIdAndRecordId(entityId, recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Record not found: " + recordId));
 
-        // Get current state
-        String currentState = record.getState();
-        if (currentState == null) {
-            // If no state, get initial state from workflow
-            WorkflowDefinition workflow = workflowDefinitionRepository
-                    .findById(entity.getWorkflowId())
-                    .orElse(null);
-            if (workflow != null) {
-                currentState = workflow.getInitialState();
-            } else {
-                return List.of();
+        // Get available transitions from current state whose conditions hold
+        WorkflowStateMachine stateMachine;
+        try {
+            stateMachine = stateMachineRegistry.get(entity.getWorkflowId());
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+        WorkflowStateMachine.RecordSnapshot snapshot =
+                new WorkflowStateMachine.RecordSnapshot(recordId, record.getState(), record.getDataJson());
+        return toAvailableTransitionDTOs(stateMachine.availableTransitions(List.of(snapshot)).get(recordId));
+    }
+
+    /**
+     * Get available transitions for many records of an entity with one record query.
+     * Records that do not exist are left out of the result.
+     *
+     * @return Available transitions by record ID, in request order
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<AvailableTransitionDTO>> getAvailableTransitions(String entityId, List<UUID> recordIds) {
+        Set<UUID> ids = new LinkedHashSet<>(recordIds != null ? recordIds : List.of());
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one record ID is required");
+        }
+        if (ids.size() > workflowProperties.getAvailableMaxRecords()) {
+            throw new IllegalArgumentException("Too many records: " + ids.size()
+                    + " (maximum " + workflowProperties.getAvailableMaxRecords() + ")");
+        }
+
+        EntityDefinition entity = entityDefinitionRepository.findById(entityId)
+                .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId));
+
+        Map<UUID, WorkflowStateMachine.RecordSnapshot> snapshots = new HashMap<>();
+        for (EntityRecord record : entityRecordRepository.findByEntityIdAndRecordIdIn(entityId, ids)) {
+            snapshots.put(record.getRecordId(),
+                    new WorkflowStateMachine.RecordSnapshot(record.getRecordId(), record.getState(), record.getDataJson()));
+        }
+
+        WorkflowStateMachine stateMachine = null;
+        if (entity.getWorkflowId() != null && !entity.getWorkflowId().isEmpty()) {
+            try {
+                stateMachine = stateMachineRegistry.get(entity.getWorkflowId());
+            } catch (IllegalArgumentException e) {
+                // Same as the single-record lookup: a missing workflow offers no transitions
             }
         }
+        Map<UUID, List<WorkflowStateMachine.CompiledTransition>> available = stateMachine != null
+                ? stateMachine.availableTransitions(new ArrayList<>(snapshots.values()))
+                : Map.of();
+
+        // Records in the same state mostly share transitions, so each DTO is built once
+        Map<UUID, AvailableTransitionDTO> dtos = new HashMap<>();
+        Map<String, List<AvailableTransitionDTO>> result = new LinkedHashMap<>();
+        for (UUID recordId : ids) {
+            if (!snapshots.containsKey(recordId)) {
+                continue;
+            }
+            List<AvailableTransitionDTO> recordTransitions = new ArrayList<>();
+            for (WorkflowStateMachine.CompiledTransition t : available.getOrDefault(recordId, List.of())) {
+                recordTransitions.add(dtos.computeIfAbsent(t.getTransitionId(), id -> toAvailableTransitionDTO(t)));
+            }
+            result.put(recordId.toString(), recordTransitions);
+        }
+        return result;
+    }
+
+    private List<AvailableTransitionDTO> toAvailableTransitionDTOs(List<WorkflowStateMachine.CompiledTransition> transitions) {
+        return transitions.stream().map(this::toAvailableTransitionDTO).toList();
+    }
 
-        // Get available transitions from current state
-        List<WorkflowTransition> transitions = workflowTransitionRepository
-                .findByWorkflowIdAndFromState(entity.getWorkflowId(), currentState);
-
-        return transitions.stream()
-                .map(t -> {
-                    AvailableTransitionDTO dto = new AvailableTransitionDTO();
-                    dto.setTransitionId(t.getTransitionId().toString());
-                    dto.setFromState(t.getFromState());
-                    dto.setToState(t.getToState());
-                    dto.setActionLabel(t.getActionLabel());
-                    dto.setLabelKey(t.getLabelKey());
-                    dto.setDescription(t.getDescription());
-                    dto.setAllowedRoles(t.getAllowedRoles());
-                    return dto;
-                })
-                .toList();
+    private AvailableTransitionDTO toAvailableTransitionDTO(WorkflowStateMachine.CompiledTransition t) {
+        AvailableTransitionDTO dto = new AvailableTransitionDTO();
+        dto.setTransitionId(t.getTransitionId().toString());
+        dto.setFromState(t.getFromState());
+        dto.setToState(t.getToState());
+        dto.setActionLabel(t.getActionLabel());
+        dto.setLabelKey(t.getLabelKey());
+        dto.setDescription(t.getDescription());
+        dto.setAllowedRoles(t.getAllowedRoles());
+        return dto;
     }
 
     /**
@@ -293,10 +311,13 @@ public class WorkflowRuntimeService {
      */
     @Transactional(readOnly = true)
     public List<WorkflowAuditLogDTO> getAuditLog(String entityId, UUID recordId) {
-        List<WorkflowAuditLog> auditLogs = workflowAuditLogRepository.findByRecordId(recordId);
-        return auditLogs.stream()
-                .map(this::auditLogToDTO)
-                .toList();
+        // Not bounded by the record's creation time: entries are stamped by the application or the
+        // database clock, and the record_id index keeps the per-partition lookups cheap
+        List<WorkflowAuditLogDTO> auditLogs = new ArrayList<>();
+        for (WorkflowAuditLog auditLog : workflowAuditLogRepository.findByRecordId(recordId)) {
+            auditLogs.add(auditLogToDTO(auditLog));
+        }
+        return auditLogs;
     }
 
     /**
@@ -346,6 +367,7 @@ public class WorkflowRuntimeService {
         private String performedBy;
         private OffsetDateTime performedAt;
         private String comments;
+        private Long version;
 
         // Getters and Setters
         public String getEntityId() { return entityId; }
@@ -366,6 +388,8 @@ public class WorkflowRuntimeService {
         public void setPerformedAt(OffsetDateTime performedAt) { this.performedAt = performedAt; }
         public String getComments() { return comments; }
         public void setComments(String comments) { this.comments = comments; }
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
     }
 
     /**
@@ -445,78 +469,36 @@ public class WorkflowRuntimeService {
     }
 
     /**
-     * Create a task from workflow transition metadata.
-     * 
-     * Task config format (in transition.metadata_json.createTasks.tasks[]):
-     * {
-     *   "assigneeId": "user-uuid",
-     *   "title": "Task title",
-     *   "description": "Task description",
-     *   "priority": "HIGH",
-     *   "dueDate": "2025-12-31T23:59:59Z"
-     * }
+     * Side effects of an executed transition, in the order they are queued.
      */
-    private void createTaskFromTransition(
+    private List<WorkflowEffectQueue.Effect> postTransitionEffects(
             String entityId,
             UUID recordId,
-            WorkflowTransition transition,
-            Map<String, Object> taskConfig,
-            User createdBy) {
-        
-        try {
-            // Extract task configuration
-            UUID assigneeId;
-            if (taskConfig.get("assigneeId") != null) {
-                assigneeId = UUID.fromString(taskConfig.get("assigneeId").toString());
-            } else {
-                logger.warn("Task config missing assigneeId, skipping task creation");
-                return;
-            }
-            
-            String title = taskConfig.getOrDefault("title", transition.getActionLabel()).toString();
-            String description = taskConfig.get("description") != null 
-                    ? taskConfig.get("description").toString() 
-                    : null;
-            
-            com.cbap.persistence.entity.Task.TaskPriority priority = null;
-            if (taskConfig.get("priority") != null) {
-                try {
-                    priority = com.cbap.persistence.entity.Task.TaskPriority.valueOf(
-                            taskConfig.get("priority").toString().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Invalid priority value: {}", taskConfig.get("priority"));
-                }
-            }
-            
-            OffsetDateTime dueDate = null;
-            if (taskConfig.get("dueDate") != null) {
-                dueDate = OffsetDateTime.parse(taskConfig.get("dueDate").toString());
+            WorkflowStateMachine.CompiledTransition transition,
+            User user) {
+
+        List<WorkflowEffectQueue.Effect> effects = new ArrayList<>();
+        // Close tasks associated with this transition that are still open
+        effects.add(WorkflowEffectQueue.Effect.of(WorkflowEffectQueue.CLOSE_TASKS, entityId, recordId,
+                transition.getTransitionId(), Map.of("completedBy", user.getUserId().toString())));
+
+        // Create tasks if transition metadata specifies task creation
+        if (!transition.getTaskTemplates().isEmpty()) {
+            List<Map<String, Object>> tasks = new ArrayList<>();
+            for (WorkflowStateMachine.TaskTemplate taskTemplate : transition.getTaskTemplates()) {
+                tasks.add(taskTemplate.toConfig());
             }
-            
-            // Create task directly
-            com.cbap.persistence.entity.Task task = new com.cbap.persistence.entity.Task();
-            task.setEntity(entityDefinitionRepository.findById(entityId)
-                    .orElseThrow(() -> new IllegalArgumentException("Entity not found: " + entityId)));
-            task.setRecord(entityRecordRepository.findByEntityIdAndRecordId(entityId, recordId)
-                    .orElseThrow(() -> new IllegalArgumentException("Record not found: " + recordId)));
-            task.setTitle(title);
-            task.setDescription(description);
-            task.setAssignee(userRepository.findById(assigneeId)
-                    .orElseThrow(() -> new IllegalArgumentException("Assignee not found: " + assigneeId)));
-            task.setStatus(com.cbap.persistence.entity.Task.TaskStatus.OPEN);
-            task.setPriority(priority);
-            task.setDueDate(dueDate);
-            task.setWorkflowState(transition.getToState());
-            task.setTransition(transition);
-            task.setCreatedBy(createdBy);
-            
-            taskRepository.save(task);
-            
-            logger.info("Task created from transition: taskId={}, entityId={}, recordId={}, assigneeId={}, title={}",
-                    task.getTaskId(), entityId, recordId, assigneeId, title);
-        } catch (Exception e) {
-            logger.error("Error creating task from transition: {}", e.getMessage(), e);
-            throw e;
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("createdBy", user.getUserId().toString());
+            payload.put("workflowState", transition.getToState());
+            payload.put("tasks", tasks);
+            effects.add(WorkflowEffectQueue.Effect.of(WorkflowEffectQueue.CREATE_TASKS, entityId, recordId,
+                    transition.getTransitionId(), payload));
         }
+
+        // State is indexed, so the record's search document is stale
+        effects.add(WorkflowEffectQueue.Effect.of(WorkflowEffectQueue.REINDEX_RECORDS, entityId, recordId,
+                transition.getTransitionId(), Map.of()));
+        return effects;
     }
 }
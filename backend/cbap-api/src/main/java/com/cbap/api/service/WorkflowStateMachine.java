@@ -0,0 +1,462 @@
+package com.cbap.api.service;
+
+import com.cbap.api.service.expression.CompiledExpression;
+import com.cbap.api.service.expression.ExpressionEvaluator;
+import com.cbap.persistence.entity.Task;
+import com.cbap.persistence.entity.WorkflowDefinition;
+import com.cbap.persistence.entity.WorkflowState;
+import com.cbap.persistence.entity.WorkflowTransition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, compiled state machine of one workflow.
+ *
+ * Built once from the workflow definition, its states and its transitions, then
+ * shared between threads by {@link WorkflowStateMachineRegistry}. Transitions are
+ * indexed by source state and by transition ID, and guard expressions are compiled
+ * up front, so checking a transition needs no metadata queries.
+ *
+ * A transition guard is the CEL expression under "expression" in the transition's
+ * conditionsJson; it sees the record data as top-level variables, as "this", and
+ * the record's current state as "state". Pre-transition rules are evaluated against
+ * the same context:
+ * {"rules": [{"expression": "amount > 0", "errorMessage": "...", "errorMessageKey": "..."}]}
+ * (a single rule object is accepted too). A transition is available to a record only
+ * if its guard and all of its rules hold.
+ */
+public final class WorkflowStateMachine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStateMachine.class);
+
+    private final String workflowId;
+    private final String initialState;
+    private final Map<String, StateInfo> states;
+    private final Map<String, List<CompiledTransition>> transitionsByFromState;
+    private final Map<UUID, CompiledTransition> transitionsById;
+
+    private WorkflowStateMachine(String workflowId, String initialState, Map<String, StateInfo> states,
+                                 Map<String, List<CompiledTransition>> transitionsByFromState,
+                                 Map<UUID, CompiledTransition> transitionsById) {
+        this.workflowId = workflowId;
+        this.initialState = initialState;
+        this.states = states;
+        this.transitionsByFromState = transitionsByFromState;
+        this.transitionsById = transitionsById;
+    }
+
+    /**
+     * Build a state machine from a workflow and all of its states and transitions.
+     */
+    public static WorkflowStateMachine build(WorkflowDefinition workflow, List<WorkflowState> states,
+                                             List<WorkflowTransition> transitions) {
+        Map<String, StateInfo> stateInfos = new LinkedHashMap<>();
+        for (WorkflowState state : states) {
+            stateInfos.put(state.getStateName(), new StateInfo(state.getStateName(), state.getLabel(),
+                    Boolean.TRUE.equals(state.getIsInitial()), Boolean.TRUE.equals(state.getIsFinal())));
+        }
+
+        Map<String, List<CompiledTransition>> byFromState = new LinkedHashMap<>();
+        Map<UUID, CompiledTransition> byId = new HashMap<>();
+        for (WorkflowTransition transition : transitions) {
+            CompiledTransition compiled = new CompiledTransition(transition);
+            byFromState.computeIfAbsent(compiled.fromState, state -> new ArrayList<>()).add(compiled);
+            byId.put(compiled.transitionId, compiled);
+        }
+        byFromState.replaceAll((state, list) -> List.copyOf(list));
+
+        return new WorkflowStateMachine(workflow.getWorkflowId(), workflow.getInitialState(),
+                Collections.unmodifiableMap(stateInfos), Collections.unmodifiableMap(byFromState),
+                Collections.unmodifiableMap(byId));
+    }
+
+    /**
+     * Context a transition guard is evaluated against.
+     */
+    public static Map<String, Object> guardContext(Map<String, Object> recordData, String currentState) {
+        Map<String, Object> data = recordData != null ? recordData : Map.of();
+        Map<String, Object> context = new HashMap<>(data);
+        context.put("this", data);
+        context.put("state", currentState);
+        return context;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public String getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * The state a record is in; records without a state are in the initial state.
+     */
+    public String effectiveState(String recordState) {
+        return recordState == null || recordState.isEmpty() ? initialState : recordState;
+    }
+
+    public StateInfo getState(String stateName) {
+        return states.get(stateName);
+    }
+
+    public Map<String, StateInfo> getStates() {
+        return states;
+    }
+
+    /**
+     * Transitions leaving a state, in from/to order; empty if there are none.
+     */
+    public List<CompiledTransition> getTransitionsFrom(String fromState) {
+        return transitionsByFromState.getOrDefault(fromState, List.of());
+    }
+
+    /**
+     * A transition of this workflow by ID, or null if it belongs to none or another workflow.
+     */
+    public CompiledTransition getTransition(UUID transitionId) {
+        return transitionsById.get(transitionId);
+    }
+
+    /**
+     * The transition between two states, or null.
+     */
+    public CompiledTransition findTransition(String fromState, String toState) {
+        for (CompiledTransition transition : getTransitionsFrom(fromState)) {
+            if (transition.toState.equals(toState)) {
+                return transition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether any transition leaving the state has a guard or pre-transition rules.
+     */
+    public boolean hasConditionsFrom(String fromState) {
+        for (CompiledTransition transition : getTransitionsFrom(fromState)) {
+            if (transition.hasConditions()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transitions available to each record, in one pass over the records. Records in a state
+     * whose transitions have no conditions share that state's transition list; otherwise the
+     * context is built once per record and all conditions are evaluated against it.
+     */
+    public Map<UUID, List<CompiledTransition>> availableTransitions(List<RecordSnapshot> records) {
+        Map<UUID, List<CompiledTransition>> available = new LinkedHashMap<>();
+        for (RecordSnapshot record : records) {
+            String state = effectiveState(record.state());
+            List<CompiledTransition> transitions = getTransitionsFrom(state);
+            if (hasConditionsFrom(state)) {
+                Map<String, Object> context = guardContext(record.data(), state);
+                transitions = transitions.stream().filter(t -> t.isAllowed(context)).toList();
+            }
+            available.put(record.recordId(), transitions);
+        }
+        return available;
+    }
+
+    /**
+     * The parts of a record that transition availability depends on.
+     */
+    public record RecordSnapshot(UUID recordId, String state, Map<String, Object> data) {
+    }
+
+    /**
+     * Workflow state with the attributes needed at runtime.
+     */
+    public record StateInfo(String stateName, String label, boolean initial, boolean terminal) {
+    }
+
+    /**
+     * A transition with its guard compiled.
+     */
+    public static final class CompiledTransition {
+        private final UUID transitionId;
+        private final String fromState;
+        private final String toState;
+        private final String actionLabel;
+        private final String labelKey;
+        private final String description;
+        private final List<String> allowedRoles;
+        private final Map<String, Object> metadata;
+        private final List<PreTransitionRule> preTransitionRules;
+        private final List<TaskTemplate> taskTemplates;
+        private final String guardExpression;
+        private final CompiledExpression guard;
+        private final String guardError;
+
+        CompiledTransition(WorkflowTransition transition) {
+            this.transitionId = transition.getTransitionId();
+            this.fromState = transition.getFromState();
+            this.toState = transition.getToState();
+            this.actionLabel = transition.getActionLabel();
+            this.labelKey = transition.getLabelKey();
+            this.description = transition.getDescription();
+            this.allowedRoles = transition.getAllowedRoles() != null
+                    ? List.copyOf(transition.getAllowedRoles()) : List.of();
+            this.metadata = transition.getMetadataJson() != null
+                    ? Collections.unmodifiableMap(new LinkedHashMap<>(transition.getMetadataJson())) : Map.of();
+            this.preTransitionRules = PreTransitionRule.parseAll(transitionId, transition.getPreTransitionRules());
+            this.taskTemplates = TaskTemplate.parseAll(transitionId, actionLabel, metadata);
+
+            Map<String, Object> conditions = transition.getConditionsJson();
+            String expression = conditions != null && conditions.get("expression") instanceof String text
+                    && !text.isBlank() ? text : null;
+            CompiledExpression compiled = null;
+            String compileError = null;
+            if (expression != null) {
+                try {
+                    compiled = ExpressionEvaluator.compile(expression);
+                } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+                    compileError = e.getMessage();
+                }
+            }
+            this.guardExpression = expression;
+            this.guard = compiled;
+            this.guardError = compileError;
+        }
+
+        public UUID getTransitionId() { return transitionId; }
+        public String getFromState() { return fromState; }
+        public String getToState() { return toState; }
+        public String getActionLabel() { return actionLabel; }
+        public String getLabelKey() { return labelKey; }
+        public String getDescription() { return description; }
+        public List<String> getAllowedRoles() { return allowedRoles; }
+        public String getGuardExpression() { return guardExpression; }
+
+        /**
+         * Transition metadata (task creation config etc.); nested values must be treated as read-only.
+         */
+        public Map<String, Object> getMetadata() { return metadata; }
+
+        /**
+         * Tasks to create when the transition is executed (metadata createTasks.tasks).
+         */
+        public List<TaskTemplate> getTaskTemplates() {
+            return taskTemplates;
+        }
+
+        public boolean hasPreTransitionRules() {
+            return !preTransitionRules.isEmpty();
+        }
+
+        public List<PreTransitionRule> getPreTransitionRules() {
+            return preTransitionRules;
+        }
+
+        public boolean hasGuard() {
+            return guardExpression != null;
+        }
+
+        public boolean hasConditions() {
+            return guardExpression != null || !preTransitionRules.isEmpty();
+        }
+
+        /**
+         * Whether the guard and all pre-transition rules hold.
+         */
+        public boolean isAllowed(Map<String, Object> context) {
+            return checkConditions(context) == null;
+        }
+
+        /**
+         * Evaluate the guard, then the pre-transition rules in order, and return why the
+         * transition is not allowed, or null if it is. A condition that does not compile or
+         * cannot be evaluated blocks the transition.
+         */
+        public String checkConditions(Map<String, Object> context) {
+            if (guardExpression != null) {
+                if (guard == null) {
+                    return "Transition condition is invalid: " + guardError;
+                }
+                if (!Boolean.TRUE.equals(guard.evaluateBoolean(context))) {
+                    return "Transition condition not met: " + guardExpression;
+                }
+            }
+            for (PreTransitionRule rule : preTransitionRules) {
+                String failure = rule.check(context);
+                if (failure != null) {
+                    return failure;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Compile error of the guard, or null.
+         */
+        public String getGuardError() {
+            return guardError;
+        }
+    }
+
+    /**
+     * A compiled pre-transition rule: a CEL expression that must hold, with the message
+     * reported when it does not.
+     */
+    public static final class PreTransitionRule {
+        private final String expression;
+        private final CompiledExpression compiled;
+        private final String compileError;
+        private final String errorMessage;
+        private final String errorMessageKey;
+
+        private PreTransitionRule(String expression, String errorMessage, String errorMessageKey) {
+            CompiledExpression compiledExpression = null;
+            String error = null;
+            try {
+                compiledExpression = ExpressionEvaluator.compile(expression);
+            } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+                error = e.getMessage();
+            }
+            this.expression = expression;
+            this.compiled = compiledExpression;
+            this.compileError = error;
+            this.errorMessage = errorMessage;
+            this.errorMessageKey = errorMessageKey;
+        }
+
+        static List<PreTransitionRule> parseAll(UUID transitionId, Map<String, Object> config) {
+            if (config == null || config.isEmpty()) {
+                return List.of();
+            }
+            List<?> entries;
+            if (config.get("rules") instanceof List<?> list) {
+                entries = list;
+            } else if (config.containsKey("expression")) {
+                entries = List.of(config);
+            } else {
+                logger.warn("Ignoring pre-transition rules without \"rules\" or \"expression\": transitionId={}",
+                        transitionId);
+                return List.of();
+            }
+            List<PreTransitionRule> rules = new ArrayList<>();
+            for (Object entry : entries) {
+                if (entry instanceof Map<?, ?> rule && rule.get("expression") instanceof String text
+                        && !text.isBlank()) {
+                    rules.add(new PreTransitionRule(text,
+                            rule.get("errorMessage") != null ? rule.get("errorMessage").toString() : null,
+                            rule.get("errorMessageKey") != null ? rule.get("errorMessageKey").toString() : null));
+                } else {
+                    logger.warn("Ignoring pre-transition rule without expression: transitionId={}", transitionId);
+                }
+            }
+            return List.copyOf(rules);
+        }
+
+        public String getExpression() { return expression; }
+        public String getErrorMessage() { return errorMessage; }
+        public String getErrorMessageKey() { return errorMessageKey; }
+
+        /**
+         * Why the rule fails for the context, or null if it holds.
+         */
+        String check(Map<String, Object> context) {
+            if (compiled == null) {
+                return "Pre-transition rule is invalid: " + compileError;
+            }
+            if (Boolean.TRUE.equals(compiled.evaluateBoolean(context))) {
+                return null;
+            }
+            return errorMessage != null ? errorMessage : "Pre-transition rule not met: " + expression;
+        }
+    }
+
+    /**
+     * A task created by a transition, parsed from one entry of metadata createTasks.tasks:
+     * {"assigneeId": "user-uuid", "title": "...", "description": "...", "priority": "HIGH",
+     * "dueDate": "2025-12-31T23:59:59Z"}. The title defaults to the transition's action label.
+     */
+    public record TaskTemplate(UUID assigneeId, String title, String description,
+                               Task.TaskPriority priority, OffsetDateTime dueDate) {
+
+        static List<TaskTemplate> parseAll(UUID transitionId, String actionLabel, Map<String, Object> metadata) {
+            if (!(metadata.get("createTasks") instanceof Map<?, ?> tasksConfig)
+                    || !(tasksConfig.get("tasks") instanceof List<?> tasks)) {
+                return List.of();
+            }
+            List<TaskTemplate> templates = new ArrayList<>();
+            for (Object entry : tasks) {
+                if (!(entry instanceof Map<?, ?> taskConfig)) {
+                    continue;
+                }
+                try {
+                    TaskTemplate template = parse(actionLabel, taskConfig);
+                    if (template != null) {
+                        templates.add(template);
+                    }
+                } catch (RuntimeException e) {
+                    // Matches runtime behaviour: a bad task config never fails the transition
+                    logger.warn("Ignoring invalid task config of transition: transitionId={}, error={}",
+                            transitionId, e.getMessage());
+                }
+            }
+            return List.copyOf(templates);
+        }
+
+        /**
+         * Read a template back from {@link #toConfig()}.
+         */
+        public static TaskTemplate fromConfig(Map<?, ?> taskConfig) {
+            return parse(null, taskConfig);
+        }
+
+        /**
+         * The template in task config format, with the title resolved.
+         */
+        public Map<String, Object> toConfig() {
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("assigneeId", assigneeId.toString());
+            config.put("title", title);
+            config.put("description", description);
+            config.put("priority", priority != null ? priority.name() : null);
+            config.put("dueDate", dueDate != null ? dueDate.toString() : null);
+            return config;
+        }
+
+        private static TaskTemplate parse(String actionLabel, Map<?, ?> taskConfig) {
+            if (taskConfig.get("assigneeId") == null) {
+                logger.warn("Task config missing assigneeId, skipping task creation");
+                return null;
+            }
+            UUID assigneeId = UUID.fromString(taskConfig.get("assigneeId").toString());
+
+            Object titleValue = taskConfig.get("title") != null ? taskConfig.get("title") : actionLabel;
+            String title = titleValue != null ? titleValue.toString() : null;
+            String description = taskConfig.get("description") != null
+                    ? taskConfig.get("description").toString()
+                    : null;
+
+            Task.TaskPriority priority = null;
+            if (taskConfig.get("priority") != null) {
+                try {
+                    priority = Task.TaskPriority.valueOf(taskConfig.get("priority").toString().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid priority value: {}", taskConfig.get("priority"));
+                }
+            }
+
+            OffsetDateTime dueDate = taskConfig.get("dueDate") != null
+                    ? OffsetDateTime.parse(taskConfig.get("dueDate").toString())
+                    : null;
+            return new TaskTemplate(assigneeId, title, description, priority, dueDate);
+        }
+    }
+}
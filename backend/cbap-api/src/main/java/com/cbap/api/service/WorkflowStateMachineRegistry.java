@@ -0,0 +1,94 @@
+package com.cbap.api.service;
+
+import com.cbap.persistence.entity.WorkflowDefinition;
+import com.cbap.persistence.repository.WorkflowDefinitionRepository;
+import com.cbap.persistence.repository.WorkflowStateRepository;
+import com.cbap.persistence.repository.WorkflowTransitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of compiled workflow state machines.
+ *
+ * A workflow is loaded with three queries on first use and compiled into an immutable
+ * {@link WorkflowStateMachine}; later lookups are map reads. When a workflow changes,
+ * {@link #invalidate(String)} drops its snapshot and the next reader builds a new one,
+ * so readers always see a complete snapshot, old or new.
+ */
+@Component
+public class WorkflowStateMachineRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStateMachineRegistry.class);
+
+    private final WorkflowDefinitionRepository workflowDefinitionRepository;
+    private final WorkflowStateRepository workflowStateRepository;
+    private final WorkflowTransitionRepository workflowTransitionRepository;
+
+    private final Map<String, WorkflowStateMachine> stateMachines = new ConcurrentHashMap<>();
+    // Bumped on every eviction; a snapshot loaded across an eviction is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public WorkflowStateMachineRegistry(
+            WorkflowDefinitionRepository workflowDefinitionRepository,
+            WorkflowStateRepository workflowStateRepository,
+            WorkflowTransitionRepository workflowTransitionRepository) {
+        this.workflowDefinitionRepository = workflowDefinitionRepository;
+        this.workflowStateRepository = workflowStateRepository;
+        this.workflowTransitionRepository = workflowTransitionRepository;
+    }
+
+    /**
+     * Get the compiled state machine of a workflow.
+     *
+     * @throws IllegalArgumentException If the workflow does not exist
+     */
+    public WorkflowStateMachine get(String workflowId) {
+        WorkflowStateMachine stateMachine = stateMachines.get(workflowId);
+        if (stateMachine != null) {
+            return stateMachine;
+        }
+
+        long loadedGeneration = generation.get();
+        WorkflowDefinition workflow = workflowDefinitionRepository.findById(workflowId)
+                .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + workflowId));
+        stateMachine = WorkflowStateMachine.build(workflow,
+                workflowStateRepository.findByWorkflowId(workflowId),
+                workflowTransitionRepository.findByWorkflowId(workflowId));
+
+        if (generation.get() == loadedGeneration) {
+            stateMachines.put(workflowId, stateMachine);
+            logger.debug("Cached state machine for workflow: {}", workflowId);
+        }
+        return stateMachine;
+    }
+
+    /**
+     * Drop the cached state machine of a workflow.
+     * Call after the workflow, its states or its transitions change; when a transaction
+     * is active the snapshot is dropped again after commit so no concurrent reader
+     * re-caches the old definition.
+     */
+    public void invalidate(String workflowId) {
+        evict(workflowId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(workflowId);
+                }
+            });
+        }
+    }
+
+    private void evict(String workflowId) {
+        generation.incrementAndGet();
+        stateMachines.remove(workflowId);
+    }
+}
@@ -0,0 +1,729 @@
+package com.cbap.api.service.expression;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Entity-level aggregate over entity records, compiled to a single SQL aggregate.
+ *
+ * Syntax:
+ * <pre>
+ *   fn(Entity[.field] [where condition]) [by field[, field...]]
+ * </pre>
+ * where fn is sum, count, avg, min or max, and condition compares fields with
+ * literals or measure parameters ($name) using ==, !=, &lt;, &lt;=, &gt;, &gt;=,
+ * combined with &amp;&amp;, || and parentheses. Example:
+ * {@code sum(Invoice.total where state == 'PAID' && customer == $customer) by region}
+ *
+ * Fields are read from data_json; {@code state} is the record's workflow state
+ * unless the entity has a property of that name. Equality is compiled to JSONB
+ * containment so the GIN index on data_json applies; ordering comparisons use
+ * numeric casts for numbers and text comparison otherwise (ISO dates sort as text).
+ *
+ * Text is compared and groups are ordered under COLLATE "C" (code point order), which
+ * {@link #compareText} reproduces, so the in-memory form used for materialized deltas
+ * agrees with the SQL form whatever the database collation.
+ */
+public final class AggregateQuery {
+
+    /**
+     * Aggregate functions.
+     */
+    public enum Function {
+        SUM, COUNT, AVG, MIN, MAX
+    }
+
+    private static final String STATE = "state";
+    private static final Pattern NUMERIC_TEXT = Pattern.compile("-?[0-9]+(\\.[0-9]+)?");
+
+    private final String text;
+    private final Function function;
+    private final String entityId;
+    private final String field;
+    private final Condition where;
+    private final List<String> groupBy;
+
+    private AggregateQuery(String text, Function function, String entityId, String field, Condition where,
+                           List<String> groupBy) {
+        this.text = text;
+        this.function = function;
+        this.entityId = entityId;
+        this.field = field;
+        this.where = where;
+        this.groupBy = groupBy;
+    }
+
+    /**
+     * Parse an aggregate definition.
+     *
+     * @throws ExpressionEvaluator.ExpressionEvaluationException If the definition is malformed
+     */
+    public static AggregateQuery parse(String text) throws ExpressionEvaluator.ExpressionEvaluationException {
+        if (text == null || text.isBlank()) {
+            throw new ExpressionEvaluator.ExpressionEvaluationException("Aggregate definition is empty");
+        }
+        return new Parser(text).parse();
+    }
+
+    /**
+     * Compile to SQL for one evaluation.
+     *
+     * @param propertyNames Properties of the entity (decides whether "state" is a field or the record state)
+     * @param parameters Resolved measure parameters
+     * @return The statement and its bind arguments
+     * @throws ExpressionEvaluator.ExpressionEvaluationException If a parameter is missing or a comparison is invalid
+     */
+    public CompiledSql toSql(Set<String> propertyNames, Map<String, Object> parameters)
+            throws ExpressionEvaluator.ExpressionEvaluationException {
+        List<Object> args = new ArrayList<>();
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int g = 0; g < groupBy.size(); g++) {
+            select.append(columnText(groupBy.get(g), propertyNames)).append(" AS g").append(g).append(", ");
+        }
+        select.append(valueSql()).append(" AS value FROM cbap_entity_records WHERE entity_id = ? AND deleted_at IS NULL");
+        args.add(entityId);
+        if (where != null) {
+            select.append(" AND (");
+            where.appendSql(select, args, propertyNames, parameters);
+            select.append(')');
+        }
+        if (!groupBy.isEmpty()) {
+            StringBuilder ordinals = new StringBuilder();
+            StringBuilder order = new StringBuilder();
+            for (int g = 1; g <= groupBy.size(); g++) {
+                ordinals.append(g > 1 ? ", " : "").append(g);
+                order.append(g > 1 ? ", " : "").append('(').append(columnText(groupBy.get(g - 1), propertyNames))
+                        .append(") COLLATE \"C\"");
+            }
+            select.append(" GROUP BY ").append(ordinals).append(" ORDER BY ").append(order);
+        }
+        return new CompiledSql(select.toString(), args);
+    }
+
+    /**
+     * Compile the statement that rebuilds a materialised aggregate: per group, the sum and
+     * count of numeric values (or of non-null values for count(Entity.field)) and the row count.
+     * Only valid for queries without parameters.
+     */
+    public CompiledSql toReconcileSql(Set<String> propertyNames) throws ExpressionEvaluator.ExpressionEvaluationException {
+        List<Object> args = new ArrayList<>();
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int g = 0; g < groupBy.size(); g++) {
+            select.append(columnText(groupBy.get(g), propertyNames)).append(" AS g").append(g).append(", ");
+        }
+        if (field == null) {
+            select.append("0 AS value_sum, COUNT(*) AS value_count");
+        } else if (function == Function.COUNT) {
+            select.append("0 AS value_sum, COUNT(").append(jsonText(field)).append(") AS value_count");
+        } else {
+            String numeric = numericSql(field);
+            select.append("COALESCE(SUM(").append(numeric).append("), 0) AS value_sum, COUNT(")
+                    .append(numeric).append(") AS value_count");
+        }
+        select.append(", COUNT(*) AS row_count FROM cbap_entity_records WHERE entity_id = ? AND deleted_at IS NULL");
+        args.add(entityId);
+        if (where != null) {
+            select.append(" AND (");
+            where.appendSql(select, args, propertyNames, Map.of());
+            select.append(')');
+        }
+        if (!groupBy.isEmpty()) {
+            StringBuilder ordinals = new StringBuilder();
+            for (int g = 1; g <= groupBy.size(); g++) {
+                ordinals.append(g > 1 ? ", " : "").append(g);
+            }
+            select.append(" GROUP BY ").append(ordinals);
+        }
+        return new CompiledSql(select.toString(), args);
+    }
+
+    /**
+     * Whether the aggregate can be maintained from per-record deltas: sum, count and avg
+     * decompose into sums and counts; min and max cannot be undone on delete, and
+     * parameterised filters have no single value to maintain.
+     */
+    public boolean isIncrementallyMaintainable() {
+        return function != Function.MIN && function != Function.MAX && getReferencedParameters().isEmpty();
+    }
+
+    /**
+     * What one record contributes to the aggregate, evaluated in memory with the same
+     * semantics as the SQL form.
+     *
+     * @param data The record data (null for a record that does not exist)
+     * @param state The record's workflow state
+     * @return The contribution, or null if the record is filtered out
+     */
+    public Contribution contributionOf(Map<String, Object> data, String state, Set<String> propertyNames) {
+        if (data == null || (where != null && !where.matches(data, state, propertyNames))) {
+            return null;
+        }
+        List<String> groupValues = new ArrayList<>(groupBy.size());
+        for (String group : groupBy) {
+            groupValues.add(isStateColumn(group, propertyNames) ? state : textOf(data.get(group)));
+        }
+        BigDecimal value = null;
+        boolean counted;
+        if (field == null) {
+            counted = true;
+        } else if (function == Function.COUNT) {
+            counted = textOf(data.get(field)) != null;
+        } else {
+            value = numericOf(data.get(field));
+            counted = value != null;
+        }
+        return new Contribution(groupValues, value, counted);
+    }
+
+    /**
+     * Text of a JSON value as returned by {@code ->>} (null for missing and JSON null).
+     *
+     * Numbers reach jsonb as Jackson writes them (e.g. a Double as "1.0E7") and come back
+     * from {@code ->>} in PostgreSQL's numeric form ("10000000"), which is the plain
+     * decimal form of the written text.
+     */
+    static String textOf(Object value) {
+        if (value instanceof Number number) {
+            try {
+                return new BigDecimal(number.toString()).toPlainString();
+            } catch (NumberFormatException e) {
+                return number.toString(); // NaN, Infinity are written as strings
+            }
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Text order of COLLATE "C": UTF-8 byte order, i.e. code point order (not {@link String#compareTo},
+     * which orders UTF-16 units and differs for characters outside the Basic Multilingual Plane).
+     */
+    public static int compareText(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    /**
+     * Numeric value as the SQL form reads it: JSON numbers and numeric strings.
+     */
+    static BigDecimal numericOf(Object value) {
+        try {
+            if (value instanceof Number) {
+                return new BigDecimal(value.toString());
+            }
+            if (value instanceof String text && NUMERIC_TEXT.matcher(text).matches()) {
+                return new BigDecimal(text);
+            }
+        } catch (NumberFormatException e) {
+            // NaN, Infinity
+        }
+        return null;
+    }
+
+    /**
+     * Data fields referenced anywhere (aggregated field, conditions, group-by); "state" is included as written.
+     */
+    public Set<String> getReferencedFields() {
+        Set<String> fields = new LinkedHashSet<>();
+        if (field != null) {
+            fields.add(field);
+        }
+        if (where != null) {
+            where.collectFields(fields);
+        }
+        fields.addAll(groupBy);
+        return fields;
+    }
+
+    /**
+     * Measure parameters referenced by conditions.
+     */
+    public Set<String> getReferencedParameters() {
+        Set<String> names = new LinkedHashSet<>();
+        if (where != null) {
+            where.collectParameters(names);
+        }
+        return names;
+    }
+
+    private String valueSql() {
+        if (function == Function.COUNT) {
+            return field == null ? "COUNT(*)" : "COUNT(" + jsonText(field) + ")";
+        }
+        String numeric = numericSql(field);
+        return function == Function.SUM ? "COALESCE(SUM(" + numeric + "), 0)" : function.name() + "(" + numeric + ")";
+    }
+
+    private static String columnText(String name, Set<String> propertyNames) {
+        return isStateColumn(name, propertyNames) ? STATE : jsonText(name);
+    }
+
+    private static boolean isStateColumn(String name, Set<String> propertyNames) {
+        return STATE.equals(name) && !propertyNames.contains(STATE);
+    }
+
+    private static String jsonText(String name) {
+        return "data_json->>" + literal(name);
+    }
+
+    /**
+     * Numeric value of a field: JSON numbers and numeric strings; anything else is NULL instead of a cast error.
+     */
+    private static String numericSql(String name) {
+        String json = "data_json->" + literal(name);
+        String text = jsonText(name);
+        return "CASE WHEN jsonb_typeof(" + json + ") = 'number' THEN (" + text + ")::numeric"
+                // No '?' in the pattern: it would read as a bind placeholder to some drivers
+                + " WHEN jsonb_typeof(" + json + ") = 'string' AND " + text + " ~ '^-{0,1}[0-9]+(\\.[0-9]+){0,1}$'"
+                + " THEN (" + text + ")::numeric END";
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    public String getText() { return text; }
+    public Function getFunction() { return function; }
+    public String getEntityId() { return entityId; }
+    public String getField() { return field; }
+    public List<String> getGroupBy() { return groupBy; }
+
+    /**
+     * One record's share of an aggregate: its group and the value it adds.
+     */
+    public static final class Contribution {
+        private final List<String> groupValues;
+        private final BigDecimal value;
+        private final boolean counted;
+
+        Contribution(List<String> groupValues, BigDecimal value, boolean counted) {
+            this.groupValues = groupValues;
+            this.value = value;
+            this.counted = counted;
+        }
+
+        public List<String> getGroupValues() { return groupValues; }
+        /** Numeric value added to the sum (null if none). */
+        public BigDecimal getValue() { return value; }
+        /** Whether the record adds to the value count. */
+        public boolean isCounted() { return counted; }
+    }
+
+    /**
+     * SQL statement with its bind arguments.
+     */
+    public static final class CompiledSql {
+        private final String sql;
+        private final List<Object> args;
+
+        CompiledSql(String sql, List<Object> args) {
+            this.sql = sql;
+            this.args = Collections.unmodifiableList(args);
+        }
+
+        public String getSql() { return sql; }
+        public List<Object> getArgs() { return args; }
+    }
+
+    // ------------------------------------------------------------------------
+    // Conditions
+    // ------------------------------------------------------------------------
+
+    private interface Condition {
+        void appendSql(StringBuilder sql, List<Object> args, Set<String> propertyNames, Map<String, Object> parameters)
+                throws ExpressionEvaluator.ExpressionEvaluationException;
+
+        boolean matches(Map<String, Object> data, String state, Set<String> propertyNames);
+
+        void collectFields(Set<String> fields);
+
+        void collectParameters(Set<String> names);
+    }
+
+    private static final class Junction implements Condition {
+        private final boolean and;
+        private final List<Condition> operands;
+
+        Junction(boolean and, List<Condition> operands) {
+            this.and = and;
+            this.operands = operands;
+        }
+
+        @Override
+        public void appendSql(StringBuilder sql, List<Object> args, Set<String> propertyNames,
+                              Map<String, Object> parameters) throws ExpressionEvaluator.ExpressionEvaluationException {
+            for (int i = 0; i < operands.size(); i++) {
+                sql.append(i == 0 ? "(" : and ? " AND " : " OR ");
+                operands.get(i).appendSql(sql, args, propertyNames, parameters);
+            }
+            sql.append(')');
+        }
+
+        @Override
+        public boolean matches(Map<String, Object> data, String state, Set<String> propertyNames) {
+            for (Condition operand : operands) {
+                if (operand.matches(data, state, propertyNames) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            operands.forEach(operand -> operand.collectFields(fields));
+        }
+
+        @Override
+        public void collectParameters(Set<String> names) {
+            operands.forEach(operand -> operand.collectParameters(names));
+        }
+    }
+
+    private static final class Comparison implements Condition {
+        private final String field;
+        private final String operator;
+        private final Object literal;
+        private final String parameter;
+
+        Comparison(String field, String operator, Object literal, String parameter) {
+            this.field = field;
+            this.operator = operator;
+            this.literal = literal;
+            this.parameter = parameter;
+        }
+
+        @Override
+        public void appendSql(StringBuilder sql, List<Object> args, Set<String> propertyNames,
+                              Map<String, Object> parameters) throws ExpressionEvaluator.ExpressionEvaluationException {
+            Object value = literal;
+            if (parameter != null) {
+                if (parameters == null || !parameters.containsKey(parameter)) {
+                    throw new ExpressionEvaluator.ExpressionEvaluationException("Parameter not provided: $" + parameter);
+                }
+                value = parameters.get(parameter);
+            }
+            boolean equality = operator.equals("==") || operator.equals("!=");
+
+            if (isStateColumn(field, propertyNames)) {
+                if (!equality) {
+                    throw new ExpressionEvaluator.ExpressionEvaluationException("state only supports == and !=");
+                }
+                if (value == null) {
+                    sql.append(operator.equals("==") ? "state IS NULL" : "state IS NOT NULL");
+                } else {
+                    sql.append(operator.equals("==") ? "state = ?" : "state IS DISTINCT FROM ?");
+                    args.add(value.toString());
+                }
+                return;
+            }
+
+            if (value == null) {
+                if (!equality) {
+                    throw new ExpressionEvaluator.ExpressionEvaluationException("Cannot order by null in '" + field + "'");
+                }
+                sql.append(jsonText(field)).append(operator.equals("==") ? " IS NULL" : " IS NOT NULL");
+                return;
+            }
+
+            if (equality) {
+                // Containment lets the GIN index on data_json serve the predicate
+                if (operator.equals("!=")) {
+                    sql.append("NOT ");
+                }
+                sql.append("data_json @> jsonb_build_object(").append(literal(field)).append(", ?)");
+                args.add(value instanceof Number || value instanceof Boolean ? value : value.toString());
+                return;
+            }
+
+            BigDecimal number = toDecimal(value);
+            String op = operator;
+            if (number != null) {
+                sql.append(numericSql(field)).append(' ').append(op).append(" ?");
+                args.add(number);
+            } else {
+                sql.append('(').append(jsonText(field)).append(") COLLATE \"C\" ").append(op).append(" ?");
+                args.add(value.toString());
+            }
+        }
+
+        /**
+         * In-memory form of the SQL predicate (parameters are not supported here).
+         */
+        @Override
+        public boolean matches(Map<String, Object> data, String state, Set<String> propertyNames) {
+            if (parameter != null) {
+                throw new IllegalStateException("Parameterised conditions cannot be evaluated in memory");
+            }
+            boolean equality = operator.equals("==") || operator.equals("!=");
+            if (isStateColumn(field, propertyNames)) {
+                boolean equal = literal == null ? state == null : literal.toString().equals(state);
+                return operator.equals("==") == equal;
+            }
+            Object actual = data.get(field);
+            if (literal == null) {
+                return operator.equals("==") == (actual == null);
+            }
+            if (equality) {
+                boolean equal;
+                if (literal instanceof BigDecimal number) {
+                    equal = actual instanceof Number && number.compareTo(numericOf(actual)) == 0;
+                } else if (literal instanceof Boolean) {
+                    equal = literal.equals(actual);
+                } else {
+                    equal = actual instanceof String && literal.equals(actual);
+                }
+                return operator.equals("==") == equal;
+            }
+            int comparison;
+            if (literal instanceof BigDecimal number) {
+                BigDecimal value = numericOf(actual);
+                if (value == null) {
+                    return false;
+                }
+                comparison = value.compareTo(number);
+            } else {
+                String text = textOf(actual);
+                if (text == null) {
+                    return false;
+                }
+                comparison = compareText(text, literal.toString());
+            }
+            switch (operator) {
+                case "<":
+                    return comparison < 0;
+                case "<=":
+                    return comparison <= 0;
+                case ">":
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            fields.add(field);
+        }
+
+        @Override
+        public void collectParameters(Set<String> names) {
+            if (parameter != null) {
+                names.add(parameter);
+            }
+        }
+
+        private static BigDecimal toDecimal(Object value) {
+            if (value instanceof Number) {
+                try {
+                    return new BigDecimal(value.toString());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Parser
+    // ------------------------------------------------------------------------
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        AggregateQuery parse() throws ExpressionEvaluator.ExpressionEvaluationException {
+            String name = identifier("aggregate function");
+            Function function;
+            try {
+                function = Function.valueOf(name.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw error("Unknown aggregate function '" + name + "'");
+            }
+            expect("(");
+            String entityId = identifier("entity");
+            String field = null;
+            if (accept(".")) {
+                field = identifier("field");
+            }
+            if (field == null && function != Function.COUNT) {
+                throw error(name + "() needs a field, e.g. " + name + "(" + entityId + ".amount)");
+            }
+            Condition where = null;
+            if (acceptKeyword("where")) {
+                where = parseOr();
+            }
+            expect(")");
+
+            List<String> groupBy = new ArrayList<>();
+            if (acceptKeyword("group")) {
+                if (!acceptKeyword("by")) {
+                    throw error("Expected 'by' after 'group'");
+                }
+                groupBy.add(identifier("group-by field"));
+            } else if (acceptKeyword("by")) {
+                groupBy.add(identifier("group-by field"));
+            }
+            if (!groupBy.isEmpty()) {
+                while (accept(",")) {
+                    groupBy.add(identifier("group-by field"));
+                }
+            }
+            skipWhitespace();
+            if (pos < text.length()) {
+                throw error("Unexpected '" + text.substring(pos) + "'");
+            }
+            return new AggregateQuery(text, function, entityId, field, where, List.copyOf(groupBy));
+        }
+
+        private Condition parseOr() throws ExpressionEvaluator.ExpressionEvaluationException {
+            List<Condition> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (accept("||")) {
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(false, operands);
+        }
+
+        private Condition parseAnd() throws ExpressionEvaluator.ExpressionEvaluationException {
+            List<Condition> operands = new ArrayList<>();
+            operands.add(parseTerm());
+            while (accept("&&")) {
+                operands.add(parseTerm());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(true, operands);
+        }
+
+        private Condition parseTerm() throws ExpressionEvaluator.ExpressionEvaluationException {
+            if (accept("(")) {
+                Condition inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            String field = identifier("field");
+            String operator = null;
+            for (String candidate : new String[] {"==", "!=", "<=", ">=", "<", ">"}) {
+                if (accept(candidate)) {
+                    operator = candidate;
+                    break;
+                }
+            }
+            if (operator == null) {
+                throw error("Expected comparison operator after '" + field + "'");
+            }
+            skipWhitespace();
+            if (accept("$")) {
+                return new Comparison(field, operator, null, identifier("parameter"));
+            }
+            return new Comparison(field, operator, literalValue(), null);
+        }
+
+        private Object literalValue() throws ExpressionEvaluator.ExpressionEvaluationException {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("Expected value");
+            }
+            char c = text.charAt(pos);
+            if (c == '\'' || c == '"') {
+                int end = text.indexOf(c, pos + 1);
+                if (end < 0) {
+                    throw error("Unterminated string literal");
+                }
+                String value = text.substring(pos + 1, end);
+                pos = end + 1;
+                return value;
+            }
+            if (c == '-' || Character.isDigit(c)) {
+                int start = pos++;
+                while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                    pos++;
+                }
+                try {
+                    return new BigDecimal(text.substring(start, pos));
+                } catch (NumberFormatException e) {
+                    throw error("Invalid number '" + text.substring(start, pos) + "'");
+                }
+            }
+            String word = identifier("value");
+            switch (word) {
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                case "null":
+                    return null;
+                default:
+                    throw error("Expected a quoted string, number, true, false, null or $parameter, got '" + word + "'");
+            }
+        }
+
+        private String identifier(String what) throws ExpressionEvaluator.ExpressionEvaluationException {
+            skipWhitespace();
+            int start = pos;
+            while (pos < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (start == pos || Character.isDigit(text.charAt(start))) {
+                throw error("Expected " + what);
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            skipWhitespace();
+            int end = pos + keyword.length();
+            if (text.regionMatches(true, pos, keyword, 0, keyword.length())
+                    && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean accept(String token) {
+            skipWhitespace();
+            if (text.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) throws ExpressionEvaluator.ExpressionEvaluationException {
+            if (!accept(token)) {
+                throw error("Expected '" + token + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private ExpressionEvaluator.ExpressionEvaluationException error(String message) {
+            return new ExpressionEvaluator.ExpressionEvaluationException(message + " at position " + pos);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.cbap.api.service.expression;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-at-a-time evaluation of numeric CEL-v0 expressions over a batch of records.
+ *
+ * Referenced fields are extracted once into {@link NumericColumn}s and arithmetic
+ * and array aggregates run as tight loops over primitive arrays, which the JIT can
+ * unroll and vectorise. Nodes without a columnar kernel (comparisons, logical
+ * operators, context functions) fall back to row-wise evaluation for that subtree
+ * only.
+ *
+ * Where row-wise evaluation would fail for a record (non-numeric operand, division
+ * by zero, aggregate over a non-array), the corresponding row is null.
+ */
+public final class ColumnarEvaluator {
+
+    private ColumnarEvaluator() {
+    }
+
+    /**
+     * Evaluate a compiled expression for every record.
+     *
+     * @param expression The compiled expression
+     * @param records Record data, one map per row
+     * @param shared Values visible to every row (e.g. measure parameters), may be null
+     * @return One numeric value (or null) per record
+     */
+    public static NumericColumn evaluate(CompiledExpression expression, List<Map<String, Object>> records,
+                                         Map<String, Object> shared) {
+        return new Batch(records, shared).evaluate(expression.getRoot());
+    }
+
+    /**
+     * Batch of rows being evaluated; resolves names against the row first, then shared values.
+     */
+    private static final class Batch {
+        private final List<Map<String, Object>> records;
+        private final Map<String, Object> shared;
+        private final int size;
+
+        Batch(List<Map<String, Object>> records, Map<String, Object> shared) {
+            this.records = records;
+            this.shared = shared != null ? shared : Map.of();
+            this.size = records.size();
+        }
+
+        NumericColumn evaluate(CompiledExpression.Node node) {
+            if (node instanceof CompiledExpression.Literal literal) {
+                Double value = ExpressionEvaluator.toNumber(literal.value);
+                return value != null ? NumericColumn.constant(value, size) : NumericColumn.allNull(size);
+            }
+            if (node instanceof CompiledExpression.Root root) {
+                return evaluateRoot(root);
+            }
+            if (node instanceof CompiledExpression.Variable || node instanceof CompiledExpression.PropertyPath) {
+                return extract(node);
+            }
+            if (node instanceof CompiledExpression.Arithmetic arithmetic) {
+                return evaluateArithmetic(arithmetic);
+            }
+            if (node instanceof CompiledExpression.Aggregate aggregate) {
+                return evaluateAggregate(aggregate);
+            }
+            return evaluateRowWise(node);
+        }
+
+        /**
+         * A row value named exactly like the whole expression overrides the computed value.
+         */
+        private NumericColumn evaluateRoot(CompiledExpression.Root root) {
+            NumericColumn column = evaluate(root.body);
+            RowContext context = new RowContext();
+            for (int i = 0; i < size; i++) {
+                context.row = records.get(i);
+                if (context.containsKey(root.name)) {
+                    Double value = ExpressionEvaluator.toNumber(context.get(root.name));
+                    if (value == null) {
+                        column.setNull(i);
+                    } else {
+                        column.values[i] = value;
+                        column.nulls[i >>> 6] &= ~(1L << i);
+                    }
+                }
+            }
+            return column;
+        }
+
+        /**
+         * Extract a field into a column (the only per-row pass over boxed values).
+         */
+        private NumericColumn extract(CompiledExpression.Node node) {
+            double[] values = new double[size];
+            long[] nulls = new long[NumericColumn.words(size)];
+            RowContext context = new RowContext();
+            for (int i = 0; i < size; i++) {
+                context.row = records.get(i);
+                Double value = ExpressionEvaluator.toNumber(evaluateQuietly(node, context));
+                if (value == null) {
+                    nulls[i >>> 6] |= 1L << i;
+                } else {
+                    values[i] = value;
+                }
+            }
+            return new NumericColumn(values, nulls, size);
+        }
+
+        private NumericColumn evaluateArithmetic(CompiledExpression.Arithmetic arithmetic) {
+            // Columns are freshly allocated per node, so the first operand is reused as the output
+            NumericColumn first = evaluate(arithmetic.operands.get(0));
+            double[] out = first.values;
+            long[] nulls = first.nulls;
+            for (int k = 1; k < arithmetic.operands.size(); k++) {
+                NumericColumn operand = evaluate(arithmetic.operands.get(k));
+                double[] in = operand.values;
+                switch (arithmetic.operator) {
+                    case ADD:
+                        for (int i = 0; i < size; i++) {
+                            out[i] += in[i];
+                        }
+                        break;
+                    case SUBTRACT:
+                        for (int i = 0; i < size; i++) {
+                            out[i] -= in[i];
+                        }
+                        break;
+                    case MULTIPLY:
+                        for (int i = 0; i < size; i++) {
+                            out[i] *= in[i];
+                        }
+                        break;
+                    default:
+                        for (int i = 0; i < size; i++) {
+                            if (in[i] == 0.0) {
+                                // Division by zero fails the row
+                                nulls[i >>> 6] |= 1L << i;
+                            }
+                        }
+                        for (int i = 0; i < size; i++) {
+                            out[i] /= in[i];
+                        }
+                        break;
+                }
+                for (int w = 0; w < nulls.length; w++) {
+                    nulls[w] |= operand.nulls[w];
+                }
+            }
+            NumericColumn column = new NumericColumn(out, nulls, size);
+            clearNullSlots(column);
+            return column;
+        }
+
+        private NumericColumn evaluateAggregate(CompiledExpression.Aggregate aggregate) {
+            double[] values = new double[size];
+            long[] nulls = new long[NumericColumn.words(size)];
+            RowContext context = new RowContext();
+            for (int i = 0; i < size; i++) {
+                context.row = records.get(i);
+                Object arrayObj = evaluateQuietly(aggregate.array, context);
+                if (!(arrayObj instanceof List<?> items)) {
+                    nulls[i >>> 6] |= 1L << i;
+                    continue;
+                }
+                switch (aggregate.function) {
+                    case COUNT:
+                        values[i] = items.size();
+                        break;
+                    case EXISTS:
+                        values[i] = items.isEmpty() ? 0.0 : 1.0;
+                        break;
+                    default:
+                        double sum = 0.0;
+                        for (Object item : items) {
+                            Object value = item;
+                            if (aggregate.fieldName != null) {
+                                if (!(item instanceof Map)) {
+                                    continue;
+                                }
+                                value = ((Map<?, ?>) item).get(aggregate.fieldName);
+                            }
+                            Double number = ExpressionEvaluator.toNumber(value);
+                            if (number != null) {
+                                sum += number;
+                            }
+                        }
+                        values[i] = sum;
+                        break;
+                }
+            }
+            return new NumericColumn(values, nulls, size);
+        }
+
+        /**
+         * Row-wise fallback for nodes without a columnar kernel.
+         */
+        private NumericColumn evaluateRowWise(CompiledExpression.Node node) {
+            double[] values = new double[size];
+            long[] nulls = new long[NumericColumn.words(size)];
+            RowContext context = new RowContext();
+            for (int i = 0; i < size; i++) {
+                context.row = records.get(i);
+                Object result = evaluateQuietly(node, context);
+                Double value = result instanceof Boolean
+                        ? ((Boolean) result ? 1.0 : 0.0)
+                        : ExpressionEvaluator.toNumber(result);
+                if (value == null) {
+                    nulls[i >>> 6] |= 1L << i;
+                } else {
+                    values[i] = value;
+                }
+            }
+            return new NumericColumn(values, nulls, size);
+        }
+
+        private void clearNullSlots(NumericColumn column) {
+            for (int w = 0; w < column.nulls.length; w++) {
+                long bits = column.nulls[w];
+                while (bits != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (row < size) {
+                        column.values[row] = 0.0;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        private Object evaluateQuietly(CompiledExpression.Node node, Map<String, Object> context) {
+            try {
+                return node.evaluate(context);
+            } catch (Exception e) {
+                return null; // Failed rows are null
+            }
+        }
+
+        /**
+         * Read-only view of one row layered over the shared values, reused across rows
+         * to avoid copying a context map per record. "this" resolves to the row itself.
+         */
+        private final class RowContext extends HashMap<String, Object> {
+            Map<String, Object> row;
+
+            @Override
+            public Object get(Object key) {
+                if (row.containsKey(key)) {
+                    return row.get(key);
+                }
+                if ("this".equals(key)) {
+                    return row;
+                }
+                return shared.get(key);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return row.containsKey(key) || "this".equals(key) || shared.containsKey(key);
+            }
+        }
+    }
+}
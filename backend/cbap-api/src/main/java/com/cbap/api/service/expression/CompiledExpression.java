@@ -0,0 +1,398 @@
+package com.cbap.api.service.expression;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A CEL-v0 expression parsed once into an immutable evaluation tree.
+ *
+ * Instances are thread-safe and can be cached and evaluated repeatedly
+ * against different contexts without re-parsing the expression text.
+ * Use {@link ExpressionEvaluator#compile(String)} to create one.
+ */
+public final class CompiledExpression {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledExpression.class);
+
+    private final String expression;
+    private final Node root;
+
+    CompiledExpression(String expression, Node root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    /**
+     * Get the source text of the expression.
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Get the root of the evaluation tree (for analysis within this package).
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Evaluate the expression in the given context.
+     *
+     * @param context The evaluation context (property values, etc.)
+     * @return The evaluation result (Boolean, Number, String, or null)
+     * @throws ExpressionEvaluator.ExpressionEvaluationException If evaluation fails
+     */
+    public Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+        try {
+            return root.evaluate(context);
+        } catch (Exception e) {
+            logger.error("Error evaluating expression: {}", expression, e);
+            throw new ExpressionEvaluator.ExpressionEvaluationException("Failed to evaluate expression: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Evaluate the expression as a boolean (for validations).
+     *
+     * @param context The evaluation context
+     * @return true if valid, false if invalid or on error
+     */
+    public Boolean evaluateBoolean(Map<String, Object> context) {
+        try {
+            return ExpressionEvaluator.toBoolean(evaluate(context));
+        } catch (ExpressionEvaluator.ExpressionEvaluationException e) {
+            logger.warn("Expression evaluation error: {}", e.getMessage());
+            return false; // Errors are treated as validation failure
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    // Evaluation tree
+
+    /**
+     * A node of the evaluation tree.
+     */
+    abstract static class Node {
+        abstract Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException;
+    }
+
+    /**
+     * Constant value (string, number, boolean or null literal).
+     */
+    static final class Literal extends Node {
+        final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return value;
+        }
+    }
+
+    /**
+     * Top-level expression: a context entry named exactly like the whole
+     * expression wins over parsing it.
+     */
+    static final class Root extends Node {
+        final String name;
+        final Node body;
+
+        Root(String name, Node body) {
+            this.name = name;
+            this.body = body;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+            if (context != null && context.containsKey(name)) {
+                return context.get(name);
+            }
+            return body.evaluate(context);
+        }
+    }
+
+    /**
+     * Plain identifier resolved from the context, e.g. {@code amount} or {@code $department}.
+     * Unresolved identifiers evaluate to their own name.
+     */
+    static final class Variable extends Node {
+        final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            if (context != null && context.containsKey(name)) {
+                return context.get(name);
+            }
+            if (context != null && name.startsWith("$") && context.containsKey(name.substring(1))) {
+                return context.get(name.substring(1));
+            }
+            return name;
+        }
+    }
+
+    /**
+     * Dot notation access, e.g. {@code parent.customer} or {@code $parent.customer}.
+     * Falls back to a decimal literal (e.g. {@code 0.19}) or a plain identifier.
+     */
+    static final class PropertyPath extends Node {
+        final String raw;
+        final String baseName;
+        final String propertyName;
+        final Double numericValue;
+
+        PropertyPath(String raw, String baseName, String propertyName, Double numericValue) {
+            this.raw = raw;
+            this.baseName = baseName;
+            this.propertyName = propertyName;
+            this.numericValue = numericValue;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            if (context != null) {
+                Object baseObj = context.get(baseName);
+                if (baseObj == null && baseName.startsWith("$")) {
+                    // Try without $ prefix
+                    baseObj = context.get(baseName.substring(1));
+                }
+                if (baseObj instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>) baseObj;
+                    return map.get(propertyName);
+                }
+            }
+            if (numericValue != null) {
+                return numericValue;
+            }
+            if (context != null && context.containsKey(raw)) {
+                return context.get(raw);
+            }
+            if (context != null && raw.startsWith("$") && context.containsKey(raw.substring(1))) {
+                return context.get(raw.substring(1));
+            }
+            return raw;
+        }
+    }
+
+    /**
+     * Binary comparison ({@code == != < <= > >=}).
+     */
+    static final class Comparison extends Node {
+        enum Operator { EQ, NE, LT, LE, GT, GE }
+
+        final Operator operator;
+        final Node left;
+        final Node right;
+
+        Comparison(Operator operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+            Object leftValue = left.evaluate(context);
+            Object rightValue = right.evaluate(context);
+            switch (operator) {
+                case EQ:
+                    return Objects.equals(leftValue, rightValue);
+                case NE:
+                    return !Objects.equals(leftValue, rightValue);
+                default:
+                    Double l = ExpressionEvaluator.toNumber(leftValue);
+                    Double r = ExpressionEvaluator.toNumber(rightValue);
+                    if (l == null || r == null) {
+                        return false;
+                    }
+                    switch (operator) {
+                        case LT: return l < r;
+                        case LE: return l <= r;
+                        case GT: return l > r;
+                        default: return l >= r;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Logical conjunction or disjunction of sub-expressions.
+     */
+    static final class Logical extends Node {
+        final boolean and;
+        final List<Node> operands;
+
+        Logical(boolean and, List<Node> operands) {
+            this.and = and;
+            this.operands = operands;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+            for (Node operand : operands) {
+                Object result = operand.evaluate(context);
+                if (result instanceof Boolean && (Boolean) result != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+    }
+
+    /**
+     * Arithmetic over numeric operands ({@code + - * /}).
+     */
+    static final class Arithmetic extends Node {
+        enum Operator { ADD, SUBTRACT, MULTIPLY, DIVIDE }
+
+        final Operator operator;
+        final List<Node> operands;
+
+        Arithmetic(Operator operator, List<Node> operands) {
+            this.operator = operator;
+            this.operands = operands;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+            switch (operator) {
+                case ADD: {
+                    Double sum = 0.0;
+                    for (Node operand : operands) {
+                        Double value = ExpressionEvaluator.toNumber(operand.evaluate(context));
+                        if (value == null) {
+                            throw new ExpressionEvaluator.ExpressionEvaluationException("Cannot add non-numeric value");
+                        }
+                        sum += value;
+                    }
+                    return sum;
+                }
+                case MULTIPLY: {
+                    Double product = 1.0;
+                    for (Node operand : operands) {
+                        Double value = ExpressionEvaluator.toNumber(operand.evaluate(context));
+                        if (value == null) {
+                            throw new ExpressionEvaluator.ExpressionEvaluationException("Cannot multiply non-numeric value");
+                        }
+                        product *= value;
+                    }
+                    return product;
+                }
+                case SUBTRACT: {
+                    Double left = ExpressionEvaluator.toNumber(operands.get(0).evaluate(context));
+                    Double right = ExpressionEvaluator.toNumber(operands.get(1).evaluate(context));
+                    if (left == null || right == null) {
+                        throw new ExpressionEvaluator.ExpressionEvaluationException("Cannot subtract non-numeric values");
+                    }
+                    return left - right;
+                }
+                default: {
+                    Double left = ExpressionEvaluator.toNumber(operands.get(0).evaluate(context));
+                    Double right = ExpressionEvaluator.toNumber(operands.get(1).evaluate(context));
+                    if (left == null || right == null) {
+                        throw new ExpressionEvaluator.ExpressionEvaluationException("Cannot divide non-numeric values");
+                    }
+                    if (right == 0.0) {
+                        throw new ExpressionEvaluator.ExpressionEvaluationException("Division by zero");
+                    }
+                    return left / right;
+                }
+            }
+        }
+    }
+
+    /**
+     * Array aggregate: {@code sum(array)}, {@code sum(array.field)}, {@code count(array)}, {@code exists(array)}.
+     */
+    static final class Aggregate extends Node {
+        enum Function { SUM, COUNT, EXISTS }
+
+        final Function function;
+        final Node array;
+        final String fieldName; // Only for sum(array.field)
+
+        Aggregate(Function function, Node array, String fieldName) {
+            this.function = function;
+            this.array = array;
+            this.fieldName = fieldName;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+            Object arrayObj = array.evaluate(context);
+            if (!(arrayObj instanceof List)) {
+                throw new ExpressionEvaluator.ExpressionEvaluationException(
+                        function.name().toLowerCase() + "() expects an array, got: " + arrayObj);
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Object> items = (List<Object>) arrayObj;
+            switch (function) {
+                case COUNT:
+                    return (long) items.size();
+                case EXISTS:
+                    return !items.isEmpty();
+                default:
+                    double sum = 0.0;
+                    for (Object item : items) {
+                        Object value = item;
+                        if (fieldName != null) {
+                            if (!(item instanceof Map)) {
+                                continue;
+                            }
+                            value = ((Map<?, ?>) item).get(fieldName);
+                        }
+                        Double numValue = ExpressionEvaluator.toNumber(value);
+                        if (numValue != null) {
+                            sum += numValue;
+                        }
+                    }
+                    return sum;
+            }
+        }
+    }
+
+    /**
+     * Call of a function supplied through the context (e.g. {@code lookupCountryTax(customer)}).
+     * The raw argument text is passed to the function. If the context holds no such
+     * function, the whole call text is evaluated as a simple value.
+     */
+    static final class ContextFunctionCall extends Node {
+        final String functionName;
+        final String arguments;
+        final Node fallback;
+
+        ContextFunctionCall(String functionName, String arguments, Node fallback) {
+            this.functionName = functionName;
+            this.arguments = arguments;
+            this.fallback = fallback;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) throws ExpressionEvaluator.ExpressionEvaluationException {
+            Object functionObj = context != null ? context.get(functionName) : null;
+            if (functionObj instanceof java.util.function.Function) {
+                @SuppressWarnings("unchecked")
+                java.util.function.Function<String, Object> func = (java.util.function.Function<String, Object>) functionObj;
+                return func.apply(arguments);
+            }
+            return fallback.evaluate(context);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.cbap.api.service.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Static analysis of compiled CEL-v0 expressions.
+ *
+ * Infers the result type against a table of known identifiers, reports type errors
+ * that would only surface at evaluation time, and computes a cost estimate (nodes,
+ * nesting depth, array iterations, context function lookups) that callers can check against limits.
+ */
+public final class ExpressionAnalyzer {
+
+    private static final Pattern MISPARSED_IDENTIFIER = Pattern.compile("[\\s&|<>=!+*/()]");
+
+    private ExpressionAnalyzer() {
+    }
+
+    /**
+     * Value types known to the analyzer.
+     */
+    public enum ValueType {
+        NUMBER, STRING, BOOLEAN, DATE, ARRAY, OBJECT, FUNCTION, NULL, ANY
+    }
+
+    /**
+     * Analyze an expression.
+     *
+     * @param expression The compiled expression
+     * @param symbols Known identifiers and their types (identifiers not listed are reported as warnings)
+     * @return The analysis result
+     */
+    public static ExpressionAnalysis analyze(CompiledExpression expression, Map<String, ValueType> symbols) {
+        Analysis analysis = new Analysis(symbols != null ? symbols : Map.of());
+        checkSyntax(expression.getExpression(), analysis.errors);
+        ValueType resultType = analysis.visit(expression.getRoot(), 1);
+        return new ExpressionAnalysis(resultType, analysis.errors, analysis.warnings,
+                analysis.nodes, analysis.maxDepth, analysis.arrayIterations, analysis.lookups, analysis.propertyReferences);
+    }
+
+    /**
+     * Map an entity property type (PropertyDefinition.propertyType) or measure parameter/return type to a value type.
+     */
+    public static ValueType typeOf(String declaredType) {
+        if (declaredType == null) {
+            return ValueType.ANY;
+        }
+        String type = declaredType.startsWith("reference") ? "reference" : declaredType;
+        switch (type) {
+            case "number":
+                return ValueType.NUMBER;
+            case "string":
+            case "singleSelect":
+            case "reference":
+                return ValueType.STRING;
+            case "boolean":
+            case "bool":
+                return ValueType.BOOLEAN;
+            case "date":
+                return ValueType.DATE;
+            case "multiSelect":
+            case "array":
+                return ValueType.ARRAY;
+            default:
+                return ValueType.ANY;
+        }
+    }
+
+    /**
+     * The split-based parser accepts anything, so unbalanced brackets and quotes are caught here.
+     */
+    private static void checkSyntax(String text, List<String> errors) {
+        int parens = 0;
+        Character quote = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != null) {
+                if (c == quote) {
+                    quote = null;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '(') {
+                parens++;
+            } else if (c == ')') {
+                if (--parens < 0) {
+                    errors.add("Unexpected ')' at position " + i);
+                    return;
+                }
+            }
+        }
+        if (quote != null) {
+            errors.add("Unterminated string literal");
+        }
+        if (parens > 0) {
+            errors.add("Missing ')'");
+        }
+    }
+
+    private static final class Analysis {
+        private final Map<String, ValueType> symbols;
+        private final List<String> errors = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private int nodes;
+        private int maxDepth;
+        private int arrayIterations;
+        private int lookups;
+        // Dot-notation accesses by base identifier, e.g. measures -> {Revenue, Cost}
+        private final Map<String, Set<String>> propertyReferences = new HashMap<>();
+
+        Analysis(Map<String, ValueType> symbols) {
+            this.symbols = symbols;
+        }
+
+        ValueType visit(CompiledExpression.Node node, int depth) {
+            nodes++;
+            maxDepth = Math.max(maxDepth, depth);
+
+            if (node instanceof CompiledExpression.Literal literal) {
+                return literalType(literal.value);
+            }
+            if (node instanceof CompiledExpression.Root root) {
+                // The whole expression may itself be an identifier
+                if (symbols.containsKey(root.name)) {
+                    return symbols.get(root.name);
+                }
+                return visit(root.body, depth);
+            }
+            if (node instanceof CompiledExpression.Variable variable) {
+                return resolve(variable.name);
+            }
+            if (node instanceof CompiledExpression.PropertyPath path) {
+                if (path.numericValue == null) {
+                    propertyReferences.computeIfAbsent(path.baseName, name -> new LinkedHashSet<>()).add(path.propertyName);
+                }
+                ValueType base = lookup(path.baseName);
+                if (base == null) {
+                    if (path.numericValue != null) {
+                        return ValueType.NUMBER;
+                    }
+                    if (MISPARSED_IDENTIFIER.matcher(path.raw).find()) {
+                        errors.add("Cannot combine operators in '" + path.raw + "'");
+                    } else {
+                        warnings.add("Unknown identifier '" + path.baseName + "' in '" + path.raw + "'");
+                    }
+                    return ValueType.ANY;
+                }
+                if (base != ValueType.OBJECT && base != ValueType.ANY) {
+                    errors.add("'" + path.baseName + "' is " + describe(base) + " and has no property '" + path.propertyName + "'");
+                }
+                return ValueType.ANY;
+            }
+            if (node instanceof CompiledExpression.Comparison comparison) {
+                ValueType left = visit(comparison.left, depth + 1);
+                ValueType right = visit(comparison.right, depth + 1);
+                if (comparison.operator != CompiledExpression.Comparison.Operator.EQ
+                        && comparison.operator != CompiledExpression.Comparison.Operator.NE) {
+                    requireNumeric(left, "comparison");
+                    requireNumeric(right, "comparison");
+                } else if (isKnown(left) && isKnown(right) && left != right
+                        && left != ValueType.NULL && right != ValueType.NULL) {
+                    warnings.add("Comparing " + describe(left) + " with " + describe(right) + " is always "
+                            + (comparison.operator == CompiledExpression.Comparison.Operator.NE));
+                }
+                return ValueType.BOOLEAN;
+            }
+            if (node instanceof CompiledExpression.Logical logical) {
+                for (CompiledExpression.Node operand : logical.operands) {
+                    ValueType type = visit(operand, depth + 1);
+                    if (isKnown(type) && type != ValueType.BOOLEAN) {
+                        warnings.add("Operand of '" + (logical.and ? "&&" : "||") + "' is " + describe(type)
+                                + " and is ignored");
+                    }
+                }
+                return ValueType.BOOLEAN;
+            }
+            if (node instanceof CompiledExpression.Arithmetic arithmetic) {
+                for (CompiledExpression.Node operand : arithmetic.operands) {
+                    ValueType type = visit(operand, depth + 1);
+                    // Quoted numbers are converted at runtime
+                    boolean numericLiteral = operand instanceof CompiledExpression.Literal literal
+                            && ExpressionEvaluator.toNumber(literal.value) != null;
+                    if (!numericLiteral) {
+                        requireNumeric(type, "arithmetic");
+                    }
+                }
+                return ValueType.NUMBER;
+            }
+            if (node instanceof CompiledExpression.Aggregate aggregate) {
+                String function = aggregate.function.name().toLowerCase();
+                ValueType arrayType = visit(aggregate.array, depth + 1);
+                if (arrayType != ValueType.ARRAY && arrayType != ValueType.ANY) {
+                    errors.add(function + "() expects an array, got " + describe(arrayType));
+                }
+                arrayIterations++;
+                return aggregate.function == CompiledExpression.Aggregate.Function.EXISTS
+                        ? ValueType.BOOLEAN : ValueType.NUMBER;
+            }
+            if (node instanceof CompiledExpression.ContextFunctionCall call) {
+                ValueType type = symbols.get(call.functionName);
+                if (type != ValueType.FUNCTION) {
+                    errors.add("Unknown function '" + call.functionName + "'");
+                }
+                lookups++;
+                return ValueType.ANY;
+            }
+            return ValueType.ANY;
+        }
+
+        private ValueType lookup(String name) {
+            if (symbols.containsKey(name)) {
+                return symbols.get(name);
+            }
+            if (name.startsWith("$") && symbols.containsKey(name.substring(1))) {
+                return symbols.get(name.substring(1));
+            }
+            return null;
+        }
+
+        private ValueType resolve(String name) {
+            ValueType type = lookup(name);
+            if (type != null) {
+                return type;
+            }
+            if (MISPARSED_IDENTIFIER.matcher(name).find()) {
+                // Operators left inside an operand: v0 splits on one operator per level only
+                errors.add("Cannot combine operators in '" + name + "'");
+            } else {
+                warnings.add("Unknown identifier '" + name + "' is treated as the string \"" + name + "\"");
+            }
+            return ValueType.STRING;
+        }
+
+        private void requireNumeric(ValueType type, String context) {
+            if (type != ValueType.NUMBER && type != ValueType.ANY && type != ValueType.NULL) {
+                errors.add("Cannot use " + describe(type) + " in " + context);
+            }
+        }
+
+        private static boolean isKnown(ValueType type) {
+            return type != ValueType.ANY;
+        }
+
+        private static ValueType literalType(Object value) {
+            if (value == null) {
+                return ValueType.NULL;
+            }
+            if (value instanceof Boolean) {
+                return ValueType.BOOLEAN;
+            }
+            if (value instanceof Number) {
+                return ValueType.NUMBER;
+            }
+            return ValueType.STRING;
+        }
+
+        private static String describe(ValueType type) {
+            return type == ValueType.ANY ? "any value" : "a " + type.name().toLowerCase();
+        }
+    }
+
+    /**
+     * Result of analyzing an expression.
+     */
+    public static class ExpressionAnalysis {
+        private final ValueType resultType;
+        private final List<String> errors;
+        private final List<String> warnings;
+        private final int nodeCount;
+        private final int depth;
+        private final int arrayIterations;
+        private final int lookups;
+        private final Map<String, Set<String>> propertyReferences;
+
+        public ExpressionAnalysis(ValueType resultType, List<String> errors, List<String> warnings,
+                                  int nodeCount, int depth, int arrayIterations, int lookups,
+                                  Map<String, Set<String>> propertyReferences) {
+            this.resultType = resultType;
+            this.errors = Collections.unmodifiableList(errors);
+            this.warnings = Collections.unmodifiableList(warnings);
+            this.nodeCount = nodeCount;
+            this.depth = depth;
+            this.arrayIterations = arrayIterations;
+            this.lookups = lookups;
+            this.propertyReferences = propertyReferences;
+        }
+
+        /**
+         * Properties accessed on an identifier with dot notation ({@code base.property}).
+         */
+        public Set<String> getPropertyReferences(String baseName) {
+            return Collections.unmodifiableSet(propertyReferences.getOrDefault(baseName, Set.of()));
+        }
+
+        /**
+         * Relative cost estimate: array iterations and lookups dominate plain operators.
+         */
+        public int getCost() {
+            return nodeCount + 10 * arrayIterations + 25 * lookups;
+        }
+
+        public boolean hasErrors() { return !errors.isEmpty(); }
+        public ValueType getResultType() { return resultType; }
+        public List<String> getErrors() { return errors; }
+        public List<String> getWarnings() { return warnings; }
+        public int getNodeCount() { return nodeCount; }
+        public int getDepth() { return depth; }
+        public int getArrayIterations() { return arrayIterations; }
+        public int getLookups() { return lookups; }
+    }
+}
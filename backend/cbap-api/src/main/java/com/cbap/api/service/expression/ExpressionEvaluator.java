@@ -3,8 +3,9 @@ package com.cbap.api.service.expression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * Simple expression evaluator for CEL-v0 expressions.
@@ -17,6 +18,39 @@ public class ExpressionEvaluator {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpressionEvaluator.class);
 
+    /**
+     * Compile a CEL-v0 expression into a reusable, thread-safe evaluation tree.
+     *
+     * Compiling is only worth it when the same expression is evaluated many
+     * times (bulk recalculation, cached rule sets); one-off callers can keep
+     * using {@link #evaluate(String, Map)}.
+     *
+     * @param expression The expression to compile
+     * @return The compiled expression
+     * @throws ExpressionEvaluationException If the expression is null or empty
+     */
+    public static CompiledExpression compile(String expression) throws ExpressionEvaluationException {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new ExpressionEvaluationException("Expression cannot be null or empty");
+        }
+
+        String trimmed = expression.trim();
+
+        // Handle boolean and null literals
+        if ("true".equals(trimmed)) {
+            return new CompiledExpression(expression, new CompiledExpression.Literal(true));
+        }
+        if ("false".equals(trimmed)) {
+            return new CompiledExpression(expression, new CompiledExpression.Literal(false));
+        }
+        if ("null".equals(trimmed)) {
+            return new CompiledExpression(expression, new CompiledExpression.Literal(null));
+        }
+
+        // A context property named like the whole expression takes precedence
+        return new CompiledExpression(expression, new CompiledExpression.Root(trimmed, compileExpression(trimmed)));
+    }
+
     /**
      * Evaluate a CEL-v0 expression in the given context.
      * 
@@ -26,42 +60,7 @@ public class ExpressionEvaluator {
      * @throws ExpressionEvaluationException If evaluation fails
      */
     public static Object evaluate(String expression, Map<String, Object> context) throws ExpressionEvaluationException {
-        if (expression == null || expression.trim().isEmpty()) {
-            throw new ExpressionEvaluationException("Expression cannot be null or empty");
-        }
-
-        try {
-            // For now, use a simple evaluator
-            // This is a placeholder - in production, use a proper expression engine
-            // For OSS, we'll implement basic evaluation
-            
-            // Remove whitespace
-            String trimmed = expression.trim();
-            
-            // Handle boolean literals
-            if ("true".equals(trimmed)) {
-                return true;
-            }
-            if ("false".equals(trimmed)) {
-                return false;
-            }
-            if ("null".equals(trimmed)) {
-                return null;
-            }
-            
-            // Handle property access
-            if (context != null && context.containsKey(trimmed)) {
-                return context.get(trimmed);
-            }
-            
-            // For now, delegate to a more sophisticated evaluator
-            // This is a simplified version - full implementation would parse the expression
-            return evaluateExpression(trimmed, context);
-            
-        } catch (Exception e) {
-            logger.error("Error evaluating expression: {}", expression, e);
-            throw new ExpressionEvaluationException("Failed to evaluate expression: " + e.getMessage(), e);
-        }
+        return compile(expression).evaluate(context);
     }
 
     /**
@@ -69,25 +68,11 @@ public class ExpressionEvaluator {
      * 
      * @param expression The expression to evaluate
      * @param context The evaluation context
-     * @return true if valid, false if invalid, null if error
+     * @return true if valid, false if invalid or on error
      */
     public static Boolean evaluateBoolean(String expression, Map<String, Object> context) {
         try {
-            Object result = evaluate(expression, context);
-            if (result instanceof Boolean) {
-                return (Boolean) result;
-            }
-            if (result == null) {
-                return false; // null is treated as validation failure
-            }
-            // Convert to boolean
-            if (result instanceof Number) {
-                return ((Number) result).doubleValue() != 0.0;
-            }
-            if (result instanceof String) {
-                return !((String) result).isEmpty();
-            }
-            return false;
+            return toBoolean(evaluate(expression, context));
         } catch (ExpressionEvaluationException e) {
             logger.warn("Expression evaluation error: {}", e.getMessage());
             return false; // Errors are treated as validation failure
@@ -95,120 +80,53 @@ public class ExpressionEvaluator {
     }
 
     /**
-     * Simple expression evaluator.
-     * This is a basic implementation - for production, use a proper parser.
+     * Build the evaluation tree for an expression.
+     * Operators are recognised in the same order as the v0 evaluator always has:
+     * comparisons, logical operators, arithmetic, function calls, simple values.
      */
-    private static Object evaluateExpression(String expression, Map<String, Object> context) throws ExpressionEvaluationException {
-        // This is a placeholder for a full expression parser
-        // For now, we'll handle simple cases
-        
+    private static CompiledExpression.Node compileExpression(String expression) {
         // Handle comparison operators
         if (expression.contains("==")) {
-            String[] parts = expression.split("==", 2);
-            Object left = evaluateSimpleValue(parts[0].trim(), context);
-            Object right = evaluateSimpleValue(parts[1].trim(), context);
-            return Objects.equals(left, right);
+            return compileComparison(CompiledExpression.Comparison.Operator.EQ, expression.split("==", 2));
         }
         if (expression.contains("!=")) {
-            String[] parts = expression.split("!=", 2);
-            Object left = evaluateSimpleValue(parts[0].trim(), context);
-            Object right = evaluateSimpleValue(parts[1].trim(), context);
-            return !Objects.equals(left, right);
+            return compileComparison(CompiledExpression.Comparison.Operator.NE, expression.split("!=", 2));
         }
         if (expression.contains("<=")) {
-            String[] parts = expression.split("<=", 2);
-            Double left = toNumber(evaluateSimpleValue(parts[0].trim(), context));
-            Double right = toNumber(evaluateSimpleValue(parts[1].trim(), context));
-            return left != null && right != null && left <= right;
+            return compileComparison(CompiledExpression.Comparison.Operator.LE, expression.split("<=", 2));
         }
         if (expression.contains(">=")) {
-            String[] parts = expression.split(">=", 2);
-            Double left = toNumber(evaluateSimpleValue(parts[0].trim(), context));
-            Double right = toNumber(evaluateSimpleValue(parts[1].trim(), context));
-            return left != null && right != null && left >= right;
-        }
-        if (expression.contains("<") && !expression.contains("<=")) {
-            String[] parts = expression.split("<", 2);
-            Double left = toNumber(evaluateSimpleValue(parts[0].trim(), context));
-            Double right = toNumber(evaluateSimpleValue(parts[1].trim(), context));
-            return left != null && right != null && left < right;
-        }
-        if (expression.contains(">") && !expression.contains(">=")) {
-            String[] parts = expression.split(">", 2);
-            Double left = toNumber(evaluateSimpleValue(parts[0].trim(), context));
-            Double right = toNumber(evaluateSimpleValue(parts[1].trim(), context));
-            return left != null && right != null && left > right;
-        }
-        
+            return compileComparison(CompiledExpression.Comparison.Operator.GE, expression.split(">=", 2));
+        }
+        if (expression.contains("<")) {
+            return compileComparison(CompiledExpression.Comparison.Operator.LT, expression.split("<", 2));
+        }
+        if (expression.contains(">")) {
+            return compileComparison(CompiledExpression.Comparison.Operator.GT, expression.split(">", 2));
+        }
+
         // Handle logical operators (simple cases)
         if (expression.contains("&&")) {
-            String[] parts = expression.split("&&");
-            for (String part : parts) {
-                Object partResult = evaluateExpression(part.trim(), context);
-                if (partResult instanceof Boolean && !(Boolean) partResult) {
-                    return false;
-                }
-            }
-            return true;
+            return new CompiledExpression.Logical(true, compileParts(expression.split("&&")));
         }
         if (expression.contains("||")) {
-            String[] parts = expression.split("\\|\\|");
-            for (String part : parts) {
-                Object partResult = evaluateExpression(part.trim(), context);
-                if (partResult instanceof Boolean && (Boolean) partResult) {
-                    return true;
-                }
-            }
-            return false;
+            return new CompiledExpression.Logical(false, compileParts(expression.split("\\|\\|")));
         }
-        
+
         // Handle arithmetic (simple cases)
         if (expression.contains("+")) {
-            String[] parts = expression.split("\\+");
-            Double sum = 0.0;
-            for (String part : parts) {
-                Double value = toNumber(evaluateSimpleValue(part.trim(), context));
-                if (value == null) {
-                    throw new ExpressionEvaluationException("Cannot add non-numeric value");
-                }
-                sum += value;
-            }
-            return sum;
+            return compileArithmetic(CompiledExpression.Arithmetic.Operator.ADD, expression.split("\\+"));
         }
         if (expression.contains("-") && !expression.startsWith("-")) {
-            String[] parts = expression.split("-", 2);
-            Double left = toNumber(evaluateSimpleValue(parts[0].trim(), context));
-            Double right = toNumber(evaluateSimpleValue(parts[1].trim(), context));
-            if (left == null || right == null) {
-                throw new ExpressionEvaluationException("Cannot subtract non-numeric values");
-            }
-            return left - right;
+            return compileArithmetic(CompiledExpression.Arithmetic.Operator.SUBTRACT, expression.split("-", 2));
         }
         if (expression.contains("*")) {
-            String[] parts = expression.split("\\*");
-            Double product = 1.0;
-            for (String part : parts) {
-                Double value = toNumber(evaluateSimpleValue(part.trim(), context));
-                if (value == null) {
-                    throw new ExpressionEvaluationException("Cannot multiply non-numeric value");
-                }
-                product *= value;
-            }
-            return product;
+            return compileArithmetic(CompiledExpression.Arithmetic.Operator.MULTIPLY, expression.split("\\*"));
         }
         if (expression.contains("/")) {
-            String[] parts = expression.split("/", 2);
-            Double left = toNumber(evaluateSimpleValue(parts[0].trim(), context));
-            Double right = toNumber(evaluateSimpleValue(parts[1].trim(), context));
-            if (left == null || right == null) {
-                throw new ExpressionEvaluationException("Cannot divide non-numeric values");
-            }
-            if (right == 0.0) {
-                throw new ExpressionEvaluationException("Division by zero");
-            }
-            return left / right;
+            return compileArithmetic(CompiledExpression.Arithmetic.Operator.DIVIDE, expression.split("/", 2));
         }
-        
+
         // Handle function calls (e.g., sum(array.field))
         if (expression.contains("(") && expression.contains(")")) {
             int openParen = expression.indexOf("(");
@@ -216,188 +134,119 @@ public class ExpressionEvaluator {
             if (openParen < closeParen) {
                 String functionName = expression.substring(0, openParen).trim();
                 String argsStr = expression.substring(openParen + 1, closeParen).trim();
-                
+
                 // Handle aggregate functions for arrays
                 if ("sum".equals(functionName)) {
-                    return evaluateSumFunction(argsStr, context);
+                    if (argsStr.contains(".")) {
+                        // sum(array.field) - sum a specific field from array items
+                        String[] parts = argsStr.split("\\.", 2);
+                        return new CompiledExpression.Aggregate(CompiledExpression.Aggregate.Function.SUM,
+                                compileSimpleValue(parts[0].trim()), parts[1].trim());
+                    }
+                    return new CompiledExpression.Aggregate(CompiledExpression.Aggregate.Function.SUM,
+                            compileSimpleValue(argsStr), null);
                 }
                 if ("count".equals(functionName)) {
-                    return evaluateCountFunction(argsStr, context);
+                    return new CompiledExpression.Aggregate(CompiledExpression.Aggregate.Function.COUNT,
+                            compileSimpleValue(argsStr), null);
                 }
                 if ("exists".equals(functionName)) {
-                    return evaluateExistsFunction(argsStr, context);
-                }
-                
-                // Handle function calls from context (e.g., lookupCountryTax)
-                Object functionObj = context.get(functionName);
-                if (functionObj instanceof java.util.function.Function) {
-                    @SuppressWarnings("unchecked")
-                    java.util.function.Function<String, Object> func = (java.util.function.Function<String, Object>) functionObj;
-                    return func.apply(argsStr);
+                    return new CompiledExpression.Aggregate(CompiledExpression.Aggregate.Function.EXISTS,
+                            compileSimpleValue(argsStr), null);
                 }
+
+                // Function calls from context (e.g., lookupCountryTax) are resolved at evaluation time
+                return new CompiledExpression.ContextFunctionCall(functionName, argsStr, compileSimpleValue(expression));
             }
         }
-        
+
         // Handle simple value
-        return evaluateSimpleValue(expression, context);
+        return compileSimpleValue(expression);
     }
 
-    /**
-     * Evaluate sum() function: sum(array.field) or sum(array)
-     * Example: sum(lineItems.total) sums the 'total' field of each item in lineItems array
-     */
-    private static Object evaluateSumFunction(String argsStr, Map<String, Object> context) throws ExpressionEvaluationException {
-        if (argsStr.contains(".")) {
-            // sum(array.field) - sum a specific field from array items
-            String[] parts = argsStr.split("\\.", 2);
-            String arrayName = parts[0].trim();
-            String fieldName = parts[1].trim();
-            
-            Object arrayObj = evaluateSimpleValue(arrayName, context);
-            if (!(arrayObj instanceof java.util.List)) {
-                throw new ExpressionEvaluationException("sum() expects an array, got: " + arrayObj);
-            }
-            
-            @SuppressWarnings("unchecked")
-            java.util.List<Object> array = (java.util.List<Object>) arrayObj;
-            double sum = 0.0;
-            
-            for (Object item : array) {
-                if (item instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> itemMap = (Map<String, Object>) item;
-                    Object fieldValue = itemMap.get(fieldName);
-                    Double numValue = toNumber(fieldValue);
-                    if (numValue != null) {
-                        sum += numValue;
-                    }
-                }
-            }
-            
-            return sum;
-        } else {
-            // sum(array) - sum array values directly
-            Object arrayObj = evaluateSimpleValue(argsStr, context);
-            if (!(arrayObj instanceof java.util.List)) {
-                throw new ExpressionEvaluationException("sum() expects an array, got: " + arrayObj);
-            }
-            
-            @SuppressWarnings("unchecked")
-            java.util.List<Object> array = (java.util.List<Object>) arrayObj;
-            double sum = 0.0;
-            
-            for (Object item : array) {
-                Double numValue = toNumber(item);
-                if (numValue != null) {
-                    sum += numValue;
-                }
-            }
-            
-            return sum;
-        }
+    private static CompiledExpression.Node compileComparison(CompiledExpression.Comparison.Operator operator, String[] parts) {
+        return new CompiledExpression.Comparison(operator,
+                compileSimpleValue(parts[0].trim()), compileSimpleValue(parts[1].trim()));
     }
 
-    /**
-     * Evaluate count() function: count(array)
-     * Example: count(lineItems) returns the number of items in the array
-     */
-    private static Object evaluateCountFunction(String argsStr, Map<String, Object> context) throws ExpressionEvaluationException {
-        Object arrayObj = evaluateSimpleValue(argsStr, context);
-        if (!(arrayObj instanceof java.util.List)) {
-            throw new ExpressionEvaluationException("count() expects an array, got: " + arrayObj);
-        }
-        
-        @SuppressWarnings("unchecked")
-        java.util.List<Object> array = (java.util.List<Object>) arrayObj;
-        return (long) array.size();
+    private static CompiledExpression.Node compileArithmetic(CompiledExpression.Arithmetic.Operator operator, String[] parts) {
+        List<CompiledExpression.Node> operands = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            operands.add(compileSimpleValue(part.trim()));
+        }
+        return new CompiledExpression.Arithmetic(operator, List.copyOf(operands));
     }
 
-    /**
-     * Evaluate exists() function: exists(array)
-     * Example: exists(lineItems) returns true if array is not empty
-     */
-    private static Object evaluateExistsFunction(String argsStr, Map<String, Object> context) throws ExpressionEvaluationException {
-        Object arrayObj = evaluateSimpleValue(argsStr, context);
-        if (!(arrayObj instanceof java.util.List)) {
-            throw new ExpressionEvaluationException("exists() expects an array, got: " + arrayObj);
-        }
-        
-        @SuppressWarnings("unchecked")
-        java.util.List<Object> array = (java.util.List<Object>) arrayObj;
-        return !array.isEmpty();
+    private static List<CompiledExpression.Node> compileParts(String[] parts) {
+        List<CompiledExpression.Node> operands = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            operands.add(compileExpression(part.trim()));
+        }
+        return List.copyOf(operands);
     }
 
-    private static Object evaluateSimpleValue(String value, Map<String, Object> context) {
+    private static CompiledExpression.Node compileSimpleValue(String value) {
         // Remove quotes from strings
-        if (value.startsWith("\"") && value.endsWith("\"")) {
-            return value.substring(1, value.length() - 1);
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return new CompiledExpression.Literal(value.substring(1, value.length() - 1));
         }
-        if (value.startsWith("'") && value.endsWith("'")) {
-            return value.substring(1, value.length() - 1);
+        if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+            return new CompiledExpression.Literal(value.substring(1, value.length() - 1));
         }
-        
+
         // Handle dot notation property access (e.g., $parent.customer, parent.customer)
-        if (value.contains(".") && context != null) {
+        if (value.contains(".")) {
             String[] parts = value.split("\\.", 2);
-            String baseName = parts[0].trim();
-            String propertyName = parts[1].trim();
-            
-            Object baseObj = context.get(baseName);
-            if (baseObj == null && baseName.startsWith("$")) {
-                // Try without $ prefix
-                baseObj = context.get(baseName.substring(1));
-            }
-            
-            if (baseObj instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> map = (Map<String, Object>) baseObj;
-                return map.get(propertyName);
-            }
-            
-            // If not a map, might be a number with decimal point - try parsing as number
+            Double numericValue = null;
             try {
-                return Double.parseDouble(value);
-            } catch (NumberFormatException e) {
-                // Not a number, continue
-            }
-        } else {
-            // Try as number (only if no dot notation)
-            try {
-                if (value.contains(".")) {
-                    return Double.parseDouble(value);
-                } else {
-                    return Long.parseLong(value);
-                }
+                // Might also be a number with decimal point
+                numericValue = Double.parseDouble(value);
             } catch (NumberFormatException e) {
                 // Not a number
             }
+            return new CompiledExpression.PropertyPath(value, parts[0].trim(), parts[1].trim(), numericValue);
         }
-        
+
+        // Try as number
+        try {
+            return new CompiledExpression.Literal(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            // Not a number
+        }
+
         // Try as boolean
         if ("true".equals(value)) {
-            return true;
+            return new CompiledExpression.Literal(true);
         }
         if ("false".equals(value)) {
-            return false;
+            return new CompiledExpression.Literal(false);
         }
         if ("null".equals(value)) {
-            return null;
+            return new CompiledExpression.Literal(null);
+        }
+
+        // Context variable, resolved at evaluation time
+        return new CompiledExpression.Variable(value);
+    }
+
+    static Boolean toBoolean(Object result) {
+        if (result instanceof Boolean) {
+            return (Boolean) result;
+        }
+        if (result == null) {
+            return false; // null is treated as validation failure
         }
-        
-        // Try as context variable
-        if (context != null && context.containsKey(value)) {
-            return context.get(value);
+        // Convert to boolean
+        if (result instanceof Number) {
+            return ((Number) result).doubleValue() != 0.0;
         }
-        // Try with $ prefix removed
-        if (context != null && value.startsWith("$") && context.containsKey(value.substring(1))) {
-            return context.get(value.substring(1));
+        if (result instanceof String) {
+            return !((String) result).isEmpty();
         }
-        
-        // Return as string
-        return value;
+        return false;
     }
 
-    private static Double toNumber(Object value) {
+    static Double toNumber(Object value) {
         if (value == null) {
             return null;
         }
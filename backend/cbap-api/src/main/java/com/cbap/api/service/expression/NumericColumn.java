@@ -0,0 +1,139 @@
+package com.cbap.api.service.expression;
+
+import java.util.Arrays;
+
+/**
+ * A column of nullable doubles: values in a primitive {@code double[]} plus a
+ * null bitmap packed into a {@code long[]} (bit set = null).
+ *
+ * Null slots always hold 0.0 so kernels can run branch-free over the value array
+ * and combine null masks 64 rows at a time.
+ */
+public final class NumericColumn {
+
+    final double[] values;
+    final long[] nulls;
+    final int size;
+
+    NumericColumn(double[] values, long[] nulls, int size) {
+        this.values = values;
+        this.nulls = nulls;
+        this.size = size;
+    }
+
+    static NumericColumn allNull(int size) {
+        long[] nulls = new long[words(size)];
+        Arrays.fill(nulls, -1L);
+        return new NumericColumn(new double[size], nulls, size);
+    }
+
+    static NumericColumn constant(double value, int size) {
+        double[] values = new double[size];
+        Arrays.fill(values, value);
+        return new NumericColumn(values, new long[words(size)], size);
+    }
+
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    void setNull(int row) {
+        nulls[row >>> 6] |= 1L << row;
+        values[row] = 0.0;
+    }
+
+    /**
+     * Get the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether a row is null.
+     */
+    public boolean isNull(int row) {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Get a row value, or null.
+     */
+    public Double get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    /**
+     * Count non-null rows.
+     */
+    public long count() {
+        long nullCount = 0;
+        for (int w = 0; w < nulls.length; w++) {
+            nullCount += Long.bitCount(nulls[w]);
+        }
+        // Bits past the last row may be set by allNull()
+        int tail = nulls.length * 64 - size;
+        if (tail > 0 && nulls.length > 0) {
+            nullCount -= Long.bitCount(nulls[nulls.length - 1] >>> (64 - tail));
+        }
+        return size - nullCount;
+    }
+
+    /**
+     * Sum of non-null rows (null slots hold 0.0, so no masking is needed).
+     */
+    public double sum() {
+        // Four independent accumulators break the add dependency chain
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        int bound = size & ~3;
+        for (; i < bound; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < size; i++) {
+            s0 += values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Average of non-null rows, or null if all rows are null.
+     */
+    public Double avg() {
+        long count = count();
+        return count == 0 ? null : sum() / count;
+    }
+
+    /**
+     * Minimum of non-null rows, or null if all rows are null.
+     */
+    public Double min() {
+        double min = Double.POSITIVE_INFINITY;
+        boolean found = false;
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) {
+                min = Math.min(min, values[i]);
+                found = true;
+            }
+        }
+        return found ? min : null;
+    }
+
+    /**
+     * Maximum of non-null rows, or null if all rows are null.
+     */
+    public Double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        boolean found = false;
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) {
+                max = Math.max(max, values[i]);
+                found = true;
+            }
+        }
+        return found ? max : null;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * CBAP OSS Application Launcher
@@ -14,6 +15,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @SpringBootApplication(scanBasePackages = "com.cbap")
 @EnableJpaRepositories(basePackages = "com.cbap.persistence.repository")
 @EntityScan(basePackages = "com.cbap.persistence.entity")
+@EnableScheduling
 public class CbapApplication {
 
     public static void main(String[] args) {
@@ -56,6 +56,10 @@ public class EntityRecord {
     @Column(name = "deleted_at")
     private OffsetDateTime deletedAt; // Soft delete
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version; // Optimistic lock, exposed as the record's ETag
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -163,6 +167,14 @@ public class EntityRecord {
         this.deletedAt = deletedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public boolean isDeleted() {
         return deletedAt != null;
     }
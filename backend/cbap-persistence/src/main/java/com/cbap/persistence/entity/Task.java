@@ -76,6 +76,13 @@ public class Task {
     @Column(name = "metadata_json", columnDefinition = "jsonb")
     private Map<String, Object> metadataJson;
 
+    // Written by the escalation scheduler only
+    @Column(name = "escalation_level", nullable = false, insertable = false, updatable = false)
+    private Integer escalationLevel;
+
+    @Column(name = "escalated_at", insertable = false, updatable = false)
+    private OffsetDateTime escalatedAt;
+
     @Column(name = "tenant_id")
     private UUID tenantId;
 
@@ -89,6 +96,10 @@ public class Task {
     @JoinColumn(name = "created_by")
     private User createdBy;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version; // Optimistic lock; set-based task updates increment it too
+
     public enum TaskStatus {
         OPEN,
         IN_PROGRESS,
@@ -256,6 +267,14 @@ public class Task {
         this.metadataJson = metadataJson;
     }
 
+    public Integer getEscalationLevel() {
+        return escalationLevel;
+    }
+
+    public OffsetDateTime getEscalatedAt() {
+        return escalatedAt;
+    }
+
     public UUID getTenantId() {
         return tenantId;
     }
@@ -284,6 +303,14 @@ public class Task {
         return createdBy;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setCreatedBy(User createdBy) {
         this.createdBy = createdBy;
     }
@@ -118,7 +118,9 @@ public class ValidationRule {
         LENGTH,          // String length
         PATTERN,         // Regex pattern
         EXPRESSION,      // CEL-v0 expression
-        CUSTOM           // Custom validation logic
+        CUSTOM,          // Custom validation logic
+        UNIQUE,          // Value unique among the entity's records (index-backed)
+        EXISTS           // Value references an existing record (index-backed)
     }
 
     // Getters and Setters
@@ -12,6 +12,7 @@ import java.util.UUID;
  * Workflow audit log entry.
  * 
  * Records all workflow state transitions for audit purposes.
+ * The table is partitioned by month of performed_at, so queries should bound it.
  */
 @Entity
 @Table(name = "cbap_workflow_audit_log")
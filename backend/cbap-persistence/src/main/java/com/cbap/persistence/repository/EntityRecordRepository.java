@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -38,6 +39,14 @@ public interface EntityRecordRepository extends JpaRepository<EntityRecord, UUID
             @Param("entityId") String entityId,
             @Param("recordId") UUID recordId);
 
+    /**
+     * Find records of an entity by ID in one query (non-deleted only); unknown IDs are skipped.
+     */
+    @Query("SELECT r FROM EntityRecord r WHERE r.entity.entityId = :entityId AND r.recordId IN :recordIds AND r.deletedAt IS NULL")
+    List<EntityRecord> findByEntityIdAndRecordIdIn(
+            @Param("entityId") String entityId,
+            @Param("recordIds") Collection<UUID> recordIds);
+
     /**
      * Count records for an entity (non-deleted only).
      */
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,6 +37,12 @@ public interface MeasureRepository extends JpaRepository<Measure, UUID> {
     @Query("SELECT m FROM Measure m WHERE m.measureIdentifier = :measureIdentifier ORDER BY m.version DESC")
     Optional<Measure> findLatestByMeasureIdentifier(@Param("measureIdentifier") String measureIdentifier);
 
+    /**
+     * Find all versions of the given measures, in one query.
+     */
+    @Query("SELECT m FROM Measure m WHERE m.measureIdentifier IN :measureIdentifiers ORDER BY m.measureIdentifier, m.version DESC")
+    List<Measure> findByMeasureIdentifierIn(@Param("measureIdentifiers") Collection<String> measureIdentifiers);
+
     /**
      * Find all measures.
      */
@@ -0,0 +1,39 @@
+package com.cbap.persistence.repository;
+
+import com.cbap.persistence.entity.Task;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Flat projection of a task as shown in a user's inbox.
+ *
+ * Carries the referenced IDs instead of the associated entities, plus the assignee's
+ * username and the record data needed for the display value, so an inbox page is read
+ * with a single query and no lazy loading.
+ */
+public record TaskInboxRow(
+        UUID taskId,
+        String entityId,
+        UUID recordId,
+        Map<String, Object> recordData,
+        String title,
+        String description,
+        UUID assigneeId,
+        String assigneeUsername,
+        Task.TaskStatus status,
+        Task.TaskPriority priority,
+        OffsetDateTime dueDate,
+        String workflowState,
+        UUID transitionId,
+        OffsetDateTime completedAt,
+        UUID completedById,
+        Task.TaskDecision decision,
+        String decisionComments,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        UUID createdById,
+        Integer escalationLevel,
+        OffsetDateTime escalatedAt) {
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,18 +20,21 @@ import java.util.UUID;
 public interface TaskRepository extends JpaRepository<Task, UUID> {
 
     /**
-     * Find tasks assigned to a user.
+     * Inbox page of a user: tasks in the given statuses, newest first, as flat rows.
+     * Referenced IDs are read from the foreign key columns; only the record (for its
+     * data) and the assignee (for the username) are joined.
      */
-    @Query("SELECT t FROM Task t WHERE t.assignee.userId = :userId ORDER BY t.createdAt DESC")
-    Page<Task> findByAssigneeId(@Param("userId") UUID userId, Pageable pageable);
-
-    /**
-     * Find tasks assigned to a user with specific status.
-     */
-    @Query("SELECT t FROM Task t WHERE t.assignee.userId = :userId AND t.status = :status ORDER BY t.createdAt DESC")
-    Page<Task> findByAssigneeIdAndStatus(
+    @Query(value = "SELECT new com.cbap.persistence.repository.TaskInboxRow(" +
+            "t.taskId, t.entity.entityId, r.recordId, r.dataJson, t.title, t.description, " +
+            "a.userId, a.username, t.status, t.priority, t.dueDate, t.workflowState, " +
+            "t.transition.transitionId, t.completedAt, t.completedBy.userId, t.decision, " +
+            "t.decisionComments, t.createdAt, t.updatedAt, t.createdBy.userId, t.escalationLevel, t.escalatedAt) " +
+            "FROM Task t JOIN t.record r JOIN t.assignee a " +
+            "WHERE a.userId = :userId AND t.status IN :statuses ORDER BY t.createdAt DESC",
+            countQuery = "SELECT COUNT(t) FROM Task t WHERE t.assignee.userId = :userId AND t.status IN :statuses")
+    Page<TaskInboxRow> findInboxRows(
             @Param("userId") UUID userId,
-            @Param("status") Task.TaskStatus status,
+            @Param("statuses") Collection<Task.TaskStatus> statuses,
             Pageable pageable);
 
     /**
@@ -50,10 +54,4 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
      */
     @Query("SELECT t FROM Task t WHERE t.taskId = :taskId")
     Optional<Task> findByTaskId(@Param("taskId") UUID taskId);
-
-    /**
-     * Count open tasks for a user.
-     */
-    @Query("SELECT COUNT(t) FROM Task t WHERE t.assignee.userId = :userId AND t.status IN ('OPEN', 'IN_PROGRESS')")
-    long countOpenTasksByAssigneeId(@Param("userId") UUID userId);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,6 +47,12 @@ public interface ValidationRuleRepository extends JpaRepository<ValidationRule,
     @Query("SELECT v FROM ValidationRule v WHERE v.entity.entityId = :entityId AND v.scope = 'WORKFLOW_TRANSITION' ORDER BY v.ruleName")
     List<ValidationRule> findWorkflowTransitionRules(@Param("entityId") String entityId);
 
+    /**
+     * Find validation rules of the given types across all entities.
+     */
+    @Query("SELECT v FROM ValidationRule v JOIN FETCH v.entity WHERE v.ruleType IN :ruleTypes")
+    List<ValidationRule> findByRuleTypes(@Param("ruleTypes") Collection<ValidationRule.RuleType> ruleTypes);
+
     /**
      * Find validation rule by ID.
      */
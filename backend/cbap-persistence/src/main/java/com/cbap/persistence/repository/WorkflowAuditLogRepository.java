@@ -1,8 +1,6 @@
 package com.cbap.persistence.repository;
 
 import com.cbap.persistence.entity.WorkflowAuditLog;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,25 +17,9 @@ public interface WorkflowAuditLogRepository extends JpaRepository<WorkflowAuditL
 
     /**
      * Find audit logs for a specific record.
+     * Unbounded in time: each partition answers from its (record_id, performed_at) index.
      */
-    @Query("SELECT a FROM WorkflowAuditLog a WHERE a.record.recordId = :recordId ORDER BY a.performedAt DESC")
+    @Query("SELECT a FROM WorkflowAuditLog a JOIN FETCH a.performedBy " +
+           "WHERE a.record.recordId = :recordId ORDER BY a.performedAt DESC")
     List<WorkflowAuditLog> findByRecordId(@Param("recordId") UUID recordId);
-
-    /**
-     * Find audit logs for a specific record with pagination.
-     */
-    @Query("SELECT a FROM WorkflowAuditLog a WHERE a.record.recordId = :recordId ORDER BY a.performedAt DESC")
-    Page<WorkflowAuditLog> findByRecordId(@Param("recordId") UUID recordId, Pageable pageable);
-
-    /**
-     * Find audit logs for an entity.
-     */
-    @Query("SELECT a FROM WorkflowAuditLog a WHERE a.entity.entityId = :entityId ORDER BY a.performedAt DESC")
-    Page<WorkflowAuditLog> findByEntityId(@Param("entityId") String entityId, Pageable pageable);
-
-    /**
-     * Find audit logs for a workflow.
-     */
-    @Query("SELECT a FROM WorkflowAuditLog a WHERE a.workflow.workflowId = :workflowId ORDER BY a.performedAt DESC")
-    Page<WorkflowAuditLog> findByWorkflowId(@Param("workflowId") String workflowId, Pageable pageable);
 }
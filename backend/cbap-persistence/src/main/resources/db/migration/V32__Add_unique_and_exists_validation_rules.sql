@@ -0,0 +1,26 @@
+-- CBAP OSS - Add UNIQUE and EXISTS Validation Rule Types
+-- Allows index-backed uniqueness and reference checks on entity record fields
+
+-- ============================================================================
+-- RULE TYPE CONSTRAINT
+-- ============================================================================
+ALTER TABLE cbap_metadata_validation_rules
+    DROP CONSTRAINT IF EXISTS cbap_metadata_validation_rules_rule_type_check;
+
+ALTER TABLE cbap_metadata_validation_rules
+    ADD CONSTRAINT cbap_metadata_validation_rules_rule_type_check
+    CHECK (rule_type IN ('REQUIRED', 'TYPE', 'RANGE', 'LENGTH', 'PATTERN', 'EXPRESSION', 'CUSTOM', 'UNIQUE', 'EXISTS'));
+
+CREATE INDEX IF NOT EXISTS idx_validation_rules_rule_type ON cbap_metadata_validation_rules(rule_type);
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- UNIQUE and EXISTS rules are FIELD rules. metadata_json:
+--   - For UNIQUE: {"scopeFields": ["customer"]} (optional; value must be unique per scope)
+--   - For EXISTS: {"targetEntityId": "Customer", "targetField": "customerNumber"}
+--     (targetField optional; without it the value must be a record ID of the target entity)
+-- Each rule is backed by a partial expression index on cbap_entity_records named
+-- idx_entity_records_rule_<hash>, created by the application when the rule is saved:
+--   (entity_id, (data_json->>'field'), ...) WHERE entity_id = '<entity>' AND deleted_at IS NULL
+-- ============================================================================
@@ -0,0 +1,24 @@
+-- CBAP OSS - Add Aggregate Measure Definition Type
+-- Allows entity-level aggregate measures that are compiled to SQL
+
+-- ============================================================================
+-- DEFINITION TYPE CONSTRAINT
+-- ============================================================================
+ALTER TABLE cbap_metadata_measures
+    DROP CONSTRAINT IF EXISTS cbap_metadata_measures_definition_type_check;
+
+ALTER TABLE cbap_metadata_measures
+    ADD CONSTRAINT cbap_metadata_measures_definition_type_check
+    CHECK (definition_type IN ('expression', 'aggregate'));
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- definition_type 'aggregate': expression is an entity-level aggregate, e.g.
+--   sum(Invoice.total where state == 'PAID' && customer == $customer) by region
+-- Functions: sum, count, avg, min, max. Conditions use ==, !=, <, <=, >, >=, &&, ||
+-- and parentheses; $name refers to a measure parameter; "state" is the record's
+-- workflow state unless the entity has a property with that name.
+-- Evaluated as one SQL aggregate over cbap_entity_records.data_json; equality
+-- predicates use JSONB containment (served by idx_entity_records_data_json).
+-- ============================================================================
@@ -0,0 +1,55 @@
+-- CBAP OSS - Create Measure Materializations
+-- Summary tables for aggregate measures that are maintained incrementally on record writes
+
+-- ============================================================================
+-- MATERIALIZED MEASURES: one row per materialized measure version
+-- ============================================================================
+CREATE TABLE cbap_materialized_measures (
+    measure_identifier VARCHAR(255) NOT NULL,
+    version INTEGER NOT NULL,
+    entity_id VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'BUILDING' CHECK (status IN ('BUILDING', 'READY')),
+    reconciled_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (measure_identifier, version)
+);
+
+CREATE INDEX idx_materialized_measures_entity_id ON cbap_materialized_measures(entity_id);
+
+-- ============================================================================
+-- MEASURE MATERIALIZATIONS: running sums and counts per measure and group
+-- ============================================================================
+CREATE TABLE cbap_measure_materializations (
+    measure_identifier VARCHAR(255) NOT NULL,
+    version INTEGER NOT NULL,
+    group_key TEXT NOT NULL,
+    group_values JSONB NOT NULL DEFAULT '[]'::jsonb,
+    value_sum NUMERIC NOT NULL DEFAULT 0,
+    value_count BIGINT NOT NULL DEFAULT 0,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (measure_identifier, version, group_key),
+    FOREIGN KEY (measure_identifier, version)
+        REFERENCES cbap_materialized_measures(measure_identifier, version) ON DELETE CASCADE
+);
+
+-- ============================================================================
+-- TRIGGER: Update updated_at
+-- ============================================================================
+CREATE TRIGGER update_materialized_measures_updated_at BEFORE UPDATE ON cbap_materialized_measures
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- A measure is materialized when its metadata_json has "materialized": true; only
+-- aggregate measures using sum, count or avg without parameters qualify.
+-- Record writes add their delta to the matching group row in the same transaction
+-- (value_sum/value_count/row_count += delta); avg is read as value_sum / value_count.
+-- Ungrouped measures have a single row. Rows whose row_count drops to 0 are deleted.
+-- Writers hold a shared advisory lock on the measure; reconciliation takes it
+-- exclusively, rebuilds the rows from cbap_entity_records and marks the measure
+-- READY. Until then (status BUILDING) reads fall back to the live SQL aggregate.
+-- updated_at on cbap_measure_materializations is set by the upsert, not a trigger.
+-- ============================================================================
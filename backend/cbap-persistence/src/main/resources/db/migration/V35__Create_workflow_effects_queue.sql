@@ -0,0 +1,43 @@
+-- CBAP OSS - Create Workflow Effects Queue
+-- Durable queue for side effects of workflow transitions, processed asynchronously
+
+-- ============================================================================
+-- WORKFLOW EFFECTS: one row per pending or processed side effect
+-- ============================================================================
+CREATE TABLE cbap_workflow_effects (
+    effect_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    effect_type VARCHAR(50) NOT NULL, -- e.g. CLOSE_TASKS, CREATE_TASKS, REINDEX_RECORDS
+    entity_id VARCHAR(255) NOT NULL,
+    record_id UUID,
+    transition_id UUID,
+    payload_json JSONB NOT NULL DEFAULT '{}'::jsonb,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'PROCESSING', 'DONE', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_at TIMESTAMP WITH TIME ZONE,
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Claim query: due PENDING rows in order
+CREATE INDEX idx_workflow_effects_pending ON cbap_workflow_effects(next_attempt_at) WHERE status = 'PENDING';
+-- Stale claim recovery
+CREATE INDEX idx_workflow_effects_processing ON cbap_workflow_effects(locked_at) WHERE status = 'PROCESSING';
+-- Retention cleanup and inspection of failed effects
+CREATE INDEX idx_workflow_effects_status_processed ON cbap_workflow_effects(status, processed_at);
+CREATE INDEX idx_workflow_effects_record ON cbap_workflow_effects(record_id);
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- Rows are inserted in the transaction that executes the transition, so an effect
+-- exists exactly when the state change committed. No foreign keys: a record or
+-- transition deleted before processing just makes its effect a no-op.
+-- Workers claim due rows with FOR UPDATE SKIP LOCKED (status PROCESSING, attempts + 1)
+-- and run each effect in its own transaction together with marking it DONE, so
+-- database effects apply exactly once. A failed attempt is rescheduled with
+-- exponential backoff until the attempt limit, then marked FAILED with last_error.
+-- PROCESSING rows whose worker died are returned to PENDING after a timeout.
+-- DONE rows are deleted after the retention period; FAILED rows are kept.
+-- ============================================================================
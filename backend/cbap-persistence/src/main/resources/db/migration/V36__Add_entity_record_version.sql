@@ -0,0 +1,19 @@
+-- CBAP OSS - Add Entity Record Version
+-- Row version for optimistic concurrency control on entity records
+
+-- ============================================================================
+-- RECORD VERSION
+-- ============================================================================
+ALTER TABLE cbap_entity_records
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- Every write to a record increments version: JPA updates through @Version,
+-- set-based updates (bulk transitions, calculated field recalculation) with
+-- version = version + 1. Updates compare and set on the version read, so a write
+-- based on a stale read affects no rows instead of overwriting a newer one.
+-- The API exposes the version as the record's ETag and honours If-Match on
+-- record updates and workflow transitions.
+-- ============================================================================
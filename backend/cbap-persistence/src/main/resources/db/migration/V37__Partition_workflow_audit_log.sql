@@ -0,0 +1,94 @@
+-- CBAP OSS - Partition Workflow Audit Log
+-- Range-partitions the workflow audit log by month of performed_at
+
+-- ============================================================================
+-- PARTITION HELPER: create the partition holding a month (UTC), if missing
+-- ============================================================================
+CREATE OR REPLACE FUNCTION cbap_create_workflow_audit_partition(p_month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', p_month)::date;
+    partition_name TEXT := 'cbap_workflow_audit_log_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE IF NOT EXISTS %I PARTITION OF cbap_workflow_audit_log FOR VALUES FROM (%L) TO (%L)',
+        partition_name,
+        month_start::timestamp AT TIME ZONE 'UTC',
+        (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ============================================================================
+-- WORKFLOW AUDIT LOG: partitioned table replacing the plain one
+-- ============================================================================
+ALTER TABLE cbap_workflow_audit_log RENAME TO cbap_workflow_audit_log_unpartitioned;
+ALTER TABLE cbap_workflow_audit_log_unpartitioned
+    RENAME CONSTRAINT cbap_workflow_audit_log_pkey TO cbap_workflow_audit_log_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_workflow_audit_entity_record;
+DROP INDEX IF EXISTS idx_workflow_audit_workflow;
+DROP INDEX IF EXISTS idx_workflow_audit_user;
+DROP INDEX IF EXISTS idx_workflow_audit_performed_at;
+DROP INDEX IF EXISTS idx_workflow_audit_metadata_json;
+
+CREATE TABLE cbap_workflow_audit_log (
+    audit_id UUID NOT NULL DEFAULT uuid_generate_v4(),
+    entity_id VARCHAR(255) NOT NULL,
+    record_id UUID NOT NULL,
+    workflow_id VARCHAR(255) NOT NULL,
+    from_state VARCHAR(100),
+    to_state VARCHAR(100) NOT NULL,
+    transition_id UUID,
+    transition_label VARCHAR(255),
+    performed_by UUID NOT NULL,
+    performed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    comments TEXT,
+    metadata_json JSONB,
+    PRIMARY KEY (audit_id, performed_at),
+    CONSTRAINT fk_workflow_audit_entity FOREIGN KEY (entity_id) REFERENCES cbap_metadata_entities(entity_id) ON DELETE CASCADE,
+    CONSTRAINT fk_workflow_audit_record FOREIGN KEY (record_id) REFERENCES cbap_entity_records(record_id) ON DELETE CASCADE,
+    CONSTRAINT fk_workflow_audit_workflow FOREIGN KEY (workflow_id) REFERENCES cbap_metadata_workflows(workflow_id) ON DELETE CASCADE,
+    CONSTRAINT fk_workflow_audit_user FOREIGN KEY (performed_by) REFERENCES cbap_users(user_id) ON DELETE CASCADE
+) PARTITION BY RANGE (performed_at);
+
+-- Partitions for all existing entries, the current month and three months ahead
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    month_start := date_trunc('month', COALESCE(
+        (SELECT MIN(performed_at) AT TIME ZONE 'UTC' FROM cbap_workflow_audit_log_unpartitioned),
+        CURRENT_TIMESTAMP AT TIME ZONE 'UTC'))::date;
+    WHILE month_start <= (date_trunc('month', CURRENT_TIMESTAMP AT TIME ZONE 'UTC') + INTERVAL '3 months')::date LOOP
+        PERFORM cbap_create_workflow_audit_partition(month_start);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO cbap_workflow_audit_log
+SELECT audit_id, entity_id, record_id, workflow_id, from_state, to_state, transition_id, transition_label,
+       performed_by, performed_at, comments, metadata_json
+FROM cbap_workflow_audit_log_unpartitioned;
+
+DROP TABLE cbap_workflow_audit_log_unpartitioned;
+
+-- Indexes are created on every partition; history queries read newest first
+CREATE INDEX idx_workflow_audit_record ON cbap_workflow_audit_log(record_id, performed_at DESC);
+CREATE INDEX idx_workflow_audit_entity ON cbap_workflow_audit_log(entity_id, performed_at DESC);
+CREATE INDEX idx_workflow_audit_workflow ON cbap_workflow_audit_log(workflow_id, performed_at DESC);
+CREATE INDEX idx_workflow_audit_user ON cbap_workflow_audit_log(performed_by);
+CREATE INDEX idx_workflow_audit_metadata_json ON cbap_workflow_audit_log USING GIN (metadata_json);
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- Partitions are named cbap_workflow_audit_log_YYYY_MM and cover one UTC month.
+-- The application creates upcoming partitions ahead of time (there is no default
+-- partition, so an insert beyond the last partition fails) and detaches partitions
+-- older than the retention period. Detached partitions stay as plain tables for
+-- archiving and can be dropped or re-attached by an operator.
+-- The primary key includes performed_at, as PostgreSQL requires for unique
+-- constraints on partitioned tables; audit_id alone is still generated unique.
+-- Queries that bound performed_at only scan the partitions of that range.
+-- ============================================================================
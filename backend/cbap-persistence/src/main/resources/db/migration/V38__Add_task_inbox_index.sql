@@ -0,0 +1,18 @@
+-- CBAP OSS - Add Task Inbox Index
+-- Index matching the task inbox query (assignee, status, newest first)
+
+-- ============================================================================
+-- TASK INBOX
+-- ============================================================================
+CREATE INDEX idx_tasks_assignee_status_created ON cbap_tasks(assignee_id, status, created_at DESC);
+
+-- The composite index covers every lookup idx_tasks_assignee served
+DROP INDEX IF EXISTS idx_tasks_assignee;
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- An inbox page filtered by status is read in index order and stops after the
+-- page size, instead of sorting all of the assignee's tasks. The count query
+-- of the page uses the same index.
+-- ============================================================================
@@ -0,0 +1,82 @@
+-- CBAP OSS - Create Task Counters
+-- Per-assignee, per-status task counts maintained by triggers on cbap_tasks
+
+-- ============================================================================
+-- TASK COUNTERS
+-- ============================================================================
+CREATE TABLE cbap_task_counters (
+    assignee_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    task_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (assignee_id, status)
+);
+
+-- ============================================================================
+-- COUNTER MAINTENANCE: apply the net change of each statement on cbap_tasks
+-- ============================================================================
+CREATE OR REPLACE FUNCTION cbap_apply_task_counter_deltas()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO cbap_task_counters (assignee_id, status, task_count)
+        SELECT assignee_id, status, COUNT(*) FROM new_rows
+        GROUP BY assignee_id, status
+        ORDER BY assignee_id, status
+        ON CONFLICT (assignee_id, status)
+            DO UPDATE SET task_count = cbap_task_counters.task_count + EXCLUDED.task_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO cbap_task_counters (assignee_id, status, task_count)
+        SELECT assignee_id, status, -COUNT(*) FROM old_rows
+        GROUP BY assignee_id, status
+        ORDER BY assignee_id, status
+        ON CONFLICT (assignee_id, status)
+            DO UPDATE SET task_count = cbap_task_counters.task_count + EXCLUDED.task_count;
+    ELSE
+        INSERT INTO cbap_task_counters (assignee_id, status, task_count)
+        SELECT assignee_id, status, SUM(delta) FROM (
+            SELECT assignee_id, status, -1 AS delta FROM old_rows
+            UNION ALL
+            SELECT assignee_id, status, 1 AS delta FROM new_rows
+        ) changes
+        GROUP BY assignee_id, status
+        HAVING SUM(delta) <> 0
+        ORDER BY assignee_id, status
+        ON CONFLICT (assignee_id, status)
+            DO UPDATE SET task_count = cbap_task_counters.task_count + EXCLUDED.task_count;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_counters_insert AFTER INSERT ON cbap_tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION cbap_apply_task_counter_deltas();
+
+CREATE TRIGGER task_counters_update AFTER UPDATE ON cbap_tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION cbap_apply_task_counter_deltas();
+
+CREATE TRIGGER task_counters_delete AFTER DELETE ON cbap_tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION cbap_apply_task_counter_deltas();
+
+-- Initial counts
+INSERT INTO cbap_task_counters (assignee_id, status, task_count)
+SELECT assignee_id, status, COUNT(*) FROM cbap_tasks
+GROUP BY assignee_id, status;
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- Every statement on cbap_tasks (JPA saves, set-based updates, inserts of
+-- workflow side effects, cascaded deletes) adds its net change per assignee and
+-- status in the writer's transaction, so counts commit or roll back with the
+-- tasks. Updates that change neither assignee nor status write nothing.
+-- Rows are upserted in key order so concurrent writers lock them in the same order.
+-- A periodic reconciliation recomputes the counts from cbap_tasks and corrects
+-- any drift; it takes a SHARE ROW EXCLUSIVE lock on this table, which makes task
+-- writes wait for its duration.
+-- Rows with a count of 0 may remain until the next reconciliation, which also
+-- removes them. There is no foreign key to cbap_users: deleting a user cascades
+-- to the user's tasks, whose delete trigger then zeroes the user's counters.
+-- ============================================================================
@@ -0,0 +1,23 @@
+-- CBAP OSS - Add Task Escalation
+-- Escalation progress of tasks past their due date
+
+-- ============================================================================
+-- TASK ESCALATION
+-- ============================================================================
+ALTER TABLE cbap_tasks
+    ADD COLUMN escalation_level INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN escalated_at TIMESTAMP WITH TIME ZONE;
+
+-- Open tasks with a due date, by escalation level and due date
+CREATE INDEX idx_tasks_escalation_due ON cbap_tasks(escalation_level, due_date)
+    WHERE status IN ('OPEN', 'IN_PROGRESS') AND due_date IS NOT NULL;
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- escalation_level is the number of escalation steps applied to the task. The
+-- escalation scheduler looks for tasks at level n - 1 whose due date is older
+-- than step n's delay; with the partial index this reads only the tasks that are
+-- due for a step, however many closed or fully escalated tasks the table holds.
+-- Changing a task's due date resets its escalation.
+-- ============================================================================
@@ -0,0 +1,35 @@
+-- CBAP OSS - Create Task Audit Log
+-- Audit trail of bulk task operations (reassign, complete, decide)
+
+-- ============================================================================
+-- TASK AUDIT LOG
+-- ============================================================================
+CREATE TABLE cbap_task_audit_log (
+    audit_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    task_id UUID NOT NULL,
+    action VARCHAR(20) NOT NULL CHECK (action IN ('REASSIGN', 'COMPLETE', 'DECIDE')),
+    from_status VARCHAR(20),
+    to_status VARCHAR(20) NOT NULL,
+    from_assignee_id UUID,
+    to_assignee_id UUID,
+    decision VARCHAR(20),
+    comments TEXT,
+    performed_by UUID,
+    performed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    bulk_operation_id UUID,
+    CONSTRAINT fk_task_audit_task FOREIGN KEY (task_id) REFERENCES cbap_tasks(task_id) ON DELETE CASCADE,
+    CONSTRAINT fk_task_audit_user FOREIGN KEY (performed_by) REFERENCES cbap_users(user_id) ON DELETE SET NULL
+);
+
+CREATE INDEX idx_task_audit_task ON cbap_task_audit_log(task_id, performed_at);
+CREATE INDEX idx_task_audit_bulk_operation ON cbap_task_audit_log(bulk_operation_id)
+    WHERE bulk_operation_id IS NOT NULL;
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- Rows are batch-inserted by the bulk task operations, one per changed task, in
+-- the same transaction as the set-based UPDATE of the chunk; bulk_operation_id
+-- ties together the rows of one request. from_assignee_id / to_assignee_id are
+-- plain UUIDs without foreign keys so the trail survives the removal of a user.
+-- ============================================================================
@@ -0,0 +1,19 @@
+-- CBAP OSS - Add Task Version
+-- Row version for optimistic concurrency control on tasks
+
+-- ============================================================================
+-- TASK VERSION
+-- ============================================================================
+ALTER TABLE cbap_tasks
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- ============================================================================
+-- NOTES
+-- ============================================================================
+-- JPA writes a task's full row, so without a version a save based on an older
+-- read would silently revert a concurrent set-based update (escalation, bulk
+-- reassign/complete/decide, task closure). Those updates now set
+-- version = version + 1, and a JPA save of a stale task fails instead.
+-- escalation_level / escalated_at are not written by JPA, so resetting them does
+-- not change the version.
+-- ============================================================================
@@ -39,38 +39,7 @@ public class SearchIndexingService {
      */
     public void indexRecord(EntityDefinition entity, EntityRecord record) {
         try {
-            // Ensure index exists
-            if (!indexService.indexExists(entity.getEntityId())) {
-                indexService.createIndex(entity.getEntityId());
-            }
-
-            // Extract denormalized fields
-            Map<String, Object> recordData = record.getDataJson() != null 
-                    ? record.getDataJson() 
-                    : Map.of();
-            
-            Map<String, Object> indexedFields = denormalizationService.extractDenormalizedFields(entity, recordData);
-
-            // Add record metadata
-            indexedFields.put("recordId", record.getRecordId().toString());
-            indexedFields.put("schemaVersion", record.getSchemaVersion());
-            indexedFields.put("state", record.getState());
-            indexedFields.put("createdAt", record.getCreatedAt() != null ? record.getCreatedAt().toString() : null);
-            indexedFields.put("updatedAt", record.getUpdatedAt() != null ? record.getUpdatedAt().toString() : null);
-            indexedFields.put("deleted", record.getDeletedAt() != null);
-
-            // Index the document
-            String indexName = indexService.getIndexName(entity.getEntityId());
-            IndexRequest<Map<String, Object>> request = new IndexRequest.Builder<Map<String, Object>>()
-                    .index(indexName)
-                    .id(record.getRecordId().toString())
-                    .document(indexedFields)
-                    .build();
-
-            openSearchClient.index(request);
-            logger.info("Indexed record: entityId={}, recordId={}, indexedFields={}", 
-                    entity.getEntityId(), record.getRecordId(), indexedFields.keySet());
-
+            indexRecordOrThrow(entity, record);
         } catch (IOException e) {
             logger.error("Error indexing record: entityId={}, recordId={}", 
                     entity.getEntityId(), record.getRecordId(), e);
@@ -78,6 +47,43 @@ public class SearchIndexingService {
         }
     }
 
+    /**
+     * Index an entity record, reporting failures to the caller (for callers that retry).
+     */
+    public void indexRecordOrThrow(EntityDefinition entity, EntityRecord record) throws IOException {
+        // Ensure index exists
+        if (!indexService.indexExists(entity.getEntityId())) {
+            indexService.createIndex(entity.getEntityId());
+        }
+
+        // Extract denormalized fields
+        Map<String, Object> recordData = record.getDataJson() != null 
+                ? record.getDataJson() 
+                : Map.of();
+        
+        Map<String, Object> indexedFields = denormalizationService.extractDenormalizedFields(entity, recordData);
+
+        // Add record metadata
+        indexedFields.put("recordId", record.getRecordId().toString());
+        indexedFields.put("schemaVersion", record.getSchemaVersion());
+        indexedFields.put("state", record.getState());
+        indexedFields.put("createdAt", record.getCreatedAt() != null ? record.getCreatedAt().toString() : null);
+        indexedFields.put("updatedAt", record.getUpdatedAt() != null ? record.getUpdatedAt().toString() : null);
+        indexedFields.put("deleted", record.getDeletedAt() != null);
+
+        // Index the document
+        String indexName = indexService.getIndexName(entity.getEntityId());
+        IndexRequest<Map<String, Object>> request = new IndexRequest.Builder<Map<String, Object>>()
+                .index(indexName)
+                .id(record.getRecordId().toString())
+                .document(indexedFields)
+                .build();
+
+        openSearchClient.index(request);
+        logger.info("Indexed record: entityId={}, recordId={}, indexedFields={}", 
+                entity.getEntityId(), record.getRecordId(), indexedFields.keySet());
+    }
+
     /**
      * Remove a record from the index (for soft deletes).
      */
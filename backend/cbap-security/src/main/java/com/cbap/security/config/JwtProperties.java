@@ -13,6 +13,8 @@ public class JwtProperties {
     private String secret = "cbap-oss-secret-key-change-in-production-min-256-bits";
     private long expirationMs = 86400000L; // 24 hours
     private long refreshExpirationMs = 604800000L; // 7 days
+    private long principalCacheTtlSeconds = 30;
+    private int principalCacheMaxEntries = 10000;
 
     public String getSecret() {
         return secret;
@@ -37,4 +39,20 @@ public class JwtProperties {
     public void setRefreshExpirationMs(long refreshExpirationMs) {
         this.refreshExpirationMs = refreshExpirationMs;
     }
+
+    public long getPrincipalCacheTtlSeconds() {
+        return principalCacheTtlSeconds;
+    }
+
+    public void setPrincipalCacheTtlSeconds(long principalCacheTtlSeconds) {
+        this.principalCacheTtlSeconds = principalCacheTtlSeconds;
+    }
+
+    public int getPrincipalCacheMaxEntries() {
+        return principalCacheMaxEntries;
+    }
+
+    public void setPrincipalCacheMaxEntries(int principalCacheMaxEntries) {
+        this.principalCacheMaxEntries = principalCacheMaxEntries;
+    }
 }
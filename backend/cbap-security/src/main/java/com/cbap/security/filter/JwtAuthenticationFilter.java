@@ -2,6 +2,8 @@ package com.cbap.security.filter;
 
 import com.cbap.security.service.CbapUserDetailsService;
 import com.cbap.security.service.JwtService;
+import com.cbap.security.service.PrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,16 +20,25 @@ import java.io.IOException;
 
 /**
  * JWT authentication filter that processes JWT tokens in the Authorization header.
+ *
+ * A token is verified and parsed once; the principal loaded for it is kept in the
+ * {@link PrincipalCache}, so repeated requests with the same token skip both the
+ * signature check and the user lookup.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CbapUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtService jwtService, CbapUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            CbapUserDetailsService userDetailsService,
+            PrincipalCache principalCache) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -52,12 +63,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String username = jwtService.extractUsername(jwt);
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = principalCache.get(jwt);
 
-                if (jwtService.validateToken(jwt, userDetails)) {
+                if (userDetails == null) {
+                    long generation = principalCache.generation();
+                    // Verifies signature and expiration; throws if either is invalid
+                    Claims claims = jwtService.parseClaims(jwt);
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+
+                    if (userDetails.isEnabled() && userDetails.isAccountNonLocked()) {
+                        principalCache.put(jwt, userDetails, claims.getExpiration(), generation);
+                    } else {
+                        // Locked or inactive account - continue unauthenticated (401 from SecurityConfig)
+                        logger.warn("JWT token of locked or inactive user: " + userDetails.getUsername());
+                        userDetails = null;
+                    }
+                }
+
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -65,9 +90,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                } else {
-                    // Token is invalid - log and continue (will result in 401 from SecurityConfig)
-                    logger.warn("Invalid JWT token for user: " + username);
                 }
             }
         } catch (Exception e) {
@@ -26,18 +26,21 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     private final RateLimitProperties rateLimitProperties;
+    private final PrincipalCache principalCache;
 
     public AuthenticationService(
             UserRepository userRepository,
             PasswordHashingService passwordHashingService,
             JwtService jwtService,
             UserDetailsService userDetailsService,
-            RateLimitProperties rateLimitProperties) {
+            RateLimitProperties rateLimitProperties,
+            PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.rateLimitProperties = rateLimitProperties;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -160,6 +163,7 @@ public class AuthenticationService {
             user.setLockedUntil(OffsetDateTime.now().plusMinutes(
                     rateLimitProperties.getLogin().getLockoutDurationMinutes()));
             user.setStatus(User.UserStatus.LOCKED);
+            principalCache.invalidateUser(user.getUsername());
         }
 
         userRepository.save(user);
@@ -55,6 +55,15 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verify a token and return its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, its signature is invalid or it has expired
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     /**
      * Extract all claims from token.
      */
@@ -127,8 +136,8 @@ public class JwtService {
      * Validate token.
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
     }
 
     /**
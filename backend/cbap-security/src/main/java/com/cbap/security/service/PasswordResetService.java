@@ -26,14 +26,17 @@ public class PasswordResetService {
     private final PasswordResetTokenRepository tokenRepository;
     private final UserRepository userRepository;
     private final PasswordHashingService passwordHashingService;
+    private final PrincipalCache principalCache;
 
     public PasswordResetService(
             PasswordResetTokenRepository tokenRepository,
             UserRepository userRepository,
-            PasswordHashingService passwordHashingService) {
+            PasswordHashingService passwordHashingService,
+            PrincipalCache principalCache) {
         this.tokenRepository = tokenRepository;
         this.userRepository = userRepository;
         this.passwordHashingService = passwordHashingService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -127,6 +130,7 @@ public class PasswordResetService {
         }
 
         userRepository.save(user);
+        principalCache.invalidateUser(user.getUsername());
 
         return userId;
     }
@@ -0,0 +1,133 @@
+package com.cbap.security.service;
+
+import com.cbap.security.config.JwtProperties;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of the principals of verified access tokens.
+ *
+ * Entries are keyed by the SHA-256 of the token, so tokens are not kept in memory, and
+ * expire after cbap.security.jwt.principal-cache-ttl-seconds or when the token expires,
+ * whichever comes first. A cache hit authenticates a request without verifying the
+ * token signature or loading the user.
+ *
+ * User changes that affect authentication (lock, status, roles, password) invalidate the
+ * user's entries, immediately and again when the changing transaction completes. A load
+ * that started before an invalidation is not cached, so a request racing the change
+ * cannot put the old principal back.
+ */
+@Service
+public class PrincipalCache {
+
+    private final JwtProperties jwtProperties;
+
+    private final Map<String, CachedPrincipal> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public PrincipalCache(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+    }
+
+    /**
+     * The cached principal of a token, or null.
+     */
+    public UserDetails get(String token) {
+        String key = hash(token);
+        CachedPrincipal cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAtNanos() - System.nanoTime() <= 0) {
+            cache.remove(key, cached);
+            return null;
+        }
+        return cached.userDetails();
+    }
+
+    /**
+     * Current generation; read it before loading a principal and pass it to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache the principal of a verified token, unless the cache was invalidated since the
+     * given generation.
+     */
+    public void put(String token, UserDetails userDetails, Date tokenExpiration, long loadedGeneration) {
+        long ttlNanos = jwtProperties.getPrincipalCacheTtlSeconds() * 1_000_000_000L;
+        if (ttlNanos <= 0) {
+            return;
+        }
+        if (tokenExpiration != null) {
+            ttlNanos = Math.min(ttlNanos, (tokenExpiration.getTime() - System.currentTimeMillis()) * 1_000_000L);
+            if (ttlNanos <= 0) {
+                return;
+            }
+        }
+        if (cache.size() >= jwtProperties.getPrincipalCacheMaxEntries()) {
+            long now = System.nanoTime();
+            cache.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+            if (cache.size() >= jwtProperties.getPrincipalCacheMaxEntries()) {
+                return;
+            }
+        }
+        if (generation.get() != loadedGeneration) {
+            return;
+        }
+        cache.put(hash(token), new CachedPrincipal(userDetails, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Drop the cached principals of a user, now and after the current transaction completes.
+     */
+    public void invalidateUser(String username) {
+        invalidate(() -> cache.values().removeIf(entry -> entry.userDetails().getUsername().equals(username)));
+    }
+
+    /**
+     * Drop all cached principals, e.g. after a role was removed.
+     */
+    public void invalidateAll() {
+        invalidate(cache::clear);
+    }
+
+    private void invalidate(Runnable eviction) {
+        generation.incrementAndGet();
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, long expiresAtNanos) {
+    }
+}
@@ -25,14 +25,17 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordHashingService passwordHashingService;
+    private final PrincipalCache principalCache;
 
     public UserService(
             UserRepository userRepository,
             RoleRepository roleRepository,
-            PasswordHashingService passwordHashingService) {
+            PasswordHashingService passwordHashingService,
+            PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordHashingService = passwordHashingService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -119,6 +122,7 @@ public class UserService {
             user.setStatus(User.UserStatus.ACTIVE);
         }
         userRepository.save(user);
+        principalCache.invalidateUser(user.getUsername());
     }
 
     /**
@@ -211,6 +215,11 @@ public class UserService {
             user.setRoles(roles);
         }
 
+        // Status and roles are part of the cached principal
+        if (status != null || roleNames != null) {
+            principalCache.invalidateUser(user.getUsername());
+        }
+
         return userRepository.save(user);
     }
 
@@ -227,5 +236,6 @@ public class UserService {
             throw new IllegalArgumentException("Cannot delete the admin user");
         }
         userRepository.delete(user);
+        principalCache.invalidateUser(user.getUsername());
     }
 }